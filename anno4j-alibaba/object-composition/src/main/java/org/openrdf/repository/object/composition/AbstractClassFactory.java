@@ -116,11 +116,19 @@ public class AbstractClassFactory implements BehaviourProvider {
 
 	private final Class<?> findBehaviour(Class<?> concept) throws Exception {
 		String className = getJavaClassName(concept);
-		synchronized (cp) {
-			try {
-				return cp.classForName(className);
-			} catch (ClassNotFoundException e2) {
-				return implement(className, concept);
+		try {
+			return cp.classForName(className);
+		} catch (ClassNotFoundException e1) {
+			synchronized (cp.getCompositionLock(className)) {
+				try {
+					return cp.classForName(className);
+				} catch (ClassNotFoundException e2) {
+					String key = getCacheKey(className, concept);
+					Class<?> cached = cp.loadCachedClass(className, key);
+					if (cached != null)
+						return cached;
+					return implement(className, concept, key);
+				}
 			}
 		}
 	}
@@ -147,11 +155,18 @@ public class AbstractClassFactory implements BehaviourProvider {
 		return CLASS_PREFIX + concept.getName() + suffix;
 	}
 
-	private Class<?> implement(String className, Class<?> concept)
+	private String getCacheKey(String className, Class<?> concept) {
+		if (cp.getClassCache() == null)
+			return null;
+		return ClassFactory.createKey(Arrays.asList(className,
+				cp.getVersion(getClass()), cp.getVersion(concept)));
+	}
+
+	private Class<?> implement(String className, Class<?> concept, String key)
 			throws Exception {
 		ClassTemplate cc = createBehaviourTemplate(className, concept);
 		enhance(cc, concept);
-		return cp.createClass(cc);
+		return cp.createClass(cc, key);
 	}
 
 	private void addNewConstructor(ClassTemplate cc, Class<?> concept) {
@@ -28,19 +28,29 @@
  */
 package org.openrdf.repository.object.composition;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
 import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
 
 import javassist.CannotCompileException;
 import javassist.ClassPool;
@@ -50,6 +60,8 @@ import javassist.NotFoundException;
 import javassist.bytecode.Descriptor;
 
 import org.openrdf.repository.object.exceptions.ObjectCompositionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Factory class for creating Class and ClassTemplates.
@@ -58,6 +70,10 @@ import org.openrdf.repository.object.exceptions.ObjectCompositionException;
  *
  */
 public class ClassFactory extends ClassLoader {
+	static {
+		// lookups of different classes do not lock the whole class loader
+		registerAsParallelCapable();
+	}
 
 	public static Class<?> classForName(String name, ClassLoader cl)
 			throws ClassNotFoundException {
@@ -68,9 +84,14 @@ public class ClassFactory extends ClassLoader {
 		}
 	}
 
-	private Reference<ClassPool> cp;
+	private final Logger logger = LoggerFactory.getLogger(ClassFactory.class);
+	/** Javassist's ClassPool is not thread-safe, so each thread has its own */
+	private final ThreadLocal<Reference<ClassPool>> pools = new ThreadLocal<Reference<ClassPool>>();
 	private File output;
+	private final File cache;
+	private final Map<Class<?>, String> versions = new WeakHashMap<Class<?>, String>();
 	private List<ClassLoader> alternatives = new ArrayList<ClassLoader>();
+	private final ConcurrentMap<String, Object> compositionLocks = new ConcurrentHashMap<String, Object>();
 
 	/**
 	 * Creates a new Class Factory using the current context class loader.
@@ -85,21 +106,83 @@ public class ClassFactory extends ClassLoader {
 	 * @param parent
 	 */
 	public ClassFactory(File dir, ClassLoader parent) {
+		this(dir, null, parent);
+	}
+
+	/**
+	 * Create a given Class Factory that keeps the bytecode of composed classes
+	 * in the given cache directory, so they can be loaded again after a
+	 * restart.
+	 * 
+	 * @param cache
+	 *            directory shared between restarts or null
+	 */
+	public ClassFactory(File dir, File cache, ClassLoader parent) {
 		super(parent);
 		this.output = dir;
+		this.cache = cache;
 		dir.mkdirs();
 	}
 
-	public synchronized Class<?> classForName(String name)
-			throws ClassNotFoundException {
+	/**
+	 * Creates the key of a class in the class cache.
+	 * 
+	 * @param parts
+	 *            everything the bytecode of the class depends on
+	 * @return hex encoded hash of the parts
+	 */
+	public static String createKey(Collection<String> parts) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			for (String part : parts) {
+				digest.update(part.getBytes("UTF-8"));
+				digest.update((byte) 0);
+			}
+			StringBuilder sb = new StringBuilder();
+			for (byte b : digest.digest()) {
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+				sb.append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new AssertionError(e);
+		} catch (UnsupportedEncodingException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * The directory to cache composed classes across restarts or null.
+	 */
+	public File getClassCache() {
+		return cache;
+	}
+
+	public Class<?> classForName(String name) throws ClassNotFoundException {
 		return Class.forName(name, true, this);
 	}
 
-	public synchronized Object newInstance(String name) throws ClassNotFoundException,
+	public Object newInstance(String name) throws ClassNotFoundException,
 			InstantiationException, IllegalAccessException {
 		return classForName(name).newInstance();
 	}
 
+	/**
+	 * The lock to hold while a class of the given name is composed, so that
+	 * classes of different names can be composed in parallel. Templates are
+	 * created and compiled in a class pool of the composing thread, so no
+	 * other lock is needed.
+	 */
+	public Object getCompositionLock(String className) {
+		Object lock = compositionLocks.get(className);
+		if (lock == null) {
+			Object o = compositionLocks.putIfAbsent(className, lock = new Object());
+			if (o != null)
+				return o;
+		}
+		return lock;
+	}
+
 	/**
 	 * Create the new Java Class from this template.
 	 * 
@@ -122,6 +205,80 @@ public class ClassFactory extends ClassLoader {
 		}
 	}
 
+	/**
+	 * Create the new Java Class from this template and put its bytecode into
+	 * the class cache.
+	 * 
+	 * @param key
+	 *            of the class in the cache or null
+	 */
+	public Class<?> createClass(ClassTemplate template, String key)
+			throws ObjectCompositionException {
+		Class<?> created = createClass(template);
+		if (cache != null && key != null) {
+			String resource = created.getName().replace('.', '/') + ".class";
+			File file = new File(output, resource);
+			try {
+				storeInCache(new File(new File(cache, key), resource), readBytes(file));
+			} catch (IOException e) {
+				logger.warn("Could not cache {}: {}", created.getName(), e.toString());
+			}
+		}
+		return created;
+	}
+
+	/**
+	 * Defines a class from the bytecode stored in the class cache by
+	 * {@link #createClass(ClassTemplate, String)}.
+	 * 
+	 * @return the class or null if it is not cached with the given key
+	 */
+	public Class<?> loadCachedClass(String name, String key) {
+		if (cache == null || key == null)
+			return null;
+		String resource = name.replace('.', '/') + ".class";
+		File file = new File(new File(cache, key), resource);
+		if (!file.isFile())
+			return null;
+		try {
+			byte[] bytecode = readBytes(file);
+			logger.debug("Loading {} from class cache", name);
+			return defineClass(name, bytecode);
+		} catch (IOException e) {
+			logger.warn("Could not read cached {}: {}", name, e.toString());
+			return null;
+		}
+	}
+
+	/**
+	 * Identifies the bytecode of the given type and all its super types, so
+	 * classes composed from it can be cached across restarts.
+	 * 
+	 * @return a checksum of the class files
+	 */
+	public String getVersion(Class<?> type) {
+		synchronized (versions) {
+			String version = versions.get(type);
+			if (version != null)
+				return version;
+		}
+		CRC32 crc = new CRC32();
+		List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+		addHierarchy(type, hierarchy);
+		for (Class<?> c : hierarchy) {
+			crc.update(c.getName().getBytes());
+			byte[] bytecode = readClassFile(c);
+			if (bytecode != null) {
+				crc.update(bytecode);
+			}
+		}
+		String version = Long.toHexString(crc.getValue());
+		synchronized (versions) {
+			versions.put(type, version);
+		}
+		return version;
+	}
+
 	/**
 	 * Create a new Class template, which can later be used to create a Java
 	 * class.
@@ -283,12 +440,18 @@ public class ClassFactory extends ClassLoader {
 				+ type.getName());
 	}
 
-	private synchronized ClassPool getClassPool() {
-		ClassPool pool = cp == null ? null : cp.get();
+	/**
+	 * The class pool of the current thread. Classes defined by this factory
+	 * are found through its resources, so every pool sees the classes composed
+	 * by other threads.
+	 */
+	private ClassPool getClassPool() {
+		Reference<ClassPool> ref = pools.get();
+		ClassPool pool = ref == null ? null : ref.get();
 		if (pool == null) {
 			pool = new ClassPool();
 			pool.appendClassPath(new LoaderClassPath(this));
-			cp = new SoftReference<ClassPool>(pool);
+			pools.set(new SoftReference<ClassPool>(pool));
 		}
 		return pool;
 	}
@@ -299,6 +462,74 @@ public class ClassFactory extends ClassLoader {
 		return defineClass(name, bytecode, 0, bytecode.length);
 	}
 
+	private void addHierarchy(Class<?> type, List<Class<?>> hierarchy) {
+		if (type == null || type.isPrimitive() || hierarchy.contains(type)
+				|| type.getName().startsWith("java."))
+			return;
+		hierarchy.add(type);
+		addHierarchy(type.getSuperclass(), hierarchy);
+		for (Class<?> face : type.getInterfaces()) {
+			addHierarchy(face, hierarchy);
+		}
+	}
+
+	private byte[] readClassFile(Class<?> type) {
+		String resource = type.getName().replace('.', '/') + ".class";
+		ClassLoader cl = type.getClassLoader();
+		InputStream in = cl == null ? ClassLoader
+				.getSystemResourceAsStream(resource) : cl
+				.getResourceAsStream(resource);
+		if (in == null)
+			return null;
+		try {
+			try {
+				return readBytes(in);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private byte[] readBytes(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return readBytes(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	private byte[] readBytes(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[4096];
+		int read;
+		while ((read = in.read(buf)) >= 0) {
+			out.write(buf, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Writes to a temporary file first, as other processes may read the
+	 * cache at the same time.
+	 */
+	private void storeInCache(File file, byte[] bytecode) throws IOException {
+		File dir = file.getParentFile();
+		dir.mkdirs();
+		File tmp = File.createTempFile("class", ".tmp", dir);
+		FileOutputStream out = new FileOutputStream(tmp);
+		try {
+			out.write(bytecode);
+		} finally {
+			out.close();
+		}
+		if (!tmp.renameTo(file)) {
+			tmp.delete();
+		}
+	}
+
 	private void saveResource(String fileName, byte[] bytecode) {
 		try {
 			File file = new File(output, fileName);
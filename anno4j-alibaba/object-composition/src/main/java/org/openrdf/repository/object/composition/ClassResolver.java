@@ -56,6 +56,11 @@ import static java.lang.reflect.Modifier.isAbstract;
  *
  */
 public class ClassResolver {
+	/**
+	 * System property with the directory to cache composed classes in across
+	 * restarts, if none is given to the constructor.
+	 */
+	public static final String CLASS_CACHE_PROPERTY = "org.openrdf.repository.object.classCache";
 	private static final Set<URI> EMPTY_SET = Collections.emptySet();
 	private static final String PKG_PREFIX = "object.proxies._";
 	private static final String CLASS_PREFIX = "_EntityProxy";
@@ -77,6 +82,8 @@ public class ClassResolver {
 	private final RoleMapper mapper;
 	private final Class<?> blank;
 	private final ConcurrentMap<Set<URI>, Class<?>> multiples = new ConcurrentHashMap<Set<URI>, Class<?>>();
+	private final ConcurrentMap<String, Class<?>> composed = new ConcurrentHashMap<String, Class<?>>();
+	private final ConcurrentMap<Class<?>, Set<URI>> types = new ConcurrentHashMap<Class<?>, Set<URI>>();
 	private final BehaviourProviderService behaviourService;
 
 	public ClassResolver() throws ObjectStoreConfigException {
@@ -89,17 +96,33 @@ public class ClassResolver {
 
 	public ClassResolver(RoleMapper mapper, ClassLoader cl)
 			throws ObjectStoreConfigException {
-		this(mapper, new PropertyMapper(cl, mapper.isNamedTypePresent()), cl);
+		this(mapper, cl, getDefaultClassCache());
+	}
+
+	/**
+	 * @param classCache
+	 *            directory to keep composed classes in across restarts or
+	 *            null
+	 */
+	public ClassResolver(RoleMapper mapper, ClassLoader cl, File classCache)
+			throws ObjectStoreConfigException {
+		this(mapper, new PropertyMapper(cl, mapper.isNamedTypePresent()), cl,
+				classCache);
 	}
 
 	public ClassResolver(RoleMapper mapper, PropertyMapper properties,
 			ClassLoader cl) throws ObjectStoreConfigException {
+		this(mapper, properties, cl, getDefaultClassCache());
+	}
+
+	public ClassResolver(RoleMapper mapper, PropertyMapper properties,
+			ClassLoader cl, File classCache) throws ObjectStoreConfigException {
 		this.mapper = mapper;
 		this.properties = properties;
 		try {
 			File dir = DirUtil.createTempDir("classes");
 			DirUtil.deleteOnExit(dir);
-			this.cp = new ClassFactory(dir, cl);
+			this.cp = new ClassFactory(dir, classCache, cl);
 			behaviourService = BehaviourProviderService.newInstance(cp);
 			Collection<Class<?>> baseClassRoles = mapper.getConceptClasses();
 			this.baseClassRoles = new ArrayList<Class<?>>(baseClassRoles.size());
@@ -130,6 +153,32 @@ public class ClassResolver {
 		return cp;
 	}
 
+	/**
+	 * Composes the classes of the given combinations of rdf:types, e.g. at
+	 * startup before the first objects are requested.
+	 */
+	public void prewarm(Collection<? extends Set<URI>> typeSets) {
+		for (Set<URI> types : typeSets) {
+			resolveBlankEntity(types);
+		}
+	}
+
+	/**
+	 * Finds the rdf:types of the given class and of its super classes and
+	 * interfaces that have one. The result is computed once per class.
+	 *
+	 * @return an unmodifiable set shared by all callers
+	 */
+	public Set<URI> getTypes(Class<?> role) {
+		Set<URI> set = types.get(role);
+		if (set != null)
+			return set;
+		set = Collections.unmodifiableSet(findTypes(role,
+				new LinkedHashSet<URI>(4)));
+		Set<URI> existing = types.putIfAbsent(role, set);
+		return existing == null ? set : existing;
+	}
+
 	public Class<?> resolveBlankEntity() {
 		return blank;
 	}
@@ -156,6 +205,29 @@ public class ClassResolver {
 		return resolveBlankEntity(types);
 	}
 
+	private static File getDefaultClassCache() {
+		String dir = System.getProperty(CLASS_CACHE_PROPERTY);
+		if (dir == null || dir.length() == 0)
+			return null;
+		return new File(dir);
+	}
+
+	private Set<URI> findTypes(Class<?> role, Set<URI> set) {
+		URI type = mapper.findType(role);
+		if (type == null) {
+			Class<?> superclass = role.getSuperclass();
+			if (superclass != null) {
+				findTypes(superclass, set);
+			}
+			for (Class<?> face : role.getInterfaces()) {
+				findTypes(face, set);
+			}
+		} else {
+			set.add(type);
+		}
+		return set;
+	}
+
 	private Class<?> resolveIndividualEntity(URI resource, Collection<URI> types) {
 		Collection<Class<?>> roles = new ArrayList<Class<?>>();
 		roles = mapper.findIndividualRoles(resource, roles);
@@ -179,12 +251,20 @@ public class ClassResolver {
 
 	private Class<?> getComposedBehaviours(String className,
 			Collection<Class<?>> roles) throws Exception {
-		synchronized (cp) {
+		Class<?> proxy = composed.get(className);
+		if (proxy != null)
+			return proxy;
+		synchronized (cp.getCompositionLock(className)) {
+			proxy = composed.get(className);
+			if (proxy != null)
+				return proxy;
 			try {
-				return cp.classForName(className);
+				proxy = cp.classForName(className);
 			} catch (ClassNotFoundException e1) {
-				return composeBehaviours(className, roles);
+				proxy = composeBehaviours(className, roles);
 			}
+			composed.put(className, proxy);
+			return proxy;
 		}
 	}
 
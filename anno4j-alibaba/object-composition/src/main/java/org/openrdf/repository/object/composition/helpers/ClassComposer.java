@@ -38,6 +38,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -57,6 +58,7 @@ import org.openrdf.repository.object.composition.ClassFactory;
 import org.openrdf.repository.object.composition.ClassTemplate;
 import org.openrdf.repository.object.composition.CodeBuilder;
 import org.openrdf.repository.object.composition.MethodBuilder;
+import org.openrdf.repository.object.traits.MessageContext;
 import org.openrdf.repository.object.traits.RDFObjectBehaviour;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,6 +71,12 @@ import org.slf4j.LoggerFactory;
  * 
  */
 public class ClassComposer {
+	/**
+	 * System property to call all behaviour chains through reflection instead
+	 * of generated code, e.g. to compare both.
+	 */
+	public static final String REFLECTIVE_DISPATCH_PROPERTY = "org.openrdf.repository.object.reflectiveDispatch";
+
 	public static void calling(Object target, String method, Object[] args) {
 		if (++count % 512 == 0){
 			Throwable stack = new Throwable();
@@ -94,6 +102,11 @@ public class ClassComposer {
 	private Map<String, Method> namedMethods;
 	private Map<Method, String> superMethods = new HashMap<Method, String>();
 	private Map<String, Set<BehaviourFactory>> behaviours;
+	private Map<BehaviourFactory, String> behaviourIds;
+	private boolean ambiguousBehaviours;
+	private final boolean reflectiveDispatch = Boolean
+			.getBoolean(REFLECTIVE_DISPATCH_PROPERTY);
+	private final List<String> dispatchMethods = new ArrayList<String>();
 	private ClassTemplate cc;
 
 	public ClassComposer(String className, int size) {
@@ -125,12 +138,25 @@ public class ClassComposer {
 
 	public Class<?> compose() throws Exception {
 		logger.trace("public class {} extends {}", className, baseClass);
-		cc = cp.createClassTemplate(className, baseClass);
 		for (BehaviourFactory behaviours : allBehaviours) {
 			for (Class<?> clazz : behaviours.getInterfaces()) {
 				addInterfaces(clazz);
 			}
 		}
+		behaviourIds = getBehaviourIds();
+		String key = cp.getClassCache() == null ? null : getCacheKey();
+		Class<?> cachedClass = cp.loadCachedClass(className, key);
+		if (cachedClass != null) {
+			for (BehaviourFactory clazz : allBehaviours) {
+				populateBehaviourField(clazz, cachedClass);
+			}
+			return cachedClass;
+		}
+		return implement(key);
+	}
+
+	private Class<?> implement(String key) throws Exception {
+		cc = cp.createClassTemplate(className, baseClass);
 		for (Class<?> face : interfaces) {
 			cc.addInterface(face);
 		}
@@ -157,8 +183,11 @@ public class ClassComposer {
 				implementMethod(method, method.getName(), bridge);
 			}
 		}
+		if (!dispatchMethods.isEmpty()) {
+			implementDispatcher();
+		}
 		try {
-			Class<?> createdClass = cp.createClass(cc);
+			Class<?> createdClass = cp.createClass(cc, key);
 			for (BehaviourFactory clazz : allBehaviours) {
 				populateBehaviourField(clazz, createdClass);
 			}
@@ -172,6 +201,64 @@ public class ClassComposer {
 		}
 	}
 
+	/**
+	 * The members of a behaviour are named after what the behaviour
+	 * implements, so that a cached class can be populated by the behaviours of
+	 * another run.
+	 */
+	private Map<BehaviourFactory, String> getBehaviourIds() {
+		Map<BehaviourFactory, String> ids = new HashMap<BehaviourFactory, String>();
+		Set<String> used = new HashSet<String>();
+		for (BehaviourFactory factory : allBehaviours) {
+			String id = Integer.toHexString(getBehaviourKey(factory).hashCode());
+			String unique = id;
+			for (int i = 1; !used.add(unique); i++) {
+				unique = id + "_" + i;
+				ambiguousBehaviours = true;
+			}
+			ids.put(factory, unique);
+		}
+		return ids;
+	}
+
+	private String getBehaviourKey(BehaviourFactory factory) {
+		List<String> methods = new ArrayList<String>();
+		for (Method m : factory.getMethods()) {
+			methods.add(m.toString());
+		}
+		Collections.sort(methods);
+		return factory.getClass().getName() + " " + factory.getName() + " "
+				+ factory.getBehaviourType().getName() + " "
+				+ factory.isSingleton() + " " + methods;
+	}
+
+	/**
+	 * The bytecode depends on the composed types and behaviours, as well as
+	 * on the version of this composer. Classes with behaviours that can not be
+	 * told apart are not cached, as their order may change between runs.
+	 */
+	private String getCacheKey() {
+		if (ambiguousBehaviours)
+			return null;
+		List<String> parts = new ArrayList<String>();
+		parts.add(className);
+		parts.add(cp.getVersion(ClassComposer.class));
+		parts.add(reflectiveDispatch ? "reflective" : "direct");
+		parts.add(baseClass.getName() + "@" + cp.getVersion(baseClass));
+		List<String> types = new ArrayList<String>();
+		for (Class<?> face : interfaces) {
+			types.add(face.getName() + "@" + cp.getVersion(face));
+		}
+		for (BehaviourFactory factory : allBehaviours) {
+			types.add(behaviourIds.get(factory) + " " + getBehaviourKey(factory)
+					+ "@" + cp.getVersion(factory.getClass()) + "@"
+					+ cp.getVersion(factory.getBehaviourType()));
+		}
+		Collections.sort(types);
+		parts.addAll(types);
+		return ClassFactory.createKey(parts);
+	}
+
 	private void addInterfaces(Class<?> clazz) {
 		if (interfaces.contains(clazz))
 			return;
@@ -309,6 +396,18 @@ public class ClassComposer {
 		} else if (!voidReturnType) {
 			body.code("return ($r) ");
 		}
+		int dispatch = chained ? createDispatchMethod(face, implementations) : -1;
+		if (dispatch >= 0) {
+			if (!type.equals(Void.TYPE)) {
+				body.code("result = ($r) ");
+			}
+			body.code("new ");
+			body.code(DirectMessageContext.class.getName());
+			body.code("($0, ");
+			body.insert(face);
+			body.code(", $args, ").insert(dispatch).code(").proceed();\n");
+			implementations = Collections.emptyList();
+		}
 		boolean chainStarted = false;
 		for (Object[] ar : implementations) {
 			assert ar.length == 2;
@@ -347,6 +446,175 @@ public class ClassComposer {
 		return true;
 	}
 
+	/**
+	 * Creates a method that calls the behaviours of a chain directly, starting
+	 * at the step given as first parameter.
+	 * 
+	 * @return the index of the chain or -1 if it must be invoked through
+	 *         reflection
+	 */
+	private int createDispatchMethod(Method face, List<Object[]> implementations)
+			throws Exception {
+		if (reflectiveDispatch)
+			return -1;
+		for (Object[] ar : implementations) {
+			if (!isDirectlyCallable(face, (Method) ar[1], "super".equals(ar[0])))
+				return -1;
+		}
+		int chain = dispatchMethods.size();
+		if (chain == 0) {
+			// the composed class is passed to the message
+			cc.addInterface(MessageDispatcher.class);
+		}
+		String name = "_$dispatch" + chain + "_" + face.getName();
+		CodeBuilder body = cc.createPrivateMethod(Object.class, name,
+				Integer.TYPE, DirectMessageContext.class);
+		body.code(getTypeName(Object[].class)).code(" args = $2.getParameters();\n");
+		for (int i = 0, n = implementations.size(); i < n; i++) {
+			String target = (String) implementations.get(i)[0];
+			Method m = (Method) implementations.get(i)[1];
+			boolean sup = "super".equals(target);
+			String call = sup ? "this." + createSuperCall(m) : target + "."
+					+ m.getName();
+			body.code("if ($1 <= ").insert(i).code(") {\n");
+			if (isMessage(m)) {
+				body.code("$2.advance(").insert(i + 1).code(");\n");
+				body.code("return $2.cast(($w) ").code(call).code("($2), ");
+				body.insert(m).code(");\n");
+			} else if (Void.TYPE.equals(m.getReturnType())) {
+				body.code(call).code("(").code(getArguments(face, m, sup));
+				body.code(");\n");
+			} else {
+				String result = "result" + i;
+				body.code(Object.class.getName()).code(" ").code(result);
+				body.code(" = ($w) ").code(call).code("(");
+				body.code(getArguments(face, m, sup)).code(");\n");
+				body.code("if (!$2.isNil(").code(result).code(", ").insert(m);
+				body.code(")) return $2.cast(").code(result).code(", ");
+				body.insert(m).code(");\n");
+			}
+			body.code("}\n");
+		}
+		body.code("return $2.nil();").end();
+		dispatchMethods.add(name);
+		return chain;
+	}
+
+	private void implementDispatcher() throws Exception {
+		CodeBuilder body = cc.createMethod(Object.class, "_$dispatch",
+				Integer.TYPE, Integer.TYPE, DirectMessageContext.class);
+		for (int i = 0, n = dispatchMethods.size(); i < n; i++) {
+			body.code("if ($1 == ").insert(i).code(") return ");
+			body.code(dispatchMethods.get(i)).code("($2, $3);\n");
+		}
+		body.code("throw new ").code(IllegalArgumentException.class.getName());
+		body.code("(").code(String.class.getName()).code(".valueOf($1));");
+		body.end();
+	}
+
+	private boolean isMessage(Method m) {
+		Class<?>[] param = m.getParameterTypes();
+		return param.length == 1
+				&& MessageContext.class.isAssignableFrom(param[0]);
+	}
+
+	/**
+	 * Messages with primitive results need a typed message and parameters
+	 * must be accessible from the composed class, otherwise the reflective
+	 * {@link InvocationMessageContext} is used.
+	 */
+	private boolean isDirectlyCallable(Method face, Method m, boolean sup) {
+		if (isMessage(m))
+			return m.getParameterTypes()[0]
+					.isAssignableFrom(DirectMessageContext.class)
+					&& !m.getReturnType().isPrimitive();
+		int count = face.getParameterTypes().length;
+		Class<?>[] types = m.getParameterTypes();
+		for (int i = 0; i < types.length; i++) {
+			int idx = sup ? i : getParameterIndex(face, m, i);
+			if (idx < 0 || idx >= count && types[i].isPrimitive())
+				return false;
+			Class<?> type = types[i];
+			while (type.isArray()) {
+				type = type.getComponentType();
+			}
+			if (!type.isPrimitive() && !isPublic(type.getModifiers()))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The parameter of the invoked method passed to the given parameter of a
+	 * behaviour method, like {@link InvocationMessageContext} does.
+	 */
+	private int getParameterIndex(Method face, Method m, int i) {
+		for (Annotation ann : m.getParameterAnnotations()[i]) {
+			if (ann.annotationType().equals(Iri.class)) {
+				String uri = ((Iri) ann).value();
+				Annotation[][] anns = face.getParameterAnnotations();
+				for (int j = 0; j < anns.length; j++) {
+					for (Annotation a : anns[j]) {
+						if (a instanceof Iri && ((Iri) a).value().equals(uri))
+							return j;
+					}
+				}
+				return -1;
+			}
+		}
+		return i;
+	}
+
+	private String getArguments(Method face, Method m, boolean sup) {
+		int count = face.getParameterTypes().length;
+		Class<?>[] types = m.getParameterTypes();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < types.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			int idx = sup ? i : getParameterIndex(face, m, i);
+			if (idx >= count) {
+				sb.append("null");
+			} else if (types[i].isPrimitive()) {
+				Class<?> wrapper = getWrapper(types[i]);
+				sb.append("((").append(wrapper.getName()).append(") args[");
+				sb.append(idx).append("]).").append(types[i].getName());
+				sb.append("Value()");
+			} else {
+				sb.append("(").append(getTypeName(types[i])).append(") args[");
+				sb.append(idx).append("]");
+			}
+		}
+		return sb.toString();
+	}
+
+	private String getTypeName(Class<?> type) {
+		if (type.isArray())
+			return getTypeName(type.getComponentType()) + "[]";
+		return type.getName();
+	}
+
+	private Class<?> getWrapper(Class<?> type) {
+		if (Boolean.TYPE.equals(type))
+			return Boolean.class;
+		if (Byte.TYPE.equals(type))
+			return Byte.class;
+		if (Character.TYPE.equals(type))
+			return Character.class;
+		if (Double.TYPE.equals(type))
+			return Double.class;
+		if (Float.TYPE.equals(type))
+			return Float.class;
+		if (Integer.TYPE.equals(type))
+			return Integer.class;
+		if (Long.TYPE.equals(type))
+			return Long.class;
+		if (Short.TYPE.equals(type))
+			return Short.class;
+		throw new AssertionError("Unknown primitive: " + type);
+	}
+
 	private String createSuperCall(Method m) {
 		if (superMethods.containsKey(m))
 			return superMethods.get(m);
@@ -660,7 +928,7 @@ public class ClassComposer {
 
 	private String getPrivateBehaviourMethod(BehaviourFactory factory) {
 		String simpleName = factory.getName().replaceAll("\\W", "_");
-		return "_$get" + simpleName + "Behaviour" + Integer.toHexString(System.identityHashCode(factory));
+		return "_$get" + simpleName + "Behaviour" + behaviourIds.get(factory);
 	}
 
 	private String getBehaviourFieldName(BehaviourFactory factory) {
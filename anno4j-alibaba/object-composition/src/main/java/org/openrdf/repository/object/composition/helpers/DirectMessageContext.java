@@ -0,0 +1,88 @@
+package org.openrdf.repository.object.composition.helpers;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import org.openrdf.repository.object.traits.ObjectMessage;
+
+/**
+ * Implements the Message interface for a chain of behaviours that the
+ * composed class calls through generated code. A context is used by a single
+ * invocation and is not thread-safe.
+ *
+ * @see InvocationMessageContext
+ */
+public class DirectMessageContext implements ObjectMessage {
+	private final MessageDispatcher target;
+	private final Method method;
+	private final int chain;
+	private Object[] parameters;
+	private int step;
+
+	public DirectMessageContext(MessageDispatcher target, Method method,
+			Object[] parameters, int chain) {
+		this.target = target;
+		this.method = method;
+		this.parameters = parameters;
+		this.chain = chain;
+	}
+
+	public Object getTarget() {
+		return target;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public Object[] getParameters() {
+		return parameters;
+	}
+
+	public void setParameters(Object[] parameters) {
+		this.parameters = parameters;
+	}
+
+	public Object proceed() throws Exception {
+		return target._$dispatch(chain, step, this);
+	}
+
+	/**
+	 * Called before a behaviour receives this message, so that it proceeds
+	 * with the next step of the chain.
+	 */
+	public void advance(int step) {
+		this.step = step;
+	}
+
+	/**
+	 * @return true if the result of the given behaviour method means the
+	 *         chain should continue
+	 */
+	public boolean isNil(Object result, Method invoked) {
+		return InvocationMessageContext.isNil(result, invoked.getReturnType());
+	}
+
+	/**
+	 * Converts the result of the given behaviour method to the return type of
+	 * the invoked method.
+	 */
+	public Object cast(Object result, Method invoked) {
+		return InvocationMessageContext.cast(result, invoked.getReturnType(),
+				method.getReturnType());
+	}
+
+	/**
+	 * @return the result if no behaviour of the chain returned one
+	 */
+	public Object nil() {
+		return InvocationMessageContext.nil(method.getReturnType());
+	}
+
+	@Override
+	public String toString() {
+		String params = Arrays.asList(parameters).toString();
+		String values = params.substring(1, params.length() - 1);
+		return method.getName() + "(" + values + ")";
+	}
+}
@@ -295,7 +295,7 @@ public class InvocationMessageContext implements ObjectMessage {
 		throw new AssertionError("Unknown primitive: " + returnType);
 	}
 
-	private Object cast(Object result, Class<?> resultType,
+	static Object cast(Object result, Class<?> resultType,
 			Class<?> responseType) {
 		if (isNil(result, resultType))
 			return nil(responseType);
@@ -312,7 +312,7 @@ public class InvocationMessageContext implements ObjectMessage {
 		return result;
 	}
 
-	private boolean isNil(Object result, Class<?> type) {
+	static boolean isNil(Object result, Class<?> type) {
 		if (result == null)
 			return true;
 		if (!type.isPrimitive())
@@ -320,7 +320,7 @@ public class InvocationMessageContext implements ObjectMessage {
 		return result.equals(nil(type));
 	}
 
-	private Object nil(Class<?> type) {
+	static Object nil(Class<?> type) {
 		if (Set.class.equals(type))
 			return Collections.emptySet();
 		if (!type.isPrimitive())
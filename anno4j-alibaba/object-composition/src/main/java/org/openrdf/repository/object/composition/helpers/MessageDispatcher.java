@@ -0,0 +1,23 @@
+package org.openrdf.repository.object.composition.helpers;
+
+/**
+ * Implemented by composed classes that call the behaviours of a method chain
+ * directly, instead of through reflection.
+ *
+ * @see DirectMessageContext
+ */
+public interface MessageDispatcher {
+
+	/**
+	 * Calls the behaviours of a chain, starting at the given step, until one
+	 * of them returns a result.
+	 *
+	 * @param chain
+	 *            the chain of behaviours of the invoked method
+	 * @param step
+	 *            index of the first behaviour to call
+	 */
+	Object _$dispatch(int chain, int step, DirectMessageContext msg)
+			throws Exception;
+
+}
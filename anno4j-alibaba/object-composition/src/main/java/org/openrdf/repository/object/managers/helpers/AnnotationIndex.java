@@ -0,0 +1,301 @@
+package org.openrdf.repository.object.managers.helpers;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.reflections.Reflections;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the annotated classes listed by {@link AnnotationIndexProcessor} at
+ * compile time, so they do not need to be found by scanning the classpath.
+ * Each line of an index names an annotation and a class annotated with it.
+ * The indexes of all jars and directories of the classpath are merged.
+ * <p>
+ * Jars and directories without an index, e.g. compiled without the
+ * annotation processor, are scanned for annotated classes instead. A warning
+ * names each of them that contains annotated classes, as indexing it speeds up
+ * the start. The scan of a set of jars and directories is done once and kept
+ * for the life of the class.
+ *
+ * @see #load(ClassLoader...)
+ */
+public class AnnotationIndex {
+	/** Location of the index in a jar or classes directory. */
+	public static final String INDEX = "META-INF/org.openrdf.index";
+	/**
+	 * System property to choose between the indexes and a classpath scan:
+	 * <code>true</code> ignores the indexes and scans the whole classpath,
+	 * <code>false</code> reads the indexes only and never scans. If unset,
+	 * only the jars and directories without an index are scanned.
+	 */
+	public static final String SCAN_PROPERTY = "org.openrdf.repository.object.scan";
+
+	private static final Logger logger = LoggerFactory
+			.getLogger(AnnotationIndex.class);
+
+	/** scanned roots to annotation name to the class names found */
+	private static final ConcurrentMap<Set<String>, Map<String, Set<String>>> scans = new ConcurrentHashMap<Set<String>, Map<String, Set<String>>>();
+
+	/** unindexed roots already named in a warning */
+	private static final Set<String> warned = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Reads the indexes visible to the given class loaders and finds the jars
+	 * and directories of the classpath that have no index.
+	 *
+	 * @return the merged index, which scans the jars and directories without
+	 *         an index when it is first asked for annotated classes
+	 */
+	public static AnnotationIndex load(ClassLoader... loaders)
+			throws IOException {
+		String scan = System.getProperty(SCAN_PROPERTY);
+		AnnotationIndex index = new AnnotationIndex(loaders);
+		Set<String> indexed = new HashSet<String>();
+		if (!"true".equalsIgnoreCase(scan)) {
+			for (ClassLoader cl : loaders) {
+				if (cl == null)
+					continue;
+				Enumeration<URL> resources = cl.getResources(INDEX);
+				while (resources.hasMoreElements()) {
+					URL url = resources.nextElement();
+					if (indexed.add(rootOf(url))) {
+						logger.debug("Reading annotation index {}", url);
+						index.read(url, cl);
+					}
+				}
+			}
+		}
+		if (!"false".equalsIgnoreCase(scan)) {
+			for (URL url : classpath(loaders)) {
+				String root = rootOf(url);
+				if (!indexed.contains(root) && !isJavaHome(root)) {
+					index.unindexed.put(root, url);
+				}
+			}
+		}
+		return index;
+	}
+
+	/** annotation name to class names and their class loader */
+	private final Map<String, Map<String, ClassLoader>> entries = new LinkedHashMap<String, Map<String, ClassLoader>>();
+	/** root of each jar or directory without an index to its URL */
+	private final Map<String, URL> unindexed = new TreeMap<String, URL>();
+	private final ClassLoader[] loaders;
+	private Map<String, Set<String>> scanned;
+
+	private AnnotationIndex(ClassLoader[] loaders) {
+		this.loaders = loaders;
+	}
+
+	/**
+	 * @return the jars and directories of the classpath without an index,
+	 *         which are scanned for annotated classes
+	 */
+	public Set<URL> getUnindexedRoots() {
+		return new LinkedHashSet<URL>(unindexed.values());
+	}
+
+	/**
+	 * @return the indexed or scanned classes that are directly annotated with
+	 *         the given annotation, classes that can not be loaded are left
+	 *         out
+	 */
+	public synchronized Set<Class<?>> getTypesAnnotatedWith(
+			Class<? extends Annotation> annotation) {
+		Set<Class<?>> result = new LinkedHashSet<Class<?>>();
+		Map<String, ClassLoader> classes = entries.get(annotation.getName());
+		if (classes != null) {
+			for (Map.Entry<String, ClassLoader> e : classes.entrySet()) {
+				Class<?> type = forName(e.getKey(), e.getValue());
+				if (type != null) {
+					result.add(type);
+				}
+			}
+		}
+		Set<String> names = scan().get(annotation.getName());
+		if (names == null)
+			return result;
+		for (String name : names) {
+			if (classes != null && classes.containsKey(name))
+				continue;
+			for (ClassLoader cl : loaders) {
+				Class<?> type = cl == null ? null : forName(name, cl);
+				if (type != null) {
+					warnUnindexed(type, annotation);
+					result.add(type);
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	private Map<String, Set<String>> scan() {
+		if (scanned != null)
+			return scanned;
+		if (unindexed.isEmpty())
+			return scanned = Collections.emptyMap();
+		Set<String> roots = new HashSet<String>(unindexed.keySet());
+		scanned = scans.get(roots);
+		if (scanned != null)
+			return scanned;
+		logger.debug("Scanning {} for annotated classes", unindexed.values());
+		Reflections reflections = new Reflections(new ConfigurationBuilder()
+				.setUrls(unindexed.values())
+				.useParallelExecutor()
+				.filterInputsBy(FilterBuilder.parsePackages("-java, -javax, -sun, -com.sun"))
+				.setScanners(new SubTypesScanner(), new TypeAnnotationsScanner()));
+		// the parallel executor does not stop its threads by itself
+		reflections.getConfiguration().getExecutorService().shutdown();
+		Map<String, Set<String>> found = new HashMap<String, Set<String>>();
+		String index = TypeAnnotationsScanner.class.getSimpleName();
+		if (reflections.getStore().keySet().contains(index)) {
+			for (Map.Entry<String, Collection<String>> e : reflections
+					.getStore().get(index).asMap().entrySet()) {
+				found.put(e.getKey(), new LinkedHashSet<String>(e.getValue()));
+			}
+		}
+		Map<String, Set<String>> previous = scans.putIfAbsent(roots, found);
+		return scanned = previous == null ? found : previous;
+	}
+
+	private void warnUnindexed(Class<?> type, Class<? extends Annotation> annotation) {
+		CodeSource source = type.getProtectionDomain().getCodeSource();
+		String root = source == null || source.getLocation() == null ? null
+				: rootOf(source.getLocation());
+		if (root != null && unindexed.containsKey(root) && warned.add(root)) {
+			logger.warn("{} has no annotation index, so its annotated classes, e.g. {} with @{}, are found by scanning it."
+					+ " Compile it with the {} to speed up the start.", root,
+					type.getName(), annotation.getSimpleName(),
+					AnnotationIndexProcessor.class.getSimpleName());
+		}
+	}
+
+	private static Class<?> forName(String name, ClassLoader cl) {
+		try {
+			return Class.forName(name, true, cl);
+		} catch (ClassNotFoundException exc) {
+			logger.error(exc.toString());
+		} catch (LinkageError exc) {
+			logger.error(exc.toString());
+		}
+		return null;
+	}
+
+	private static Set<URL> classpath(ClassLoader... loaders) {
+		Set<URL> classpath = new LinkedHashSet<URL>();
+		classpath.addAll(ClasspathHelper.forClassLoader(loaders));
+		classpath.addAll(ClasspathHelper.forJavaClassPath());
+		classpath.addAll(ClasspathHelper.forManifest());
+		classpath.addAll(ClasspathHelper.forPackage("", loaders));
+		return classpath;
+	}
+
+	/**
+	 * @return the URL of the jar or directory containing the given index or
+	 *         class path entry, without a trailing slash
+	 */
+	static String rootOf(URL url) {
+		String root = url.toExternalForm();
+		if (root.endsWith(INDEX)) {
+			root = root.substring(0, root.length() - INDEX.length());
+		}
+		if (root.startsWith("jar:")) {
+			int idx = root.indexOf("!/");
+			root = root.substring("jar:".length(), idx < 0 ? root.length() : idx);
+		}
+		while (root.endsWith("/")) {
+			root = root.substring(0, root.length() - 1);
+		}
+		return root;
+	}
+
+	private static boolean isJavaHome(String root) {
+		String home = System.getProperty("java.home");
+		if (home == null)
+			return false;
+		File dir = new File(home);
+		if ("jre".equals(dir.getName()) && dir.getParentFile() != null) {
+			dir = dir.getParentFile();
+		}
+		return root.startsWith(rootOf(toURL(dir)) + "/");
+	}
+
+	private static URL toURL(File file) {
+		try {
+			return file.toURI().toURL();
+		} catch (MalformedURLException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private void read(URL url, ClassLoader cl) throws IOException {
+		for (String line : readLines(url)) {
+			int idx = line.indexOf(' ');
+			if (idx < 0)
+				throw new IOException("Invalid line '" + line + "' in: " + url);
+			String annotation = line.substring(0, idx);
+			String className = line.substring(idx + 1).trim();
+			Map<String, ClassLoader> classes = entries.get(annotation);
+			if (classes == null) {
+				classes = new LinkedHashMap<String, ClassLoader>();
+				entries.put(annotation, classes);
+			}
+			if (!classes.containsKey(className)) {
+				classes.put(className, cl);
+			}
+		}
+	}
+
+	static List<String> readLines(URL url) throws IOException {
+		InputStream in = url.openStream();
+		try {
+			return readLines(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	static List<String> readLines(InputStream in) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in,
+				"UTF-8"));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.length() > 0 && !line.startsWith("#")) {
+				lines.add(line);
+			}
+		}
+		return lines;
+	}
+}
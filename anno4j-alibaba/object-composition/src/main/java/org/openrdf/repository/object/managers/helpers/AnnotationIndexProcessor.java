@@ -0,0 +1,129 @@
+package org.openrdf.repository.object.managers.helpers;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Writes the {@link AnnotationIndex} of the classes of a compilation unit that
+ * are annotated with a concept, partial or evaluator annotation. Entries of a
+ * previous index are kept for incremental builds, as long as their class is
+ * still annotated.
+ */
+@SupportedAnnotationTypes({ "org.openrdf.annotations.Iri",
+		"com.github.anno4j.annotations.Partial",
+		"com.github.anno4j.annotations.Evaluator" })
+public class AnnotationIndexProcessor extends AbstractProcessor {
+	private final Set<String> lines = new TreeSet<String>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public synchronized void init(ProcessingEnvironment env) {
+		super.init(env);
+		readPreviousIndex();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations,
+			RoundEnvironment round) {
+		Elements elements = processingEnv.getElementUtils();
+		for (TypeElement annotation : annotations) {
+			for (Element element : round.getElementsAnnotatedWith(annotation)) {
+				if (element instanceof TypeElement) {
+					String name = elements.getBinaryName((TypeElement) element)
+							.toString();
+					lines.add(annotation.getQualifiedName() + " " + name);
+				}
+			}
+		}
+		if (round.processingOver() && !lines.isEmpty()) {
+			writeIndex();
+		}
+		return false;
+	}
+
+	private void readPreviousIndex() {
+		Filer filer = processingEnv.getFiler();
+		try {
+			FileObject file = filer.getResource(StandardLocation.CLASS_OUTPUT,
+					"", AnnotationIndex.INDEX);
+			InputStream in = file.openInputStream();
+			try {
+				for (String line : AnnotationIndex.readLines(in)) {
+					if (isStillAnnotated(line)) {
+						lines.add(line);
+					}
+				}
+			} finally {
+				in.close();
+			}
+		} catch (FileNotFoundException e) {
+			// first build
+		} catch (IOException e) {
+			// no previous index
+		} catch (IllegalArgumentException e) {
+			// output location not supported
+		}
+	}
+
+	private boolean isStillAnnotated(String line) {
+		int idx = line.indexOf(' ');
+		if (idx < 0)
+			return false;
+		String annotation = line.substring(0, idx);
+		String name = line.substring(idx + 1).replace('$', '.');
+		TypeElement type = processingEnv.getElementUtils().getTypeElement(name);
+		if (type == null)
+			return false;
+		for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+			Element element = mirror.getAnnotationType().asElement();
+			if (((TypeElement) element).getQualifiedName()
+					.contentEquals(annotation))
+				return true;
+		}
+		return false;
+	}
+
+	private void writeIndex() {
+		try {
+			FileObject file = processingEnv.getFiler().createResource(
+					StandardLocation.CLASS_OUTPUT, "", AnnotationIndex.INDEX);
+			Writer writer = new OutputStreamWriter(file.openOutputStream(),
+					"UTF-8");
+			try {
+				writer.write("# Generated by " + getClass().getName() + "\n");
+				for (String line : lines) {
+					writer.write(line);
+					writer.write('\n');
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+					"Could not write " + AnnotationIndex.INDEX + ": " + e);
+		}
+	}
+}
@@ -34,12 +34,6 @@ import org.openrdf.annotations.Matching;
 import org.openrdf.model.impl.URIImpl;
 import org.openrdf.repository.object.exceptions.ObjectStoreConfigException;
 import org.openrdf.repository.object.managers.RoleMapper;
-import org.reflections.Reflections;
-import org.reflections.scanners.SubTypesScanner;
-import org.reflections.scanners.TypeAnnotationsScanner;
-import org.reflections.util.ClasspathHelper;
-import org.reflections.util.ConfigurationBuilder;
-import org.reflections.util.FilterBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,7 +77,10 @@ public class RoleClassLoader {
 			loaded = load(new CheckForBehaviour(first), first, "behaviours", BEHAVIOURS, false, new HashSet<URL>());
 			loaded = load(new CheckForBehaviour(cl), cl, "behaviours", BEHAVIOURS, false, loaded);
 
-            scanConceptsWithReflections();
+            AnnotationIndex index = AnnotationIndex.load(first, cl);
+            for (Class<?> clazz : index.getTypesAnnotatedWith(Iri.class)) {
+                roleMapper.addConcept(clazz);
+            }
 
             Collection<Class<?>> concepts = roleMapper.getConceptClasses();
             for(Class<?> conceptClass : concepts) {
@@ -113,27 +110,6 @@ public class RoleClassLoader {
 		}
 	}
 
-    private void scanConceptsWithReflections() throws ObjectStoreConfigException {
-        logger.debug("Search for concepts with reflections");
-        Set<URL> classpath = new HashSet<>();
-        classpath.addAll(ClasspathHelper.forClassLoader());
-        classpath.addAll(ClasspathHelper.forJavaClassPath());
-        classpath.addAll(ClasspathHelper.forManifest());
-        classpath.addAll(ClasspathHelper.forPackage(""));
-        Reflections reflections = new Reflections(new ConfigurationBuilder()
-                .setUrls(classpath)
-				.useParallelExecutor()
-				.filterInputsBy(FilterBuilder.parsePackages("-java, -javax, -sun, -com.sun"))
-                .setScanners(new SubTypesScanner(), new TypeAnnotationsScanner()));
-
-        Set<Class<?>> annotated = reflections.getTypesAnnotatedWith(Iri.class, true);
-        logger.debug("Search for concepts with reflections resulted in " + annotated.size() + " classes");
-        for (Class clazz : annotated) {
-            logger.debug("Found concept class: " + clazz.getCanonicalName());
-            roleMapper.addConcept(clazz);
-        }
-    }
-
 	private Set<URL> load(CheckForConcept checker, ClassLoader cl, String forType, String roles, boolean concept, Set<URL> exclude)
 			throws IOException, ClassNotFoundException, ObjectStoreConfigException {
 		if (cl == null)
@@ -5,6 +5,9 @@ import info.aduna.io.FileUtil;
 import java.io.File;
 import java.lang.reflect.Method;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import junit.framework.TestCase;
 
@@ -45,4 +48,34 @@ public class ClassTemplateTest extends TestCase {
 		String myOtherString = myString.replaceAll(".myMethod", "SubClass.myOtherMethod");
 		assertEquals(myOtherString, myOtherMethod.toGenericString());
 	}
+
+	public void testTemplatesOfThreads() throws Exception {
+		final ClassFactory factory = new ClassFactory(dir);
+		final Method myMethod = MyClass.class.getMethod("myMethod", Set.class);
+		ClassTemplate open = factory.createClassTemplate(MyClass.class.getName()
+				+ "Open", MyClass.class);
+		open.copyMethod(myMethod, "openMethod", false).code("return $1;").end();
+
+		// another thread composes a class while this template is being built
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Class<?> other;
+		try {
+			other = executor.submit(new Callable<Class<?>>() {
+				public Class<?> call() throws Exception {
+					ClassTemplate template = factory.createClassTemplate(
+							MyClass.class.getName() + "Other", MyClass.class);
+					template.copyMethod(myMethod, "otherMethod", false)
+							.code("return $1;").end();
+					return factory.createClass(template);
+				}
+			}).get();
+		} finally {
+			executor.shutdown();
+		}
+
+		ClassTemplate sub = factory.createClassTemplate(MyClass.class.getName()
+				+ "OtherSub", other);
+		assertEquals(other, factory.createClass(sub).getSuperclass());
+		assertNotNull(factory.createClass(open).getMethod("openMethod", Set.class));
+	}
 }
@@ -0,0 +1,70 @@
+package org.openrdf.repository.object.managers.helpers;
+
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.openrdf.annotations.Iri;
+
+public class AnnotationIndexTest extends TestCase {
+
+	@Iri("urn:test:Unindexed")
+	public interface Unindexed {
+	}
+
+	private URL testClasses;
+
+	public void setUp() throws Exception {
+		// the tests of this module are compiled without the processor
+		testClasses = Unindexed.class.getProtectionDomain().getCodeSource()
+				.getLocation();
+	}
+
+	public void tearDown() throws Exception {
+		System.clearProperty(AnnotationIndex.SCAN_PROPERTY);
+	}
+
+	public void testUnindexedRootIsScanned() throws Exception {
+		AnnotationIndex index = AnnotationIndex.load(getClass()
+				.getClassLoader());
+		assertTrue(roots(index).contains(AnnotationIndex.rootOf(testClasses)));
+		assertTrue(index.getTypesAnnotatedWith(Iri.class).contains(
+				Unindexed.class));
+	}
+
+	public void testIndexedRootIsNotScanned() throws Exception {
+		AnnotationIndex index = AnnotationIndex.load(getClass()
+				.getClassLoader());
+		URL main = AnnotationIndex.class.getProtectionDomain().getCodeSource()
+				.getLocation();
+		assertFalse(roots(index).contains(AnnotationIndex.rootOf(main)));
+	}
+
+	public void testScanCanBeDisabled() throws Exception {
+		System.setProperty(AnnotationIndex.SCAN_PROPERTY, "false");
+		AnnotationIndex index = AnnotationIndex.load(getClass()
+				.getClassLoader());
+		assertTrue(index.getUnindexedRoots().isEmpty());
+		assertFalse(index.getTypesAnnotatedWith(Iri.class).contains(
+				Unindexed.class));
+	}
+
+	public void testRootOf() throws Exception {
+		assertEquals("file:/lib/a.jar", AnnotationIndex.rootOf(new URL(
+				"jar:file:/lib/a.jar!/" + AnnotationIndex.INDEX)));
+		assertEquals("file:/classes", AnnotationIndex.rootOf(new URL(
+				"file:/classes/" + AnnotationIndex.INDEX)));
+		assertEquals("file:/classes",
+				AnnotationIndex.rootOf(new URL("file:/classes/")));
+	}
+
+	private Set<String> roots(AnnotationIndex index) {
+		Set<String> roots = new HashSet<String>();
+		for (URL url : index.getUnindexedRoots()) {
+			roots.add(AnnotationIndex.rootOf(url));
+		}
+		return roots;
+	}
+}
@@ -0,0 +1,89 @@
+package org.openrdf.repository.object;
+
+import org.openrdf.model.Value;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.Dataset;
+import org.openrdf.query.Update;
+import org.openrdf.query.UpdateExecutionException;
+import org.openrdf.repository.RepositoryException;
+
+/**
+ * Update of an {@link ObjectConnection}. The modified subjects of an update are
+ * not known, so the types cached by the connection are dropped and all
+ * resources of its {@link ObjectCache} are dropped once it is committed.
+ */
+class InvalidatingUpdate implements Update {
+	private final ObjectConnection connection;
+	private final Update update;
+
+	InvalidatingUpdate(ObjectConnection connection, Update update) {
+		this.connection = connection;
+		this.update = update;
+	}
+
+	@Override
+	public void execute() throws UpdateExecutionException {
+		connection.modifiedAll();
+		update.execute();
+		try {
+			connection.invalidateUnlessActive();
+		} catch (RepositoryException e) {
+			throw new UpdateExecutionException(e);
+		}
+	}
+
+	@Override
+	public void setBinding(String name, Value value) {
+		update.setBinding(name, value);
+	}
+
+	@Override
+	public void removeBinding(String name) {
+		update.removeBinding(name);
+	}
+
+	@Override
+	public void clearBindings() {
+		update.clearBindings();
+	}
+
+	@Override
+	public BindingSet getBindings() {
+		return update.getBindings();
+	}
+
+	@Override
+	public void setDataset(Dataset dataset) {
+		update.setDataset(dataset);
+	}
+
+	@Override
+	public Dataset getDataset() {
+		return update.getDataset();
+	}
+
+	@Override
+	public void setIncludeInferred(boolean includeInferred) {
+		update.setIncludeInferred(includeInferred);
+	}
+
+	@Override
+	public boolean getIncludeInferred() {
+		return update.getIncludeInferred();
+	}
+
+	@Override
+	public void setMaxExecutionTime(int maxExecTime) {
+		update.setMaxExecutionTime(maxExecTime);
+	}
+
+	@Override
+	public int getMaxExecutionTime() {
+		return update.getMaxExecutionTime();
+	}
+
+	@Override
+	public String toString() {
+		return update.toString();
+	}
+}
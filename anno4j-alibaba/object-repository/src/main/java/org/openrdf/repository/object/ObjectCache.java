@@ -0,0 +1,301 @@
+package org.openrdf.repository.object;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.query.BindingSet;
+
+/**
+ * Repository wide cache of the rdf:types and the functional property bindings
+ * of resources, shared by all {@link ObjectConnection}s of an
+ * {@link ObjectRepository}. Objects are still created per connection, but
+ * without querying the types and properties of cached resources again.
+ * <p>
+ * Entries are dropped when a connection commits statements about their
+ * resource or about a resource their bindings refer to. Updates, clears and
+ * removals without a subject drop all entries. For write heavy deployments the
+ * cache can be disabled with {@link #setEnabled(boolean)}.
+ * <p>
+ * Only the writes of {@link ObjectConnection}s are tracked. Statements written
+ * through a connection of the delegate repository, or by another process to
+ * the same store, leave the cached entries as they are: the writer has to call
+ * {@link #invalidate(Collection)} or {@link #clear()} afterwards, or the cache
+ * has to be created with a time to live.
+ *
+ * @see ObjectRepository#setObjectCache(ObjectCache)
+ */
+public class ObjectCache {
+	public static final int DEFAULT_SIZE = 4096;
+
+	/**
+	 * Cached state of a single resource.
+	 */
+	static class Entry {
+		private final Set<URI> types;
+		private final String binding;
+		private final List<BindingSet> bindings;
+		private final URI[] contexts;
+		private final long created;
+		private final Set<Resource> references;
+
+		Entry(Set<URI> types, String binding, List<BindingSet> bindings,
+				URI[] contexts, long created) {
+			this.types = Collections.unmodifiableSet(new HashSet<URI>(types));
+			this.binding = binding;
+			this.bindings = bindings == null ? null : Collections
+					.unmodifiableList(bindings);
+			this.contexts = contexts.clone();
+			this.created = created;
+			this.references = new HashSet<Resource>();
+			if (bindings != null) {
+				// the bindings may include other resources' properties
+				for (BindingSet row : bindings) {
+					for (String name : row.getBindingNames()) {
+						Value value = row.getValue(name);
+						if (value instanceof Resource) {
+							references.add((Resource) value);
+						}
+					}
+				}
+			}
+		}
+
+		public Set<URI> getTypes() {
+			return types;
+		}
+
+		/**
+		 * @return the name the bindings were read for or null if only the
+		 *         types are known
+		 */
+		public String getBinding() {
+			return binding;
+		}
+
+		public List<BindingSet> getBindings() {
+			return bindings;
+		}
+
+		/**
+		 * @return true if the bindings include one of the given resources
+		 */
+		boolean refersTo(Collection<Resource> resources) {
+			for (Resource resource : resources) {
+				if (references.contains(resource))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private final int size;
+	private final long timeToLive;
+	private volatile boolean enabled = true;
+	private final Map<Resource, Entry> entries;
+	/** resources whose bindings refer to the key */
+	private final Map<Resource, Set<Resource>> referrers = new HashMap<Resource, Set<Resource>>();
+	private long version;
+	private long hits;
+	private long misses;
+	private long invalidations;
+
+	public ObjectCache() {
+		this(DEFAULT_SIZE, 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @param size
+	 *            maximum number of cached resources, the least recently used
+	 *            resource is dropped first
+	 * @param timeToLive
+	 *            time after which an entry is read again, or 0 to keep entries
+	 *            until they are dropped
+	 */
+	public ObjectCache(final int size, long timeToLive, TimeUnit unit) {
+		if (size < 1)
+			throw new IllegalArgumentException("Cache size must be positive");
+		this.size = size;
+		this.timeToLive = unit.toMillis(timeToLive);
+		this.entries = new LinkedHashMap<Resource, Entry>(64, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Resource, Entry> eldest) {
+				if (size() > ObjectCache.this.size) {
+					unindex(eldest.getKey(), eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Disabling the cache drops all entries. Connections keep tracking the
+	 * subjects they modify, so the cache can be enabled again at any time.
+	 */
+	public synchronized void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public long getTimeToLive(TimeUnit unit) {
+		return unit.convert(timeToLive, TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized int getCachedCount() {
+		return entries.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of lookups served from the cache, or 0 if there was
+	 *         no lookup yet
+	 */
+	public synchronized double getHitRatio() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * @return the number of entries dropped because of committed changes
+	 */
+	public synchronized long getInvalidationCount() {
+		return invalidations;
+	}
+
+	/**
+	 * Drops all entries, the metrics are kept.
+	 */
+	public synchronized void clear() {
+		invalidations += entries.size();
+		entries.clear();
+		referrers.clear();
+		version++;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ObjectCache{size=" + size + ", cached=" + entries.size()
+				+ ", hits=" + hits + ", misses=" + misses + "}";
+	}
+
+	/**
+	 * The version changes with every invalidation. Values read before must
+	 * not be cached after it changed, as they may be out of date already.
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	synchronized Entry get(Resource resource, URI[] contexts) {
+		Entry entry = entries.get(resource);
+		if (entry != null && timeToLive > 0
+				&& System.currentTimeMillis() - entry.created > timeToLive) {
+			entries.remove(resource);
+			unindex(resource, entry);
+			entry = null;
+		}
+		if (entry == null || !Arrays.equals(entry.contexts, contexts)) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry;
+	}
+
+	/**
+	 * Caches the state of a resource read with the given version.
+	 *
+	 * @param binding
+	 *            the name of the resource's binding or null if only the types
+	 *            were read
+	 */
+	public synchronized void put(Resource resource, URI[] contexts, Set<URI> types,
+			String binding, List<BindingSet> bindings, long version) {
+		if (!enabled || version != this.version)
+			return;
+		Entry previous = entries.get(resource);
+		if (previous != null) {
+			if (binding == null && previous.binding != null
+					&& Arrays.equals(previous.contexts, contexts))
+				return; // keep the bindings
+			unindex(resource, previous);
+		}
+		Entry entry = new Entry(types, binding, bindings, contexts,
+				System.currentTimeMillis());
+		entries.put(resource, entry);
+		for (Resource reference : entry.references) {
+			Set<Resource> set = referrers.get(reference);
+			if (set == null) {
+				referrers.put(reference, set = new HashSet<Resource>());
+			}
+			set.add(resource);
+		}
+	}
+
+	/**
+	 * Drops the entries of the given subjects and of the resources referring
+	 * to them.
+	 */
+	public synchronized void invalidate(Collection<Resource> subjects) {
+		version++;
+		for (Resource subject : subjects) {
+			remove(subject);
+			Set<Resource> set = referrers.remove(subject);
+			if (set != null) {
+				for (Resource referrer : set) {
+					remove(referrer);
+				}
+			}
+		}
+	}
+
+	private void remove(Resource resource) {
+		Entry entry = entries.remove(resource);
+		if (entry != null) {
+			unindex(resource, entry);
+			invalidations++;
+		}
+	}
+
+	private void unindex(Resource resource, Entry entry) {
+		for (Resource reference : entry.references) {
+			Set<Resource> set = referrers.get(reference);
+			if (set != null) {
+				set.remove(resource);
+				if (set.isEmpty()) {
+					referrers.remove(reference);
+				}
+			}
+		}
+	}
+}
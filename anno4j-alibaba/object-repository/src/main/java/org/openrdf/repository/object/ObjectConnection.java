@@ -32,10 +32,14 @@ import info.aduna.iteration.CloseableIteration;
 import info.aduna.iteration.LookAheadIteration;
 import org.openrdf.idGenerator.IDGenerator;
 import org.openrdf.model.*;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.query.BooleanQuery;
 import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.Query;
 import org.openrdf.query.QueryEvaluationException;
 import org.openrdf.query.QueryLanguage;
 import org.openrdf.query.TupleQuery;
+import org.openrdf.query.Update;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.contextaware.ContextAwareConnection;
@@ -45,6 +49,7 @@ import org.openrdf.repository.object.exceptions.ObjectPersistException;
 import org.openrdf.repository.object.managers.helpers.WeakValueMap;
 import org.openrdf.repository.object.result.ObjectIterator;
 import org.openrdf.repository.object.traits.Mergeable;
+import org.openrdf.repository.object.traits.PropertyConsumer;
 import org.openrdf.repository.object.traits.RDFObjectBehaviour;
 import org.openrdf.repository.object.traits.Refreshable;
 import org.openrdf.result.Result;
@@ -76,6 +81,12 @@ public class ObjectConnection extends ContextAwareConnection {
 		ObjectIterator.close(iter);
 	}
 
+	/** Maximum number of resources matched by one VALUES block */
+	public static final int VALUES_CHUNK_SIZE = 256;
+
+	/** Maximum number of parsed queries kept by {@link #prepareCachedTupleQuery(String)} */
+	public static final int PREPARED_QUERY_CACHE_SIZE = 64;
+
 	final Logger logger = LoggerFactory.getLogger(ObjectConnection.class);
 	private final ObjectRepository repository;
 	private String language;
@@ -84,10 +95,24 @@ public class ObjectConnection extends ContextAwareConnection {
 	private final Map<Object, Resource> assigned = new IdentityHashMap<Object, Resource>();
 	private final Set<Resource> merged = new HashSet<Resource>();
 	private final Map<Class<?>, Map<Integer, ObjectQuery>> queries = new HashMap<Class<?>, Map<Integer, ObjectQuery>>();
+	private final Map<Class<?>, String> valuesQueries = new HashMap<Class<?>, String>();
+	/** parsed SPARQL queries, dropped when the dataset of new queries changes */
+	private final Map<String, Query> preparedQueries = new LinkedHashMap<String, Query>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Query> eldest) {
+			return size() > PREPARED_QUERY_CACHE_SIZE;
+		}
+	};
 	private final BlobStore blobs;
 	private URI versionBundle;
 	private BlobVersion blobVersion;
 	private final Map<Resource, RDFObject> cachedObjects = new WeakValueMap<Resource, RDFObject>(512);
+	/** subjects modified since the last commit, dropped from the object cache */
+	private final Set<Resource> modified = new HashSet<Resource>();
+	private boolean modifiedAll;
+	/** registered individuals whose types were written to individualsContext */
+	private final Set<Resource> individuals = new HashSet<Resource>();
+	private URI individualsContext;
 
 	protected ObjectConnection(ObjectRepository repository,
 			RepositoryConnection connection, ObjectFactory factory,
@@ -142,6 +167,16 @@ public class ObjectConnection extends ContextAwareConnection {
 		}
 	}
 
+	/**
+	 * The repository wide cache of this connection or null. The cache is
+	 * looked up in the repository, so a cache set later applies to this
+	 * connection, too. While a cache is set, the subjects of all added and
+	 * removed statements are tracked and dropped from the cache on commit.
+	 */
+	public ObjectCache getObjectCache() {
+		return repository.getObjectCache();
+	}
+
 	public String toString() {
 		URI uri = getVersionBundle();
 		if (uri == null)
@@ -155,9 +190,35 @@ public class ObjectConnection extends ContextAwareConnection {
 			super.close();
 		} finally {
 			cachedObjects.clear();
+			clearPreparedQueries();
+		}
+	}
+
+	/**
+	 * Forgets which instances have been imported through this connection, so
+	 * that a connection that is reused for another unit of work imports them
+	 * again instead of silently skipping them.
+	 */
+	public void resetImports() {
+		synchronized (assigned) {
+			assigned.clear();
+		}
+		synchronized (merged) {
+			merged.clear();
 		}
 	}
 
+	/**
+	 * Drops the objects, property values and types this connection has read,
+	 * so that a connection that is reused for another unit of work reads the
+	 * changes committed by other connections in the meantime.
+	 */
+	public void clearCache() {
+		cachedObjects.clear();
+		types.clearCache();
+		clearIndividuals();
+	}
+
 	@Override
 	public synchronized void rollback() throws RepositoryException {
 		if (blobVersion != null) {
@@ -169,6 +230,17 @@ public class ObjectConnection extends ContextAwareConnection {
 		}
 		super.rollback();
 		cachedObjects.clear();
+		types.clearCache();
+		clearIndividuals();
+		// entries read while the changes were visible may be out of date
+		invalidateModified();
+	}
+
+	@Override
+	public synchronized void begin() throws RepositoryException {
+		super.begin();
+		// types committed by other connections since they were read
+		types.clearCache();
 	}
 
 	@Override
@@ -183,6 +255,8 @@ public class ObjectConnection extends ContextAwareConnection {
 					}
 				}
 				super.commit();
+				types.clearCache();
+				invalidateModified();
 				if (blobVersion != null) {
 					blobVersion.commit();
 					blobVersion = null;
@@ -225,9 +299,52 @@ public class ObjectConnection extends ContextAwareConnection {
 			}
 		} else {
 			super.setAutoCommit(auto);
+			invalidateUnlessActive();
 		}
 	}
 
+	@Override
+	public void clear(Resource... contexts) throws RepositoryException {
+		modifiedAll();
+		clearIndividuals();
+		super.clear(contexts);
+		invalidateUnlessActive();
+	}
+
+	@Override
+	public Update prepareUpdate(QueryLanguage ql, String update, String baseURI)
+			throws MalformedQueryException, RepositoryException {
+		Update prepared = super.prepareUpdate(ql, update, baseURI);
+		return new InvalidatingUpdate(this, prepared);
+	}
+
+	@Override
+	protected boolean isDelegatingAdd() throws RepositoryException {
+		// statements must pass addWithoutCommit to track their subjects
+		return getObjectCache() == null && !types.isCaching()
+				&& super.isDelegatingAdd();
+	}
+
+	@Override
+	protected boolean isDelegatingRemove() throws RepositoryException {
+		return getObjectCache() == null && !types.isCaching()
+				&& super.isDelegatingRemove();
+	}
+
+	@Override
+	protected void addWithoutCommit(Resource subject, URI predicate,
+			Value object, Resource... contexts) throws RepositoryException {
+		modified(subject);
+		super.addWithoutCommit(subject, predicate, object, contexts);
+	}
+
+	@Override
+	protected void removeWithoutCommit(Resource subject, URI predicate,
+			Value object, Resource... contexts) throws RepositoryException {
+		modified(subject);
+		super.removeWithoutCommit(subject, predicate, object, contexts);
+	}
+
 	/**
 	 * The assign language for this connection, if any.
 	 *
@@ -272,8 +389,14 @@ public class ObjectConnection extends ContextAwareConnection {
 				return addObject(entity);
 		}
 		if (instance instanceof RDFObject) {
+			Resource resource = ((RDFObject) instance).getResource();
+			Set<URI> individual = repository.getIndividualTypes(resource);
+			if (individual != null) {
+				addIndividualTypes(resource, individual);
+				return resource;
+			}
 			if (((RDFObject) instance).getObjectConnection() == this)
-				return ((RDFObject) instance).getResource();
+				return resource;
 		} else {
 			if (of.isDatatype(instance.getClass()))
 				return of.createLiteral(instance);
@@ -319,7 +442,7 @@ public class ObjectConnection extends ContextAwareConnection {
 		}
 		try {
 			Class<?> proxy = entity.getClass();
-			Set<URI> list = getTypes(proxy, new HashSet<URI>(4));
+			Set<URI> list = of.getTypesOf(proxy);
 			for (URI type : list) {
 				types.addTypeStatement(resource, type);
 			}
@@ -354,8 +477,7 @@ public class ObjectConnection extends ContextAwareConnection {
 			}
 		}
 		Resource resource = findResource(entity);
-		Set<URI> types = new HashSet<URI>(4);
-		getTypes(entity.getClass(), types);
+		Set<URI> types = new HashSet<URI>(of.getTypesOf(entity.getClass()));
 		addConcept(resource, concept, types);
 		RDFObject bean = of.createObject(resource, types);
 		assert assertConceptRecorded(bean, concept);
@@ -410,8 +532,7 @@ public class ObjectConnection extends ContextAwareConnection {
 		}
 		assert types != null && types.length > 0;
 		Resource resource = findResource(entity);
-		Set<URI> list = new HashSet<URI>(4);
-		getTypes(entity.getClass(), list);
+		Set<URI> list = new HashSet<URI>(of.getTypesOf(entity.getClass()));
 		boolean autoCommit = isAutoCommit();
 		if (autoCommit) {
 			setAutoCommit(false);
@@ -521,7 +642,26 @@ public class ObjectConnection extends ContextAwareConnection {
 		RDFObject cached = cached(resource);
 		if (cached != null)
 			return cached;
-		return cache(of.createObject(resource, types.getTypes(resource)));
+		ObjectCache cache = getReadCache(resource);
+		if (cache == null)
+			return cache(of.createObject(resource, types.getTypes(resource)));
+		URI[] contexts = getReadContexts();
+		ObjectCache.Entry entry = cache.get(resource, contexts);
+		if (entry != null && !isModified(entry))
+			return cache(createObject(resource, entry));
+		long version = cache.getVersion();
+		Set<URI> set = types.getTypes(resource);
+		cache.put(resource, contexts, set, null, null, version);
+		return cache(of.createObject(resource, set));
+	}
+
+	/**
+	 * Reads the rdf:types of the given resources with as few queries as
+	 * possible, e.g. before objects are created for many of them.
+	 */
+	public Map<Resource, Set<URI>> getTypes(
+			Collection<? extends Resource> resources) throws RepositoryException {
+		return types.getTypes(resources);
 	}
 
 	/**
@@ -541,6 +681,15 @@ public class ObjectConnection extends ContextAwareConnection {
 		RDFObject cached = cached(resource);
 		if (concept.isInstance(cached))
 			return concept.cast(cached);
+		ObjectCache cache = getReadCache(resource);
+		if (cache != null) {
+			ObjectCache.Entry entry = cache.get(resource, getReadContexts());
+			if (entry != null && !isModified(entry)) {
+				RDFObject object = createObject(resource, entry);
+				if (concept.isInstance(object))
+					return concept.cast(cache(object));
+			}
+		}
 		return getObjects(concept, resource).singleResult();
 	}
 
@@ -569,7 +718,7 @@ public class ObjectConnection extends ContextAwareConnection {
 			throws RepositoryException,
 			QueryEvaluationException {
 		try {
-			return getObjectQuery(concept, 0).evaluate(concept);
+			return evaluate(getObjectQuery(concept, 0), concept);
 		} catch (MalformedQueryException e) {
 			throw new AssertionError(e);
 		}
@@ -605,7 +754,7 @@ public class ObjectConnection extends ContextAwareConnection {
 			final List<Resource> list = new ArrayList<Resource>(size);
 			list.addAll(Arrays.asList(resources));
 			CloseableIteration<T, QueryEvaluationException> iter;
-			final Result<T> result = query.evaluate(concept);
+			final Result<T> result = evaluate(query, concept);
 			iter = new LookAheadIteration<T, QueryEvaluationException>() {
 				@Override
 				protected T getNextElement() throws QueryEvaluationException {
@@ -625,12 +774,73 @@ public class ObjectConnection extends ContextAwareConnection {
 		}
 	}
 
+	/**
+	 * Loads the resources assumed to implement the given concept. The
+	 * resources are matched by a VALUES block in chunks of
+	 * {@link #VALUES_CHUNK_SIZE}, so each chunk needs a single query. Resources
+	 * without an rdf:type are not included. The objects of a chunk are ordered
+	 * by their IRIs.
+	 */
+	public <T> Result<T> getObjects(final Class<T> concept,
+			Collection<URI> uris) throws RepositoryException,
+			QueryEvaluationException {
+		final List<URI> list = new ArrayList<URI>(uris);
+		final String sparql = getValuesQuery(concept);
+		CloseableIteration<T, QueryEvaluationException> iter;
+		iter = new LookAheadIteration<T, QueryEvaluationException>() {
+			private int offset;
+			private Result<T> chunk;
+
+			@Override
+			protected T getNextElement() throws QueryEvaluationException {
+				while (chunk == null || !chunk.hasNext()) {
+					if (chunk != null) {
+						chunk.close();
+						chunk = null;
+					}
+					if (offset >= list.size())
+						return null;
+					int end = Math.min(offset + VALUES_CHUNK_SIZE, list.size());
+					chunk = evaluate(list.subList(offset, end));
+					offset = end;
+				}
+				return chunk.next();
+			}
+
+			private Result<T> evaluate(List<URI> chunk)
+					throws QueryEvaluationException {
+				try {
+					String query = sparql.replace(ObjectFactory.VALUES_PLACEHOLDER,
+							ObjectFactory.createValues(chunk));
+					return ObjectConnection.this.evaluate(prepareObjectQuery(SPARQL, query), concept);
+				} catch (MalformedQueryException e) {
+					throw new QueryEvaluationException(e);
+				} catch (RepositoryException e) {
+					throw new QueryEvaluationException(e);
+				}
+			}
+
+			@Override
+			protected void handleClose() throws QueryEvaluationException {
+				if (chunk != null) {
+					chunk.close();
+				}
+			}
+		};
+		return new ResultImpl<T>(iter);
+	}
+
 	@SuppressWarnings("unchecked")
 	public <T> T refresh(T object) throws RepositoryException {
 		Resource resource = findResource(object);
 		if (object instanceof Refreshable) {
 			((Refreshable) object).refresh();
 		}
+		ObjectCache cache = getObjectCache();
+		if (cache != null) {
+			cache.invalidate(Collections.singleton(resource));
+		}
+		this.types.modified(resource);
 		Set<URI> types = this.types.getTypes(resource);
 		Class<?> proxy = of.getObjectClass(resource, types);
 		RDFObject cached = cached(resource);
@@ -693,6 +903,102 @@ public class ObjectConnection extends ContextAwareConnection {
 		return createObjectQuery(prepareTupleQuery(query));
 	}
 
+	/**
+	 * Prepares a SPARQL query that returns object(s), reusing the parsed query
+	 * of an earlier call with the same query string, see
+	 * {@link #prepareCachedTupleQuery(String)}.
+	 */
+	public ObjectQuery prepareCachedObjectQuery(String query)
+			throws MalformedQueryException, RepositoryException {
+		return createObjectQuery(prepareCachedTupleQuery(query));
+	}
+
+	/**
+	 * Prepares a SPARQL tuple query, reusing the parsed query of an earlier
+	 * call with the same query string on this connection. The bindings of a
+	 * reused query are cleared, so only the query string is shared. A query
+	 * must be evaluated before the same query string is prepared again.
+	 */
+	public TupleQuery prepareCachedTupleQuery(String query)
+			throws MalformedQueryException, RepositoryException {
+		synchronized (preparedQueries) {
+			Query prepared = preparedQueries.get(query);
+			if (prepared instanceof TupleQuery) {
+				prepared.clearBindings();
+				return (TupleQuery) prepared;
+			}
+		}
+		TupleQuery prepared = prepareTupleQuery(SPARQL, query);
+		synchronized (preparedQueries) {
+			preparedQueries.put(query, prepared);
+		}
+		return prepared;
+	}
+
+	/**
+	 * Prepares a SPARQL ask query, reusing the parsed query of an earlier call
+	 * with the same query string on this connection, see
+	 * {@link #prepareCachedTupleQuery(String)}.
+	 */
+	public BooleanQuery prepareCachedBooleanQuery(String query)
+			throws MalformedQueryException, RepositoryException {
+		synchronized (preparedQueries) {
+			Query prepared = preparedQueries.get(query);
+			if (prepared instanceof BooleanQuery) {
+				prepared.clearBindings();
+				return (BooleanQuery) prepared;
+			}
+		}
+		BooleanQuery prepared = prepareBooleanQuery(SPARQL, query);
+		synchronized (preparedQueries) {
+			preparedQueries.put(query, prepared);
+		}
+		return prepared;
+	}
+
+	/**
+	 * @return The number of parsed queries kept by this connection.
+	 */
+	public int getPreparedQueryCount() {
+		synchronized (preparedQueries) {
+			return preparedQueries.size();
+		}
+	}
+
+	@Override
+	public void setReadContexts(URI... readContexts) {
+		super.setReadContexts(readContexts);
+		clearPreparedQueries();
+	}
+
+	@Override
+	public void setIncludeInferred(boolean includeInferred) {
+		super.setIncludeInferred(includeInferred);
+		clearPreparedQueries();
+	}
+
+	@Override
+	public void setMaxQueryTime(int maxQueryTime) {
+		super.setMaxQueryTime(maxQueryTime);
+		clearPreparedQueries();
+	}
+
+	@Override
+	public void setBaseURI(String baseURI) {
+		super.setBaseURI(baseURI);
+		clearPreparedQueries();
+	}
+
+	/**
+	 * Drops the parsed queries, as their dataset and settings were taken from
+	 * this connection when they were prepared.
+	 */
+	private void clearPreparedQueries() {
+		synchronized (preparedQueries) {
+			preparedQueries.clear();
+		}
+	}
+
 	RDFObject cache(RDFObject object) {
 		cachedObjects.put(object.getResource(), object);
 		return object;
@@ -702,6 +1008,138 @@ public class ObjectConnection extends ContextAwareConnection {
 		return cachedObjects.get(resource);
 	}
 
+	/**
+	 * Writes the types of a registered individual into the insert context, the
+	 * first time this connection refers to the individual there, so that the
+	 * context is complete on its own.
+	 */
+	private void addIndividualTypes(Resource resource, Set<URI> individual)
+			throws RepositoryException {
+		URI context = getInsertContext();
+		synchronized (individuals) {
+			if (context == null ? individualsContext != null : !context
+					.equals(individualsContext)) {
+				individuals.clear();
+				individualsContext = context;
+			}
+			if (!individuals.add(resource))
+				return;
+		}
+		for (URI type : individual) {
+			add(resource, RDF.TYPE, type);
+		}
+	}
+
+	private void clearIndividuals() {
+		synchronized (individuals) {
+			individuals.clear();
+		}
+	}
+
+	void modifiedAll() {
+		types.clearCache();
+		synchronized (modified) {
+			modifiedAll = true;
+		}
+	}
+
+	/**
+	 * Drops the modified subjects from the cache, unless a transaction is
+	 * active that may still be rolled back.
+	 */
+	void invalidateUnlessActive() throws RepositoryException {
+		if (getObjectCache() != null && !isActive()) {
+			invalidateModified();
+		}
+	}
+
+	private void modified(Resource subject) {
+		types.modified(subject);
+		if (getObjectCache() == null)
+			return;
+		synchronized (modified) {
+			if (subject == null) {
+				modifiedAll = true;
+			} else if (!modifiedAll) {
+				modified.add(subject);
+			}
+		}
+	}
+
+	private void invalidateModified() {
+		ObjectCache cache = getObjectCache();
+		if (cache == null)
+			return;
+		synchronized (modified) {
+			if (modifiedAll) {
+				cache.clear();
+			} else if (!modified.isEmpty()) {
+				cache.invalidate(modified);
+			}
+			modified.clear();
+			modifiedAll = false;
+		}
+	}
+
+	private boolean isModified(ObjectCache.Entry entry) {
+		synchronized (modified) {
+			return entry.refersTo(modified);
+		}
+	}
+
+	/**
+	 * @return the cache to read the resource from, or null if the resource
+	 *         was modified by this connection and not committed yet
+	 */
+	private ObjectCache getReadCache(Resource resource) {
+		ObjectCache cache = getObjectCache();
+		if (cache == null || !cache.isEnabled() || !(resource instanceof URI))
+			return null;
+		synchronized (modified) {
+			if (modifiedAll || modified.contains(resource))
+				return null;
+		}
+		return cache;
+	}
+
+	private RDFObject createObject(Resource resource, ObjectCache.Entry entry) {
+		RDFObject object = of.createObject(resource, entry.getTypes());
+		if (entry.getBinding() != null && object instanceof PropertyConsumer) {
+			((PropertyConsumer) object).usePropertyBindings(
+					entry.getBinding(), entry.getBindings());
+		}
+		return object;
+	}
+
+	/**
+	 * Evaluates a query of this connection, putting the objects into the
+	 * cache while this connection has no uncommitted modifications.
+	 */
+	private <T> Result<T> evaluate(ObjectQuery query, Class<T> concept)
+			throws QueryEvaluationException {
+		ObjectCache cache = getObjectCache();
+		if (cache != null && cache.isEnabled()) {
+			synchronized (modified) {
+				if (!modifiedAll && modified.isEmpty())
+					return query.evaluate(concept, cache);
+			}
+		}
+		return query.evaluate(concept);
+	}
+
+	/**
+	 * The query is only generated once per concept, as the resources of the
+	 * VALUES block can not be bound as parameters.
+	 */
+	private synchronized String getValuesQuery(Class<?> concept) {
+		String sparql = valuesQueries.get(concept);
+		if (sparql == null) {
+			sparql = of.createObjectQuery(concept, ObjectFactory.VALUES);
+			valuesQueries.put(concept, sparql);
+		}
+		return sparql;
+	}
+
 	/** method and result synchronised on this */
 	private <T> ObjectQuery getObjectQuery(Class<T> concept,
 			int length) throws MalformedQueryException,
@@ -774,24 +1212,6 @@ public class ObjectConnection extends ContextAwareConnection {
 		}
 	}
 
-	private <C extends Collection<URI>> C getTypes(Class<?> role, C set)
-			throws RepositoryException {
-		URI type = of.getNameOf(role);
-		if (type == null) {
-			Class<?> superclass = role.getSuperclass();
-			if (superclass != null) {
-				getTypes(superclass, set);
-			}
-			Class<?>[] interfaces = role.getInterfaces();
-			for (int i = 0, n = interfaces.length; i < n; i++) {
-				getTypes(interfaces[i], set);
-			}
-		} else {
-			set.add(type);
-		}
-		return set;
-	}
-
 	private <C extends Collection<URI>> C addConcept(Resource resource,
 			Class<?> role, C set) throws RepositoryException {
 		URI type = of.getNameOf(role);
@@ -32,6 +32,7 @@ package org.openrdf.repository.object;
 import org.openrdf.idGenerator.IDGenerator;
 import org.openrdf.model.*;
 import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.query.MalformedQueryException;
 import org.openrdf.repository.object.advisers.helpers.ObjectQueryFactory;
 import org.openrdf.repository.object.composition.ClassResolver;
 import org.openrdf.repository.object.exceptions.ObjectCompositionException;
@@ -40,7 +41,9 @@ import org.openrdf.repository.object.traits.ManagedRDFObject;
 import org.openrdf.repository.object.traits.RDFObjectBehaviour;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 
 /**
@@ -51,6 +54,22 @@ import java.util.*;
  */
 public class ObjectFactory {
 	static final String VAR_PREFIX = "subj"; 
+	/** Number of bindings of a query matching the resources of a VALUES block */
+	static final int VALUES = -1;
+	/** Replaced by the resources of the VALUES block */
+	static final String VALUES_PLACEHOLDER = "$values";
+	/** Characters besides controls and spaces not allowed in SPARQL IRIs */
+	private static final String INVALID_IRI_CHARS = "<>\"{}|^`\\";
+	/** Default constructors of the composed classes, looked up once */
+	private static final ClassValue<Constructor<?>> constructors = new ClassValue<Constructor<?>>() {
+		protected Constructor<?> computeValue(Class<?> proxy) {
+			try {
+				return proxy.getConstructor();
+			} catch (NoSuchMethodException e) {
+				return null;
+			}
+		}
+	};
 	private LiteralManager lm;
 	private ClassResolver resolver;
 	private ObjectConnection connection;
@@ -232,11 +251,45 @@ public class ObjectFactory {
 		return resolver.getRoleMapper().findType(concept);
 	}
 
+	/**
+	 * @return the unmodifiable set of rdf:types implemented by the given
+	 *         (proxy) class
+	 */
+	public Set<URI> getTypesOf(Class<?> role) {
+		return resolver.getTypes(role);
+	}
+
 	protected void setObjectConnection(ObjectConnection connection) {
 		this.connection = connection;
 		factories = new HashMap<Class<?>, ObjectQueryFactory>();
 	}
 
+	/**
+	 * Writes the given IRIs as the terms of a VALUES block. IRIs are checked
+	 * instead of escaped, as SPARQL IRI references have no escape sequences
+	 * for the characters that would end them.
+	 * 
+	 * @throws MalformedQueryException
+	 *             if a value is no IRI or contains a character that is not
+	 *             allowed in a SPARQL IRI reference, e.g. a space or '>'
+	 */
+	public static String createValues(Collection<? extends Value> uris)
+			throws MalformedQueryException {
+		StringBuilder values = new StringBuilder();
+		for (Value uri : uris) {
+			if (!(uri instanceof URI))
+				throw new MalformedQueryException("Not an IRI: " + uri);
+			String iri = uri.stringValue();
+			for (int i = 0, n = iri.length(); i < n; i++) {
+				char chr = iri.charAt(i);
+				if (chr <= 0x20 || INVALID_IRI_CHARS.indexOf(chr) >= 0)
+					throw new MalformedQueryException("Invalid IRI: " + iri);
+			}
+			values.append(" <").append(iri).append(">");
+		}
+		return values.toString();
+	}
+
 	protected String createObjectQuery(Class<?> concept, int bindings) {
 		Collection<PropertyDescriptor> subjectProperties = resolver.getPropertyMapper()
 				.findFunctionalProperties(concept);
@@ -250,6 +303,9 @@ public class ObjectFactory {
 			select.append(" ?subj_class");
 		}
 		where.append("\nWHERE { ");
+		if (bindings == VALUES) {
+			where.append("\nVALUES ?subj { ").append(VALUES_PLACEHOLDER).append(" }");
+		}
 		URI uri = getNameOf(concept);
 		boolean typed = uri != null && bindings == 0;
 		if (typed) {
@@ -322,7 +378,7 @@ public class ObjectFactory {
 			where.append(")");
 		}
 		where.append(" } ");
-		if (bindings > 1) {
+		if (bindings > 1 || bindings == VALUES) {
 			where.append("\nORDER BY ?subj");
 		}
 		return select.append(where).toString();
@@ -399,11 +455,13 @@ public class ObjectFactory {
 
 	private Object newInstance(Class<?> proxy) throws InstantiationException,
 			IllegalAccessException {
-		ClassLoader pcl = proxy.getClassLoader();
-		if (pcl == null)
-			return proxy.newInstance();
-		synchronized (pcl) {
+		Constructor<?> constructor = constructors.get(proxy);
+		if (constructor == null)
 			return proxy.newInstance();
+		try {
+			return constructor.newInstance();
+		} catch (InvocationTargetException e) {
+			throw new ObjectCompositionException(e.getCause());
 		}
 	}
 
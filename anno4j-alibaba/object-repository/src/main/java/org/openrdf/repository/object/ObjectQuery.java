@@ -178,6 +178,21 @@ public class ObjectQuery implements Query {
 		}
 	}
 
+	/**
+	 * Evaluates the query like {@link #evaluate(Class)} and puts the resources
+	 * read into the given cache.
+	 */
+	<T> Result<T> evaluate(Class<T> concept, ObjectCache cache)
+			throws QueryEvaluationException {
+		long version = cache.getVersion();
+		TupleQueryResult tuple = query.evaluate();
+		String binding = tuple.getBindingNames().get(0);
+		ObjectCursor cursor = new ObjectCursor(manager, tuple, binding, cache,
+				version);
+		Result result = new ResultImpl(cursor, concept);
+		return (Result<T>) result;
+	}
+
 	/**
 	 * Evaluates the query returning a result of Object[].
 	 */
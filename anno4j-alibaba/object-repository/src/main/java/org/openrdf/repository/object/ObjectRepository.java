@@ -32,6 +32,8 @@ package org.openrdf.repository.object;
 
 import org.openrdf.idGenerator.IDGenerator;
 import org.openrdf.idGenerator.IDGeneratorAnno4jURN;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
 import org.openrdf.model.ValueFactory;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
@@ -42,7 +44,13 @@ import org.openrdf.store.blob.BlobStoreFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Creates the {@link ObjectConnection} used to interact with the repository.
@@ -58,6 +66,9 @@ public class ObjectRepository extends ContextAwareRepository {
 	private Map<String, String> blobStoreParameters;
 	private BlobStore blobs;
     private IDGenerator idGenerator = new IDGeneratorAnno4jURN();
+	private volatile ObjectCache objectCache;
+	private volatile int typeCacheSize = TypeManager.DEFAULT_CACHE_SIZE;
+	private final ConcurrentMap<Resource, Set<URI>> individuals = new ConcurrentHashMap<Resource, Set<URI>>();
 
 	public ObjectRepository() throws ObjectStoreConfigException {
 		this.service = new ObjectServiceImpl();
@@ -75,6 +86,18 @@ public class ObjectRepository extends ContextAwareRepository {
 		this.service = service;
 	}
 
+	/**
+	 * Composes the classes of objects with the given combinations of
+	 * rdf:types, so the first objects of these types are created without
+	 * delay.
+	 */
+	public void prewarm(Collection<? extends Set<URI>> typeSets) {
+		ObjectFactory factory = service.createObjectFactory();
+		for (Set<URI> types : typeSets) {
+			factory.getObjectClass(null, types);
+		}
+	}
+
 	public synchronized String getBlobStoreUrl() {
 		return blobStoreUrl;
 	}
@@ -177,7 +200,82 @@ public class ObjectRepository extends ContextAwareRepository {
 	}
 
 	protected TypeManager createTypeManager() {
-		return new TypeManager(true);
+		return new TypeManager(true, typeCacheSize);
+	}
+
+	public int getTypeCacheSize() {
+		return typeCacheSize;
+	}
+
+	/**
+	 * Sets the number of resources each connection opened afterwards keeps
+	 * the rdf:types of.
+	 *
+	 * @param size
+	 *            maximum number of resources or 0, the default, to read the
+	 *            types of every resource again
+	 * @see TypeManager
+	 */
+	public void setTypeCacheSize(int size) {
+		this.typeCacheSize = size;
+	}
+
+	/**
+	 * The cache shared by the connections of this repository, or null if
+	 * there is none.
+	 */
+	public ObjectCache getObjectCache() {
+		return objectCache;
+	}
+
+	/**
+	 * Sets the cache shared by the connections of this repository, including
+	 * the connections that are already open. Connections track the subjects
+	 * they modify only while a cache is set, so a cache that is switched off
+	 * temporarily should be disabled with
+	 * {@link ObjectCache#setEnabled(boolean)} instead of being removed.
+	 * Statements written by a transaction that was already active when the
+	 * cache was set are not dropped from it.
+	 *
+	 * @param cache
+	 *            the cache or null to not cache objects across connections
+	 */
+	public void setObjectCache(ObjectCache cache) {
+		this.objectCache = cache;
+	}
+
+	/**
+	 * Registers a resource whose rdf:types do not change, e.g. a term of a
+	 * vocabulary. Connections use the given types instead of reading them and
+	 * refer to objects of the resource instead of merging them. The types are
+	 * written into the insert context of a connection the first time it
+	 * refers to the resource, and again after the connection was cleared or
+	 * rolled back, so every context that refers to the individual states its
+	 * types once.
+	 */
+	public void addIndividual(Resource resource, Set<URI> types) {
+		Set<URI> set = new HashSet<URI>(types);
+		Set<URI> previous = individuals.putIfAbsent(resource,
+				Collections.unmodifiableSet(set));
+		while (previous != null && !previous.containsAll(set)) {
+			Set<URI> union = new HashSet<URI>(previous);
+			union.addAll(set);
+			if (individuals.replace(resource, previous,
+					Collections.unmodifiableSet(union)))
+				break;
+			previous = individuals.get(resource);
+		}
+	}
+
+	/**
+	 * @return the types of the registered individual or null if the resource
+	 *         is not registered
+	 * @see #addIndividual(Resource, Set)
+	 */
+	public Set<URI> getIndividualTypes(Resource resource) {
+		if (individuals.isEmpty())
+			return null;
+		return individuals.get(resource);
 	}
 
     public IDGenerator getIdGenerator() {
@@ -33,6 +33,16 @@ public class ObjectServiceImpl implements ObjectService {
 		resolver = new ClassResolver(mapper, cl);
 	}
 
+	/**
+	 * @param classCache
+	 *            directory to keep composed classes in across restarts
+	 */
+	public ObjectServiceImpl(RoleMapper mapper, LiteralManager literalManager,
+			ClassLoader cl, File classCache) throws ObjectStoreConfigException {
+		this.literals = literalManager;
+		resolver = new ClassResolver(mapper, cl, classCache);
+	}
+
 	public ObjectFactory createObjectFactory() {
 		return new ObjectFactory(resolver, literals);
 	}
@@ -28,8 +28,16 @@
  */
 package org.openrdf.repository.object;
 
+import static org.openrdf.query.QueryLanguage.SPARQL;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.openrdf.model.Resource;
@@ -38,21 +46,65 @@ import org.openrdf.model.URI;
 import org.openrdf.model.Value;
 import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.TupleQueryResult;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.RepositoryResult;
 
 /**
  * Reads and manages the rdf:type statements of objects.
+ * <p>
+ * The types read can be kept for the least recently used resources of the
+ * connection, which is off by default. The entry of a resource is dropped
+ * when the connection adds or removes a statement about it, other than
+ * through this manager, and all entries are dropped when a transaction begins
+ * or ends, on updates, when the read contexts change and when the connection
+ * is cleared for reuse. Types committed by other connections are therefore
+ * only missed by reads in auto-commit mode. The cache can be used by several
+ * threads. The types of the individuals registered with the repository are
+ * never read.
  * 
  * @author James Leigh
  *
  */
 public class TypeManager {
+	public static final int DEFAULT_CACHE_SIZE = 0;
+	private static final Set<URI> EMPTY_SET = Collections.emptySet();
+	private static final String VALUES_QUERY = "SELECT ?subj ?type\n"
+			+ "WHERE { VALUES ?subj {%s } ?subj a ?type }";
 	private boolean readTypes;
 	private ObjectConnection conn;
+	private final Map<Resource, Set<URI>> cache;
+	/** read contexts of the cached entries, guarded by the cache */
+	private URI[] contexts;
 
 	public TypeManager(boolean readTypes) {
+		this(readTypes, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * @param cacheSize
+	 *            maximum number of resources to keep the types of, or 0 to
+	 *            read them every time
+	 */
+	public TypeManager(boolean readTypes, final int cacheSize) {
 		this.readTypes = readTypes;
+		if (cacheSize < 1) {
+			cache = null;
+		} else {
+			// access order makes even reads modify the map
+			cache = Collections.synchronizedMap(new LinkedHashMap<Resource, Set<URI>>(64, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<Resource, Set<URI>> eldest) {
+					return size() > cacheSize;
+				}
+			});
+		}
 	}
 
 	public void setConnection(ObjectConnection conn) {
@@ -62,6 +114,133 @@ public class TypeManager {
 	public Set<URI> getTypes(Resource res) throws RepositoryException {
 		if (!readTypes)
 			return Collections.emptySet();
+		Set<URI> types = conn.getRepository().getIndividualTypes(res);
+		if (types != null)
+			return types;
+		types = getCachedTypes(res);
+		if (types != null)
+			return types;
+		return putCachedTypes(res, readTypes(res));
+	}
+
+	/**
+	 * Reads the rdf:types of many resources. The types of the IRIs that are
+	 * not cached are read by a single query for every
+	 * {@link ObjectConnection#VALUES_CHUNK_SIZE} of them.
+	 * 
+	 * @return the types of every given resource
+	 */
+	public Map<Resource, Set<URI>> getTypes(Collection<? extends Resource> resources)
+			throws RepositoryException {
+		Map<Resource, Set<URI>> result = new LinkedHashMap<Resource, Set<URI>>(
+				resources.size() * 2);
+		List<URI> missing = new ArrayList<URI>();
+		for (Resource res : resources) {
+			if (result.containsKey(res))
+				continue;
+			Set<URI> types = readTypes ? conn.getRepository()
+					.getIndividualTypes(res) : EMPTY_SET;
+			if (types == null) {
+				types = getCachedTypes(res);
+			}
+			if (types != null) {
+				result.put(res, types);
+			} else if (res instanceof URI) {
+				result.put(res, null);
+				missing.add((URI) res);
+			} else {
+				// blank nodes cannot be matched by a query
+				result.put(res, getTypes(res));
+			}
+		}
+		for (int i = 0, n = missing.size(); i < n; i += ObjectConnection.VALUES_CHUNK_SIZE) {
+			int end = Math.min(i + ObjectConnection.VALUES_CHUNK_SIZE, n);
+			readTypes(missing.subList(i, end), result);
+		}
+		return result;
+	}
+
+	public void addTypeStatement(Resource resource, URI type)
+			throws RepositoryException {
+		if (!RDFS.RESOURCE.equals(type)) {
+			Set<URI> types = getCachedTypes(resource);
+			conn.add(resource, RDF.TYPE, type);
+			if (types != null) {
+				types = new HashSet<URI>(types);
+				types.add(type);
+				putCachedTypes(resource, types);
+			}
+		}
+	}
+
+	public void removeTypeStatement(Resource resource, URI type)
+			throws RepositoryException {
+		Set<URI> types = getCachedTypes(resource);
+		conn.remove(resource, RDF.TYPE, type);
+		if (types != null) {
+			types = new HashSet<URI>(types);
+			if (type == null) {
+				types.clear();
+			} else {
+				types.remove(type);
+			}
+			putCachedTypes(resource, types);
+		}
+	}
+
+	/**
+	 * @return true if the types of any resource are cached
+	 */
+	public boolean isCaching() {
+		return cache != null && !cache.isEmpty();
+	}
+
+	/**
+	 * Drops the cached types of the given resource, or of all resources if
+	 * it is null.
+	 */
+	public void modified(Resource resource) {
+		if (cache == null) {
+			return;
+		} else if (resource == null) {
+			cache.clear();
+		} else {
+			cache.remove(resource);
+		}
+	}
+
+	/**
+	 * Drops all cached types.
+	 */
+	public void clearCache() {
+		modified(null);
+	}
+
+	private Set<URI> getCachedTypes(Resource res) throws RepositoryException {
+		if (cache == null)
+			return null;
+		URI[] read = conn.getReadContexts();
+		synchronized (cache) {
+			if (!Arrays.equals(contexts, read)) {
+				cache.clear();
+				contexts = read;
+				return null;
+			}
+			return cache.get(res);
+		}
+	}
+
+	private Set<URI> putCachedTypes(Resource res, Set<URI> types) {
+		if (types.size() > 1) {
+			types = Collections.unmodifiableSet(types);
+		}
+		if (cache != null) {
+			cache.put(res, types);
+		}
+		return types;
+	}
+
+	private Set<URI> readTypes(Resource res) throws RepositoryException {
 		RepositoryResult<Statement> match = conn.getStatements(res, RDF.TYPE, null);
 		try {
 			if (!match.hasNext())
@@ -85,15 +264,41 @@ public class TypeManager {
 		}
 	}
 
-	public void addTypeStatement(Resource resource, URI type)
+	private void readTypes(List<URI> chunk, Map<Resource, Set<URI>> result)
 			throws RepositoryException {
-		if (!RDFS.RESOURCE.equals(type)) {
-			conn.add(resource, RDF.TYPE, type);
+		Map<Resource, Set<URI>> read = new LinkedHashMap<Resource, Set<URI>>();
+		try {
+			String sparql = String.format(VALUES_QUERY,
+					ObjectFactory.createValues(chunk));
+			TupleQueryResult rows = conn.prepareTupleQuery(SPARQL, sparql)
+					.evaluate();
+			try {
+				while (rows.hasNext()) {
+					BindingSet row = rows.next();
+					Value subj = row.getValue("subj");
+					Value type = row.getValue("type");
+					if (subj instanceof Resource && type instanceof URI) {
+						Set<URI> types = read.get(subj);
+						if (types == null) {
+							read.put((Resource) subj, types = new HashSet<URI>(4));
+						}
+						types.add((URI) type);
+					}
+				}
+			} finally {
+				rows.close();
+			}
+		} catch (MalformedQueryException e) {
+			throw new RepositoryException(e);
+		} catch (QueryEvaluationException e) {
+			throw new RepositoryException(e);
+		}
+		for (URI uri : chunk) {
+			Set<URI> types = read.get(uri);
+			if (types == null) {
+				types = Collections.emptySet();
+			}
+			result.put(uri, putCachedTypes(uri, types));
 		}
-	}
-
-	public void removeTypeStatement(Resource resource, URI type)
-			throws RepositoryException {
-		conn.remove(resource, RDF.TYPE, type);
 	}
 }
@@ -70,9 +70,12 @@ public final class PropertyBehaviour implements Advice, Mergeable,
 	public void usePropertyBindings(String binding, List<BindingSet> results) {
 		if (property instanceof PropertyConsumer) {
 			String var = binding + "_" + pd.getName();
-			if (results.get(0).getBindingNames().contains(var)) {
-				PropertyConsumer pc = (PropertyConsumer) property;
-				pc.usePropertyBindings(var, results);
+			for (BindingSet result : results) {
+				if (result.getBindingNames().contains(var)) {
+					PropertyConsumer pc = (PropertyConsumer) property;
+					pc.usePropertyBindings(var, results);
+					break;
+				}
 			}
 		}
 	}
@@ -79,8 +79,16 @@ public class CachedPropertySet extends RemotePropertySet implements
 	}
 
 	public synchronized void usePropertyBindings(String binding, List<BindingSet> bindings) {
+		// rows that do not bind this property belong to other properties
+		// and would end the cursor early
+		List<BindingSet> rows = new ArrayList<BindingSet>(bindings.size());
+		for (BindingSet row : bindings) {
+			if (row.getValue(binding) != null) {
+				rows.add(row);
+			}
+		}
 		this.binding = binding;
-		this.bindings = bindings;
+		this.bindings = rows;
 	}
 
 	@Override
@@ -123,6 +131,33 @@ public class CachedPropertySet extends RemotePropertySet implements
 		cached = true;
 	}
 
+	/**
+	 * Adds the statement of the value and appends it to the values read
+	 * before, instead of reading them again.
+	 */
+	@Override
+	public boolean add(Object o) {
+		List<Object> before;
+		synchronized (this) {
+			before = cached ? cache : null;
+		}
+		boolean modified = super.add(o);
+		if (before != null && !merged) {
+			synchronized (this) {
+				if (before.size() < CACHE_LIMIT && !before.contains(o)) {
+					List<Object> list = new ArrayList<Object>(before.size() + 1);
+					list.addAll(before);
+					list.add(o);
+					cache = list;
+				} else {
+					cache = before;
+				}
+				cached = true;
+			}
+		}
+		return modified;
+	}
+
 	@Override
 	public void setSingle(Object o) {
 		if (!cached || !cache.isEmpty()) {
@@ -199,6 +234,18 @@ public class CachedPropertySet extends RemotePropertySet implements
 	public int size() {
 		if (isCacheComplete())
 			return cache.size();
+		if (binding != null) {
+			// count the bound values instead of reading the statements
+			ObjectIterator<?, Object> iter = getObjectIterator();
+			try {
+				int size;
+				for (size = 0; iter.hasNext(); size++)
+					iter.next();
+				return size;
+			} finally {
+				iter.close();
+			}
+		}
 		return super.size();
 	}
 
@@ -39,6 +39,7 @@ import static org.openrdf.repository.object.config.ObjectRepositorySchema.CONCEP
 import static org.openrdf.repository.object.config.ObjectRepositorySchema.DATATYPE;
 import static org.openrdf.repository.object.config.ObjectRepositorySchema.KNOWN_AS;
 
+import java.io.File;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -85,6 +86,7 @@ public class ObjectRepositoryConfig extends ContextAwareConfig implements
 	private List<URL> behaviourJars = new ArrayList<URL>();
 	private Value blobStore;
 	private Set<Value> blobStoreParameters = new HashSet<Value>();
+	private File classCache;
 
 	public ObjectRepositoryConfig() {
 		super();
@@ -392,6 +394,19 @@ public class ObjectRepositoryConfig extends ContextAwareConfig implements
 		}
 	}
 
+	public File getClassCache() {
+		return classCache;
+	}
+
+	/**
+	 * Keeps the composed classes in the given directory, so they do not have
+	 * to be composed again after a restart. The directory may be shared by
+	 * multiple processes.
+	 */
+	public void setClassCache(File classCache) {
+		this.classCache = classCache;
+	}
+
 	public ObjectRepositoryConfig clone() {
 		try {
 			Object o = super.clone();
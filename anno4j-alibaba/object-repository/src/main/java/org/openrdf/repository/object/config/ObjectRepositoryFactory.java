@@ -28,6 +28,7 @@
  */
 package org.openrdf.repository.object.config;
 
+import java.io.File;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -46,6 +47,7 @@ import org.openrdf.repository.config.RepositoryFactory;
 import org.openrdf.repository.config.RepositoryImplConfig;
 import org.openrdf.repository.contextaware.config.ContextAwareFactory;
 import org.openrdf.repository.object.ObjectRepository;
+import org.openrdf.repository.object.ObjectService;
 import org.openrdf.repository.object.ObjectServiceImpl;
 import org.openrdf.repository.object.behaviours.RDFObjectImpl;
 import org.openrdf.repository.object.exceptions.ObjectStoreConfigException;
@@ -92,6 +94,22 @@ public class ObjectRepositoryFactory extends ContextAwareFactory {
 		return repo;
 	}
 
+	/**
+	 * Wrap a previously initialised repository in an ObjectRepository that
+	 * uses the given, possibly shared, composed classes and mappings. The
+	 * concepts, behaviours and datatypes of the configuration are ignored.
+	 * 
+	 * @see #createObjectService(ObjectRepositoryConfig)
+	 */
+	public ObjectRepository createRepository(ObjectRepositoryConfig config,
+			ObjectService service, Repository delegate)
+			throws RepositoryConfigException, RepositoryException {
+		ObjectRepository repo = new ObjectRepository(service);
+		configure(repo, config);
+		repo.setDelegate(delegate);
+		return repo;
+	}
+
 	/**
 	 * Wrap a previously initialised repository in an ObjectRepository.
 	 */
@@ -113,6 +131,24 @@ public class ObjectRepositoryFactory extends ContextAwareFactory {
 		return getRepository(config, ValueFactoryImpl.getInstance());
 	}
 
+	/**
+	 * Creates the role and literal mappings and the class composition of the
+	 * given configuration, independent of any delegate repository. The
+	 * returned service is not modified afterwards and can be shared by many
+	 * ObjectRepositories to compose and load each class only once.
+	 */
+	public ObjectService createObjectService(ObjectRepositoryConfig config)
+			throws ObjectStoreConfigException {
+		ValueFactory vf = ValueFactoryImpl.getInstance();
+		ClassLoader cl = getClassLoader(config);
+		RoleMapper mapper = getRoleMapper(cl, vf, config);
+		LiteralManager literals = getLiteralManager(cl, vf, config);
+		if (config.getClassCache() == null)
+			return new ObjectServiceImpl(mapper, literals, cl);
+		return new ObjectServiceImpl(mapper, literals, cl,
+				config.getClassCache());
+	}
+
 	protected LiteralManager createLiteralManager(ValueFactory uf,
 			ValueFactory lf) {
 		return new LiteralManager(uf, lf);
@@ -128,10 +164,23 @@ public class ObjectRepositoryFactory extends ContextAwareFactory {
 		return new ObjectRepository(new ObjectServiceImpl(mapper, literals, cl));
 	}
 
+	protected ObjectRepository createObjectRepository(RoleMapper mapper,
+			LiteralManager literals, ClassLoader cl, File classCache)
+			throws ObjectStoreConfigException {
+		if (classCache == null)
+			return createObjectRepository(mapper, literals, cl);
+		return new ObjectRepository(new ObjectServiceImpl(mapper, literals, cl,
+				classCache));
+	}
+
 	private ObjectRepository getRepository(ObjectRepositoryConfig config,
 			ValueFactory vf) throws ObjectStoreConfigException {
 		ObjectRepository repo = getObjectRepository(config, vf);
+		configure(repo, config);
+		return repo;
+	}
 
+	private void configure(ObjectRepository repo, ObjectRepositoryConfig config) {
 		repo.setIncludeInferred(config.isIncludeInferred());
 		repo.setMaxQueryTime(config.getMaxQueryTime());
 		repo.setQueryLanguage(config.getQueryLanguage());
@@ -140,8 +189,9 @@ public class ObjectRepositoryFactory extends ContextAwareFactory {
 		repo.setInsertContext(config.getInsertContext());
 		repo.setRemoveContexts(config.getRemoveContexts());
 		repo.setArchiveContexts(config.getArchiveContexts());
+		repo.setBlobStoreUrl(config.getBlobStore());
+		repo.setBlobStoreParameters(config.getBlobStoreParameters());
 		// repo.setQueryResultLimit(config.getQueryResultLimit());
-		return repo;
 	}
 
 	private ObjectRepository getObjectRepository(ObjectRepositoryConfig module,
@@ -149,10 +199,8 @@ public class ObjectRepositoryFactory extends ContextAwareFactory {
 		ClassLoader cl = getClassLoader(module);
 		RoleMapper mapper = getRoleMapper(cl, vf, module);
 		LiteralManager literals = getLiteralManager(cl, vf, module);
-		ObjectRepository repo = createObjectRepository(mapper, literals, cl);
-		repo.setBlobStoreUrl(module.getBlobStore());
-		repo.setBlobStoreParameters(module.getBlobStoreParameters());
-		return repo;
+		return createObjectRepository(mapper, literals, cl,
+				module.getClassCache());
 	}
 
 	private ClassLoader getClassLoader(ObjectRepositoryConfig module) {
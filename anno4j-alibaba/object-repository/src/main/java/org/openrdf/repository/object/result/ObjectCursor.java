@@ -33,6 +33,7 @@ import info.aduna.iteration.LookAheadIteration;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
@@ -43,6 +44,7 @@ import org.openrdf.model.Value;
 import org.openrdf.query.BindingSet;
 import org.openrdf.query.QueryEvaluationException;
 import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.object.ObjectCache;
 import org.openrdf.repository.object.ObjectConnection;
 import org.openrdf.repository.object.ObjectFactory;
 import org.openrdf.repository.object.traits.PropertyConsumer;
@@ -59,6 +61,11 @@ public class ObjectCursor extends LookAheadIteration<Object, QueryEvaluationExce
 	private BindingSet next;
 	private ObjectFactory of;
 	private ObjectConnection manager;
+	private ObjectCache cache;
+	private long version;
+	private URI[] contexts;
+	/** properties of resources read ahead to load their types together */
+	private final LinkedList<List<BindingSet>> pending = new LinkedList<List<BindingSet>>();
 
 	public ObjectCursor(ObjectConnection manager, CloseableIteration<BindingSet, QueryEvaluationException> result,
 			String binding) throws QueryEvaluationException {
@@ -69,18 +76,59 @@ public class ObjectCursor extends LookAheadIteration<Object, QueryEvaluationExce
 		this.of = manager.getObjectFactory();
 	}
 
+	/**
+	 * Also puts the types and property bindings of the resources into the
+	 * given cache, if they were read with the given cache version.
+	 */
+	public ObjectCursor(ObjectConnection manager, CloseableIteration<BindingSet, QueryEvaluationException> result,
+			String binding, ObjectCache cache, long version) throws QueryEvaluationException {
+		this(manager, result, binding);
+		this.cache = cache;
+		this.version = version;
+		this.contexts = manager.getReadContexts();
+	}
+
 	@Override
 	public Object getNextElement() throws QueryEvaluationException {
-		if (next == null)
+		if (pending.isEmpty() && next != null) {
+			readAhead();
+		}
+		if (pending.isEmpty())
 			return null;
-		List<BindingSet> properties;
-		Value resource = next.getValue(binding);
-		properties = readProperties();
+		List<BindingSet> properties = pending.removeFirst();
+		Value resource = properties.get(0).getValue(binding);
 		if (resource == null)
 			return null;
 		return createRDFObject(resource, properties);
 	}
 
+	/**
+	 * Reads the next resource, or if its types are not bound, the next chunk
+	 * of resources and loads their types with one query.
+	 */
+	private void readAhead() throws QueryEvaluationException {
+		if (next.hasBinding(binding + "_class")) {
+			pending.add(readProperties());
+			return;
+		}
+		List<Resource> resources = new ArrayList<Resource>();
+		while (next != null && pending.size() < ObjectConnection.VALUES_CHUNK_SIZE) {
+			List<BindingSet> properties = readProperties();
+			pending.add(properties);
+			Value resource = properties.get(0).getValue(binding);
+			if (resource instanceof URI) {
+				resources.add((URI) resource);
+			}
+		}
+		if (resources.size() > 1) {
+			try {
+				manager.getTypes(resources);
+			} catch (RepositoryException e) {
+				throw new QueryEvaluationException(e);
+			}
+		}
+	}
+
 	private List<BindingSet> readProperties() throws QueryEvaluationException {
 		Value resource = next.getValue(binding);
 		List<BindingSet> properties = new ArrayList<BindingSet>();
@@ -111,6 +159,10 @@ public class ObjectCursor extends LookAheadIteration<Object, QueryEvaluationExce
 				}
 			}
 			obj = manager.getObject(list, (Resource) value);
+			if (cache != null && value instanceof URI) {
+				cache.put((Resource) value, contexts, list, binding,
+						properties, version);
+			}
 		} else {
 			try {
 				obj = manager.getObject(value);
@@ -12,6 +12,7 @@ import org.openrdf.model.URI;
 import org.openrdf.model.ValueFactory;
 import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.query.QueryResults;
+import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryResult;
 import org.openrdf.repository.object.base.ObjectRepositoryTestCase;
 
@@ -99,6 +100,28 @@ public class AugurTest extends ObjectRepositoryTestCase {
 		System.out.println((end - start) / 1000.0);
 	}
 
+	public void test_union() throws Exception {
+		ObjectQuery query = con.prepareObjectQuery("SELECT ?o ?o_class ?o_nicks ?o_friends ?o_friends_class ?o_friends_name " +
+				"WHERE {?o a ?o_class . { ?o <urn:test:nick> ?o_nicks } UNION" +
+				" { ?o <urn:test:friend> ?o_friends . ?o_friends a ?o_friends_class; <urn:test:name> ?o_friends_name } }" +
+				" ORDER BY ?o ?o_nicks ?o_friends");
+		query.setBinding("o", con.getValueFactory().createURI(NS, "50"));
+		List<Bean> beans = query.evaluate(Bean.class).asList();
+		assertEquals(1, beans.size());
+		Bean bean = beans.get(0);
+		RepositoryConnection other = repository.getConnection();
+		try {
+			other.clear();
+		} finally {
+			other.close();
+		}
+		assertEquals(3, bean.getNicks().size());
+		assertEquals(10, bean.getFriends().size());
+		for (Bean f : bean.getFriends()) {
+			assertNotNull(f.getName());
+		}
+	}
+
 	public void test_object() throws Exception {
 		long start = System.currentTimeMillis();
 		List<Bean> beans = con.getObjects(Bean.class).asList();
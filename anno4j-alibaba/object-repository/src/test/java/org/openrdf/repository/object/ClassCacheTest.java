@@ -0,0 +1,105 @@
+package org.openrdf.repository.object;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.Test;
+
+import org.openrdf.annotations.Iri;
+import org.openrdf.model.URI;
+import org.openrdf.repository.object.base.ObjectRepositoryTestCase;
+import org.openrdf.repository.object.config.ObjectRepositoryFactory;
+import org.openrdf.repository.object.managers.helpers.DirUtil;
+
+public class ClassCacheTest extends ObjectRepositoryTestCase {
+	private static final String BASE = "urn:test:cache:";
+
+	public static Test suite() throws Exception {
+		return ObjectRepositoryTestCase.suite(ClassCacheTest.class);
+	}
+
+	@Iri(BASE + "Person")
+	public interface Person {
+		@Iri(BASE + "name")
+		String getName();
+
+		void setName(String name);
+	}
+
+	@Iri(BASE + "Employee")
+	public interface Employee {
+		@Iri(BASE + "employer")
+		String getEmployer();
+
+		void setEmployer(String employer);
+	}
+
+	private ObjectRepository objects;
+	private File cache;
+
+	public void testComposedClassesAreCached() throws Exception {
+		URI alice = con.getValueFactory().createURI(BASE, "alice");
+		con.addDesignation(con.getObject(alice), Person.class).setName("Alice");
+		Map<File, Object> files = listClassFiles(cache, new HashMap<File, Object>());
+		assertFalse(files.isEmpty());
+
+		ObjectRepository restarted = new ObjectRepositoryFactory()
+				.createRepository(config, objects.getDelegate());
+		ObjectConnection other = restarted.getConnection();
+		try {
+			Person person = other.getObject(Person.class, alice);
+			assertEquals("Alice", person.getName());
+			person.setName("Bob");
+			assertEquals("Bob", person.getName());
+		} finally {
+			other.close();
+		}
+		assertEquals(files, listClassFiles(cache, new HashMap<File, Object>()));
+	}
+
+	public void testPrewarm() throws Exception {
+		int before = listClassFiles(cache, new HashMap<File, Object>()).size();
+		Set<URI> types = new HashSet<URI>();
+		types.add(con.getValueFactory().createURI(BASE, "Person"));
+		types.add(con.getValueFactory().createURI(BASE, "Employee"));
+		objects.prewarm(Collections.singleton(types));
+		assertTrue(listClassFiles(cache, new HashMap<File, Object>()).size() > before);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		cache = DirUtil.createTempDir("class-cache");
+		DirUtil.deleteOnExit(cache);
+		config.addConcept(Person.class);
+		config.addConcept(Employee.class);
+		config.setClassCache(cache);
+		super.setUp();
+		objects = (ObjectRepository) repository;
+	}
+
+	/**
+	 * Maps the class files to their file key, which changes when a file is
+	 * written again.
+	 */
+	private Map<File, Object> listClassFiles(File dir, Map<File, Object> files)
+			throws Exception {
+		File[] children = dir.listFiles();
+		if (children != null) {
+			for (File file : children) {
+				if (file.isDirectory()) {
+					listClassFiles(file, files);
+				} else if (file.getName().endsWith(".class")) {
+					files.put(file, Files.readAttributes(file.toPath(),
+							BasicFileAttributes.class).fileKey());
+				}
+			}
+		}
+		return files;
+	}
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -110,4 +111,26 @@ public class CollectionTest extends ObjectRepositoryTestCase {
 				n0.getOrderedChildren());
 	}
 
+	public void testAddToReadCollection() throws Exception {
+		Node n0 = con.addDesignation(con.getObject("urn:test:n0"), Node.class);
+		Set<Node> children = n0.getChildren();
+		assertTrue(children.isEmpty());
+		List<Node> added = new ArrayList<Node>();
+		for (int i = 1; i <= 12; i++) {
+			Node child = con.addDesignation(con.getObject("urn:test:n" + i),
+					Node.class);
+			children.add(child);
+			added.add(child);
+			assertEquals(i, children.size());
+			assertTrue(children.contains(child));
+		}
+		children.add(added.get(0));
+		assertEquals(12, children.size());
+		assertEquals(12, con.getStatements(con.getValueFactory().createURI(
+				NS, "n0"), con.getValueFactory().createURI(NS, "child"), null)
+				.asList().size());
+		assertEquals(new HashSet<Node>(added),
+				new HashSet<Node>(n0.getChildren()));
+	}
+
 }
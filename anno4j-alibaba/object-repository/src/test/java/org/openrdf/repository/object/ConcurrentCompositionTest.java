@@ -0,0 +1,108 @@
+package org.openrdf.repository.object;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.Test;
+
+import org.openrdf.annotations.Iri;
+import org.openrdf.model.URI;
+import org.openrdf.repository.object.base.ObjectRepositoryTestCase;
+
+public class ConcurrentCompositionTest extends ObjectRepositoryTestCase {
+	private static final String BASE = "urn:test:concurrent:";
+	private static final int THREADS = 8;
+
+	public static Test suite() throws Exception {
+		return ObjectRepositoryTestCase.suite(ConcurrentCompositionTest.class);
+	}
+
+	@Iri(BASE + "A")
+	public interface A {
+		@Iri(BASE + "a")
+		String getA();
+
+		void setA(String a);
+	}
+
+	@Iri(BASE + "B")
+	public interface B {
+		@Iri(BASE + "b")
+		String getB();
+
+		void setB(String b);
+	}
+
+	@Iri(BASE + "C")
+	public interface C {
+		@Iri(BASE + "c")
+		String getC();
+
+		void setC(String c);
+	}
+
+	@Iri(BASE + "D")
+	public interface D {
+		@Iri(BASE + "d")
+		String getD();
+
+		void setD(String d);
+	}
+
+	public void testComposeInParallel() throws Exception {
+		final List<Set<URI>> typeSets = new ArrayList<Set<URI>>();
+		String[] names = { "A", "B", "C", "D" };
+		for (int i = 1; i < 1 << names.length; i++) {
+			Set<URI> types = new HashSet<URI>();
+			for (int j = 0; j < names.length; j++) {
+				if ((i & 1 << j) != 0) {
+					types.add(con.getValueFactory().createURI(BASE, names[j]));
+				}
+			}
+			typeSets.add(types);
+		}
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<List<Class<?>>>> results = new ArrayList<Future<List<Class<?>>>>();
+			for (int t = 0; t < THREADS; t++) {
+				results.add(executor.submit(new Callable<List<Class<?>>>() {
+					public List<Class<?>> call() throws Exception {
+						start.await();
+						List<Class<?>> classes = new ArrayList<Class<?>>();
+						for (Set<URI> types : typeSets) {
+							Object bean = of.createObject(
+									con.getValueFactory().createBNode(), types);
+							classes.add(bean.getClass());
+						}
+						return classes;
+					}
+				}));
+			}
+			start.countDown();
+			List<Class<?>> expected = results.get(0).get();
+			for (Future<List<Class<?>>> result : results) {
+				assertEquals(expected, result.get());
+			}
+			assertEquals(typeSets.size(), new HashSet<Class<?>>(expected).size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		config.addConcept(A.class);
+		config.addConcept(B.class);
+		config.addConcept(C.class);
+		config.addConcept(D.class);
+		super.setUp();
+	}
+}
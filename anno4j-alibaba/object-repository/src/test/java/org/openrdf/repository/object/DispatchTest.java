@@ -0,0 +1,146 @@
+package org.openrdf.repository.object;
+
+import junit.framework.Test;
+
+import org.openrdf.annotations.Iri;
+import org.openrdf.annotations.ParameterTypes;
+import org.openrdf.annotations.Precedes;
+import org.openrdf.repository.object.base.ObjectRepositoryTestCase;
+import org.openrdf.repository.object.composition.helpers.ClassComposer;
+import org.openrdf.repository.object.composition.helpers.MessageDispatcher;
+import org.openrdf.repository.object.config.ObjectRepositoryFactory;
+import org.openrdf.repository.object.traits.ObjectMessage;
+
+public class DispatchTest extends ObjectRepositoryTestCase {
+	private static final String BASE = "urn:test:dispatch:";
+	private static final int CALLS = 1000000;
+
+	public static Test suite() throws Exception {
+		return ObjectRepositoryTestCase.suite(DispatchTest.class);
+	}
+
+	@Iri(BASE + "Item")
+	public interface Item {
+		@Iri(BASE + "label")
+		String getLabel();
+
+		void setLabel(String label);
+
+		String describe(String prefix);
+
+		int getRank();
+	}
+
+	@Precedes(LabelSupport.class)
+	public static abstract class DescribeSupport implements Item {
+		@ParameterTypes({ String.class })
+		public String describe(ObjectMessage msg) throws Exception {
+			Object proceed = msg.proceed();
+			if (proceed == null)
+				return msg.getParameters()[0] + "item";
+			return msg.getParameters()[0] + proceed.toString();
+		}
+	}
+
+	public static abstract class LabelSupport implements Item {
+		public String describe(String prefix) {
+			return getLabel();
+		}
+	}
+
+	public static abstract class FirstRankSupport implements Item {
+		public int getRank() {
+			return 0;
+		}
+	}
+
+	public static abstract class SecondRankSupport implements Item {
+		public int getRank() {
+			return 2;
+		}
+	}
+
+	public void testDirectDispatch() throws Exception {
+		Item item = createItem(con);
+		assertTrue(item instanceof MessageDispatcher);
+		assertEquals("an item", item.describe("an "));
+		item.setLabel("label");
+		assertEquals("a label", item.describe("a "));
+		assertEquals(2, item.getRank());
+	}
+
+	public void testReflectiveDispatch() throws Exception {
+		ObjectConnection reflective = getReflectiveConnection();
+		try {
+			Item item = createItem(reflective);
+			assertFalse(item instanceof MessageDispatcher);
+			assertEquals("an item", item.describe("an "));
+			item.setLabel("label");
+			assertEquals("a label", item.describe("a "));
+			assertEquals(2, item.getRank());
+		} finally {
+			reflective.close();
+		}
+	}
+
+	/**
+	 * Chained calls through generated dispatch are faster than through the
+	 * reflective fallback, measured after a first round for the JIT compiler.
+	 */
+	public void testBenchmarkDirectAgainstReflectiveDispatch() throws Exception {
+		Item direct = createItem(con);
+		ObjectConnection reflective = getReflectiveConnection();
+		try {
+			Item item = createItem(reflective);
+			call(direct);
+			call(item);
+			long directTime = call(direct);
+			long reflectiveTime = call(item);
+			assertTrue(CALLS + " chained calls took " + directTime / 1000000
+					+ " ms with direct dispatch, " + reflectiveTime / 1000000
+					+ " ms with reflective dispatch", directTime < reflectiveTime);
+		} finally {
+			reflective.close();
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		config.addConcept(Item.class);
+		config.addBehaviour(DescribeSupport.class);
+		config.addBehaviour(LabelSupport.class);
+		config.addBehaviour(FirstRankSupport.class);
+		config.addBehaviour(SecondRankSupport.class);
+		super.setUp();
+	}
+
+	private Item createItem(ObjectConnection con) throws Exception {
+		Object item = con.getObject(con.getValueFactory().createBNode());
+		return con.addDesignation(item, Item.class);
+	}
+
+	private ObjectConnection getReflectiveConnection() throws Exception {
+		System.setProperty(ClassComposer.REFLECTIVE_DISPATCH_PROPERTY, "true");
+		try {
+			ObjectRepository objects = (ObjectRepository) repository;
+			ObjectRepository repo = new ObjectRepositoryFactory()
+					.createRepository(config, objects.getDelegate());
+			ObjectConnection reflective = repo.getConnection();
+			// compose while the property is set
+			createItem(reflective);
+			return reflective;
+		} finally {
+			System.clearProperty(ClassComposer.REFLECTIVE_DISPATCH_PROPERTY);
+		}
+	}
+
+	private long call(Item item) {
+		long start = System.nanoTime();
+		long sum = 0;
+		for (int i = 0; i < CALLS; i++) {
+			sum += item.getRank();
+		}
+		assertEquals(2L * CALLS, sum);
+		return System.nanoTime() - start;
+	}
+}
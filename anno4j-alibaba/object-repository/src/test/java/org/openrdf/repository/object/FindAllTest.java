@@ -1,6 +1,8 @@
 package org.openrdf.repository.object;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import junit.framework.Test;
 
@@ -37,6 +39,22 @@ public class FindAllTest extends ObjectRepositoryTestCase {
 		assertEquals(2, list.size());
 	}
 
+	public void testValues() throws Exception {
+		List<URI> uris = new ArrayList<URI>();
+		con.setAutoCommit(false);
+		for (int i = 0; i < 600; i++) {
+			URI uri = con.getValueFactory().createURI(BASE, "values-" + i);
+			con.addDesignation(con.getObject(uri), MyClass.class);
+			uris.add(uri);
+		}
+		con.setAutoCommit(true);
+		uris.add(con.getValueFactory().createURI(BASE, "missing"));
+		Set<MyClass> set = con.getObjects(MyClass.class, uris).asSet();
+		assertEquals(600, set.size());
+		assertTrue(set.contains(con.getObject(uris.get(599))));
+		assertFalse(set.contains(con.getObject(uris.get(600))));
+	}
+
 	@Override
 	protected void setUp() throws Exception {
 		config.addConcept(MyClass.class);
@@ -0,0 +1,99 @@
+package org.openrdf.repository.object;
+
+import java.util.Collections;
+import java.util.Set;
+
+import junit.framework.Test;
+
+import org.openrdf.annotations.Iri;
+import org.openrdf.model.URI;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.repository.object.base.ObjectRepositoryTestCase;
+
+public class IndividualTest extends ObjectRepositoryTestCase {
+	private static final String BASE = "urn:test:individual:";
+
+	public static Test suite() throws Exception {
+		return ObjectRepositoryTestCase.suite(IndividualTest.class);
+	}
+
+	@Iri(BASE + "Motivation")
+	public interface Motivation {
+	}
+
+	@Iri(BASE + "Annotation")
+	public interface Annotation {
+		@Iri(BASE + "motivatedBy")
+		Set<Motivation> getMotivatedBy();
+
+		void setMotivatedBy(Set<Motivation> motivatedBy);
+	}
+
+	public void testTypesAreNotRead() throws Exception {
+		URI tagging = uri("tagging");
+		ObjectRepository objects = (ObjectRepository) repository;
+		objects.addIndividual(tagging, Collections.singleton(uri("Motivation")));
+		assertNull(objects.getIndividualTypes(uri("other")));
+		assertTrue(con.getObject(tagging) instanceof Motivation);
+		assertFalse(con.hasStatement(tagging, RDF.TYPE, null, false));
+	}
+
+	public void testReferencedFromOtherConnection() throws Exception {
+		URI tagging = uri("tagging");
+		URI graph = uri("graph");
+		ObjectRepository objects = (ObjectRepository) repository;
+		Motivation motivation = con.addDesignation(con.getObject(tagging),
+				Motivation.class);
+		objects.addIndividual(tagging, Collections.singleton(uri("Motivation")));
+		ObjectConnection other = objects.getConnection();
+		try {
+			other.setReadContexts(graph);
+			other.setInsertContext(graph);
+			Annotation annotation = other.addDesignation(
+					other.getObject(uri("annotation")), Annotation.class);
+			annotation.getMotivatedBy().add(motivation);
+			Annotation second = other.addDesignation(
+					other.getObject(uri("second")), Annotation.class);
+			second.getMotivatedBy().add(motivation);
+			assertEquals(1, other.getStatements(tagging, RDF.TYPE, null,
+					false, graph).asList().size());
+			Motivation read = annotation.getMotivatedBy().iterator().next();
+			assertEquals(tagging, ((RDFObject) read).getResource());
+		} finally {
+			other.close();
+		}
+		assertEquals(2, con.getStatements(tagging, RDF.TYPE, null, false)
+				.asList().size());
+	}
+
+	public void testTypesAreWrittenAgainAfterClear() throws Exception {
+		URI tagging = uri("tagging");
+		URI graph = uri("graph");
+		ObjectRepository objects = (ObjectRepository) repository;
+		objects.addIndividual(tagging, Collections.singleton(uri("Motivation")));
+		Motivation motivation = (Motivation) con.getObject(tagging);
+		con.setInsertContext(graph);
+		Annotation annotation = con.addDesignation(
+				con.getObject(uri("annotation")), Annotation.class);
+		annotation.getMotivatedBy().add(motivation);
+		assertTrue(con.hasStatement(tagging, RDF.TYPE, uri("Motivation"),
+				false, graph));
+		con.clear(graph);
+		annotation = con.addDesignation(con.getObject(uri("annotation")),
+				Annotation.class);
+		annotation.getMotivatedBy().add(motivation);
+		assertTrue(con.hasStatement(tagging, RDF.TYPE, uri("Motivation"),
+				false, graph));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		config.addConcept(Motivation.class);
+		config.addConcept(Annotation.class);
+		super.setUp();
+	}
+
+	private URI uri(String local) {
+		return con.getValueFactory().createURI(BASE, local);
+	}
+}
@@ -0,0 +1,188 @@
+package org.openrdf.repository.object;
+
+import java.util.Collections;
+
+import junit.framework.Test;
+
+import org.openrdf.annotations.Iri;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.object.base.ObjectRepositoryTestCase;
+
+public class ObjectCacheTest extends ObjectRepositoryTestCase {
+	private static final String BASE = "urn:test:";
+
+	public static Test suite() throws Exception {
+		return ObjectRepositoryTestCase.suite(ObjectCacheTest.class);
+	}
+
+	@Iri(BASE + "Person")
+	public interface Person {
+		@Iri(BASE + "name")
+		String getName();
+
+		void setName(String name);
+	}
+
+	private ObjectRepository objects;
+	private ObjectCache cache;
+	private URI alice;
+
+	public void testCachedAcrossConnections() throws Exception {
+		warm();
+		assertEquals(1, cache.getCachedCount());
+		removeFromStore();
+		ObjectConnection other = objects.getConnection();
+		try {
+			Person person = other.getObject(Person.class, alice);
+			assertEquals("Alice", person.getName());
+			assertEquals(1, cache.getHitCount());
+			assertEquals(1.0, cache.getHitRatio(), 0);
+		} finally {
+			other.close();
+		}
+	}
+
+	public void testTypesCachedAcrossConnections() throws Exception {
+		ObjectConnection first = objects.getConnection();
+		try {
+			assertTrue(first.getObject(alice) instanceof Person);
+		} finally {
+			first.close();
+		}
+		assertEquals(1, cache.getMissCount());
+		removeFromStore();
+		ObjectConnection other = objects.getConnection();
+		try {
+			assertTrue(other.getObject(alice) instanceof Person);
+			assertEquals(1, cache.getHitCount());
+		} finally {
+			other.close();
+		}
+	}
+
+	public void testInvalidatedOnCommit() throws Exception {
+		warm();
+		con.getObject(Person.class, alice).setName("Bob");
+		assertEquals(0, cache.getCachedCount());
+		assertTrue(cache.getInvalidationCount() > 0);
+		ObjectConnection other = objects.getConnection();
+		try {
+			assertEquals("Bob", other.getObject(Person.class, alice).getName());
+		} finally {
+			other.close();
+		}
+	}
+
+	public void testUncommittedChanges() throws Exception {
+		warm();
+		con.setAutoCommit(false);
+		Person person = con.getObject(Person.class, alice);
+		person.setName("Bob");
+		assertEquals(1, cache.getCachedCount());
+		ObjectConnection other = objects.getConnection();
+		try {
+			assertEquals("Alice", other.getObject(Person.class, alice).getName());
+		} finally {
+			other.close();
+		}
+		con.setAutoCommit(true);
+		assertEquals(0, cache.getCachedCount());
+	}
+
+	public void testRollback() throws Exception {
+		warm();
+		con.setAutoCommit(false);
+		con.getObject(Person.class, alice).setName("Bob");
+		con.rollback();
+		con.setAutoCommit(true);
+		assertEquals(0, cache.getCachedCount());
+		assertEquals("Alice", con.getObject(Person.class, alice).getName());
+	}
+
+	public void testUpdateClearsCache() throws Exception {
+		warm();
+		con.prepareUpdate(QueryLanguage.SPARQL,
+				"DELETE WHERE { ?s <" + BASE + "name> ?name }").execute();
+		assertEquals(0, cache.getCachedCount());
+	}
+
+	public void testDisabled() throws Exception {
+		cache.setEnabled(false);
+		warm();
+		assertEquals(0, cache.getCachedCount());
+		assertEquals(0, cache.getHitCount() + cache.getMissCount());
+		cache.setEnabled(true);
+		warm();
+		assertEquals(1, cache.getCachedCount());
+	}
+
+	public void testSetForOpenConnection() throws Exception {
+		objects.setObjectCache(null);
+		ObjectConnection open = objects.getConnection();
+		try {
+			cache = new ObjectCache();
+			objects.setObjectCache(cache);
+			assertSame(cache, open.getObjectCache());
+			assertEquals("Alice", open.getObjects(Person.class)
+					.singleResult().getName());
+			assertEquals(1, cache.getCachedCount());
+			open.getObject(Person.class, alice).setName("Bob");
+			assertEquals(0, cache.getCachedCount());
+		} finally {
+			open.close();
+		}
+	}
+
+	public void testWritesOfDelegateAreNotTracked() throws Exception {
+		warm();
+		removeFromStore();
+		assertEquals(1, cache.getCachedCount());
+		cache.invalidate(Collections.<Resource> singleton(alice));
+		assertEquals(0, cache.getCachedCount());
+		ObjectConnection other = objects.getConnection();
+		try {
+			assertFalse(other.getObject(alice) instanceof Person);
+		} finally {
+			other.close();
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		config.addConcept(Person.class);
+		super.setUp();
+		alice = con.getValueFactory().createURI(BASE, "alice");
+		con.addDesignation(con.getObject(alice), Person.class).setName("Alice");
+		objects = (ObjectRepository) repository;
+		cache = new ObjectCache();
+		objects.setObjectCache(cache);
+		con.close();
+		con = objects.getConnection();
+	}
+
+	private void warm() throws Exception {
+		ObjectConnection first = objects.getConnection();
+		try {
+			assertEquals("Alice", first.getObjects(Person.class).singleResult()
+					.getName());
+		} finally {
+			first.close();
+		}
+	}
+
+	/**
+	 * Removes the person behind the back of the object repository, so only
+	 * the cache can still know about it.
+	 */
+	private void removeFromStore() throws Exception {
+		RepositoryConnection store = objects.getDelegate().getConnection();
+		try {
+			store.remove(alice, null, null);
+		} finally {
+			store.close();
+		}
+	}
+}
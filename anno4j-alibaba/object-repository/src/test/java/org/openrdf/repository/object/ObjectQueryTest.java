@@ -2,6 +2,8 @@ package org.openrdf.repository.object;
 
 import junit.framework.Test;
 
+import org.openrdf.model.ValueFactory;
+import org.openrdf.query.QueryResults;
 import org.openrdf.query.TupleQuery;
 import org.openrdf.query.TupleQueryResult;
 import org.openrdf.repository.object.base.ObjectRepositoryTestCase;
@@ -114,6 +116,28 @@ public class ObjectQueryTest extends ObjectRepositoryTestCase {
 		result.close();
 	}
 
+	public void testCachedQueryIsParsedOnce() throws Exception {
+		String query = PREFIX
+				+ "SELECT ?person WHERE { ?person foaf:name ?name }";
+		ValueFactory vf = con.getValueFactory();
+
+		TupleQuery bob = con.prepareCachedTupleQuery(query);
+		bob.setBinding("name", vf.createLiteral("Bob"));
+		assertEquals(1, QueryResults.asList(bob.evaluate()).size());
+
+		TupleQuery john = con.prepareCachedTupleQuery(query);
+		assertSame(bob, john);
+		assertEquals(0, john.getBindings().size());
+		assertEquals(2, QueryResults.asList(john.evaluate()).size());
+		assertEquals(1, con.getPreparedQueryCount());
+
+		// the dataset of a parsed query is taken from the connection
+		con.setReadContexts(vf.createURI("urn:test:empty"));
+		assertEquals(0, con.getPreparedQueryCount());
+		assertTrue(con.prepareCachedObjectQuery(query).evaluate().asList()
+				.isEmpty());
+	}
+
 	@Override
 	protected void setUp() throws Exception {
 		super.setUp();
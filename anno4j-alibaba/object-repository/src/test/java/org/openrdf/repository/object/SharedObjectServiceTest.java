@@ -0,0 +1,66 @@
+package org.openrdf.repository.object;
+
+import junit.framework.Test;
+
+import org.openrdf.annotations.Iri;
+import org.openrdf.model.URI;
+import org.openrdf.repository.object.base.ObjectRepositoryTestCase;
+import org.openrdf.repository.object.config.ObjectRepositoryFactory;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+
+public class SharedObjectServiceTest extends ObjectRepositoryTestCase {
+	private static final String BASE = "urn:test:shared:";
+
+	public static Test suite() throws Exception {
+		return ObjectRepositoryTestCase.suite(SharedObjectServiceTest.class);
+	}
+
+	@Iri(BASE + "Person")
+	public interface Person {
+		@Iri(BASE + "name")
+		String getName();
+
+		void setName(String name);
+	}
+
+	public void testSharedAcrossRepositories() throws Exception {
+		ObjectRepositoryFactory factory = new ObjectRepositoryFactory();
+		ObjectService service = factory.createObjectService(config);
+		ObjectRepository first = createRepository(factory, service);
+		ObjectRepository second = createRepository(factory, service);
+		URI alice = first.getValueFactory().createURI(BASE, "alice");
+		ObjectConnection con1 = first.getConnection();
+		ObjectConnection con2 = second.getConnection();
+		try {
+			Person person1 = con1.addDesignation(con1.getObject(alice),
+					Person.class);
+			person1.setName("Alice");
+			Person person2 = con2.addDesignation(con2.getObject(alice),
+					Person.class);
+			assertSame(person1.getClass(), person2.getClass());
+			assertNull(person2.getName());
+		} finally {
+			con1.close();
+			con2.close();
+			first.shutDown();
+			second.shutDown();
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		config.addConcept(Person.class);
+		super.setUp();
+	}
+
+	private ObjectRepository createRepository(ObjectRepositoryFactory factory,
+			ObjectService service) throws Exception {
+		SailRepository delegate = new SailRepository(new MemoryStore());
+		delegate.initialize();
+		ObjectRepository repo = factory.createRepository(config, service,
+				delegate);
+		repo.initialize();
+		return repo;
+	}
+}
@@ -0,0 +1,232 @@
+package org.openrdf.repository.object;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.Test;
+
+import org.openrdf.annotations.Iri;
+import org.openrdf.model.BNode;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.object.base.ObjectRepositoryTestCase;
+
+public class TypeCacheTest extends ObjectRepositoryTestCase {
+	private static final String BASE = "urn:test:types:";
+
+	public static Test suite() throws Exception {
+		return ObjectRepositoryTestCase.suite(TypeCacheTest.class);
+	}
+
+	@Iri(BASE + "Document")
+	public interface Document {
+	}
+
+	@Iri(BASE + "Image")
+	public interface Image {
+	}
+
+	public void testTypesAreCached() throws Exception {
+		URI doc = uri("doc");
+		con.add(doc, RDF.TYPE, uri("Document"));
+		assertEquals(Collections.singleton(uri("Document")), types(doc));
+		addBehindConnection(doc, uri("Image"));
+		assertEquals(Collections.singleton(uri("Document")), types(doc));
+		Object bean = con.refresh(con.getObject(doc));
+		assertTrue(bean instanceof Image);
+		assertEquals(2, types(doc).size());
+	}
+
+	public void testDesignationsUpdateCache() throws Exception {
+		URI doc = uri("doc");
+		Object bean = con.addDesignation(con.getObject(doc), Document.class);
+		assertEquals(Collections.singleton(uri("Document")), types(doc));
+		bean = con.addDesignation(bean, Image.class);
+		assertEquals(2, types(doc).size());
+		con.removeDesignation(bean, Document.class);
+		assertEquals(Collections.singleton(uri("Image")), types(doc));
+	}
+
+	public void testStatementsDropCachedTypes() throws Exception {
+		URI doc = uri("doc");
+		assertTrue(types(doc).isEmpty());
+		con.add(doc, RDF.TYPE, uri("Document"));
+		assertEquals(Collections.singleton(uri("Document")), types(doc));
+		con.remove(doc, RDF.TYPE, uri("Document"));
+		assertTrue(types(doc).isEmpty());
+	}
+
+	public void testRollbackDropsCachedTypes() throws Exception {
+		URI doc = uri("doc");
+		con.setAutoCommit(false);
+		con.add(doc, RDF.TYPE, uri("Document"));
+		assertEquals(Collections.singleton(uri("Document")), types(doc));
+		con.rollback();
+		con.setAutoCommit(true);
+		assertTrue(types(doc).isEmpty());
+	}
+
+	public void testUpdateDropsCachedTypes() throws Exception {
+		URI doc = uri("doc");
+		assertTrue(types(doc).isEmpty());
+		con.prepareUpdate(QueryLanguage.SPARQL,
+				"INSERT DATA { <" + doc + "> a <" + BASE + "Document> }")
+				.execute();
+		assertEquals(Collections.singleton(uri("Document")), types(doc));
+	}
+
+	public void testBatchTypes() throws Exception {
+		URI doc = uri("doc");
+		URI image = uri("image");
+		URI none = uri("none");
+		BNode blank = con.getValueFactory().createBNode();
+		con.add(doc, RDF.TYPE, uri("Document"));
+		con.add(image, RDF.TYPE, uri("Document"));
+		con.add(image, RDF.TYPE, uri("Image"));
+		con.add(blank, RDF.TYPE, uri("Image"));
+		Map<Resource, Set<URI>> types = con.getTypes(Arrays.asList(doc,
+				image, none, blank));
+		assertEquals(4, types.size());
+		assertEquals(Collections.singleton(uri("Document")), types.get(doc));
+		assertEquals(2, types.get(image).size());
+		assertTrue(types.get(none).isEmpty());
+		assertEquals(Collections.singleton(uri("Image")), types.get(blank));
+	}
+
+	public void testBatchTypesInChunks() throws Exception {
+		URI[] docs = new URI[ObjectConnection.VALUES_CHUNK_SIZE + 10];
+		for (int i = 0; i < docs.length; i++) {
+			docs[i] = uri("doc" + i);
+			con.add(docs[i], RDF.TYPE, uri(i % 2 == 0 ? "Document" : "Image"));
+		}
+		Map<Resource, Set<URI>> types = con.getTypes(Arrays.asList(docs));
+		assertEquals(docs.length, types.size());
+		for (int i = 0; i < docs.length; i++) {
+			assertEquals(Collections.singleton(uri(i % 2 == 0 ? "Document"
+					: "Image")), types.get(docs[i]));
+		}
+	}
+
+	public void testBatchTypesRejectInvalidIris() throws Exception {
+		URI doc = uri("doc");
+		con.add(doc, RDF.TYPE, uri("Document"));
+		URI injected = uri("x> } ?subj a ?type } #");
+		try {
+			con.getTypes(Arrays.asList(injected));
+			fail();
+		} catch (RepositoryException e) {
+			assertTrue(e.getCause() instanceof MalformedQueryException);
+		}
+		try {
+			con.getObjects(Document.class, Arrays.asList(injected)).asList();
+			fail();
+		} catch (QueryEvaluationException e) {
+			assertTrue(e.getCause() instanceof MalformedQueryException);
+		}
+	}
+
+	public void testCacheDisabled() throws Exception {
+		ObjectRepository objects = (ObjectRepository) repository;
+		objects.setTypeCacheSize(0);
+		ObjectConnection uncached = objects.getConnection();
+		try {
+			URI doc = uri("doc");
+			uncached.add(doc, RDF.TYPE, uri("Document"));
+			assertEquals(1, uncached.getTypes(Collections.singleton(doc))
+					.get(doc).size());
+			addBehindConnection(doc, uri("Image"));
+			assertEquals(2, uncached.getTypes(Collections.singleton(doc))
+					.get(doc).size());
+		} finally {
+			uncached.close();
+		}
+	}
+
+	public void testOtherConnectionsCommitsAreSeen() throws Exception {
+		ObjectRepository objects = (ObjectRepository) repository;
+		objects.setTypeCacheSize(TypeManager.DEFAULT_CACHE_SIZE);
+		ObjectConnection a = objects.getConnection();
+		ObjectConnection b = objects.getConnection();
+		try {
+			URI doc = uri("doc");
+			b.add(doc, RDF.TYPE, uri("Document"));
+			assertEquals(Collections.singleton(uri("Document")), a
+					.getTypes(Collections.singleton(doc)).get(doc));
+			b.begin();
+			b.add(doc, RDF.TYPE, uri("Image"));
+			b.commit();
+			assertEquals(2, a.getTypes(Collections.singleton(doc)).get(doc)
+					.size());
+		} finally {
+			a.close();
+			b.close();
+		}
+	}
+
+	public void testTransactionDropsCachedTypes() throws Exception {
+		ObjectConnection other = ((ObjectRepository) repository)
+				.getConnection();
+		try {
+			URI doc = uri("doc");
+			con.add(doc, RDF.TYPE, uri("Document"));
+			assertEquals(Collections.singleton(uri("Document")), types(doc));
+			other.begin();
+			other.add(doc, RDF.TYPE, uri("Image"));
+			other.commit();
+			con.begin();
+			assertEquals(2, types(doc).size());
+			con.commit();
+		} finally {
+			other.close();
+		}
+	}
+
+	public void testClearCacheDropsCachedTypes() throws Exception {
+		URI doc = uri("doc");
+		con.add(doc, RDF.TYPE, uri("Document"));
+		assertEquals(Collections.singleton(uri("Document")), types(doc));
+		addBehindConnection(doc, uri("Image"));
+		con.clearCache();
+		assertEquals(2, types(doc).size());
+	}
+
+	@Override
+	protected ObjectRepository getRepository() throws Exception {
+		ObjectRepository objects = super.getRepository();
+		objects.setTypeCacheSize(1024);
+		return objects;
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		config.addConcept(Document.class);
+		config.addConcept(Image.class);
+		super.setUp();
+	}
+
+	private Set<URI> types(URI resource) throws Exception {
+		return con.getTypes(Collections.singleton(resource)).get(resource);
+	}
+
+	private void addBehindConnection(URI resource, URI type) throws Exception {
+		ObjectRepository objects = (ObjectRepository) repository;
+		RepositoryConnection delegate = objects.getDelegate().getConnection();
+		try {
+			delegate.add(resource, RDF.TYPE, type);
+		} finally {
+			delegate.close();
+		}
+	}
+
+	private URI uri(String local) {
+		return con.getValueFactory().createURI(BASE, local);
+	}
+}
@@ -0,0 +1,79 @@
+package org.openrdf.repository.object;
+
+import java.util.Set;
+
+import junit.framework.Test;
+
+import org.openrdf.annotations.Iri;
+import org.openrdf.model.URI;
+import org.openrdf.repository.object.base.ObjectRepositoryTestCase;
+
+public class TypeDiscoveryTest extends ObjectRepositoryTestCase {
+	private static final String BASE = "urn:test:discovery:";
+
+	public static Test suite() throws Exception {
+		return ObjectRepositoryTestCase.suite(TypeDiscoveryTest.class);
+	}
+
+	@Iri(BASE + "Agent")
+	public interface Agent {
+	}
+
+	@Iri(BASE + "Person")
+	public interface Person extends Agent {
+	}
+
+	@Iri(BASE + "Named")
+	public interface Named {
+	}
+
+	public static class Employee implements Person, Named {
+	}
+
+	public void testTypesOfClass() throws Exception {
+		Set<URI> types = of.getTypesOf(Employee.class);
+		assertEquals(2, types.size());
+		assertTrue(types.contains(uri("Person")));
+		assertTrue(types.contains(uri("Named")));
+		assertSame(types, of.getTypesOf(Employee.class));
+		try {
+			types.add(uri("Agent"));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// shared sets are read only
+		}
+	}
+
+	public void testAddObject() throws Exception {
+		URI resource = uri("employee");
+		con.addObject(resource, new Employee());
+		Object bean = con.getObject(resource);
+		assertTrue(bean instanceof Person);
+		assertTrue(bean instanceof Named);
+		assertSame(of.getTypesOf(Employee.class), of.getTypesOf(Employee.class));
+	}
+
+	public void testAddDesignationKeepsSharedSet() throws Exception {
+		Object bean = con.getObject(uri("named"));
+		bean = con.addDesignation(bean, Named.class);
+		Set<URI> before = of.getTypesOf(bean.getClass());
+		int size = before.size();
+		Object person = con.addDesignation(bean, Person.class);
+		assertTrue(person instanceof Named);
+		assertEquals(size, before.size());
+		assertFalse(before.contains(uri("Person")));
+		assertTrue(of.getTypesOf(person.getClass()).contains(uri("Person")));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		config.addConcept(Agent.class);
+		config.addConcept(Person.class);
+		config.addConcept(Named.class);
+		super.setUp();
+	}
+
+	private URI uri(String local) {
+		return con.getValueFactory().createURI(BASE, local);
+	}
+}
@@ -1,8 +1,16 @@
 package com.github.anno4j;
 
 import com.github.anno4j.annotations.Evaluator;
-import com.github.anno4j.annotations.Partial;
+import com.github.anno4j.connection.ConnectionPool;
+import com.github.anno4j.connection.StatementBuffer;
+import com.github.anno4j.io.ExportOptions;
+import com.github.anno4j.io.ExportResult;
+import com.github.anno4j.io.ParallelImportResult;
+import com.github.anno4j.io.ParallelImporter;
+import com.github.anno4j.io.RDFExporter;
+import com.github.anno4j.model.IndividualRegistry;
 import com.github.anno4j.model.impl.ResourceObject;
+import com.github.anno4j.querying.QueryCache;
 import com.github.anno4j.querying.QueryService;
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
 import com.github.anno4j.querying.extension.QueryEvaluator;
@@ -17,25 +25,25 @@ import org.openrdf.idGenerator.IDGenerator;
 import org.openrdf.idGenerator.IDGeneratorAnno4jURN;
 import org.openrdf.model.Resource;
 import org.openrdf.model.URI;
+import org.openrdf.model.impl.URIImpl;
 import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.config.RepositoryConfigException;
+import org.openrdf.repository.object.ObjectCache;
 import org.openrdf.repository.object.ObjectConnection;
 import org.openrdf.repository.object.ObjectRepository;
+import org.openrdf.repository.object.ObjectService;
 import org.openrdf.repository.object.config.ObjectRepositoryConfig;
 import org.openrdf.repository.object.config.ObjectRepositoryFactory;
 import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.rio.RDFFormat;
 import org.openrdf.sail.memory.MemoryStore;
-import org.reflections.Reflections;
-import org.reflections.scanners.SubTypesScanner;
-import org.reflections.scanners.TypeAnnotationsScanner;
-import org.reflections.util.ClasspathHelper;
-import org.reflections.util.ConfigurationBuilder;
-import org.reflections.util.FilterBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.URL;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.*;
 
 
@@ -73,9 +81,35 @@ public class Anno4j implements TransactionCommands {
 
     /**
      * Stores alls partial implementations of the defined interfaces, such as the ResourceObject or the
-     * Annotation interface.
+     * Annotation interface, and the composed classes if they are shared with other instances.
      */
-    private Set<Class<?>> partialClasses;
+    private final CompositionRegistry registry;
+
+    /**
+     * Number of pooled connections used by the convenience methods of this class.
+     */
+    private int connectionPoolSize = ConnectionPool.DEFAULT_SIZE;
+
+    /**
+     * Pool of connections shared by the convenience methods, will be replaced if a new repository is set.
+     */
+    private ConnectionPool connectionPool;
+
+    /**
+     * Replaced pools, whose pinned connections are kept open for the objects loaded through them until this
+     * instance is closed.
+     */
+    private final List<ConnectionPool> retiredPools = new ArrayList<>();
+
+    /**
+     * Canonical objects of well-known individuals, will be replaced if a new repository is set.
+     */
+    private IndividualRegistry individuals;
+
+    /**
+     * Number of statements written per request by {@link #persistAll(Collection)}.
+     */
+    private int persistChunkSize = StatementBuffer.DEFAULT_CHUNK_SIZE;
 
 
     public Anno4j() throws RepositoryException, RepositoryConfigException {
@@ -107,29 +141,25 @@ public class Anno4j implements TransactionCommands {
     }
 
     public Anno4j(Repository repository, IDGenerator idGenerator, URI defaultContext) throws RepositoryConfigException, RepositoryException {
-        this.idGenerator = idGenerator;
-        this.defaultContext = defaultContext;
-
-        Set<URL> classpath = new HashSet<>();
-        classpath.addAll(ClasspathHelper.forClassLoader());
-        classpath.addAll(ClasspathHelper.forJavaClassPath());
-        classpath.addAll(ClasspathHelper.forManifest());
-        classpath.addAll(ClasspathHelper.forPackage(""));
-
-        Reflections annotatedClasses = new Reflections(new ConfigurationBuilder()
-                .setUrls(classpath)
-                .useParallelExecutor()
-                .filterInputsBy(FilterBuilder.parsePackages("-java, -javax, -sun, -com.sun"))
-                .setScanners(new SubTypesScanner(), new TypeAnnotationsScanner()));
+        this(CompositionRegistry.findAnnotatedClasses(), repository, idGenerator, defaultContext);
+    }
 
-        // Bugfix: Searching for Reflections creates a lot ot Threads, that are not closed at the end by themselves,
-        // so we close them manually.
-        annotatedClasses.getConfiguration().getExecutorService().shutdown();
+    /**
+     * Creates an instance that shares the composed classes and mappings of the given registry with other instances.
+     *
+     * @param registry   the registry created by {@link CompositionRegistry#create()}.
+     * @param repository the repository of this instance.
+     */
+    public Anno4j(CompositionRegistry registry, Repository repository) throws RepositoryException, RepositoryConfigException {
+        this(registry, repository, new IDGeneratorAnno4jURN(), null);
+    }
 
-        // find classes with @Partial annotation
-        this.partialClasses = annotatedClasses.getTypesAnnotatedWith(Partial.class, true);
+    public Anno4j(CompositionRegistry registry, Repository repository, IDGenerator idGenerator, URI defaultContext) throws RepositoryConfigException, RepositoryException {
+        this.idGenerator = idGenerator;
+        this.defaultContext = defaultContext;
 
-        scanForEvaluators(annotatedClasses);
+        this.registry = registry;
+        registerEvaluators(registry.getEvaluatorClasses());
 
         if(!repository.isInitialized()) {
             repository.initialize();
@@ -138,9 +168,7 @@ public class Anno4j implements TransactionCommands {
         this.setRepository(repository);
     }
     
-    private void scanForEvaluators(Reflections annotatedClasses) {
-        Set<Class<?>> defaultEvaluatorAnnotations = annotatedClasses.getTypesAnnotatedWith(Evaluator.class, true);
-
+    private void registerEvaluators(Set<Class<?>> defaultEvaluatorAnnotations) {
         Map<Class<? extends TestFunction>, Class<QueryEvaluator>> testFunctionEvaluators = new HashMap<>();
         Map<Class<? extends NodeSelector>, Class<QueryEvaluator>> defaultEvaluators = new HashMap<>();
         Map<Class<? extends NodeTest>, Class<TestEvaluator>> testEvaluators = new HashMap<>();
@@ -174,34 +202,12 @@ public class Anno4j implements TransactionCommands {
         evaluatorConfiguration.setFunctionEvaluators(functionEvaluators);
     }
 
-    private ObjectConnection createObjectConnection(URI context) throws RepositoryException {
-        ObjectConnection connection = objectRepository.getConnection();
-
-        if(context != null) {
-            connection.setReadContexts(context);
-            connection.setInsertContext(context);
-            connection.setRemoveContexts(context);
-        } else if (defaultContext != null) {
-            connection.setReadContexts(defaultContext);
-            connection.setInsertContext(defaultContext);
-            connection.setRemoveContexts(defaultContext);
-        }
-
-       return connection;
-    }
-
     /**
      * {@inheritDoc }
      */
     @Override
     public void persist(ResourceObject resource) throws RepositoryException {
-        Transaction transaction = createTransaction();
-
-        if(defaultContext != null) {
-            transaction.setAllContexts(defaultContext);
-        }
-
-        transaction.persist(resource);
+        persist(resource, defaultContext);
     }
 
     /**
@@ -211,23 +217,44 @@ public class Anno4j implements TransactionCommands {
      * @throws RepositoryException
      */
     public void persist(ResourceObject resource, URI context) throws RepositoryException {
-        Transaction transaction = createTransaction();
-        transaction.setAllContexts(context);
-        transaction.persist(resource);
+        ObjectConnection connection = connectionPool.acquire(context);
+        try {
+            createTransaction(connection).persist(resource);
+        } finally {
+            connectionPool.release(connection);
+        }
     }
 
     /**
      * {@inheritDoc }
      */
     @Override
-    public <T extends ResourceObject> T findByID(Class<T> type, String id) throws RepositoryException {
-        Transaction transaction = createTransaction();
+    public void persistAll(Collection<? extends ResourceObject> resources) throws RepositoryException {
+        persistAll(resources, defaultContext);
+    }
 
-        if(defaultContext != null) {
-            transaction.setAllContexts(defaultContext);
+    /**
+     * Writes the given resource objects and their components to the configured SPARQL endpoint.
+     * The statements are collected in memory and written in chunks inside a single transaction.
+     * @param resources resource objects to write to the SPARQL endpoint
+     * @param context Graph context to write to
+     * @throws RepositoryException
+     */
+    public void persistAll(Collection<? extends ResourceObject> resources, URI context) throws RepositoryException {
+        ObjectConnection connection = connectionPool.acquire(context);
+        try {
+            createTransaction(connection).persistAll(resources, persistChunkSize);
+        } finally {
+            connectionPool.release(connection);
         }
+    }
 
-        return transaction.findByID(type, id);
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public <T extends ResourceObject> T findByID(Class<T> type, String id) throws RepositoryException {
+        return createTransaction(connectionPool.pin(defaultContext)).findByID(type, id);
     }
 
     /**
@@ -235,12 +262,23 @@ public class Anno4j implements TransactionCommands {
      */
     @Override
     public <T extends ResourceObject> T findByID(Class<T> type, URI id) throws RepositoryException {
-        Transaction transaction = createTransaction();
+        return findByID(type, id.toString());
+    }
 
-        if(defaultContext != null) {
-            transaction.setAllContexts(defaultContext);
-        }
-        return transaction.findByID(type, id);
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public <T extends ResourceObject> T findByID(Class<T> type, URI id, String... fetchPaths) throws RepositoryException {
+        return createTransaction(connectionPool.pin(defaultContext)).findByID(type, id, fetchPaths);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public <T extends ResourceObject> List<T> findByIDs(Class<T> type, Collection<URI> ids) throws RepositoryException {
+        return createTransaction(connectionPool.pin(defaultContext)).findByIDs(type, ids);
     }
 
     /**
@@ -248,9 +286,12 @@ public class Anno4j implements TransactionCommands {
      */
     @Override
     public void clearContext(URI context) throws RepositoryException {
-        Transaction transaction = createTransaction();
-        transaction.clearContext(context);
-        transaction.close();
+        ObjectConnection connection = connectionPool.acquire(defaultContext);
+        try {
+            createTransaction(connection).clearContext(context);
+        } finally {
+            connectionPool.release(connection);
+        }
     }
 
     /**
@@ -258,9 +299,57 @@ public class Anno4j implements TransactionCommands {
      */
     @Override
     public void clearContext(String context) throws RepositoryException {
-        Transaction transaction = createTransaction();
-        transaction.clearContext(context);
-        transaction.close();
+        clearContext(new URIImpl(context));
+    }
+
+    /**
+     * Streams all statements of a context to the given stream, e.g. for backups.
+     *
+     * @param context The context to export, or null for the whole repository.
+     * @param out     The stream to write to, which is not closed.
+     * @param format  The serialisation format.
+     * @param options The compression and progress settings.
+     * @return The counts of the export.
+     * @throws RepositoryException
+     * @throws IOException
+     * @see RDFExporter
+     */
+    public ExportResult export(URI context, OutputStream out, RDFFormat format, ExportOptions options) throws RepositoryException, IOException {
+        return new RDFExporter(this).export(context, out, format, options);
+    }
+
+    /**
+     * Streams all statements of a context to a file, split into several files if a maximum size is configured.
+     *
+     * @param context The context to export, or null for the whole repository.
+     * @param file    The file to write.
+     * @param format  The serialisation format.
+     * @param options The compression, splitting and progress settings.
+     * @return The counts and files of the export.
+     * @throws RepositoryException
+     * @throws IOException
+     * @see RDFExporter
+     */
+    public ExportResult export(URI context, Path file, RDFFormat format, ExportOptions options) throws RepositoryException, IOException {
+        return new RDFExporter(this).export(context, file, format, options);
+    }
+
+    /**
+     * Loads the files written by {@link #export(URI, Path, RDFFormat, ExportOptions)}, parsing the parts in
+     * parallel and committing the statements in large batches. Blank nodes keep the identifiers of the dump, so that
+     * blank nodes split across parts are joined again, see {@link ParallelImporter#setPreserveBNodeIds(boolean)}.
+     *
+     * @param context The context to import into, or null to keep the contexts of the dump.
+     * @param files   The files to import, gzip compressed if their name ends with <code>.gz</code>.
+     * @return The counts of the import and the files that failed.
+     * @throws RepositoryException
+     * @see ParallelImporter
+     */
+    public ParallelImportResult importDump(URI context, Collection<Path> files) throws RepositoryException {
+        ParallelImporter importer = new ParallelImporter(this);
+        importer.setContext(context);
+        importer.setPreserveBNodeIds(true);
+        return importer.importFiles(files);
     }
 
     /**
@@ -268,20 +357,11 @@ public class Anno4j implements TransactionCommands {
      */
     @Override
     public <T extends ResourceObject> List<T> findAll(Class<T> type) throws RepositoryException {
-        Transaction transaction = createTransaction();
-
-        if(defaultContext != null) {
-            transaction.setAllContexts(defaultContext);
-        }
-
-        return transaction.findAll(type);
+        return findAll(type, defaultContext);
     }
 
     public <T extends ResourceObject> List<T> findAll(Class<T> type, URI context) throws RepositoryException {
-        Transaction transaction = createTransaction();
-        transaction.setAllContexts(context);
-
-        return transaction.findAll(type);
+        return createTransaction(connectionPool.pin(context)).findAll(type);
     }
 
     /**
@@ -294,13 +374,7 @@ public class Anno4j implements TransactionCommands {
 
     @Override
     public <T> T createObject(Class<T> clazz, Resource id) throws RepositoryException, IllegalAccessException, InstantiationException {
-        Transaction transaction = createTransaction();
-
-        if(defaultContext != null) {
-            transaction.setAllContexts(defaultContext);
-        }
-
-        return transaction.createObject(clazz, id);
+        return createObject(clazz, defaultContext, id);
     }
 
     /**
@@ -314,10 +388,7 @@ public class Anno4j implements TransactionCommands {
     }
 
     public <T> T createObject(Class<T> clazz, URI context, Resource id) throws RepositoryException, IllegalAccessException, InstantiationException {
-        Transaction transaction = createTransaction();
-        transaction.setAllContexts(context);
-
-        return transaction.createObject(clazz, id);
+        return createTransaction(connectionPool.pin(context)).createObject(clazz, id);
     }
 
     /**
@@ -325,13 +396,7 @@ public class Anno4j implements TransactionCommands {
      */
     @Override
     public QueryService createQueryService() throws RepositoryException {
-        Transaction transaction = createTransaction();
-
-        if(defaultContext != null) {
-            transaction.setAllContexts(defaultContext);
-        }
-
-        return transaction.createQueryService();
+        return createQueryService(defaultContext);
     }
 
     /**
@@ -341,13 +406,13 @@ public class Anno4j implements TransactionCommands {
      * @return query service object for specified type
      */
     public QueryService createQueryService(URI context) throws RepositoryException {
-        Transaction transaction = createTransaction();
-        transaction.setAllContexts(context);
-        return transaction.createQueryService();
+        return createTransaction(connectionPool.pin(context)).createQueryService();
     }
 
     /**
-     * Getter for the configured Repository instance (Connector for local/remote SPARQL repository).
+     * Getter for the configured Repository instance (Connector for local/remote SPARQL repository). Statements written
+     * through its connections bypass the {@link #getObjectCache() object cache}, so their subjects have to be dropped
+     * from it with {@link ObjectCache#invalidate(Collection)} afterwards.
      *
      * @return configured Repository instance
      */
@@ -367,16 +432,20 @@ public class Anno4j implements TransactionCommands {
         // update alibaba wrapper
 
         ObjectRepositoryFactory factory = new ObjectRepositoryFactory();
-        ObjectRepositoryConfig config = factory.getConfig();
-
-        if(partialClasses != null) {
-            for(Class<?> clazz : this.partialClasses){
-                config.addBehaviour(clazz);
-            }
+        ObjectService service = registry.getObjectService();
+        if (service != null) {
+            this.objectRepository = factory.createRepository(factory.getConfig(), service, repository);
+        } else {
+            ObjectRepositoryConfig config = CompositionRegistry.createConfig(registry.getPartialClasses());
+            this.objectRepository = factory.createRepository(config, repository);
         }
-
-        this.objectRepository = new ObjectRepositoryFactory().createRepository(config, repository);
         this.objectRepository.setIdGenerator(idGenerator);
+        if (this.individuals != null) {
+            this.individuals.close();
+        }
+        this.individuals = new IndividualRegistry(this);
+
+        resetConnectionPool();
     }
 
     /**
@@ -388,6 +457,25 @@ public class Anno4j implements TransactionCommands {
         return objectRepository;
     }
 
+    /**
+     * Getter for the partial implementations and evaluators of this instance, e.g. to create further instances
+     * sharing them.
+     *
+     * @return the registry of this instance.
+     */
+    public CompositionRegistry getCompositionRegistry() {
+        return registry;
+    }
+
+    /**
+     * Getter for the canonical objects of well-known individuals, such as motivations, of the current repository.
+     *
+     * @return the individual registry of the current repository.
+     */
+    public IndividualRegistry getIndividuals() {
+        return individuals;
+    }
+
     public IDGenerator getIdGenerator() {
         return idGenerator;
     }
@@ -401,7 +489,129 @@ public class Anno4j implements TransactionCommands {
         return defaultContext;
     }
 
+    /**
+     * Getter for the pool of connections used by the convenience methods, e.g. to inspect its metrics.
+     *
+     * @return the connection pool of the current repository.
+     */
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    /**
+     * Configures the maximum number of connections the convenience methods keep open. Idle connections of the
+     * current pool are closed.
+     *
+     * @param connectionPoolSize the maximum number of pooled connections.
+     */
+    public void setConnectionPoolSize(int connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+        resetConnectionPool();
+    }
+
+    /**
+     * Closes the idle pooled connections and the connections of the objects loaded through the convenience methods
+     * of this instance, which must not be used afterwards.
+     */
+    public void close() {
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+        for (ConnectionPool pool : retiredPools) {
+            pool.close();
+        }
+        retiredPools.clear();
+        if (individuals != null) {
+            try {
+                individuals.close();
+            } catch (RepositoryException e) {
+                logger.warn("Could not close the connection of the individuals", e);
+            }
+        }
+    }
+
+    public int getPersistChunkSize() {
+        return persistChunkSize;
+    }
+
+    /**
+     * Configures how many statements {@link #persistAll(Collection)} writes per request.
+     *
+     * @param persistChunkSize the number of statements per request.
+     */
+    public void setPersistChunkSize(int persistChunkSize) {
+        this.persistChunkSize = persistChunkSize;
+    }
+
+    /**
+     * Getter for the cache of compiled queries shared by all QueryServices of this instance, e.g. to inspect its
+     * hit and miss counters.
+     *
+     * @return the query cache.
+     */
+    public QueryCache getQueryCache() {
+        return evaluatorConfiguration.getQueryCache();
+    }
+
+    /**
+     * Replaces the query cache by an empty one of the given size.
+     *
+     * @param queryCacheSize the maximum number of cached queries, 0 disables the cache.
+     */
+    public void setQueryCacheSize(int queryCacheSize) {
+        evaluatorConfiguration.setQueryCache(new QueryCache(queryCacheSize));
+    }
+
+    /**
+     * Replaces the query cache, e.g. to share the compiled queries of several instances with the same schema.
+     *
+     * @param queryCache the query cache.
+     */
+    public void setQueryCache(QueryCache queryCache) {
+        evaluatorConfiguration.setQueryCache(queryCache);
+    }
+
+    /**
+     * Getter for the repository wide cache of object types and properties, e.g. to inspect its hit ratio or to
+     * disable it temporarily.
+     *
+     * @return the object cache, or null if objects are not cached across connections.
+     */
+    public ObjectCache getObjectCache() {
+        return objectRepository.getObjectCache();
+    }
+
+    /**
+     * Caches the types and properties of the objects read by one connection for all other connections of this
+     * instance, including the pooled connections that are already open. Only writes through these connections drop
+     * entries from the cache, see {@link #getRepository()}.
+     *
+     * @param objectCache the cache, or null to not cache objects across connections.
+     */
+    public void setObjectCache(ObjectCache objectCache) {
+        objectRepository.setObjectCache(objectCache);
+    }
+
     public Transaction createTransaction() throws RepositoryException {
         return new Transaction(objectRepository, evaluatorConfiguration);
     }
+
+    private Transaction createTransaction(ObjectConnection connection) {
+        return new Transaction(connection, evaluatorConfiguration);
+    }
+
+    private void resetConnectionPool() {
+        ConnectionPool pool = new ConnectionPool(objectRepository, connectionPoolSize);
+        if (connectionPool != null) {
+            connectionPool.retire();
+            if (connectionPool.getPinnedCount() > 0) {
+                retiredPools.add(connectionPool);
+            }
+        }
+        connectionPool = pool;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.github.anno4j;
+
+import com.github.anno4j.annotations.Evaluator;
+import com.github.anno4j.annotations.Partial;
+import org.openrdf.repository.config.RepositoryConfigException;
+import org.openrdf.repository.object.ObjectService;
+import org.openrdf.repository.object.config.ObjectRepositoryConfig;
+import org.openrdf.repository.object.config.ObjectRepositoryFactory;
+import org.openrdf.repository.object.managers.helpers.AnnotationIndex;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The repository independent part of Anno4j: partial implementations, evaluators, the role and property mappings, the
+ * literal manager and the composed proxy classes. A registry is immutable once created and can be shared by many
+ * {@link Anno4j} instances, e.g. one per tenant, so that each proxy class is composed and loaded only once.
+ * <p/>
+ * Each Anno4j instance keeps its own repository, ID generator and contexts.
+ */
+public final class CompositionRegistry {
+
+    private final Set<Class<?>> partialClasses;
+
+    private final Set<Class<?>> evaluatorClasses;
+
+    /**
+     * Composes and loads the classes, or null if each repository composes its own classes.
+     */
+    private final ObjectService objectService;
+
+    private CompositionRegistry(Set<Class<?>> partialClasses, Set<Class<?>> evaluatorClasses, ObjectService objectService) {
+        this.partialClasses = Collections.unmodifiableSet(partialClasses);
+        this.evaluatorClasses = Collections.unmodifiableSet(evaluatorClasses);
+        this.objectService = objectService;
+    }
+
+    /**
+     * Finds the partial implementations and evaluators and creates the mappings and class composition to share.
+     *
+     * @return a registry to pass to {@link Anno4j#Anno4j(CompositionRegistry, org.openrdf.repository.Repository)}.
+     * @throws RepositoryConfigException if the annotated classes can not be read or mapped.
+     */
+    public static CompositionRegistry create() throws RepositoryConfigException {
+        CompositionRegistry annotated = findAnnotatedClasses();
+        ObjectService service = new ObjectRepositoryFactory().createObjectService(createConfig(annotated.partialClasses));
+        return new CompositionRegistry(annotated.partialClasses, annotated.evaluatorClasses, service);
+    }
+
+    /**
+     * Finds the partial implementations and evaluators, but leaves the class composition to each repository.
+     */
+    static CompositionRegistry findAnnotatedClasses() throws RepositoryConfigException {
+        // classes listed at compile time, and found by a scan in jars and directories without an index
+        AnnotationIndex index = loadAnnotationIndex();
+        return new CompositionRegistry(index.getTypesAnnotatedWith(Partial.class),
+                index.getTypesAnnotatedWith(Evaluator.class), null);
+    }
+
+    /**
+     * Reads the {@link AnnotationIndex} of annotated classes written by the annotation processor at compile time.
+     *
+     * @return the index, which scans the jars and directories of the classpath that have no index.
+     */
+    private static AnnotationIndex loadAnnotationIndex() throws RepositoryConfigException {
+        try {
+            return AnnotationIndex.load(Anno4j.class.getClassLoader(), Thread.currentThread().getContextClassLoader());
+        } catch (IOException e) {
+            throw new RepositoryConfigException("Couldn't read annotation index", e);
+        }
+    }
+
+    /**
+     * Creates the alibaba configuration registering the given partial implementations as behaviours.
+     */
+    static ObjectRepositoryConfig createConfig(Set<Class<?>> partialClasses) throws RepositoryConfigException {
+        ObjectRepositoryConfig config = new ObjectRepositoryFactory().getConfig();
+        for (Class<?> clazz : partialClasses) {
+            config.addBehaviour(clazz);
+        }
+        return config;
+    }
+
+    /**
+     * @return the classes annotated with {@link Partial}.
+     */
+    public Set<Class<?>> getPartialClasses() {
+        return partialClasses;
+    }
+
+    /**
+     * @return the classes annotated with {@link Evaluator}.
+     */
+    public Set<Class<?>> getEvaluatorClasses() {
+        return evaluatorClasses;
+    }
+
+    /**
+     * @return the shared class composition, or null if each repository composes its own classes.
+     */
+    public ObjectService getObjectService() {
+        return objectService;
+    }
+}
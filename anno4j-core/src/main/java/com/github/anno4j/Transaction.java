@@ -1,6 +1,8 @@
 package com.github.anno4j;
 
+import com.github.anno4j.connection.StatementBuffer;
 import com.github.anno4j.model.impl.ResourceObject;
+import com.github.anno4j.querying.FetchPlan;
 import com.github.anno4j.querying.QueryService;
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
 import org.openrdf.idGenerator.IDGenerator;
@@ -13,8 +15,16 @@ import org.openrdf.repository.contextaware.ContextAwareConnection;
 import org.openrdf.repository.object.ObjectConnection;
 import org.openrdf.repository.object.ObjectFactory;
 import org.openrdf.repository.object.ObjectRepository;
+import org.openrdf.repository.object.RDFObject;
+import org.openrdf.result.Result;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 public class Transaction implements TransactionCommands {
 
@@ -28,6 +38,15 @@ public class Transaction implements TransactionCommands {
         this.evaluatorConfiguration = evaluatorConfiguration;
     }
 
+    /**
+     * Creates a transaction on an already opened connection, e.g. one leased from a
+     * {@link com.github.anno4j.connection.ConnectionPool}. Closing the transaction closes the connection.
+     */
+    public Transaction(ObjectConnection connection, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+        this.connection = connection;
+        this.evaluatorConfiguration = evaluatorConfiguration;
+    }
+
     /**
      * Indicates if a transaction is currently active on the connection. A
      * transaction is active if {@link #begin()} has been called, and becomes
@@ -131,6 +150,49 @@ public class Transaction implements TransactionCommands {
         connection.addObject(resource);
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void persistAll(Collection<? extends ResourceObject> resources) throws RepositoryException {
+        persistAll(resources, StatementBuffer.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Writes the given resource objects and their components to the configured SPARQL endpoint.
+     * If no transaction is active, a transaction is started and committed for the whole collection, including the
+     * objects that can not be copied statement by statement and are imported with
+     * {@link ObjectConnection#addObject(Object)} instead. The statements are read from the stores the objects were
+     * loaded from, level by level with one query per chunk of resources, see {@link StatementBuffer#addGraphs}.
+     * Objects loaded from the store and graph this transaction writes to are already stored and skipped.
+     * @param resources resource objects to write to the SPARQL endpoint
+     * @param chunkSize number of statements written per request to the SPARQL endpoint
+     * @throws RepositoryException
+     */
+    public void persistAll(Collection<? extends ResourceObject> resources, int chunkSize) throws RepositoryException {
+        StatementBuffer buffer = new StatementBuffer(connection, chunkSize);
+
+        boolean begin = !connection.isActive();
+        if (begin) {
+            connection.begin();
+        }
+
+        try {
+            for (RDFObject resource : buffer.addGraphs(resources)) {
+                connection.addObject(resource);
+            }
+            buffer.flush();
+
+            if (begin) {
+                connection.commit();
+            }
+        } finally {
+            if (begin && connection.isActive()) {
+                connection.rollback();
+            }
+        }
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -151,6 +213,49 @@ public class Transaction implements TransactionCommands {
         return findByID(type, id.toString());
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public <T extends ResourceObject> T findByID(Class<T> type, URI id, String... fetchPaths) throws RepositoryException {
+        T object = findByID(type, id);
+        if (object != null) {
+            new FetchPlan(fetchPaths).load(connection, Collections.singleton(object));
+        }
+        return object;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public <T extends ResourceObject> List<T> findByIDs(Class<T> type, Collection<URI> ids) throws RepositoryException {
+        Map<Resource, T> objects = new HashMap<>();
+        try {
+            Result<T> result = connection.getObjects(type, new LinkedHashSet<>(ids));
+            try {
+                while (result.hasNext()) {
+                    Object object = result.next();
+                    if (type.isInstance(object)) {
+                        objects.put(((ResourceObject) object).getResource(), type.cast(object));
+                    }
+                }
+            } finally {
+                result.close();
+            }
+        } catch (QueryEvaluationException e) {
+            throw new RepositoryException("Couldn't evaluate query", e);
+        }
+
+        List<T> ordered = new ArrayList<>(objects.size());
+        for (URI id : ids) {
+            if (objects.containsKey(id)) {
+                ordered.add(objects.get(id));
+            }
+        }
+        return ordered;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -7,6 +7,7 @@ import org.openrdf.model.URI;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.object.ObjectRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface TransactionCommands {
@@ -17,10 +18,40 @@ public interface TransactionCommands {
      */
     void persist(ResourceObject resource) throws RepositoryException;
 
+    /**
+     * Writes the given resource objects and their components (e.g. bodies, targets and selectors) to the configured
+     * SPARQL endpoint, see {@link com.github.anno4j.connection.StatementBuffer#addGraph}. The statements are collected in memory and written in chunks
+     * inside a single transaction.
+     * @param resources resource objects to write to the SPARQL endpoint
+     * @throws RepositoryException
+     */
+    void persistAll(Collection<? extends ResourceObject> resources) throws RepositoryException;
+
     <T extends ResourceObject> T findByID(Class<T> type, String id) throws RepositoryException;
 
     <T extends ResourceObject> T findByID(Class<T> type, URI id) throws RepositoryException;
 
+    /**
+     * Reads the object with the given IRI and eagerly loads the given property paths of it with one query, see
+     * {@link com.github.anno4j.querying.FetchPlan}.
+     * @param type type of the object
+     * @param id IRI of the object
+     * @param fetchPaths property paths to load, e.g. "oa:hasBody" or "oa:hasTarget/oa:hasSelector"
+     * @throws RepositoryException
+     */
+    <T extends ResourceObject> T findByID(Class<T> type, URI id, String... fetchPaths) throws RepositoryException;
+
+    /**
+     * Reads the objects with the given IRIs. Instead of one query per IRI, the IRIs are matched in chunks with a
+     * single query each.
+     * @param type type of the objects
+     * @param ids IRIs of the objects
+     * @return the objects of the given type, in the order of the given IRIs. IRIs of resources that are not of the
+     * given type are skipped.
+     * @throws RepositoryException
+     */
+    <T extends ResourceObject> List<T> findByIDs(Class<T> type, Collection<URI> ids) throws RepositoryException;
+
     /**
      * Removes all triples from the given context.
      * @param context context to clear
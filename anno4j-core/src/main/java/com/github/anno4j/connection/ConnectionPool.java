@@ -0,0 +1,393 @@
+package com.github.anno4j.connection;
+
+import org.openrdf.model.URI;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.object.ObjectConnection;
+import org.openrdf.repository.object.ObjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded pool of {@link ObjectConnection}s used by the convenience methods of {@link com.github.anno4j.Anno4j}.
+ * <p/>
+ * Every pooled connection is bound to a single graph context for its whole lifetime. If all connections are idle but
+ * bound to other contexts, the least recently used one is closed to make room. Callers block while all connections
+ * are leased. The objects and types a leased connection has read are dropped when it is released, so the next lease
+ * reads the changes of other connections.
+ * <p/>
+ * Leased connections must not hand out objects, as the connection is used by other threads and may be closed after
+ * it was released. Objects that are returned to the caller are read through a {@link #pin(URI) pinned} connection
+ * instead. Each thread has one pinned connection per context, which is reused by all its calls, and at most
+ * {@link #getSize()} pinned connections are open. If a thread needs another one, the least recently used pinned
+ * connection is closed, and the objects read through it must be read again. The pool should therefore be at least
+ * as large as the number of threads and contexts whose objects are used at the same time.
+ */
+public class ConnectionPool {
+
+    /**
+     * Number of connections used if no explicit size is configured.
+     */
+    public static final int DEFAULT_SIZE = 8;
+
+    private static final URI[] ALL_CONTEXTS = new URI[0];
+
+    private final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final ObjectRepository repository;
+
+    private final int size;
+
+    /**
+     * Idle connections, the most recently returned one first.
+     */
+    private final LinkedList<PooledConnection> idle = new LinkedList<>();
+
+    /**
+     * Leased connections and the time their lease started.
+     */
+    private final Map<ObjectConnection, PooledConnection> leased = new IdentityHashMap<>();
+
+    /**
+     * Pinned connections by thread and context, the least recently used one first.
+     */
+    private final LinkedHashMap<PinKey, ObjectConnection> pinned = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+
+    /**
+     * Number of open connections, leased and idle.
+     */
+    private int open = 0;
+
+    private boolean closed = false;
+
+    public ConnectionPool(ObjectRepository repository) {
+        this(repository, DEFAULT_SIZE);
+    }
+
+    public ConnectionPool(ObjectRepository repository, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Connection pool size must be positive, but was " + size);
+        }
+        this.repository = repository;
+        this.size = size;
+    }
+
+    /**
+     * Leases a connection that reads from, inserts into and removes from the given context. Blocks until a
+     * connection is available. The connection must be handed back with {@link #release(ObjectConnection)}.
+     *
+     * @param context The graph context of the connection, or null for all contexts.
+     * @return A connection bound to the given context.
+     * @throws RepositoryException If the pool is closed, the caller is interrupted or no connection can be opened.
+     */
+    public ObjectConnection acquire(URI context) throws RepositoryException {
+        long start = System.nanoTime();
+        PooledConnection pooled = null;
+        PooledConnection evicted = null;
+
+        synchronized (this) {
+            while (pooled == null) {
+                if (closed) {
+                    throw new RepositoryException("Connection pool is closed");
+                }
+
+                pooled = removeIdle(context);
+                if (pooled == null) {
+                    if (open < size) {
+                        open++;
+                        break;
+                    } else if (!idle.isEmpty()) {
+                        evicted = idle.removeLast();
+                        break;
+                    }
+
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RepositoryException("Interrupted while waiting for a connection", e);
+                    }
+                }
+            }
+        }
+
+        if (evicted != null) {
+            metrics.recordEvicted();
+            closeQuietly(evicted.connection);
+        }
+
+        if (pooled == null) {
+            try {
+                pooled = new PooledConnection(createConnection(context), context);
+                metrics.recordCreated();
+            } catch (RepositoryException | RuntimeException e) {
+                synchronized (this) {
+                    open--;
+                    notifyAll();
+                }
+                throw e;
+            }
+        }
+
+        long now = System.nanoTime();
+        pooled.leasedAt = now;
+        synchronized (this) {
+            leased.put(pooled.connection, pooled);
+        }
+        metrics.recordAcquire(now - start);
+
+        return pooled.connection;
+    }
+
+    /**
+     * Returns the connection of the calling thread for objects that are handed out to the caller. The connection
+     * reads from, inserts into and removes from the given context like a leased one, but it is never leased. It is
+     * opened by the first call of the thread for the context and reused by later calls, which drop the objects and
+     * types it has read unless a transaction is active on it. It stays open until it is the least recently used of
+     * {@link #getSize()} pinned connections and another one is needed, or until the pool is closed.
+     *
+     * @param context The graph context of the connection, or null for all contexts.
+     * @return A connection bound to the given context and to the calling thread.
+     * @throws RepositoryException If the pool is closed or no connection can be opened.
+     */
+    public ObjectConnection pin(URI context) throws RepositoryException {
+        PinKey key = new PinKey(Thread.currentThread(), context);
+        ObjectConnection connection;
+        synchronized (this) {
+            if (closed) {
+                throw new RepositoryException("Connection pool is closed");
+            }
+            connection = pinned.get(key);
+        }
+
+        if (connection != null) {
+            if (!connection.isActive()) {
+                connection.clearCache();
+            }
+            return connection;
+        }
+
+        // Only the calling thread pins connections for its key, so the connection is opened outside of the lock:
+        connection = createConnection(context);
+        metrics.recordCreated();
+        metrics.recordPinned();
+
+        List<ObjectConnection> toClose = new ArrayList<>(1);
+        synchronized (this) {
+            if (closed) {
+                toClose.add(connection);
+            } else {
+                pinned.put(key, connection);
+                Iterator<ObjectConnection> iterator = pinned.values().iterator();
+                while (pinned.size() > size) {
+                    toClose.add(iterator.next());
+                    iterator.remove();
+                }
+            }
+        }
+
+        for (ObjectConnection evicted : toClose) {
+            if (evicted != connection) {
+                metrics.recordEvicted();
+            }
+            closeQuietly(evicted);
+        }
+        if (toClose.contains(connection)) {
+            throw new RepositoryException("Connection pool is closed");
+        }
+        return connection;
+    }
+
+    /**
+     * Hands a leased connection back to the pool. A transaction that is still active on the connection is rolled
+     * back and the objects and types the connection has read are dropped.
+     *
+     * @param connection A connection obtained by {@link #acquire(URI)}.
+     */
+    public void release(ObjectConnection connection) {
+        PooledConnection pooled;
+        synchronized (this) {
+            pooled = leased.remove(connection);
+        }
+
+        if (pooled == null) {
+            throw new IllegalArgumentException("Connection was not leased from this pool: " + connection);
+        }
+
+        metrics.recordRelease(System.nanoTime() - pooled.leasedAt);
+
+        boolean reusable;
+        try {
+            if (connection.isActive()) {
+                connection.rollback();
+            }
+            connection.resetImports();
+            connection.clearCache();
+            reusable = connection.isOpen();
+        } catch (RepositoryException e) {
+            logger.warn("Discarding pooled connection", e);
+            reusable = false;
+        }
+
+        boolean close = !reusable;
+        synchronized (this) {
+            if (reusable && !closed) {
+                idle.addFirst(pooled);
+            } else {
+                open--;
+                close = true;
+            }
+            notifyAll();
+        }
+
+        if (close) {
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Closes all idle and pinned connections and rejects further leases. Connections that are currently leased are
+     * closed when they are released.
+     */
+    public void close() {
+        List<ObjectConnection> toClose;
+        synchronized (this) {
+            toClose = new ArrayList<>(pinned.values());
+            pinned.clear();
+        }
+        retire();
+
+        for (ObjectConnection connection : toClose) {
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Closes all idle connections and rejects further leases, e.g. because the pool is replaced. Pinned connections
+     * stay open until {@link #close()} is called, so that the objects loaded through them can still be used, and
+     * connections that are currently leased are closed when they are released.
+     */
+    public void retire() {
+        LinkedList<PooledConnection> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new LinkedList<>(idle);
+            open -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+
+        for (PooledConnection pooled : toClose) {
+            closeQuietly(pooled.connection);
+        }
+    }
+
+    /**
+     * @return The maximum number of connections this pool keeps open.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return Usage statistics of this pool.
+     */
+    public ConnectionPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return The number of pinned connections that are still open.
+     */
+    public synchronized int getPinnedCount() {
+        return pinned.size();
+    }
+
+    private PooledConnection removeIdle(URI context) {
+        Iterator<PooledConnection> iterator = idle.iterator();
+        while (iterator.hasNext()) {
+            PooledConnection pooled = iterator.next();
+            if (context == null ? pooled.context == null : context.equals(pooled.context)) {
+                iterator.remove();
+                return pooled;
+            }
+        }
+        return null;
+    }
+
+    private ObjectConnection createConnection(URI context) throws RepositoryException {
+        ObjectConnection connection = repository.getConnection();
+
+        if (context != null) {
+            connection.setReadContexts(context);
+            connection.setInsertContext(context);
+            connection.setRemoveContexts(context);
+        } else {
+            connection.setReadContexts(ALL_CONTEXTS);
+            connection.setInsertContext(null);
+            connection.setRemoveContexts(ALL_CONTEXTS);
+        }
+
+        return connection;
+    }
+
+    private void closeQuietly(ObjectConnection connection) {
+        try {
+            connection.close();
+        } catch (RepositoryException e) {
+            logger.warn("Could not close connection", e);
+        }
+    }
+
+    private static class PooledConnection {
+
+        private final ObjectConnection connection;
+
+        private final URI context;
+
+        private long leasedAt;
+
+        private PooledConnection(ObjectConnection connection, URI context) {
+            this.connection = connection;
+            this.context = context;
+        }
+    }
+
+    /**
+     * The thread and context a pinned connection belongs to.
+     */
+    private static class PinKey {
+
+        private final Thread thread;
+
+        private final URI context;
+
+        private PinKey(Thread thread, URI context) {
+            this.thread = thread;
+            this.context = context;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PinKey)) {
+                return false;
+            }
+            PinKey other = (PinKey) o;
+            return thread == other.thread && (context == null ? other.context == null : context.equals(other.context));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(thread) + (context != null ? context.hashCode() : 0);
+        }
+    }
+}
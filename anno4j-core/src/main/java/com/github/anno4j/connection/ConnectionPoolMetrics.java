@@ -0,0 +1,166 @@
+package com.github.anno4j.connection;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Usage statistics of a {@link ConnectionPool}. All durations are measured with {@link System#nanoTime()} and
+ * reported in milliseconds.
+ */
+public class ConnectionPoolMetrics {
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicLong leases = new AtomicLong();
+
+    private final AtomicLong totalWaitTime = new AtomicLong();
+
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    private final AtomicLong totalLeaseDuration = new AtomicLong();
+
+    private final AtomicLong maxLeaseDuration = new AtomicLong();
+
+    private final AtomicLong created = new AtomicLong();
+
+    private final AtomicLong evicted = new AtomicLong();
+
+    private final AtomicLong pinned = new AtomicLong();
+
+    void recordAcquire(long waitNanos) {
+        active.incrementAndGet();
+        leases.incrementAndGet();
+        totalWaitTime.addAndGet(waitNanos);
+        updateMax(maxWaitTime, waitNanos);
+    }
+
+    void recordRelease(long leaseNanos) {
+        active.decrementAndGet();
+        totalLeaseDuration.addAndGet(leaseNanos);
+        updateMax(maxLeaseDuration, leaseNanos);
+    }
+
+    void recordCreated() {
+        created.incrementAndGet();
+    }
+
+    void recordEvicted() {
+        evicted.incrementAndGet();
+    }
+
+    void recordPinned() {
+        pinned.incrementAndGet();
+    }
+
+    /**
+     * @return The number of connections that are currently leased.
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * @return The number of leases handed out since the pool was created.
+     */
+    public long getLeaseCount() {
+        return leases.get();
+    }
+
+    /**
+     * @return The number of connections opened against the repository since the pool was created.
+     */
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    /**
+     * @return The number of idle connections that were closed to make room for a connection with another context,
+     * and of pinned connections that were closed to make room for another pinned connection.
+     */
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+
+    /**
+     * @return The number of connections opened for objects handed out to callers since the pool was created.
+     */
+    public long getPinnedCount() {
+        return pinned.get();
+    }
+
+    /**
+     * @return The accumulated time callers waited for a connection.
+     */
+    public long getTotalWaitTime() {
+        return toMillis(totalWaitTime.get());
+    }
+
+    /**
+     * @return The longest time a single caller waited for a connection.
+     */
+    public long getMaxWaitTime() {
+        return toMillis(maxWaitTime.get());
+    }
+
+    /**
+     * @return The average time a caller waited for a connection.
+     */
+    public double getAverageWaitTime() {
+        return average(totalWaitTime.get(), leases.get());
+    }
+
+    /**
+     * @return The accumulated time connections were leased.
+     */
+    public long getTotalLeaseDuration() {
+        return toMillis(totalLeaseDuration.get());
+    }
+
+    /**
+     * @return The longest time a single connection was leased.
+     */
+    public long getMaxLeaseDuration() {
+        return toMillis(maxLeaseDuration.get());
+    }
+
+    /**
+     * @return The average time a connection was leased, counting only leases that were already returned.
+     */
+    public double getAverageLeaseDuration() {
+        return average(totalLeaseDuration.get(), leases.get() - active.get());
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolMetrics{" +
+                "active=" + getActiveCount() +
+                ", leases=" + getLeaseCount() +
+                ", created=" + getCreatedCount() +
+                ", evicted=" + getEvictedCount() +
+                ", pinned=" + getPinnedCount() +
+                ", averageWaitTime=" + getAverageWaitTime() +
+                ", maxWaitTime=" + getMaxWaitTime() +
+                ", averageLeaseDuration=" + getAverageLeaseDuration() +
+                ", maxLeaseDuration=" + getMaxLeaseDuration() +
+                '}';
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static double average(long totalNanos, long count) {
+        if (count <= 0) {
+            return 0;
+        }
+        return totalNanos / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,314 @@
+package com.github.anno4j.connection;
+
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.query.GraphQueryResult;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.TupleQueryResult;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+import org.openrdf.repository.object.ObjectConnection;
+import org.openrdf.repository.object.ObjectFactory;
+import org.openrdf.repository.object.RDFObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the statements of object graphs in memory and writes them to a connection in chunks, instead of one
+ * <code>add</code> call per property value. The statements are written into the insert context of the target
+ * connection. Transaction handling is left to the caller, so that all chunks can be written inside one transaction.
+ */
+public class StatementBuffer {
+
+    /**
+     * Number of statements written per <code>add</code> call if no explicit chunk size is configured.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 5000;
+
+    private static final String VALUES_PLACEHOLDER = "$values";
+
+    private static final String SUBJECTS_QUERY = "CONSTRUCT { ?s ?p ?o } WHERE { VALUES ?s { " + VALUES_PLACEHOLDER + " } ?s ?p ?o }";
+
+    private static final String STORED_QUERY = "SELECT DISTINCT ?s WHERE { VALUES ?s { " + VALUES_PLACEHOLDER + " } ?s ?p ?o }";
+
+    private final ObjectConnection connection;
+
+    private final int chunkSize;
+
+    private final List<Statement> statements;
+
+    /**
+     * Resources whose statements were already collected.
+     */
+    private final Set<Resource> visited = new HashSet<>();
+
+    private long written = 0;
+
+    public StatementBuffer(ObjectConnection connection) {
+        this(connection, DEFAULT_CHUNK_SIZE);
+    }
+
+    public StatementBuffer(ObjectConnection connection, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive, but was " + chunkSize);
+        }
+        this.connection = connection;
+        this.chunkSize = chunkSize;
+        this.statements = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * Collects the statements of the given object and of its components.
+     *
+     * @param object The root of the object graph.
+     * @return <code>false</code> if the object has to be imported with {@link ObjectConnection#addObject(Object)}.
+     * @throws RepositoryException
+     * @see #addGraphs(Collection)
+     */
+    public boolean addGraph(RDFObject object) throws RepositoryException {
+        return addGraphs(Collections.singleton(object)).isEmpty();
+    }
+
+    /**
+     * Collects the statements of the given objects and of their components, e.g. bodies, targets and selectors of
+     * annotations. The objects of this API are views of the store they were loaded from, so their statements are
+     * read from there: one level of the object graphs at a time, with one query per {@link
+     * ObjectConnection#VALUES_CHUNK_SIZE} resources, instead of one query per resource. Only blank nodes are read
+     * one by one, as they cannot be named in a query.
+     * <p/>
+     * Links are only followed to blank nodes and to resources that are not stored in the target connection yet, so
+     * that resources which are shared between objects, e.g. agents, motivations or the collection of a page, are
+     * written once and their own links are not copied along. rdf:type values are not followed. Objects that were
+     * loaded from the store and graph the target connection writes to are already stored and skipped.
+     *
+     * @param objects The roots of the object graphs.
+     * @return The objects whose statements could not be read from their connection, e.g. because they were created
+     * by the target connection itself or their identifier was changed after creation. Such objects have to be
+     * imported with {@link ObjectConnection#addObject(Object)}.
+     * @throws RepositoryException
+     */
+    public List<RDFObject> addGraphs(Collection<? extends RDFObject> objects) throws RepositoryException {
+        List<RDFObject> rejected = new ArrayList<>();
+        Map<ObjectConnection, Map<Resource, RDFObject>> roots = new LinkedHashMap<>();
+        for (RDFObject object : objects) {
+            ObjectConnection source = object.getObjectConnection();
+            if (source == null || source == connection) {
+                rejected.add(object);
+            } else if (!isStoredInTarget(source) && visited.add(object.getResource())) {
+                Map<Resource, RDFObject> sourceRoots = roots.get(source);
+                if (sourceRoots == null) {
+                    sourceRoots = new LinkedHashMap<>();
+                    roots.put(source, sourceRoots);
+                }
+                sourceRoots.put(object.getResource(), object);
+            }
+        }
+
+        for (Map.Entry<ObjectConnection, Map<Resource, RDFObject>> entry : roots.entrySet()) {
+            ObjectConnection source = entry.getKey();
+            Set<Resource> level = new LinkedHashSet<>(entry.getValue().keySet());
+            boolean first = true;
+            while (!level.isEmpty()) {
+                Map<Resource, List<Statement>> statements = read(source, level);
+                if (first) {
+                    for (Map.Entry<Resource, RDFObject> root : entry.getValue().entrySet()) {
+                        if (!statements.containsKey(root.getKey())) {
+                            rejected.add(root.getValue());
+                        }
+                    }
+                    first = false;
+                }
+
+                Set<Resource> linked = new LinkedHashSet<>();
+                for (List<Statement> subjectStatements : statements.values()) {
+                    for (Statement statement : subjectStatements) {
+                        add(statement);
+                        Value value = statement.getObject();
+                        if (value instanceof Resource && !RDF.TYPE.equals(statement.getPredicate())
+                                && !visited.contains(value)) {
+                            linked.add((Resource) value);
+                        }
+                    }
+                }
+                linked.removeAll(findStored(linked));
+                visited.addAll(linked);
+                level = linked;
+            }
+        }
+
+        return rejected;
+    }
+
+    /**
+     * @return Whether the objects of the given connection are stored in the graph the target connection writes to.
+     */
+    private boolean isStoredInTarget(ObjectConnection source) {
+        URI context = connection.getInsertContext();
+        return source.getRepository() == connection.getRepository()
+                && (context == null ? source.getInsertContext() == null : context.equals(source.getInsertContext()));
+    }
+
+    /**
+     * Reads the statements of the given subjects from the source connection, without contexts.
+     *
+     * @return The statements by subject, only for subjects that have statements.
+     */
+    private Map<Resource, List<Statement>> read(ObjectConnection source, Set<Resource> subjects) throws RepositoryException {
+        Map<Resource, List<Statement>> statements = new LinkedHashMap<>();
+        List<URI> named = new ArrayList<>();
+        for (Resource subject : subjects) {
+            if (subject instanceof URI && isQueryable((URI) subject)) {
+                named.add((URI) subject);
+            } else {
+                RepositoryResult<Statement> result = source.getStatements(subject, null, null, false);
+                try {
+                    while (result.hasNext()) {
+                        Statement statement = result.next();
+                        put(statements, new StatementImpl(subject, statement.getPredicate(), statement.getObject()));
+                    }
+                } finally {
+                    result.close();
+                }
+            }
+        }
+
+        for (List<URI> chunk : chunks(named)) {
+            try {
+                GraphQueryResult result = source.prepareGraphQuery(QueryLanguage.SPARQL,
+                        SUBJECTS_QUERY.replace(VALUES_PLACEHOLDER, ObjectFactory.createValues(chunk))).evaluate();
+                try {
+                    while (result.hasNext()) {
+                        Statement statement = result.next();
+                        put(statements, new StatementImpl(statement.getSubject(), statement.getPredicate(), statement.getObject()));
+                    }
+                } finally {
+                    result.close();
+                }
+            } catch (MalformedQueryException | QueryEvaluationException e) {
+                throw new RepositoryException(e);
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * @return The resources among the given ones that have statements in the target connection. Blank nodes are
+     * never reported, as they always belong to the object graph that links them.
+     */
+    private Set<Resource> findStored(Set<Resource> resources) throws RepositoryException {
+        Set<Resource> stored = new HashSet<>();
+        List<URI> named = new ArrayList<>();
+        for (Resource resource : resources) {
+            if (resource instanceof URI) {
+                if (isQueryable((URI) resource)) {
+                    named.add((URI) resource);
+                } else if (connection.hasStatement(resource, null, null, false)) {
+                    stored.add(resource);
+                }
+            }
+        }
+
+        for (List<URI> chunk : chunks(named)) {
+            try {
+                TupleQueryResult result = connection.prepareTupleQuery(QueryLanguage.SPARQL,
+                        STORED_QUERY.replace(VALUES_PLACEHOLDER, ObjectFactory.createValues(chunk))).evaluate();
+                try {
+                    while (result.hasNext()) {
+                        stored.add((Resource) result.next().getValue("s"));
+                    }
+                } finally {
+                    result.close();
+                }
+            } catch (MalformedQueryException | QueryEvaluationException e) {
+                throw new RepositoryException(e);
+            }
+        }
+        return stored;
+    }
+
+    private static void put(Map<Resource, List<Statement>> statements, Statement statement) {
+        List<Statement> list = statements.get(statement.getSubject());
+        if (list == null) {
+            list = new ArrayList<>();
+            statements.put(statement.getSubject(), list);
+        }
+        list.add(statement);
+    }
+
+    private static List<List<URI>> chunks(List<URI> uris) {
+        List<List<URI>> chunks = new ArrayList<>();
+        for (int offset = 0; offset < uris.size(); offset += ObjectConnection.VALUES_CHUNK_SIZE) {
+            chunks.add(uris.subList(offset, Math.min(offset + ObjectConnection.VALUES_CHUNK_SIZE, uris.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * @return Whether the IRI can be written into a VALUES block, see {@link ObjectFactory#createValues(Collection)}.
+     */
+    private static boolean isQueryable(URI uri) {
+        try {
+            ObjectFactory.createValues(Collections.singleton(uri));
+            return true;
+        } catch (MalformedQueryException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Adds a single statement to the buffer. The buffer is flushed if it reaches the chunk size.
+     *
+     * @param statement The statement to write. Its context is ignored.
+     * @throws RepositoryException
+     */
+    public void add(Statement statement) throws RepositoryException {
+        statements.add(statement);
+
+        if (statements.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all buffered statements to the connection.
+     *
+     * @throws RepositoryException
+     */
+    public void flush() throws RepositoryException {
+        if (statements.isEmpty()) {
+            return;
+        }
+
+        connection.add(statements);
+        written += statements.size();
+        statements.clear();
+    }
+
+    /**
+     * @return The number of statements that are buffered, but not yet written.
+     */
+    public int size() {
+        return statements.size();
+    }
+
+    /**
+     * @return The number of statements written to the connection so far.
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.anno4j.io;
+
+import org.openrdf.model.BNode;
+import org.openrdf.model.Resource;
+import org.openrdf.model.impl.BNodeImpl;
+import org.openrdf.model.impl.URIImpl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The identifiers of the annotations parsed by one import, in the order they were read. Up to a limit they are held
+ * in memory. Beyond it, all of them are written to a temporary file, one per line, so that an import needs memory for
+ * at most the limit, however many annotations it parses.
+ */
+class AnnotationIds implements Closeable {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String BNODE_PREFIX = "_:";
+
+    private final int limit;
+
+    private List<Resource> resources = new ArrayList<>();
+
+    private Path file;
+
+    private BufferedWriter writer;
+
+    private int size;
+
+    /**
+     * @param limit the number of identifiers held in memory.
+     */
+    AnnotationIds(int limit) {
+        this.limit = limit;
+    }
+
+    void add(Resource resource) throws IOException {
+        size++;
+        if (file == null) {
+            resources.add(resource);
+            if (resources.size() > limit) {
+                spill();
+            }
+        } else {
+            write(resource);
+        }
+    }
+
+    /**
+     * Writes the identifiers that are not yet in the file, so that they can be read.
+     */
+    void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * @return the number of identifiers.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return a reader of the identifiers from the first one on.
+     */
+    Cursor open() throws IOException {
+        flush();
+        if (file == null) {
+            return new Cursor(resources, null);
+        }
+        return new Cursor(null, Files.newBufferedReader(file, UTF_8));
+    }
+
+    /**
+     * Deletes the temporary file, if any. The identifiers cannot be read afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile("anno4j-import", ".ids");
+        file.toFile().deleteOnExit();
+        writer = Files.newBufferedWriter(file, UTF_8);
+        for (Resource resource : resources) {
+            write(resource);
+        }
+        resources = null;
+    }
+
+    private void write(Resource resource) throws IOException {
+        // Neither IRIs nor blank node identifiers contain line breaks:
+        if (resource instanceof BNode) {
+            writer.write(BNODE_PREFIX + ((BNode) resource).getID());
+        } else {
+            writer.write(resource.stringValue());
+        }
+        writer.newLine();
+    }
+
+    /**
+     * Reads the identifiers in chunks.
+     */
+    static class Cursor implements Closeable {
+
+        private final List<Resource> resources;
+
+        private final BufferedReader reader;
+
+        private int offset;
+
+        private Cursor(List<Resource> resources, BufferedReader reader) {
+            this.resources = resources;
+            this.reader = reader;
+        }
+
+        /**
+         * @param count the maximum number of identifiers to read.
+         * @return the next identifiers, or an empty list at the end.
+         */
+        List<Resource> next(int count) throws IOException {
+            if (resources != null) {
+                int end = Math.min(offset + count, resources.size());
+                List<Resource> chunk = resources.subList(offset, end);
+                offset = end;
+                return chunk;
+            }
+
+            List<Resource> chunk = new ArrayList<>(count);
+            String line;
+            while (chunk.size() < count && (line = reader.readLine()) != null) {
+                if (line.startsWith(BNODE_PREFIX)) {
+                    chunk.add(new BNodeImpl(line.substring(BNODE_PREFIX.length())));
+                } else {
+                    chunk.add(new URIImpl(line));
+                }
+            }
+            return chunk;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+}
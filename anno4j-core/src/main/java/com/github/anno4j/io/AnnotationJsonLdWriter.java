@@ -0,0 +1,536 @@
+package com.github.anno4j.io;
+
+import com.github.anno4j.model.impl.ResourceObject;
+import com.google.gson.stream.JsonWriter;
+import org.openrdf.model.BNode;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+import org.openrdf.repository.object.ObjectConnection;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.helpers.RDFHandlerBase;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes annotations, annotation pages and their nodes as compacted and framed JSON-LD, e.g. for the Web Annotation
+ * protocol. The output is what a JSON-LD processor produces when it compacts the subgraph of the object with the
+ * {@link JsonLdContext#getAnnotationContext() Web Annotation context} and frames it with the object as root:
+ * <ul>
+ *     <li>nodes are embedded where they are referenced first, later references only give their id,</li>
+ *     <li>properties, types and vocabulary values use the terms of the context where their values fit the term
+ *     definition, and compact IRIs otherwise,</li>
+ *     <li>single values are not wrapped in arrays and blank nodes referenced once have no id.</li>
+ * </ul>
+ * The context is parsed once and referenced by its IRI in the output, and the document is written straight to the
+ * stream without building a JSON tree or running the JSON-LD algorithms. Objects are written one node at a time: only
+ * the nodes of the document and their references are collected up front, and the statements of a node are read from
+ * the store when it is written, so that large documents, e.g. annotation pages, are not held in memory. Instances can
+ * be shared between threads.
+ */
+public class AnnotationJsonLdWriter {
+
+    private final JsonLdContext context;
+
+    private boolean pretty;
+
+    /**
+     * Creates a writer using the Web Annotation context.
+     */
+    public AnnotationJsonLdWriter() {
+        this(JsonLdContext.getAnnotationContext());
+    }
+
+    /**
+     * @param context the context to compact with.
+     */
+    public AnnotationJsonLdWriter(JsonLdContext context) {
+        this.context = context;
+    }
+
+    public boolean isPretty() {
+        return pretty;
+    }
+
+    /**
+     * @param pretty whether the output is indented.
+     */
+    public void setPretty(boolean pretty) {
+        this.pretty = pretty;
+    }
+
+    /**
+     * Writes the given object, e.g. an {@link com.github.anno4j.model.Annotation} or an
+     * {@link com.github.anno4j.model.impl.collection.AnnotationPage}, with every node reachable from it.
+     *
+     * @param object the root of the document.
+     * @param out    the stream to write to, which is not closed.
+     */
+    public void write(ResourceObject object, OutputStream out) throws RepositoryException, IOException {
+        final StoredGraph graph = new StoredGraph(object.getObjectConnection());
+        try {
+            object.writeTriples(new RDFHandlerBase() {
+                @Override
+                public void handleStatement(Statement statement) {
+                    graph.count(statement);
+                }
+            });
+        } catch (RDFHandlerException e) {
+            throw new RepositoryException(e);
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+        try {
+            write(object.getResource(), graph, writer);
+        } catch (StoreException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the given resource as root of the given statements.
+     *
+     * @param root       the root of the document.
+     * @param statements the statements about the root and the nodes reachable from it.
+     * @param out        the stream to write to, which is not closed.
+     */
+    public void write(Resource root, Iterable<Statement> statements, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+        write(root, statements, writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes the given resource as root of the given statements.
+     *
+     * @param root       the root of the document.
+     * @param statements the statements about the root and the nodes reachable from it.
+     * @param writer     the writer to write to, which is not closed.
+     */
+    public void write(Resource root, Iterable<Statement> statements, Writer writer) throws IOException {
+        write(root, new MemoryGraph(statements), writer);
+    }
+
+    private void write(Resource root, Graph graph, Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        if (pretty) {
+            json.setIndent("  ");
+        }
+        new Document(graph, json).writeNode(root, true);
+        json.flush();
+    }
+
+    /**
+     * The nodes of a document and the statements about them.
+     */
+    private abstract static class Graph {
+
+        /**
+         * Marks values that are no RDF list in {@link #lists}.
+         */
+        private static final List<Value> NO_LIST = new ArrayList<>(0);
+
+        private final Map<Resource, Integer> references = new HashMap<>();
+
+        /**
+         * The statements linking nodes, to count a link of several contexts once.
+         */
+        private final Set<Statement> links = new HashSet<>();
+
+        private final Map<Value, List<Value>> lists = new HashMap<>();
+
+        /**
+         * @return the values of the given node by property, or null if it is no node of the document.
+         */
+        protected abstract Map<URI, List<Value>> getProperties(Resource node) throws IOException;
+
+        protected abstract boolean contains(Resource node);
+
+        /**
+         * Adds the object of the given statement to the values of its property, unless it is known already.
+         */
+        protected static void add(Map<URI, List<Value>> properties, Statement statement) {
+            List<Value> values = properties.get(statement.getPredicate());
+            if (values == null) {
+                values = new ArrayList<>(1);
+                properties.put(statement.getPredicate(), values);
+            }
+            if (!values.contains(statement.getObject())) {
+                values.add(statement.getObject());
+            }
+        }
+
+        protected void reference(Statement statement) {
+            Value object = statement.getObject();
+            if (object instanceof Resource && !RDF.TYPE.equals(statement.getPredicate())
+                    && links.add(new StatementImpl(statement.getSubject(), statement.getPredicate(), object))) {
+                Integer count = references.get(object);
+                references.put((Resource) object, count == null ? 1 : count + 1);
+            }
+        }
+
+        private boolean isReferencedOnce(Resource resource) {
+            Integer count = references.get(resource);
+            return count != null && count == 1;
+        }
+
+        /**
+         * @return the items of the RDF list starting with the given value, or null if it is no list.
+         */
+        private List<Value> getList(Value head) throws IOException {
+            if (!(head instanceof BNode) && !RDF.NIL.equals(head)) {
+                return null;
+            }
+            List<Value> items = lists.get(head);
+            if (items == null) {
+                items = readList(head);
+                lists.put(head, items == null ? NO_LIST : items);
+            }
+            return items == NO_LIST ? null : items;
+        }
+
+        private List<Value> readList(Value head) throws IOException {
+            List<Value> items = new ArrayList<>();
+            Set<Value> visited = new HashSet<>();
+            Value node = head;
+            while (!RDF.NIL.equals(node)) {
+                if (!(node instanceof BNode) || !visited.add(node) || !isReferencedOnce((Resource) node)) {
+                    return null;
+                }
+                Map<URI, List<Value>> properties = getProperties((Resource) node);
+                if (properties == null || properties.size() != 2) {
+                    return null;
+                }
+                List<Value> first = properties.get(RDF.FIRST);
+                List<Value> rest = properties.get(RDF.REST);
+                if (first == null || rest == null || first.size() != 1 || rest.size() != 1) {
+                    return null;
+                }
+                items.add(first.get(0));
+                node = rest.get(0);
+            }
+            return items;
+        }
+    }
+
+    /**
+     * A document of the given statements.
+     */
+    private static class MemoryGraph extends Graph {
+
+        private final Map<Resource, Map<URI, List<Value>>> subjects = new HashMap<>();
+
+        private MemoryGraph(Iterable<Statement> statements) {
+            for (Statement statement : statements) {
+                Map<URI, List<Value>> properties = subjects.get(statement.getSubject());
+                if (properties == null) {
+                    properties = new LinkedHashMap<>();
+                    subjects.put(statement.getSubject(), properties);
+                }
+                add(properties, statement);
+                reference(statement);
+            }
+        }
+
+        @Override
+        protected Map<URI, List<Value>> getProperties(Resource node) {
+            return subjects.get(node);
+        }
+
+        @Override
+        protected boolean contains(Resource node) {
+            return subjects.containsKey(node);
+        }
+    }
+
+    /**
+     * A document of the nodes counted by {@link #count(Statement)}, whose statements are read from a connection when
+     * they are needed.
+     */
+    private static class StoredGraph extends Graph {
+
+        private final ObjectConnection connection;
+
+        private final Set<Resource> subjects = new HashSet<>();
+
+        private StoredGraph(ObjectConnection connection) {
+            this.connection = connection;
+        }
+
+        private void count(Statement statement) {
+            subjects.add(statement.getSubject());
+            reference(statement);
+        }
+
+        @Override
+        protected Map<URI, List<Value>> getProperties(Resource node) throws IOException {
+            if (!subjects.contains(node)) {
+                return null;
+            }
+            Map<URI, List<Value>> properties = new LinkedHashMap<>();
+            try {
+                RepositoryResult<Statement> statements = connection.getStatements(node, null, null);
+                try {
+                    while (statements.hasNext()) {
+                        add(properties, statements.next());
+                    }
+                } finally {
+                    statements.close();
+                }
+            } catch (RepositoryException e) {
+                throw new StoreException(e);
+            }
+            return properties;
+        }
+
+        @Override
+        protected boolean contains(Resource node) {
+            return subjects.contains(node);
+        }
+    }
+
+    /**
+     * Carries an error of the store through the methods writing JSON.
+     */
+    private static class StoreException extends IOException {
+
+        private StoreException(RepositoryException cause) {
+            super(cause);
+        }
+
+        @Override
+        public RepositoryException getCause() {
+            return (RepositoryException) super.getCause();
+        }
+    }
+
+    /**
+     * The state of writing one document.
+     */
+    private class Document {
+
+        private final Graph graph;
+
+        private final JsonWriter json;
+
+        private final Set<Resource> embedded = new HashSet<>();
+
+        private final Map<Resource, String> blankIds = new HashMap<>();
+
+        private Document(Graph graph, JsonWriter json) {
+            this.graph = graph;
+            this.json = json;
+        }
+
+        private void writeNode(Resource node, boolean root) throws IOException {
+            embedded.add(node);
+            Map<URI, List<Value>> properties = graph.getProperties(node);
+
+            json.beginObject();
+            if (root) {
+                json.name("@context").value(context.getIri());
+            }
+            if (node instanceof URI) {
+                json.name("id").value(context.compactIri(node.stringValue(), false));
+            } else if (!root && !graph.isReferencedOnce(node)) {
+                json.name("id").value(blankId(node));
+            }
+            if (properties == null) {
+                json.endObject();
+                return;
+            }
+
+            List<Value> types = properties.get(RDF.TYPE);
+            if (types != null) {
+                json.name("type");
+                if (types.size() > 1) {
+                    json.beginArray();
+                }
+                for (Value type : types) {
+                    json.value(context.compactIri(type.stringValue(), true));
+                }
+                if (types.size() > 1) {
+                    json.endArray();
+                }
+            }
+
+            // Keys are written in lexicographical order, as by JSON-LD processors:
+            Map<String, Entry> entries = new TreeMap<>();
+            for (Map.Entry<URI, List<Value>> property : properties.entrySet()) {
+                if (RDF.TYPE.equals(property.getKey())) {
+                    continue;
+                }
+                boolean singleList = countLists(property.getValue()) == 1;
+                for (Value value : property.getValue()) {
+                    Entry entry = entry(property.getKey(), value, singleList);
+                    Entry existing = entries.get(entry.key);
+                    if (existing != null) {
+                        existing.values.add(value);
+                    } else {
+                        entry.values.add(value);
+                        entries.put(entry.key, entry);
+                    }
+                }
+            }
+
+            for (Entry entry : entries.values()) {
+                json.name(entry.key);
+                if (entry.term != null && entry.term.isList()) {
+                    json.beginArray();
+                    for (Value item : graph.getList(entry.values.get(0))) {
+                        writeValue(item, entry.term);
+                    }
+                    json.endArray();
+                    continue;
+                }
+                if (entry.values.size() > 1) {
+                    json.beginArray();
+                }
+                for (Value value : entry.values) {
+                    writeValue(value, entry.term);
+                }
+                if (entry.values.size() > 1) {
+                    json.endArray();
+                }
+            }
+            json.endObject();
+        }
+
+        private int countLists(List<Value> values) throws IOException {
+            int lists = 0;
+            for (Value value : values) {
+                if (graph.getList(value) != null) {
+                    lists++;
+                }
+            }
+            return lists;
+        }
+
+        /**
+         * Chooses the key a value of a property is written under: the first term of the property whose definition
+         * fits the value, or the compact IRI of the property. A list term only holds one list, so if the property
+         * has several lists, they are written as list objects under the compact IRI.
+         */
+        private Entry entry(URI property, Value value, boolean singleList) throws IOException {
+            for (JsonLdContext.Term term : context.getTerms(property.stringValue())) {
+                if (term.isList()) {
+                    if (singleList && graph.getList(value) != null) {
+                        return new Entry(term.getName(), term);
+                    }
+                } else if (term.isReference()) {
+                    if (value instanceof Resource) {
+                        return new Entry(term.getName(), term);
+                    }
+                } else if (term.getType() != null) {
+                    if (value instanceof Literal && term.isPlain(datatype((Literal) value), ((Literal) value).getLanguage())) {
+                        return new Entry(term.getName(), term);
+                    }
+                } else {
+                    return new Entry(term.getName(), term);
+                }
+            }
+            return new Entry(context.compactIri(property.stringValue(), true), null);
+        }
+
+        private void writeValue(Value value, JsonLdContext.Term term) throws IOException {
+            if (value instanceof Literal) {
+                Literal literal = (Literal) value;
+                String datatype = datatype(literal);
+                if (term != null ? term.isPlain(datatype, literal.getLanguage()) : JsonLdContext.isPlain(literal)) {
+                    json.value(literal.getLabel());
+                } else {
+                    json.beginObject();
+                    json.name("@value").value(literal.getLabel());
+                    if (literal.getLanguage() != null) {
+                        json.name("@language").value(literal.getLanguage());
+                    } else if (datatype != null) {
+                        json.name("@type").value(context.compactIri(datatype, true));
+                    }
+                    json.endObject();
+                }
+                return;
+            }
+
+            List<Value> items = graph.getList(value);
+            if (items != null) {
+                json.beginObject();
+                json.name("@list").beginArray();
+                for (Value item : items) {
+                    writeValue(item, term);
+                }
+                json.endArray();
+                json.endObject();
+                return;
+            }
+
+            // Vocabulary values, e.g. motivations, are well-known individuals and never embedded:
+            Resource resource = (Resource) value;
+            boolean vocab = term != null && JsonLdContext.Term.VOCAB.equals(term.getType());
+            if (!vocab && !embedded.contains(resource) && graph.contains(resource)) {
+                writeNode(resource, false);
+            } else if (term != null && term.isReference()) {
+                json.value(reference(resource, vocab));
+            } else {
+                json.beginObject();
+                json.name("id").value(reference(resource, false));
+                json.endObject();
+            }
+        }
+
+        private String reference(Resource resource, boolean vocab) {
+            if (resource instanceof BNode) {
+                return blankId(resource);
+            }
+            return context.compactIri(resource.stringValue(), vocab);
+        }
+
+        private String blankId(Resource node) {
+            String id = blankIds.get(node);
+            if (id == null) {
+                id = "_:b" + blankIds.size();
+                blankIds.put(node, id);
+            }
+            return id;
+        }
+
+        private String datatype(Literal literal) {
+            return literal.getDatatype() != null ? literal.getDatatype().stringValue() : null;
+        }
+    }
+
+    /**
+     * The values of a node written under one key.
+     */
+    private static class Entry {
+
+        private final String key;
+
+        private final JsonLdContext.Term term;
+
+        private final List<Value> values = new ArrayList<>(1);
+
+        private Entry(String key, JsonLdContext.Term term) {
+            this.key = key;
+            this.term = term;
+        }
+    }
+}
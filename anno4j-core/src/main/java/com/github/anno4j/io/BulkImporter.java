@@ -0,0 +1,262 @@
+package com.github.anno4j.io;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.connection.ConnectionPool;
+import com.github.anno4j.connection.StatementBuffer;
+import com.github.anno4j.model.namespaces.OADM;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.object.ObjectConnection;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFParseException;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.RDFHandlerBase;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams RDF serializations into the repository of an {@link Anno4j} instance. Statements are written in batches,
+ * each in its own transaction, so that memory use is bounded by the batch size rather than the size of the input.
+ * Only the identifiers of the parsed annotations are kept, their objects are created by {@link ImportResult}. Up to
+ * the batch size they are held in memory, beyond it they are written to a temporary file.
+ * <p/>
+ * If the input is malformed or a write fails, the current batch is rolled back, but batches that were committed
+ * before remain in the repository. Note that some parsers, e.g. the one for JSON-LD, read the whole document
+ * before they report the first statement.
+ */
+public class BulkImporter {
+
+    /**
+     * Number of statements committed per transaction if no explicit batch size is configured.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 10000;
+
+    private static final URI ANNOTATION = new URIImpl(OADM.ANNOTATION);
+
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Anno4j anno4j;
+
+    private URI context;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private ImportListener listener;
+
+    /**
+     * @param anno4j the instance to import into, using its pooled connections.
+     */
+    public BulkImporter(Anno4j anno4j) {
+        this.anno4j = anno4j;
+        this.context = anno4j.getDefaultContext();
+    }
+
+    public URI getContext() {
+        return context;
+    }
+
+    /**
+     * @param context the graph to import into, or null for the default graph.
+     */
+    public void setContext(URI context) {
+        this.context = context;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize the number of statements committed per transaction.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, but was " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public ImportListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @param listener notified after each committed batch, or null.
+     */
+    public void setListener(ImportListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Imports the given stream.
+     *
+     * @param in      the serialization, which is not closed by this method.
+     * @param baseURI the URI to resolve relative URIs against.
+     * @param format  the format of the serialization.
+     * @return the counts and the parsed annotations.
+     */
+    public ImportResult importFrom(InputStream in, String baseURI, RDFFormat format) throws IOException, RDFParseException, RepositoryException {
+        return importFrom(in, null, baseURI, format);
+    }
+
+    /**
+     * Imports the given reader, e.g. for serializations that are held as a string.
+     *
+     * @param reader  the serialization, which is not closed by this method.
+     * @param baseURI the URI to resolve relative URIs against.
+     * @param format  the format of the serialization.
+     * @return the counts and the parsed annotations.
+     */
+    public ImportResult importFrom(Reader reader, String baseURI, RDFFormat format) throws IOException, RDFParseException, RepositoryException {
+        return importFrom(null, reader, baseURI, format);
+    }
+
+    /**
+     * Imports the given file. Relative URIs are resolved against the URI of the file. Files whose name ends with
+     * <code>.gz</code> are decompressed, e.g. the dumps of {@link RDFExporter}.
+     *
+     * @param file   the file to read.
+     * @param format the format of the file, or null to choose it by the file name.
+     * @return the counts and the parsed annotations.
+     */
+    public ImportResult importFrom(Path file, RDFFormat format) throws IOException, RDFParseException, RepositoryException {
+        if (format == null) {
+            format = formatOf(file);
+            if (format == null) {
+                throw new IllegalArgumentException("Unknown RDF format of " + file);
+            }
+        }
+
+        try (InputStream in = open(file)) {
+            return importFrom(in, file.toUri().toString(), format);
+        }
+    }
+
+    /**
+     * @return the format of the given file by its name, ignoring a <code>.gz</code> suffix, or null if unknown.
+     */
+    static RDFFormat formatOf(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(GZIP_SUFFIX)) {
+            name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+        }
+        return Rio.getParserFormatForFileName(name);
+    }
+
+    /**
+     * @return a buffered stream of the given file, decompressed if its name ends with <code>.gz</code>.
+     */
+    static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (file.getFileName().toString().endsWith(GZIP_SUFFIX)) {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new BufferedInputStream(in, BUFFER_SIZE);
+    }
+
+    private ImportResult importFrom(InputStream in, Reader reader, String baseURI, RDFFormat format) throws IOException, RDFParseException, RepositoryException {
+        ConnectionPool pool = anno4j.getConnectionPool();
+        ObjectConnection connection = pool.acquire(context);
+        BatchHandler handler = new BatchHandler(connection);
+        try {
+            RDFParser parser = Rio.createParser(format);
+            parser.setRDFHandler(handler);
+
+            connection.begin();
+            try {
+                if (in != null) {
+                    parser.parse(in, baseURI);
+                } else {
+                    parser.parse(reader, baseURI);
+                }
+            } catch (RDFHandlerException e) {
+                if (e.getCause() instanceof RepositoryException) {
+                    throw (RepositoryException) e.getCause();
+                }
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new RepositoryException(e);
+            }
+
+            handler.annotations.flush();
+            return new ImportResult(anno4j, context, handler.annotations, handler.buffer.getWrittenCount());
+        } catch (IOException | RDFParseException | RepositoryException | RuntimeException e) {
+            handler.annotations.close();
+            throw e;
+        } finally {
+            if (connection.isActive()) {
+                connection.rollback();
+            }
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Buffers the parsed statements and commits them in batches.
+     */
+    private class BatchHandler extends RDFHandlerBase {
+
+        private final ObjectConnection connection;
+
+        private final StatementBuffer buffer;
+
+        private final AnnotationIds annotations = new AnnotationIds(batchSize);
+
+        private BatchHandler(ObjectConnection connection) {
+            this.connection = connection;
+            this.buffer = new StatementBuffer(connection, batchSize);
+        }
+
+        @Override
+        public void handleStatement(Statement statement) throws RDFHandlerException {
+            try {
+                if (RDF.TYPE.equals(statement.getPredicate()) && ANNOTATION.equals(statement.getObject())) {
+                    annotations.add(statement.getSubject());
+                }
+            } catch (IOException e) {
+                throw new RDFHandlerException(e);
+            }
+
+            try {
+                buffer.add(statement);
+                if (buffer.size() == 0) {
+                    commit();
+                    connection.begin();
+                }
+            } catch (RepositoryException e) {
+                throw new RDFHandlerException(e);
+            }
+        }
+
+        @Override
+        public void endRDF() throws RDFHandlerException {
+            try {
+                buffer.flush();
+                commit();
+            } catch (RepositoryException e) {
+                throw new RDFHandlerException(e);
+            }
+        }
+
+        private void commit() throws RepositoryException {
+            connection.commit();
+            if (listener != null) {
+                listener.committed(buffer.getWrittenCount(), annotations.size());
+            }
+        }
+    }
+}
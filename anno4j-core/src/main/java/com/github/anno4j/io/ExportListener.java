@@ -0,0 +1,15 @@
+package com.github.anno4j.io;
+
+/**
+ * Receives the progress of an {@link RDFExporter}.
+ */
+public interface ExportListener {
+
+    /**
+     * Called after each chunk of statements has been written.
+     *
+     * @param statements the number of statements written by the export so far.
+     * @param bytes      the number of bytes written by the export so far, after compression.
+     */
+    void exported(long statements, long bytes);
+}
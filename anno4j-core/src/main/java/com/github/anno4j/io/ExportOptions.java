@@ -0,0 +1,75 @@
+package com.github.anno4j.io;
+
+/**
+ * Settings of an {@link RDFExporter} run.
+ */
+public class ExportOptions {
+
+    /**
+     * Number of statements written between progress reports if no explicit chunk size is configured.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 10000;
+
+    private boolean gzip;
+
+    private long maxFileSize;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private ExportListener listener;
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    /**
+     * @param gzip whether the output is compressed with gzip.
+     */
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * Only applies to exports into files. Every file is a complete document in the chosen format, but blank nodes
+     * may be split across files, so the parts are imported together by {@link com.github.anno4j.Anno4j#importDump}.
+     *
+     * @param maxFileSize the size in bytes after which a new file is started, or 0 to write a single file. The size
+     *                    is checked after each statement, so files are slightly larger, and with gzip it is only
+     *                    approximated, as the compressor buffers its output.
+     */
+    public void setMaxFileSize(long maxFileSize) {
+        if (maxFileSize < 0) {
+            throw new IllegalArgumentException("Maximum file size must not be negative, but was " + maxFileSize);
+        }
+        this.maxFileSize = maxFileSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param chunkSize the number of statements written between progress reports.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive, but was " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public ExportListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @param listener notified after each chunk of statements, or null.
+     */
+    public void setListener(ExportListener listener) {
+        this.listener = listener;
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.anno4j.io;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an {@link RDFExporter} run: the number of exported statements and bytes, the time taken and the files
+ * that were written.
+ */
+public class ExportResult {
+
+    private final List<Path> files;
+
+    private final long statements;
+
+    private final long bytes;
+
+    private final long millis;
+
+    ExportResult(List<Path> files, long statements, long bytes, long millis) {
+        this.files = Collections.unmodifiableList(files);
+        this.statements = statements;
+        this.bytes = bytes;
+        this.millis = millis;
+    }
+
+    /**
+     * @return the files written, in order, or an empty list if the export was written to a stream.
+     */
+    public List<Path> getFiles() {
+        return files;
+    }
+
+    /**
+     * @return the number of statements exported.
+     */
+    public long getStatementCount() {
+        return statements;
+    }
+
+    /**
+     * @return the number of bytes written, after compression.
+     */
+    public long getByteCount() {
+        return bytes;
+    }
+
+    /**
+     * @return the duration of the export in milliseconds.
+     */
+    public long getDuration() {
+        return millis;
+    }
+
+    /**
+     * @return the statements exported per second.
+     */
+    public double getThroughput() {
+        return ParallelImporter.throughput(statements, millis);
+    }
+}
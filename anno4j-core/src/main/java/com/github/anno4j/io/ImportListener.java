@@ -0,0 +1,15 @@
+package com.github.anno4j.io;
+
+/**
+ * Receives the progress of a {@link BulkImporter}.
+ */
+public interface ImportListener {
+
+    /**
+     * Called after each batch of statements has been committed.
+     *
+     * @param statements  the number of statements committed by the import so far.
+     * @param annotations the number of annotations parsed by the import so far.
+     */
+    void committed(long statements, long annotations);
+}
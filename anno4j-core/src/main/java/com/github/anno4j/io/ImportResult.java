@@ -0,0 +1,129 @@
+package com.github.anno4j.io;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.connection.ConnectionPool;
+import com.github.anno4j.model.Annotation;
+import info.aduna.iteration.LookAheadIteration;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.object.ObjectConnection;
+import org.openrdf.result.Result;
+import org.openrdf.result.impl.ResultImpl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of a {@link BulkImporter} run: the number of imported statements and the annotations that were parsed.
+ * The identifiers of large numbers of annotations are kept in a temporary file, which is deleted by {@link #close()}
+ * or, at the latest, when the virtual machine exits.
+ */
+public class ImportResult implements Closeable {
+
+    private final Anno4j anno4j;
+
+    private final URI context;
+
+    private final AnnotationIds annotations;
+
+    private final long statements;
+
+    ImportResult(Anno4j anno4j, URI context, AnnotationIds annotations, long statements) {
+        this.anno4j = anno4j;
+        this.context = context;
+        this.annotations = annotations;
+        this.statements = statements;
+    }
+
+    /**
+     * @return the number of statements written to the repository.
+     */
+    public long getStatementCount() {
+        return statements;
+    }
+
+    /**
+     * @return the number of annotations that were parsed.
+     */
+    public int getAnnotationCount() {
+        return annotations.size();
+    }
+
+    /**
+     * Creates the parsed annotations while iterating. Their types are read for
+     * {@link ObjectConnection#VALUES_CHUNK_SIZE} annotations at a time, so only one chunk of objects is held in
+     * memory.
+     * <p/>
+     * All annotations of the cursor belong to the {@link ConnectionPool#pin(URI) pinned} connection of the thread
+     * that reads the first chunk. Closing the cursor does not close that connection, so the returned annotations stay
+     * usable after the cursor was closed.
+     *
+     * @return a cursor over the parsed annotations, in the order they were read.
+     */
+    public Result<Annotation> getAnnotations() {
+        return new ResultImpl<>(new LookAheadIteration<Annotation, QueryEvaluationException>() {
+            private final Deque<Annotation> chunk = new ArrayDeque<>();
+            private AnnotationIds.Cursor ids;
+            private ObjectConnection connection;
+
+            @Override
+            protected Annotation getNextElement() throws QueryEvaluationException {
+                if (chunk.isEmpty()) {
+                    try {
+                        if (ids == null) {
+                            ids = annotations.open();
+                        }
+                        List<Resource> resources = ids.next(ObjectConnection.VALUES_CHUNK_SIZE);
+                        if (!resources.isEmpty()) {
+                            readChunk(resources);
+                        }
+                    } catch (IOException | RepositoryException e) {
+                        throw new QueryEvaluationException(e);
+                    }
+                }
+                return chunk.poll();
+            }
+
+            @Override
+            protected void handleClose() throws QueryEvaluationException {
+                chunk.clear();
+                connection = null;
+                try {
+                    if (ids != null) {
+                        ids.close();
+                    }
+                } catch (IOException e) {
+                    throw new QueryEvaluationException(e);
+                } finally {
+                    super.handleClose();
+                }
+            }
+
+            private void readChunk(List<Resource> resources) throws RepositoryException {
+                if (connection == null) {
+                    connection = anno4j.getConnectionPool().pin(context);
+                }
+                Map<Resource, Set<URI>> types = connection.getTypes(resources);
+                for (Resource resource : resources) {
+                    chunk.add((Annotation) connection.getObject(types.get(resource), resource));
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes the temporary file of the annotation identifiers, if any. The annotations cannot be iterated afterwards,
+     * but those that were already returned stay usable.
+     */
+    @Override
+    public void close() throws IOException {
+        annotations.close();
+    }
+}
@@ -0,0 +1,278 @@
+package com.github.anno4j.io;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openrdf.model.Literal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A JSON-LD context compiled for compaction. Terms are indexed by the IRI they stand for, so that choosing the key
+ * of a property or the short form of a type is a map lookup instead of a run of the JSON-LD compaction algorithm.
+ * <p/>
+ * Instances are immutable and can be shared between threads. The Web Annotation context is bundled with Anno4j and
+ * parsed once, see {@link #getAnnotationContext()}.
+ */
+public class JsonLdContext {
+
+    /**
+     * IRI of the W3C Web Annotation JSON-LD context.
+     */
+    public static final String ANNOTATION_CONTEXT_IRI = "http://www.w3.org/ns/anno.jsonld";
+
+    private static final String XSD_STRING = "http://www.w3.org/2001/XMLSchema#string";
+
+    /**
+     * A term of the context that stands for a property.
+     */
+    public static class Term {
+
+        /**
+         * Type mapping of terms whose values are node references.
+         */
+        public static final String ID = "@id";
+
+        /**
+         * Type mapping of terms whose values are node references compacted against the vocabulary.
+         */
+        public static final String VOCAB = "@vocab";
+
+        private final String name;
+
+        private final String type;
+
+        private final boolean list;
+
+        Term(String name, String type, boolean list) {
+            this.name = name;
+            this.type = type;
+            this.list = list;
+        }
+
+        /**
+         * @return the key of the term.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return {@link #ID}, {@link #VOCAB}, the IRI of a datatype, or null if values are not coerced.
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return whether the values of the term are RDF lists.
+         */
+        public boolean isList() {
+            return list;
+        }
+
+        /**
+         * @return whether the values of the term are written as plain IRIs.
+         */
+        public boolean isReference() {
+            return ID.equals(type) || VOCAB.equals(type);
+        }
+
+        /**
+         * @param datatype the datatype of a literal, or null for a plain literal.
+         * @param language the language of a literal, or null.
+         * @return whether a literal with the given datatype and language is written as a plain string.
+         */
+        public boolean isPlain(String datatype, String language) {
+            if (type == null) {
+                return language == null && (datatype == null || XSD_STRING.equals(datatype));
+            }
+            return type.equals(datatype);
+        }
+    }
+
+    private static volatile JsonLdContext annotationContext;
+
+    private final String iri;
+
+    private final Map<String, List<Term>> terms = new HashMap<>();
+
+    private final Map<String, String> vocabulary = new HashMap<>();
+
+    /**
+     * Prefixes, the longest IRI first.
+     */
+    private final List<String[]> prefixes = new ArrayList<>();
+
+    private final ConcurrentMap<String, String> compacted = new ConcurrentHashMap<>();
+
+    /**
+     * Parses a context document.
+     *
+     * @param iri    the IRI the context is referenced by in the written documents.
+     * @param reader the context document, with an <code>@context</code> object.
+     */
+    public JsonLdContext(String iri, Reader reader) {
+        this.iri = iri;
+        JsonObject context = new JsonParser().parse(reader).getAsJsonObject().getAsJsonObject("@context");
+
+        Map<String, String> names = new HashMap<>();
+        for (Map.Entry<String, JsonElement> entry : context.entrySet()) {
+            if (entry.getValue().isJsonPrimitive()) {
+                names.put(entry.getKey(), entry.getValue().getAsString());
+            }
+        }
+        for (Map.Entry<String, String> entry : names.entrySet()) {
+            String value = entry.getValue();
+            if (value.endsWith("#") || value.endsWith("/")) {
+                prefixes.add(new String[]{value, entry.getKey()});
+            }
+        }
+        Collections.sort(prefixes, new Comparator<String[]>() {
+            @Override
+            public int compare(String[] a, String[] b) {
+                return b[0].length() - a[0].length();
+            }
+        });
+
+        for (Map.Entry<String, JsonElement> entry : context.entrySet()) {
+            String name = entry.getKey();
+            if (entry.getValue().isJsonPrimitive()) {
+                vocabulary.put(expand(names, entry.getValue().getAsString()), name);
+            } else {
+                JsonObject definition = entry.getValue().getAsJsonObject();
+                String id = definition.get("@id").getAsString();
+                if (id.startsWith("@")) {
+                    // keyword alias
+                    continue;
+                }
+                String type = definition.has("@type") ? definition.get("@type").getAsString() : null;
+                if (type != null && !type.startsWith("@")) {
+                    type = expand(names, type);
+                }
+                boolean list = definition.has("@container") && "@list".equals(definition.get("@container").getAsString());
+                addTerm(expand(names, id), new Term(name, type, list));
+            }
+        }
+        for (Map.Entry<String, String> entry : vocabulary.entrySet()) {
+            if (!terms.containsKey(entry.getKey())) {
+                addTerm(entry.getKey(), new Term(entry.getValue(), null, false));
+            }
+        }
+    }
+
+    /**
+     * @return the Web Annotation context, read from the copy bundled with Anno4j on the first call.
+     */
+    public static JsonLdContext getAnnotationContext() {
+        if (annotationContext == null) {
+            synchronized (JsonLdContext.class) {
+                if (annotationContext == null) {
+                    try (InputStream in = JsonLdContext.class.getResourceAsStream("anno.jsonld")) {
+                        annotationContext = new JsonLdContext(ANNOTATION_CONTEXT_IRI, new InputStreamReader(in, "UTF-8"));
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not read the bundled Web Annotation context", e);
+                    }
+                }
+            }
+        }
+        return annotationContext;
+    }
+
+    /**
+     * @return the IRI the context is referenced by.
+     */
+    public String getIri() {
+        return iri;
+    }
+
+    /**
+     * @param property the IRI of a property.
+     * @return the terms standing for the property, the most specific first, or an empty list.
+     */
+    public List<Term> getTerms(String property) {
+        List<Term> result = terms.get(property);
+        return result != null ? result : Collections.<Term>emptyList();
+    }
+
+    /**
+     * Compacts an IRI to a term or a compact IRI with a prefix of this context.
+     *
+     * @param iri   the IRI to compact.
+     * @param vocab whether the IRI is a type or a vocabulary value, which may be replaced by a term.
+     * @return the shortest form of the IRI.
+     */
+    public String compactIri(String iri, boolean vocab) {
+        if (vocab) {
+            String result = compacted.get(iri);
+            if (result == null) {
+                result = vocabulary.get(iri);
+                if (result == null) {
+                    result = prefixed(iri);
+                }
+                if (compacted.size() < 10000) {
+                    compacted.putIfAbsent(iri, result);
+                }
+            }
+            return result;
+        }
+        return prefixed(iri);
+    }
+
+    private String prefixed(String iri) {
+        for (String[] prefix : prefixes) {
+            if (iri.length() > prefix[0].length() && iri.startsWith(prefix[0])) {
+                String suffix = iri.substring(prefix[0].length());
+                if (!suffix.startsWith("//")) {
+                    return prefix[1] + ":" + suffix;
+                }
+            }
+        }
+        return iri;
+    }
+
+    /**
+     * @param literal a literal.
+     * @return whether the literal is written as a plain string without a coercing term.
+     */
+    static boolean isPlain(Literal literal) {
+        return literal.getLanguage() == null
+                && (literal.getDatatype() == null || XSD_STRING.equals(literal.getDatatype().stringValue()));
+    }
+
+    private void addTerm(String property, Term term) {
+        List<Term> list = terms.get(property);
+        if (list == null) {
+            list = new ArrayList<>(1);
+            terms.put(property, list);
+        }
+        // Coerced terms are preferred to terms that accept any value:
+        if (term.getType() != null || term.isList()) {
+            list.add(0, term);
+        } else {
+            list.add(term);
+        }
+    }
+
+    private static String expand(Map<String, String> names, String value) {
+        int colon = value.indexOf(':');
+        if (colon > 0) {
+            String prefix = names.get(value.substring(0, colon));
+            if (prefix != null) {
+                return prefix + value.substring(colon + 1);
+            }
+        }
+        return value;
+    }
+}
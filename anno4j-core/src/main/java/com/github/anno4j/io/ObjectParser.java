@@ -4,20 +4,24 @@ import com.github.anno4j.Anno4j;
 import com.github.anno4j.model.Annotation;
 import com.github.anno4j.model.namespaces.OADM;
 import com.github.anno4j.model.namespaces.RDF;
-import org.openrdf.model.Statement;
+import org.openrdf.model.Resource;
 import org.openrdf.model.impl.StatementImpl;
 import org.openrdf.model.impl.URIImpl;
 import org.openrdf.query.QueryEvaluationException;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.config.RepositoryConfigException;
-import org.openrdf.rio.*;
+import org.openrdf.repository.object.ObjectCache;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.StringReader;
 import java.net.URL;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -26,8 +30,15 @@ import java.util.List;
  */
 public class ObjectParser {
 
+    private final Logger logger = LoggerFactory.getLogger(ObjectParser.class);
+
     private Anno4j anno4j;
 
+    /**
+     * Whether the Anno4j instance was created by this parser and is closed by {@link #shutdown()}.
+     */
+    private final boolean owned;
+
     private final URIImpl[] motivations;
 
     /**
@@ -37,7 +48,23 @@ public class ObjectParser {
      * @throws RepositoryConfigException
      */
     public ObjectParser() throws RepositoryException, RepositoryConfigException {
-        this.anno4j = new Anno4j();
+        this(new Anno4j(), true);
+    }
+
+    /**
+     * Creates a parser that persists into the given Anno4j instance, so that many parsers can share one repository
+     * and the classpath is scanned only once. The instance is not closed by {@link #shutdown()}.
+     *
+     * @param anno4j The instance to persist the parsed annotations in.
+     * @throws RepositoryException
+     */
+    public ObjectParser(Anno4j anno4j) throws RepositoryException {
+        this(anno4j, false);
+    }
+
+    private ObjectParser(Anno4j anno4j, boolean owned) throws RepositoryException {
+        this.anno4j = anno4j;
+        this.owned = owned;
         this.motivations = new URIImpl[] {
                 new URIImpl(OADM.MOTIVATION_BOOKMARKING),
                 new URIImpl(OADM.MOTIVATION_CLASSIFYING),
@@ -56,9 +83,19 @@ public class ObjectParser {
         URIImpl obj = new URIImpl(OADM.MOTIVATION);
         URIImpl pre = new URIImpl(RDF.TYPE);
 
-        for (URIImpl sub : motivations) {
-            StatementImpl statement = new StatementImpl(sub, pre, obj);
-            anno4j.getRepository().getConnection().add(statement);
+        RepositoryConnection connection = anno4j.getRepository().getConnection();
+        try {
+            for (URIImpl sub : motivations) {
+                connection.add(new StatementImpl(sub, pre, obj));
+            }
+        } finally {
+            connection.close();
+        }
+
+        // The statements were not written by an object connection, so the cache does not know about them:
+        ObjectCache cache = anno4j.getObjectCache();
+        if (cache != null) {
+            cache.invalidate(Arrays.<Resource>asList(motivations));
         }
     }
 
@@ -69,29 +106,9 @@ public class ObjectParser {
      * @throws RepositoryException
      */
     public void shutdown() throws RepositoryException {
-//        Add anno4j shutdown method here.
-        this.anno4j.getObjectRepository().getConnection().close();
-        this.anno4j.getRepository().getConnection().close();
-    }
-
-    /**
-     * Method to return all annotations that have been parsed with this
-     * ObjectParser.
-     *
-     * @return A list of annotations, created by parsing (different)
-     * serializations of annotations.
-     */
-    private List<Annotation> getAnnotations() {
-
-        List<Annotation> results = new LinkedList<>();
-
-        try {
-            results = anno4j.getObjectRepository().getConnection().getObjects(Annotation.class).asList();
-        } catch (QueryEvaluationException | RepositoryException e) {
-            e.printStackTrace();
+        if (owned) {
+            this.anno4j.close();
         }
-
-        return results;
     }
 
     /**
@@ -102,21 +119,14 @@ public class ObjectParser {
      * @param documentURL The basic URL used for namespaces.
      * @param format The format of the given serialization. Needs to be
      * supported of an instance of RDFFormat.
-     * @return A list of annotations
+     * @return The annotations of the given content, or an empty list if it could not be parsed or stored.
      */
     public List<Annotation> parse(String content, URL documentURL, RDFFormat format) {
-        RDFParser parser = Rio.createParser(format);
-        try {
-            StatementSailHandler handler = new StatementSailHandler(this.anno4j.getRepository().getConnection());
-            parser.setRDFHandler(handler);
-            byte[] bytes = content.getBytes("UTF-8");
-            try (InputStream stream = new ByteArrayInputStream(bytes)) {
-                parser.parse(stream, documentURL.toString());
-            }
-        } catch (RDFHandlerException | RDFParseException | IOException | RepositoryException e) {
-            e.printStackTrace();
+        try (ImportResult result = new BulkImporter(anno4j).importFrom(new StringReader(content), documentURL.toString(), format)) {
+            return result.getAnnotations().asList();
+        } catch (RDFParseException | IOException | RepositoryException | QueryEvaluationException e) {
+            logger.error("Could not parse the annotations of " + documentURL, e);
+            return Collections.emptyList();
         }
-
-        return getAnnotations();
     }
 }
@@ -0,0 +1,85 @@
+package com.github.anno4j.io;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link ParallelImporter} run: the number of imported statements, the time taken and the files that
+ * could not be imported, or only partially.
+ */
+public class ParallelImportResult {
+
+    private final int files;
+
+    private final Map<Path, Exception> failures;
+
+    private final Map<Path, Long> partialImports;
+
+    private final long statements;
+
+    private final long annotations;
+
+    private final long millis;
+
+    ParallelImportResult(int files, Map<Path, Exception> failures, Map<Path, Long> partialImports, long statements,
+                         long annotations, long millis) {
+        this.files = files;
+        this.failures = Collections.unmodifiableMap(failures);
+        this.partialImports = Collections.unmodifiableMap(partialImports);
+        this.statements = statements;
+        this.annotations = annotations;
+        this.millis = millis;
+    }
+
+    /**
+     * @return the number of files that were imported or failed.
+     */
+    public int getFileCount() {
+        return files;
+    }
+
+    /**
+     * @return the files that could not be read or parsed, and the reason.
+     */
+    public Map<Path, Exception> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return the failed files of which some statements were written to the repository before the error, and the
+     * number of these statements. Importing such a file again writes these statements again, and with new blank
+     * nodes unless blank node identifiers are preserved.
+     */
+    public Map<Path, Long> getPartialImports() {
+        return partialImports;
+    }
+
+    /**
+     * @return the number of statements written to the repository.
+     */
+    public long getStatementCount() {
+        return statements;
+    }
+
+    /**
+     * @return the number of annotations that were parsed.
+     */
+    public long getAnnotationCount() {
+        return annotations;
+    }
+
+    /**
+     * @return the duration of the import in milliseconds.
+     */
+    public long getDuration() {
+        return millis;
+    }
+
+    /**
+     * @return the statements written per second.
+     */
+    public double getThroughput() {
+        return ParallelImporter.throughput(statements, millis);
+    }
+}
@@ -0,0 +1,501 @@
+package com.github.anno4j.io;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.connection.ConnectionPool;
+import com.github.anno4j.model.namespaces.OADM;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.object.ObjectConnection;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.BasicParserSettings;
+import org.openrdf.rio.helpers.RDFHandlerBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports many RDF files into the repository of an {@link Anno4j} instance at once. The files are parsed in parallel
+ * on an executor, and the parsed statements are handed in batches through a bounded queue to a few writers, each of
+ * which commits one transaction per batch on its own pooled connection. Parsers block while the queue is full, so
+ * memory use is bounded by the queue capacity and batch size, however many files are imported.
+ * <p/>
+ * A file that cannot be read or parsed is reported by {@link ParallelImportResult#getFailures()} and does not stop
+ * the other files. Batches of such a file that were queued before the error remain in the repository, and the number
+ * of their statements is reported by {@link ParallelImportResult#getPartialImports()}, so that the file can be removed
+ * or completed before it is imported again.
+ * The progress of a running import can be read from another thread by {@link #getWrittenCount()},
+ * {@link #getCompletedFileCount()} and {@link #getThroughput()}.
+ */
+public class ParallelImporter {
+
+    /**
+     * Number of writer connections used if no explicit number is configured.
+     */
+    public static final int DEFAULT_WRITERS = 2;
+
+    /**
+     * Number of batches the queue holds if no explicit capacity is configured.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelImporter.class);
+
+    private static final URI ANNOTATION = new URIImpl(OADM.ANNOTATION);
+
+    /**
+     * Queued by the parsers after the last file, one for each writer.
+     */
+    private static final Batch END = new Batch(Collections.<Statement>emptyList(), null);
+
+    private final Anno4j anno4j;
+
+    private URI context;
+
+    private ExecutorService executor;
+
+    private int writers = DEFAULT_WRITERS;
+
+    private int batchSize = BulkImporter.DEFAULT_BATCH_SIZE;
+
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    private ImportListener listener;
+
+    private boolean preserveBNodeIds;
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong annotations = new AtomicLong();
+
+    private final AtomicInteger completedFiles = new AtomicInteger();
+
+    private volatile long start;
+
+    private volatile long end;
+
+    /**
+     * @param anno4j the instance to import into, using its pooled connections.
+     */
+    public ParallelImporter(Anno4j anno4j) {
+        this.anno4j = anno4j;
+        this.context = anno4j.getDefaultContext();
+    }
+
+    public URI getContext() {
+        return context;
+    }
+
+    /**
+     * @param context the graph to import into, or null for the default graph.
+     */
+    public void setContext(URI context) {
+        this.context = context;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @param executor the executor to parse the files on, or null to use a pool with one thread per processor for
+     *                 each import. A configured executor is not shut down by this importer.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public int getWriters() {
+        return writers;
+    }
+
+    /**
+     * @param writers the number of connections that write concurrently. Should not exceed the size of the
+     *                connection pool of the {@link Anno4j} instance.
+     */
+    public void setWriters(int writers) {
+        if (writers < 1) {
+            throw new IllegalArgumentException("Number of writers must be positive, but was " + writers);
+        }
+        this.writers = writers;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize the number of statements committed per transaction.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, but was " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @param queueCapacity the number of parsed batches that may wait for a writer before the parsers block.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive, but was " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public ImportListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @param listener notified after each committed batch, or null. It is called by the writer threads, but never
+     *                 concurrently.
+     */
+    public void setListener(ImportListener listener) {
+        this.listener = listener;
+    }
+
+    public boolean isPreserveBNodeIds() {
+        return preserveBNodeIds;
+    }
+
+    /**
+     * @param preserveBNodeIds whether blank nodes keep the identifiers they have in the files, so that a blank node
+     *                         appearing in several files, e.g. in the parts of a split {@link RDFExporter export}, is
+     *                         imported as one node. Unrelated files must then not use the same identifiers, and
+     *                         importing the same files twice merges their blank nodes instead of duplicating them.
+     *                         Off by default, so that each file has its own blank nodes.
+     */
+    public void setPreserveBNodeIds(boolean preserveBNodeIds) {
+        this.preserveBNodeIds = preserveBNodeIds;
+    }
+
+    /**
+     * @return the number of statements committed by the running or last import.
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * @return the number of files the running or last import has finished parsing, including failed ones.
+     */
+    public int getCompletedFileCount() {
+        return completedFiles.get();
+    }
+
+    /**
+     * @return the statements committed per second by the running or last import.
+     */
+    public double getThroughput() {
+        long until = end > 0 ? end : System.currentTimeMillis();
+        return throughput(written.get(), until - start);
+    }
+
+    /**
+     * Imports all files of the given directory whose format is known by their name, including gzip compressed
+     * files. Subdirectories are not read.
+     *
+     * @param directory the directory to import.
+     * @return the counts and the files that failed.
+     */
+    public ParallelImportResult importDirectory(Path directory) throws IOException, RepositoryException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && BulkImporter.formatOf(file) != null) {
+                    files.add(file);
+                }
+            }
+        }
+        Collections.sort(files);
+        return importFiles(files);
+    }
+
+    /**
+     * Imports the given files, choosing their formats by their names. Files whose name ends with <code>.gz</code>
+     * are decompressed.
+     *
+     * @param files the files to import.
+     * @return the counts and the files that failed.
+     * @throws RepositoryException if a writer fails, in which case the import is not complete.
+     */
+    public ParallelImportResult importFiles(Collection<Path> files) throws RepositoryException {
+        written.set(0);
+        annotations.set(0);
+        completedFiles.set(0);
+        start = System.currentTimeMillis();
+        end = 0;
+
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService parsers = executor != null ? executor : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        ExecutorService writerPool = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> writerFutures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                writerFutures.add(writerPool.submit(new Writer(queue)));
+            }
+
+            Map<Path, Future<?>> parserFutures = new LinkedHashMap<>();
+            Map<Path, AtomicLong> committedPerFile = new LinkedHashMap<>();
+            for (Path file : files) {
+                AtomicLong committed = new AtomicLong();
+                committedPerFile.put(file, committed);
+                parserFutures.put(file, parsers.submit(new Parser(file, queue, committed)));
+            }
+
+            Map<Path, Exception> failures = new LinkedHashMap<>();
+            for (Map.Entry<Path, Future<?>> entry : parserFutures.entrySet()) {
+                Exception failure = await(entry.getValue());
+                if (failure != null) {
+                    logger.warn("Could not import " + entry.getKey(), failure);
+                    failures.put(entry.getKey(), failure);
+                }
+            }
+
+            for (int i = 0; i < writers; i++) {
+                put(queue, END);
+            }
+            RepositoryException writerFailure = null;
+            for (Future<?> future : writerFutures) {
+                Exception failure = await(future);
+                if (failure != null && writerFailure == null) {
+                    writerFailure = failure instanceof RepositoryException ? (RepositoryException) failure : new RepositoryException(failure);
+                }
+            }
+            if (writerFailure != null) {
+                throw writerFailure;
+            }
+
+            // Batches of a failed file that were queued before the error are committed by now
+            Map<Path, Long> partialImports = new LinkedHashMap<>();
+            for (Path file : failures.keySet()) {
+                long committed = committedPerFile.get(file).get();
+                if (committed > 0) {
+                    partialImports.put(file, committed);
+                }
+            }
+
+            end = System.currentTimeMillis();
+            return new ParallelImportResult(files.size(), failures, partialImports, written.get(), annotations.get(),
+                    end - start);
+        } finally {
+            if (end == 0) {
+                end = System.currentTimeMillis();
+            }
+            writerPool.shutdownNow();
+            if (parsers != executor) {
+                parsers.shutdownNow();
+            }
+        }
+    }
+
+    static double throughput(long statements, long millis) {
+        return millis > 0 ? statements * 1000.0 / millis : 0;
+    }
+
+    private static Exception await(Future<?> future) throws RepositoryException {
+        try {
+            future.get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException(e);
+        }
+    }
+
+    private static void put(BlockingQueue<Batch> queue, Batch batch) throws RepositoryException {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException(e);
+        }
+    }
+
+    /**
+     * Statements of one file that are committed together.
+     */
+    private static class Batch {
+
+        private final List<Statement> statements;
+
+        /**
+         * The number of committed statements of the file.
+         */
+        private final AtomicLong committed;
+
+        private Batch(List<Statement> statements, AtomicLong committed) {
+            this.statements = statements;
+            this.committed = committed;
+        }
+    }
+
+    /**
+     * Parses one file and queues its statements in batches.
+     */
+    private class Parser extends RDFHandlerBase implements Callable<Void> {
+
+        private final Path file;
+
+        private final BlockingQueue<Batch> queue;
+
+        private final AtomicLong committed;
+
+        private List<Statement> batch;
+
+        private Parser(Path file, BlockingQueue<Batch> queue, AtomicLong committed) {
+            this.file = file;
+            this.queue = queue;
+            this.committed = committed;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            try {
+                RDFFormat format = BulkImporter.formatOf(file);
+                if (format == null) {
+                    throw new IllegalArgumentException("Unknown RDF format of " + file);
+                }
+
+                RDFParser parser = Rio.createParser(format);
+                parser.getParserConfig().set(BasicParserSettings.PRESERVE_BNODE_IDS, preserveBNodeIds);
+                parser.setRDFHandler(this);
+                batch = new ArrayList<>(batchSize);
+                try (InputStream in = BulkImporter.open(file)) {
+                    parser.parse(in, file.toUri().toString());
+                } catch (RDFHandlerException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+                return null;
+            } finally {
+                completedFiles.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void handleStatement(Statement statement) throws RDFHandlerException {
+            if (RDF.TYPE.equals(statement.getPredicate()) && ANNOTATION.equals(statement.getObject())) {
+                annotations.incrementAndGet();
+            }
+
+            batch.add(statement);
+            if (batch.size() >= batchSize) {
+                enqueue();
+            }
+        }
+
+        @Override
+        public void endRDF() throws RDFHandlerException {
+            if (!batch.isEmpty()) {
+                enqueue();
+            }
+        }
+
+        private void enqueue() throws RDFHandlerException {
+            try {
+                put(queue, new Batch(batch, committed));
+            } catch (RepositoryException e) {
+                throw new RDFHandlerException(e);
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Commits queued batches on a pooled connection until the end of the import is queued. After a failure the
+     * remaining batches are discarded, so that the parsers are not blocked.
+     */
+    private class Writer implements Callable<Void> {
+
+        private final BlockingQueue<Batch> queue;
+
+        private Writer(BlockingQueue<Batch> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            RepositoryException failure = null;
+            ConnectionPool pool = anno4j.getConnectionPool();
+            ObjectConnection connection = null;
+            try {
+                try {
+                    connection = pool.acquire(context);
+                } catch (RepositoryException e) {
+                    failure = e;
+                }
+
+                Batch batch;
+                while ((batch = queue.take()) != END) {
+                    if (failure != null) {
+                        continue;
+                    }
+
+                    try {
+                        connection.begin();
+                        connection.add(batch.statements);
+                        connection.commit();
+                        batch.committed.addAndGet(batch.statements.size());
+                        committed(batch.statements.size());
+                    } catch (RepositoryException e) {
+                        if (connection.isActive()) {
+                            connection.rollback();
+                        }
+                        failure = e;
+                    }
+                }
+            } finally {
+                if (connection != null) {
+                    pool.release(connection);
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        }
+
+        private void committed(int size) {
+            long total = written.addAndGet(size);
+            if (listener != null) {
+                synchronized (ParallelImporter.this) {
+                    listener.committed(total, annotations.get());
+                }
+            }
+        }
+    }
+}
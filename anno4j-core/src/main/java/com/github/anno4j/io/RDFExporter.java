@@ -0,0 +1,284 @@
+package com.github.anno4j.io;
+
+import com.github.anno4j.Anno4j;
+import info.aduna.iteration.Iterations;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFWriter;
+import org.openrdf.rio.Rio;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the statements of one context or of the whole repository of an {@link Anno4j} instance into a stream or
+ * into files, e.g. for backups. The statements are read by a single iteration over the store, without creating
+ * objects, and written as they are read. Such dumps can be loaded again by {@link BulkImporter} or
+ * {@link ParallelImporter}, which recognise gzip compressed files by their name.
+ * <p/>
+ * Exports of the whole repository keep the contexts of the statements only in formats that support them, e.g.
+ * {@link RDFFormat#BINARY}, {@link RDFFormat#TRIG} or {@link RDFFormat#NQUADS}.
+ * <p/>
+ * Blank nodes are written with their identifiers in the store. If an export is split into several files, the
+ * statements about a blank node may end up in another file than the statements referencing it, so the parts have to
+ * be loaded by {@link Anno4j#importDump(URI, java.util.Collection)} or by a {@link ParallelImporter} that
+ * {@link ParallelImporter#setPreserveBNodeIds(boolean) preserves blank node identifiers}. Other parsers create a new
+ * blank node for each identifier in each file.
+ */
+public class RDFExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Anno4j anno4j;
+
+    /**
+     * @param anno4j the instance to export from.
+     */
+    public RDFExporter(Anno4j anno4j) {
+        this.anno4j = anno4j;
+    }
+
+    /**
+     * Writes the statements of the given context to a stream.
+     *
+     * @param context the context to export, or null for the whole repository.
+     * @param out     the stream to write to, which is not closed.
+     * @param format  the serialisation format.
+     * @param options the compression and progress settings. The maximum file size is ignored.
+     * @return the counts of the export.
+     */
+    public ExportResult export(URI context, OutputStream out, RDFFormat format, ExportOptions options) throws RepositoryException, IOException {
+        long start = System.currentTimeMillis();
+        CountingOutputStream counter = new CountingOutputStream(out);
+        Part part = new Part(counter, format, options);
+
+        RepositoryConnection connection = anno4j.getRepository().getConnection();
+        try {
+            part.start(connection);
+            RepositoryResult<Statement> statements = connection.getStatements(null, null, null, false, contexts(context));
+            try {
+                long count = 0;
+                while (statements.hasNext()) {
+                    part.write(statements.next());
+                    count++;
+                    report(options, count, counter.count);
+                }
+                part.finish();
+                return new ExportResult(new ArrayList<Path>(), count, counter.count, System.currentTimeMillis() - start);
+            } finally {
+                statements.close();
+            }
+        } finally {
+            part.release();
+            connection.close();
+        }
+    }
+
+    /**
+     * Writes the statements of the given context to a file, or to several files if a maximum file size is
+     * configured. The parts are named like the given file, with a running number inserted before the extension,
+     * e.g. <code>dump-1.ttl.gz</code> for <code>dump.ttl.gz</code>.
+     *
+     * @param context the context to export, or null for the whole repository.
+     * @param file    the file to write.
+     * @param format  the serialisation format.
+     * @param options the compression, splitting and progress settings.
+     * @return the counts and files of the export.
+     */
+    public ExportResult export(URI context, Path file, RDFFormat format, ExportOptions options) throws RepositoryException, IOException {
+        long start = System.currentTimeMillis();
+        List<Path> files = new ArrayList<>();
+        long count = 0;
+        long bytes = 0;
+
+        RepositoryConnection connection = anno4j.getRepository().getConnection();
+        try {
+            List<Namespace> namespaces = Iterations.asList(connection.getNamespaces());
+            RepositoryResult<Statement> statements = connection.getStatements(null, null, null, false, contexts(context));
+            try {
+                CountingOutputStream counter = null;
+                Part part = null;
+                try {
+                    while (statements.hasNext()) {
+                        if (part == null) {
+                            Path target = options.getMaxFileSize() > 0 ? partName(file, files.size() + 1) : file;
+                            counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE));
+                            part = new Part(counter, format, options);
+                            part.start(namespaces);
+                            files.add(target);
+                        }
+
+                        part.write(statements.next());
+                        count++;
+                        report(options, count, bytes + counter.count);
+
+                        if (options.getMaxFileSize() > 0 && counter.count >= options.getMaxFileSize()) {
+                            part.finish();
+                            counter.close();
+                            bytes += counter.count;
+                            part = null;
+                        }
+                    }
+
+                    if (files.isEmpty()) {
+                        // An empty context still results in a valid, empty document:
+                        counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+                        part = new Part(counter, format, options);
+                        part.start(namespaces);
+                        files.add(file);
+                    }
+                    if (part != null) {
+                        part.finish();
+                        counter.close();
+                        bytes += counter.count;
+                        part = null;
+                    }
+                } finally {
+                    if (part != null) {
+                        part.release();
+                        counter.close();
+                    }
+                }
+            } finally {
+                statements.close();
+            }
+        } finally {
+            connection.close();
+        }
+
+        return new ExportResult(files, count, bytes, System.currentTimeMillis() - start);
+    }
+
+    private static Resource[] contexts(URI context) {
+        return context != null ? new Resource[]{context} : new Resource[0];
+    }
+
+    private static void report(ExportOptions options, long statements, long bytes) {
+        if (options.getListener() != null && statements % options.getChunkSize() == 0) {
+            options.getListener().exported(statements, bytes);
+        }
+    }
+
+    /**
+     * @return the given file with the number inserted before the first dot of its name.
+     */
+    static Path partName(Path file, int number) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        String partName = dot > 0 ? name.substring(0, dot) + "-" + number + name.substring(dot) : name + "-" + number;
+        return file.resolveSibling(partName);
+    }
+
+    /**
+     * One complete document of an export.
+     */
+    private static class Part {
+
+        private final GzipStream gzip;
+
+        private final RDFWriter writer;
+
+        private Part(OutputStream out, RDFFormat format, ExportOptions options) throws IOException {
+            this.gzip = options.isGzip() ? new GzipStream(out) : null;
+            this.writer = Rio.createWriter(format, gzip != null ? gzip : out);
+        }
+
+        private void start(RepositoryConnection connection) throws RepositoryException, IOException {
+            start(Iterations.asList(connection.getNamespaces()));
+        }
+
+        private void start(List<Namespace> namespaces) throws IOException {
+            try {
+                writer.startRDF();
+                for (Namespace namespace : namespaces) {
+                    writer.handleNamespace(namespace.getPrefix(), namespace.getName());
+                }
+            } catch (RDFHandlerException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private void write(Statement statement) throws IOException {
+            try {
+                writer.handleStatement(statement);
+            } catch (RDFHandlerException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private void finish() throws IOException {
+            try {
+                writer.endRDF();
+                if (gzip != null) {
+                    gzip.finish();
+                }
+            } catch (RDFHandlerException e) {
+                throw new IOException(e);
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Frees the native memory of the compressor. Called after the part is finished or if writing it failed.
+         */
+        private void release() {
+            if (gzip != null) {
+                gzip.end();
+            }
+        }
+    }
+
+    /**
+     * A gzip stream whose compressor can be freed without closing the stream it writes to, as
+     * {@link GZIPOutputStream#finish()} does not free it.
+     */
+    private static class GzipStream extends GZIPOutputStream {
+
+        private GzipStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+        }
+
+        private void end() {
+            def.end();
+        }
+    }
+
+    /**
+     * Counts the bytes written to a stream.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -1,24 +1,29 @@
 package com.github.anno4j.model;
 
 import com.github.anno4j.annotations.Partial;
+import com.github.anno4j.model.namespaces.AS;
 import com.github.anno4j.model.namespaces.DCTERMS;
 import com.github.anno4j.model.namespaces.OADM;
 import com.github.anno4j.util.TimeHelper;
-import org.apache.commons.io.IOUtils;
 import org.openrdf.annotations.Iri;
 import org.openrdf.model.URI;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.object.ObjectConnection;
 import org.openrdf.repository.object.exceptions.ObjectPersistException;
-import org.openrdf.rio.*;
-
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.util.HashSet;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
 
 @Partial
 public abstract class AnnotationSupport extends CreationProvenanceSupport implements Annotation {
 
+    /**
+     * Selects the annotation, its bodies, targets, creator, generator and motivations, and the selectors of its
+     * specific resources as ?s. Other links of these nodes, e.g. further resources of the creator, are not followed.
+     */
+    private static final String ANNOTATION_NODES = "?root (<" + OADM.HAS_BODY + ">|<" + OADM.HAS_TARGET + ">|<"
+            + DCTERMS.CREATOR + ">|<" + AS.GENERATOR + ">|<" + OADM.MOTIVATED_BY + ">)? ?n . ?n <"
+            + OADM.HAS_SELECTOR + ">? ?s";
+
     /**
      * Refers to http://www.w3.org/ns/oa#annotatedAt.
      * Deprecated property.
@@ -44,14 +49,7 @@ public abstract class AnnotationSupport extends CreationProvenanceSupport implem
      */
     @Override
     public void addTarget(Target target) {
-        HashSet<Target> targets = new HashSet<>();
-
-        if (this.getTargets() != null) {
-            targets.addAll(this.getTargets());
-        }
-
-        targets.add(target);
-        this.setTargets(targets);
+        this.getTargets().add(target);
     }
 
 
@@ -60,14 +58,7 @@ public abstract class AnnotationSupport extends CreationProvenanceSupport implem
      */
     @Override
     public void addBody(Body body) {
-        HashSet<Body> bodies = new HashSet<>();
-
-        if (this.getBodies() != null) {
-            bodies.addAll(this.getBodies());
-        }
-
-        bodies.add(body);
-        this.setBodies(bodies);
+        this.getBodies().add(body);
     }
 
     /**
@@ -75,14 +66,7 @@ public abstract class AnnotationSupport extends CreationProvenanceSupport implem
      */
     @Override
     public void addMotivation(Motivation motivation) {
-        HashSet<Motivation> motivations = new HashSet<>();
-
-        if (this.getMotivatedBy() != null) {
-            motivations.addAll(this.getMotivatedBy());
-        }
-
-        motivations.add(motivation);
-        this.setMotivatedBy(motivations);
+        this.getMotivatedBy().add(motivation);
     }
 
     /**
@@ -90,14 +74,7 @@ public abstract class AnnotationSupport extends CreationProvenanceSupport implem
      */
     @Override
     public void addBodyText(String text) {
-        HashSet<String> texts = new HashSet<>();
-
-        if (this.getBodyTexts() != null) {
-            texts.addAll(this.getBodyTexts());
-        }
-
-        texts.add(text);
-        this.setBodyTexts(texts);
+        this.getBodyTexts().add(text);
     }
 
     /**
@@ -105,67 +82,18 @@ public abstract class AnnotationSupport extends CreationProvenanceSupport implem
      */
     @Override
     public void addAudience(Audience audience) {
-        HashSet<Audience> audiences = new HashSet<>();
-
-        if(this.getAudiences() != null) {
-            audiences.addAll(this.getAudiences());
-        }
-
-        audiences.add(audience);
-        this.setAudiences(audiences);
+        this.getAudiences().add(audience);
     }
 
     /**
-     * Method returns a textual representation of the given Annotation, containing
-     * its Body, Target and possible Selection, in a supported serialisation format.
+     * Streams the statements of this annotation, its bodies, targets, creator, generator and motivations, and the
+     * selectors of its specific resources, using a single query.
      *
-     * @param format The format which should be printed.
-     * @return A textual representation if this object in the format.
+     * @param handler The handler receiving the statements.
      */
     @Override
-    public String getTriples(RDFFormat format) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        RDFParser parser = Rio.createParser(RDFFormat.NTRIPLES);
-        RDFWriter writer = Rio.createWriter(format, out);
-        parser.setRDFHandler(writer);
-
-        try {
-            StringBuilder sb = new StringBuilder();
-            sb.append(super.getTriples(RDFFormat.NTRIPLES));
-
-            if (getBodies() != null) {
-                for (Body body : getBodies()) {
-                    sb.append(body.getTriples(RDFFormat.NTRIPLES));
-                }
-            }
-
-            if (getTargets() != null) {
-                for (Target target : getTargets()) {
-                    sb.append(target.getTriples(RDFFormat.NTRIPLES));
-                }
-            }
-
-            if (getCreator() != null) {
-                sb.append(getCreator().getTriples(RDFFormat.NTRIPLES));
-            }
-
-            if (getGenerator() != null) {
-                sb.append(getGenerator().getTriples(RDFFormat.NTRIPLES));
-            }
-
-            if (getMotivatedBy() != null) {
-                for (Motivation motivation : this.getMotivatedBy()) {
-                    sb.append(motivation.getTriples(RDFFormat.NTRIPLES));
-                }
-            }
-
-            parser.parse(IOUtils.toInputStream(sb.toString()), "");
-
-        } catch (IOException | RDFHandlerException | RDFParseException e) {
-            e.printStackTrace();
-        }
-
-        return out.toString();
+    public void writeTriples(RDFHandler handler) throws RepositoryException, RDFHandlerException {
+        writeTriples(handler, ANNOTATION_NODES);
     }
 
     @Override
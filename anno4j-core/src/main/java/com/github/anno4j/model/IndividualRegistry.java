@@ -0,0 +1,106 @@
+package com.github.anno4j.model;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.model.impl.ResourceObject;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+import org.openrdf.repository.object.ObjectConnection;
+import org.openrdf.repository.object.ObjectRepository;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonical objects of well-known individuals, such as the motivations and text directions of the OADM, for one
+ * repository.
+ * <p/>
+ * An individual is registered with the rdf:types of its class and the types already stored for it as an individual of
+ * the {@link ObjectRepository} when it is first requested, and the same object is returned afterwards. Connections of
+ * any transaction refer to it by its IRI without reading its types, and write them into their insert context the first
+ * time they refer to it there, so that every context, e.g. one that is exported or cleared, states the types of the
+ * individuals it uses. Types stored for an individual after its registration are not seen. The objects only serve as
+ * references and should not be modified. They belong to a connection of the registry that is never pooled and is
+ * closed by {@link #close()}.
+ */
+public class IndividualRegistry {
+
+    private final Anno4j anno4j;
+
+    private final ConcurrentMap<String, ResourceObject> individuals = new ConcurrentHashMap<>();
+
+    /**
+     * The connection the individuals belong to, opened on the first request.
+     */
+    private ObjectConnection connection;
+
+    /**
+     * @param anno4j the instance to create the individuals with, its current repository is the one they are
+     *               registered with.
+     */
+    public IndividualRegistry(Anno4j anno4j) {
+        this.anno4j = anno4j;
+    }
+
+    /**
+     * Returns the canonical object of the given individual, creating it on the first call.
+     *
+     * @param type the type of the individual.
+     * @param iri  the IRI of the individual.
+     * @return the same object for every call with the same IRI and type.
+     */
+    public <T extends ResourceObject> T get(Class<T> type, String iri) throws RepositoryException, IllegalAccessException, InstantiationException {
+        ResourceObject individual = individuals.get(iri);
+        if (!type.isInstance(individual)) {
+            synchronized (this) {
+                individual = individuals.get(iri);
+                if (!type.isInstance(individual)) {
+                    if (connection == null) {
+                        connection = anno4j.getObjectRepository().getConnection();
+                    }
+                    individual = connection.getObjectFactory().createObject(new URIImpl(iri), type);
+                    anno4j.getObjectRepository().addIndividual(individual.getResource(), getTypes(individual));
+                    individuals.put(iri, individual);
+                }
+            }
+        }
+        return type.cast(individual);
+    }
+
+    /**
+     * The types of the given type and the types already stored for the individual. Connections do not read the types
+     * of a registered individual, so they have to cover every type it is read as.
+     */
+    private Set<URI> getTypes(ResourceObject individual) throws RepositoryException {
+        Set<URI> types = new HashSet<>(connection.getObjectFactory().getTypesOf(individual.getClass()));
+        RepositoryResult<Statement> stored = connection.getStatements(individual.getResource(), RDF.TYPE, null, true);
+        try {
+            while (stored.hasNext()) {
+                Value type = stored.next().getObject();
+                if (type instanceof URI) {
+                    types.add((URI) type);
+                }
+            }
+        } finally {
+            stored.close();
+        }
+        return types;
+    }
+
+    /**
+     * Closes the connection of the individuals, which must not be used afterwards.
+     */
+    public synchronized void close() throws RepositoryException {
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+        individuals.clear();
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.anno4j.model;
+
+import com.github.anno4j.model.impl.ResourceObject;
+import com.github.anno4j.model.namespaces.OADM;
+import org.openrdf.annotations.Iri;
+
+/**
+ * Conforms to http://www.w3.org/ns/oa#Direction
+ * The direction of a text, see {@link TextDirectionFactory} for its individuals.
+ */
+@Iri(OADM.DIRECTION)
+public interface TextDirection extends ResourceObject {
+
+}
@@ -3,8 +3,13 @@ package com.github.anno4j.model.impl;
 import com.github.anno4j.model.namespaces.RDFS;
 import org.openrdf.annotations.Iri;
 import org.openrdf.model.Resource;
+import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.object.RDFObject;
 import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+
+import java.io.OutputStream;
 
 /**
  * Class to implement RDF in order to create a baseline for every object that we use in Anno4j.
@@ -14,6 +19,25 @@ public interface ResourceObject extends RDFObject {
 
     String getTriples(RDFFormat format);
 
+    /**
+     * Streams the statements of this object and of every node reachable from it, e.g. the items of an annotation
+     * page, into the given handler. The links between annotation collections and their pages are written but not
+     * followed, so a page does not include the other pages of its collection. Annotations only include their
+     * bodies, targets, creator, generator, motivations and selectors, specific resources only their selector, and
+     * agents only themselves. The subgraph is read by a single query and not buffered.
+     *
+     * @param handler The handler receiving the statements.
+     */
+    void writeTriples(RDFHandler handler) throws RepositoryException, RDFHandlerException;
+
+    /**
+     * Writes the statements of {@link #writeTriples(RDFHandler)} to the given stream.
+     *
+     * @param out    The stream to write to, which is not closed.
+     * @param format The serialisation format.
+     */
+    void writeTriples(OutputStream out, RDFFormat format) throws RepositoryException, RDFHandlerException;
+
     void setResource(Resource resource);
 
     void setResourceAsString(String resourceAsString);
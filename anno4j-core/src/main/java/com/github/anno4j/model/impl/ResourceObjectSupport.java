@@ -1,21 +1,27 @@
 package com.github.anno4j.model.impl;
 
 import com.github.anno4j.annotations.Partial;
+import com.github.anno4j.model.namespaces.AS;
 import org.openrdf.annotations.ParameterTypes;
 import org.openrdf.idGenerator.IDGenerator;
 import org.openrdf.model.Resource;
 import org.openrdf.model.URI;
-import org.openrdf.model.impl.StatementImpl;
 import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.query.GraphQuery;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.QueryLanguage;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.object.ObjectConnection;
 import org.openrdf.repository.object.traits.ObjectMessage;
 import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandler;
 import org.openrdf.rio.RDFHandlerException;
-import org.openrdf.rio.RDFWriter;
 import org.openrdf.rio.Rio;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 
 @Partial
 public abstract class ResourceObjectSupport implements ResourceObject {
@@ -23,7 +29,16 @@ public abstract class ResourceObjectSupport implements ResourceObject {
     private Resource resource = IDGenerator.BLANK_RESOURCE;
 
     /**
-     * Method returns a textual representation of the given ResourceObject in a supported serialisation format.
+     * Selects a resource and all nodes reachable from it as ?s. Type statements are not followed, so that the
+     * statements about classes are not included, and neither are the links between collections and their pages, so
+     * that a page or an annotation of a page does not include the whole collection.
+     */
+    private static final String SUBGRAPH_NODES = "?root (!(<" + RDF.TYPE + ">|<" + AS.PART_OF + ">|<" + AS.FIRST
+            + ">|<" + AS.LAST + ">|<" + AS.NEXT + ">|<" + AS.PREV + ">))* ?s";
+
+    /**
+     * Method returns a textual representation of the given ResourceObject and the nodes it refers to, in a supported
+     * serialisation format.
      *
      * @param format The format which should be printed.
      * @return A textual representation if this object in the format.
@@ -33,9 +48,7 @@ public abstract class ResourceObjectSupport implements ResourceObject {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         try {
-            RDFWriter writer = Rio.createWriter(format, out);
-            this.getObjectConnection().exportStatements(this.getResource(), null, null, true, writer);
-
+            writeTriples(out, format);
         } catch (RepositoryException e) {
             e.printStackTrace();
         } catch (RDFHandlerException e) {
@@ -45,6 +58,34 @@ public abstract class ResourceObjectSupport implements ResourceObject {
         return out.toString();
     }
 
+    @Override
+    public void writeTriples(RDFHandler handler) throws RepositoryException, RDFHandlerException {
+        writeTriples(handler, SUBGRAPH_NODES);
+    }
+
+    /**
+     * Streams the statements of the nodes selected by the given graph pattern into the handler, using a single query.
+     * Subtypes that only write some of the reachable nodes pass their own pattern.
+     *
+     * @param handler The handler receiving the statements.
+     * @param nodes   A SPARQL graph pattern binding each node to write to ?s, beginning from this object as ?root.
+     */
+    protected void writeTriples(RDFHandler handler, String nodes) throws RepositoryException, RDFHandlerException {
+        try {
+            GraphQuery query = getObjectConnection().prepareGraphQuery(QueryLanguage.SPARQL,
+                    "CONSTRUCT { ?s ?p ?o } WHERE { { SELECT DISTINCT ?root ?s WHERE { " + nodes + " } } ?s ?p ?o }");
+            query.setBinding("root", getResource());
+            query.evaluate(handler);
+        } catch (MalformedQueryException | QueryEvaluationException e) {
+            throw new RepositoryException(e);
+        }
+    }
+
+    @Override
+    public void writeTriples(OutputStream out, RDFFormat format) throws RepositoryException, RDFHandlerException {
+        writeTriples(Rio.createWriter(format, out));
+    }
+
     @Override
     public void setResource(Resource resource) {
         this.resource = resource;
@@ -1,7 +1,5 @@
 package com.github.anno4j.model.impl.multiplicity;
 
-import java.util.HashSet;
-
 import org.openrdf.repository.object.RDFObject;
 
 import com.github.anno4j.annotations.Partial;
@@ -16,14 +14,7 @@ public abstract class CompositeSupport extends ResourceObjectSupport implements
             return;
         }
 
-        HashSet<RDFObject> items = new HashSet<>();
-
-        if(this.getItems() != null) {
-            items.addAll(this.getItems());
-        }
-
-        items.add(item);
-        this.setItems(items);
+        this.getItems().add(item);
     }
     
 }
@@ -8,9 +8,6 @@ import com.github.anno4j.util.TimeHelper;
 import org.openrdf.annotations.Iri;
 import org.openrdf.repository.object.exceptions.ObjectPersistException;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * Support class for the TimeState interface.
  */
@@ -64,16 +61,7 @@ public abstract class TimeStateSupport extends ResourceObjectSupport implements
      */
     @Override
     public void addSourceDate(String sourceDate) {
-        HashSet<String> sourceDates = new HashSet<>();
-
-        Set<String> current = this.getSourceDates();
-
-        if(current != null) {
-            sourceDates.addAll(current);
-        }
-
-        sourceDates.add(sourceDate);
-        this.setSourceDates(sourceDates);
+        this.getSourceDates().add(sourceDate);
     }
 
     /**
@@ -81,15 +69,6 @@ public abstract class TimeStateSupport extends ResourceObjectSupport implements
      */
     @Override
     public void addCachedSource(ResourceObject cachedSource) {
-        HashSet<ResourceObject> cachedSources = new HashSet<>();
-
-        Set<ResourceObject> current = this.getCachedSources();
-
-        if(current != null) {
-            cachedSources.addAll(current);
-        }
-
-        cachedSources.add(cachedSource);
-        this.setCachedSources(cachedSources);
+        this.getCachedSources().add(cachedSource);
     }
 }
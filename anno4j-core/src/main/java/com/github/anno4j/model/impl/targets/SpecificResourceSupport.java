@@ -4,22 +4,24 @@ import com.github.anno4j.model.ExternalWebResourceSupport;
 import com.github.anno4j.annotations.Partial;
 import com.github.anno4j.model.State;
 import com.github.anno4j.model.impl.ResourceObject;
-import org.apache.commons.io.IOUtils;
+import com.github.anno4j.model.namespaces.OADM;
 import org.openrdf.model.URI;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.object.ObjectConnection;
-import org.openrdf.rio.RDFFormat;
-import org.openrdf.rio.*;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.util.HashSet;
 import java.util.Set;
 
 @Partial
 public abstract class SpecificResourceSupport extends ExternalWebResourceSupport implements SpecificResource {
 
+    /**
+     * Selects the specific resource and its selector as ?s.
+     */
+    private static final String SPECIFIC_RESOURCE_NODES = "?root <" + OADM.HAS_SELECTOR + ">? ?s";
+
     /**
      * {@inheritDoc}
      */
@@ -69,32 +71,14 @@ public abstract class SpecificResourceSupport extends ExternalWebResourceSupport
         this.setRenderedVia(rendered);
     }
 
+    /**
+     * Streams the statements of this specific resource and of its selector, using a single query.
+     *
+     * @param handler The handler receiving the statements.
+     */
     @Override
-    public String getTriples(RDFFormat format) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        RDFParser parser = Rio.createParser(RDFFormat.NTRIPLES);
-        RDFWriter writer = Rio.createWriter(format, out);
-        parser.setRDFHandler(writer);
-
-        try {
-            this.getObjectConnection().exportStatements(this.getResource(), null, null, true, writer);
-
-            if (getSelector() != null) {
-                parser.parse(IOUtils.toInputStream(getSelector().getTriples(RDFFormat.NTRIPLES), "UTF-8"), "");
-            }
-        } catch (UnsupportedEncodingException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
-        } catch (RDFHandlerException e) {
-            e.printStackTrace();
-        } catch (RDFParseException e) {
-            e.printStackTrace();
-        } catch (RepositoryException e) {
-            e.printStackTrace();
-        }
-
-        return out.toString();
+    public void writeTriples(RDFHandler handler) throws RepositoryException, RDFHandlerException {
+        writeTriples(handler, SPECIFIC_RESOURCE_NODES);
     }
 
     @Override
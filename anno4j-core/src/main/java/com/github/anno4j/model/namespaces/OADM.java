@@ -572,6 +572,12 @@ public class OADM {
      * ---------- Text Direction ----------
      */
 
+    /**
+     * Refers to http://www.w3.org/ns/oa#Direction.
+     * A class to encapsulate the different text directions that a textual resource might take.
+     */
+    public final static String DIRECTION = NS + "Direction";
+
     /**
      * http://www.w3.org/ns/oa#rtlDirection.
      * The direction of text that is read from right to left.
@@ -0,0 +1,393 @@
+package com.github.anno4j.querying;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.openrdf.annotations.Iri;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.TupleQueryResult;
+import org.openrdf.query.impl.MapBindingSet;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.object.ObjectConnection;
+import org.openrdf.repository.object.ObjectFactory;
+import org.openrdf.repository.object.RDFObject;
+import org.openrdf.repository.object.traits.PropertyConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.Introspector;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Eagerly loads parts of the object graph of already created objects, e.g. the bodies, targets and selectors of
+ * annotations, so that reading them does not cost one query per object and property.
+ * <p/>
+ * A fetch plan consists of property paths like <code>oa:hasBody</code> or <code>oa:hasTarget/oa:hasSelector</code>.
+ * All paths are loaded for a batch of objects with a single query, together with the rdf:types of the reached
+ * resources. The result is passed to the property caches of the objects, which create the reached objects from it
+ * instead of querying the repository.
+ * <p/>
+ * Only properties mapped by annotated getters of the concepts are filled. Other properties are loaded lazily as usual.
+ */
+public class FetchPlan {
+
+    private final Logger logger = LoggerFactory.getLogger(FetchPlan.class);
+
+    /**
+     * Maximum number of objects loaded with one query.
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private static final String ROOT_VARIABLE = "root";
+
+    private static final String FETCH_PREFIX = "fetch";
+
+    private static final String CLASS_SUFFIX = "_class";
+
+    private final List<String> paths;
+
+    private final Step root = new Step(null, ROOT_VARIABLE);
+
+    /**
+     * All steps of the plan, parents before their children.
+     */
+    private final List<Step> steps = new ArrayList<>();
+
+    private final Map<Set<URI>, Class<?>> classes = new HashMap<>();
+
+    private final Map<Class<?>, Map<URI, List<String>>> propertyNames = new HashMap<>();
+
+    /**
+     * Creates a fetch plan whose paths may use the prefixes every QueryService knows.
+     *
+     * @param paths The property paths to load.
+     */
+    public FetchPlan(String... paths) {
+        this(QueryService.getDefaultPrefixes(), paths);
+    }
+
+    /**
+     * @param prefixes The prefixes used by the paths.
+     * @param paths    The property paths to load, separated by "/". A property is either a prefixed name or an IRI in
+     *                 angle brackets.
+     */
+    public FetchPlan(Map<String, String> prefixes, String... paths) {
+        this.paths = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(paths)));
+
+        for (String path : paths) {
+            Step step = root;
+            for (URI predicate : parsePath(path, prefixes)) {
+                step = step.getChild(predicate);
+            }
+        }
+    }
+
+    /**
+     * @return The property paths of this plan.
+     */
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * @return True if the plan does not load anything.
+     */
+    public boolean isEmpty() {
+        return root.children.isEmpty();
+    }
+
+    /**
+     * Loads the paths of this plan for the given objects. Objects that are not identified by an IRI are skipped and
+     * keep loading their properties lazily.
+     *
+     * @param connection The connection the objects were read with.
+     * @param objects    The objects to load the paths for.
+     * @throws RepositoryException Thrown if the query fails.
+     */
+    public void load(ObjectConnection connection, Collection<?> objects) throws RepositoryException {
+        if (isEmpty()) {
+            return;
+        }
+
+        Map<Value, Object> chunk = new LinkedHashMap<>();
+        for (Object object : objects) {
+            if (object instanceof RDFObject && object instanceof PropertyConsumer
+                    && ((RDFObject) object).getResource() instanceof URI) {
+                chunk.put(((RDFObject) object).getResource(), object);
+                if (chunk.size() == CHUNK_SIZE) {
+                    loadChunk(connection, chunk);
+                    chunk.clear();
+                }
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            loadChunk(connection, chunk);
+        }
+    }
+
+    private void loadChunk(ObjectConnection connection, Map<Value, Object> objects) throws RepositoryException {
+        Map<Value, List<BindingSet>> rows = new HashMap<>();
+        Map<Value, Set<URI>> types = new HashMap<>();
+
+        try {
+            String query = createQuery(objects.keySet());
+            logger.debug("Fetch query for {} objects:\n{}", objects.size(), query);
+
+            TupleQueryResult result = connection.prepareTupleQuery(QueryLanguage.SPARQL, query).evaluate();
+            try {
+                while (result.hasNext()) {
+                    BindingSet row = result.next();
+
+                    Value resource = row.getValue(ROOT_VARIABLE);
+                    if (!rows.containsKey(resource)) {
+                        rows.put(resource, new ArrayList<BindingSet>());
+                    }
+                    rows.get(resource).add(row);
+
+                    for (Step step : steps) {
+                        Value value = row.getValue(step.variable);
+                        Value type = row.getValue(step.variable + CLASS_SUFFIX);
+                        if (value != null && !types.containsKey(value)) {
+                            types.put(value, new HashSet<URI>());
+                        }
+                        if (type instanceof URI) {
+                            types.get(value).add((URI) type);
+                        }
+                    }
+                }
+            } finally {
+                result.close();
+            }
+        } catch (MalformedQueryException | QueryEvaluationException e) {
+            throw new RepositoryException("Couldn't evaluate fetch query", e);
+        }
+
+        for (Map.Entry<Value, Object> entry : objects.entrySet()) {
+            Object object = entry.getValue();
+            List<BindingSet> bindings = new ArrayList<>();
+
+            List<BindingSet> objectRows = rows.get(entry.getKey());
+            if (objectRows == null) {
+                // Declares the fetched properties without values, so they are known to be empty
+                objectRows = Collections.<BindingSet>singletonList(new MapBindingSet());
+            }
+            for (BindingSet row : objectRows) {
+                MapBindingSet binding = new MapBindingSet();
+                bind(connection, binding, root, object.getClass(), ROOT_VARIABLE, row, types);
+                bindings.add(binding);
+            }
+
+            ((PropertyConsumer) object).usePropertyBindings(ROOT_VARIABLE, bindings);
+        }
+    }
+
+    /**
+     * Renames the variables of a result row to the names the property caches of the objects expect, i.e. the name of
+     * the parent binding followed by the name of the property.
+     */
+    private void bind(ObjectConnection connection, MapBindingSet binding, Step parent, Class<?> type, String prefix,
+                      BindingSet row, Map<Value, Set<URI>> types) {
+        for (Step step : parent.children) {
+            Value value = row.getValue(step.variable);
+            Value valueType = row.getValue(step.variable + CLASS_SUFFIX);
+
+            for (String name : getPropertyNames(type, step.predicate)) {
+                String variable = prefix + "_" + name;
+                binding.addBinding(variable, value);
+
+                if (value instanceof Resource) {
+                    // Also bound without a type, so the object is not created with a query for its types
+                    binding.addBinding(variable + CLASS_SUFFIX, valueType);
+
+                    if (!step.children.isEmpty()) {
+                        Class<?> valueClass = getObjectClass(connection, (Resource) value, types.get(value));
+                        bind(connection, binding, step, valueClass, variable, row, types);
+                    }
+                }
+            }
+        }
+    }
+
+    private Class<?> getObjectClass(ObjectConnection connection, Resource resource, Set<URI> types) {
+        Class<?> type = classes.get(types);
+        if (type == null) {
+            type = connection.getObjectFactory().createObject(resource, types).getClass();
+            classes.put(types, type);
+        }
+        return type;
+    }
+
+    /**
+     * @return The names of the bean properties the given class maps the predicate to.
+     */
+    private List<String> getPropertyNames(Class<?> type, URI predicate) {
+        Map<URI, List<String>> names = propertyNames.get(type);
+        if (names == null) {
+            names = new HashMap<>();
+            for (Class<?> concept : ClassUtils.getAllInterfaces(type)) {
+                for (Method method : concept.getDeclaredMethods()) {
+                    Iri iri = method.getAnnotation(Iri.class);
+                    String name = getPropertyName(method);
+                    if (iri != null && name != null) {
+                        URI property = new URIImpl(iri.value());
+                        if (!names.containsKey(property)) {
+                            names.put(property, new ArrayList<String>());
+                        }
+                        if (!names.get(property).contains(name)) {
+                            names.get(property).add(name);
+                        }
+                    }
+                }
+            }
+            propertyNames.put(type, names);
+        }
+
+        List<String> result = names.get(predicate);
+        return result != null ? result : Collections.<String>emptyList();
+    }
+
+    private static String getPropertyName(Method method) {
+        if (method.getParameterTypes().length != 0 || method.getReturnType() == Void.TYPE) {
+            return null;
+        }
+
+        String name = method.getName();
+        if (name.startsWith("get") && name.length() > 3) {
+            return Introspector.decapitalize(name.substring(3));
+        } else if (name.startsWith("is") && name.length() > 2) {
+            return Introspector.decapitalize(name.substring(2));
+        }
+        return null;
+    }
+
+    /**
+     * Creates the query loading all paths for the given resources. Every path gets its own union branch, so the rows
+     * of different paths are not multiplied with each other. The rows are ordered by the reached resources, parents
+     * first, so that all rows of a resource follow each other.
+     */
+    private String createQuery(Collection<Value> resources) throws MalformedQueryException {
+        StringBuilder select = new StringBuilder("SELECT ?").append(ROOT_VARIABLE);
+        StringBuilder order = new StringBuilder(" ORDER BY ?").append(ROOT_VARIABLE);
+        for (Step step : steps) {
+            select.append(" ?").append(step.variable).append(" ?").append(step.variable).append(CLASS_SUFFIX);
+            order.append(" ?").append(step.variable);
+        }
+
+        StringBuilder query = new StringBuilder(select).append("\nWHERE {\n VALUES ?").append(ROOT_VARIABLE).append(" {");
+        query.append(ObjectFactory.createValues(resources)).append(" }\n");
+
+        boolean first = true;
+        for (Step leaf : steps) {
+            if (leaf.children.isEmpty()) {
+                if (!first) {
+                    query.append(" UNION\n");
+                }
+                query.append(" { ").append(createPattern(leaf, null)).append(" }");
+                first = false;
+            }
+        }
+
+        return query.append("\n}").append(order).toString();
+    }
+
+    /**
+     * @return The pattern from the root to the given step. All steps but the first one are optional.
+     */
+    private String createPattern(Step step, String inner) {
+        String pattern = "?" + step.parent.variable + " <" + step.predicate.stringValue() + "> ?" + step.variable
+                + " . OPTIONAL { ?" + step.variable + " a ?" + step.variable + CLASS_SUFFIX + " }";
+        if (inner != null) {
+            pattern += " OPTIONAL { " + inner + " }";
+        }
+        return step.parent == root ? pattern : createPattern(step.parent, pattern);
+    }
+
+    private static List<URI> parsePath(String path, Map<String, String> prefixes) {
+        List<URI> predicates = new ArrayList<>();
+
+        int index = 0;
+        while (index < path.length()) {
+            int end;
+            String iri;
+            if (path.charAt(index) == '<') {
+                end = path.indexOf('>', index);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated IRI in fetch path " + path);
+                }
+                iri = path.substring(index + 1, end);
+                end++;
+            } else {
+                end = path.indexOf('/', index);
+                if (end < 0) {
+                    end = path.length();
+                }
+                String name = path.substring(index, end).trim();
+                int colon = name.indexOf(':');
+                if (colon < 0 || !prefixes.containsKey(name.substring(0, colon))) {
+                    throw new IllegalArgumentException("Unknown property " + name + " in fetch path " + path);
+                }
+                iri = prefixes.get(name.substring(0, colon)) + name.substring(colon + 1);
+            }
+            predicates.add(new URIImpl(iri));
+
+            if (end < path.length() && path.charAt(end) != '/') {
+                throw new IllegalArgumentException("Expected '/' at position " + end + " of fetch path " + path);
+            }
+            index = end + 1;
+        }
+
+        if (predicates.isEmpty()) {
+            throw new IllegalArgumentException("Empty fetch path");
+        }
+        return predicates;
+    }
+
+    /**
+     * A property of a fetch path, shared by all paths starting with the same properties.
+     */
+    private class Step {
+
+        private final URI predicate;
+
+        private final String variable;
+
+        private Step parent;
+
+        private final List<Step> children = new ArrayList<>();
+
+        private Step(URI predicate, String variable) {
+            this.predicate = predicate;
+            this.variable = variable;
+        }
+
+        private Step getChild(URI predicate) {
+            for (Step child : children) {
+                if (child.predicate.equals(predicate)) {
+                    return child;
+                }
+            }
+
+            Step child = new Step(predicate, FETCH_PREFIX + steps.size());
+            child.parent = this;
+            children.add(child);
+            steps.add(child);
+            return child;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.anno4j.querying;
+
+import org.openrdf.model.URI;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used cache of compiled and optimized SPARQL queries, shared by all
+ * {@link com.github.anno4j.querying.QueryService}s of an Anno4j instance.
+ * <p/>
+ * A cached query is a template: the constraint values of the criteria are not part of the query string, but bound as
+ * parameters when the query is executed. Queries that only differ in their constraint values therefore share one
+ * entry and skip the LDPath parsing, the SPARQL generation and the join order optimization. The parsing of the SPARQL
+ * query is not covered by this cache, but by the connection the query is prepared on, see
+ * {@link org.openrdf.repository.object.ObjectConnection#prepareCachedTupleQuery(String)}.
+ */
+public class QueryCache {
+
+    /**
+     * Number of queries kept if no explicit size is configured.
+     */
+    public static final int DEFAULT_SIZE = 256;
+
+    private final int size;
+
+    private final Map<String, String> queries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public QueryCache() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size The maximum number of cached queries. A size of 0 disables the cache.
+     */
+    public QueryCache(final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Query cache size must not be negative, but was " + size);
+        }
+        this.size = size;
+        this.queries = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    /**
+     * Creates the key of a query. It covers everything that changes the structure of the generated SPARQL query,
+     * but not the constraint values of the criteria.
+     *
+     * @param form          The form of the query, e.g. a plain or a paged select query.
+     * @param rootType      The rdf:type of the queried objects.
+     * @param configuration The criteria and prefixes of the query.
+     * @param limit         The limit of the query, or null.
+     * @param offset        The offset of the query, or null.
+     * @return The cache key.
+     */
+    public static String createKey(String form, URI rootType, QueryServiceConfiguration configuration, Integer limit, Integer offset) {
+        StringBuilder key = new StringBuilder();
+        append(key, form);
+        append(key, rootType.stringValue());
+
+        for (Map.Entry<String, String> prefix : new TreeMap<>(configuration.getPrefixes()).entrySet()) {
+            append(key, prefix.getKey());
+            append(key, prefix.getValue());
+        }
+
+        for (Criteria criteria : configuration.getCriteria()) {
+            append(key, criteria.getLdpath());
+            key.append(criteria.getComparison())
+                    .append(criteria.isNaN() ? 's' : 'n')
+                    .append(criteria.getConstraint() != null ? 'c' : '-');
+        }
+
+        key.append('|').append(limit).append('|').append(offset);
+        return key.toString();
+    }
+
+    /**
+     * Prefixes each part with its length, so that different parts can not produce the same key.
+     */
+    private static void append(StringBuilder key, String part) {
+        key.append(part.length()).append(':').append(part);
+    }
+
+    /**
+     * @param key A key created by {@link #createKey(String, URI, QueryServiceConfiguration, Integer, Integer)}.
+     * @return The cached SPARQL query, or null if the query was not compiled yet.
+     */
+    public String get(String key) {
+        String query;
+        synchronized (queries) {
+            query = queries.get(key);
+        }
+
+        if (query != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return query;
+    }
+
+    /**
+     * Adds a compiled query to the cache. The least recently used query is dropped if the cache is full.
+     *
+     * @param key   A key created by {@link #createKey(String, URI, QueryServiceConfiguration, Integer, Integer)}.
+     * @param query The optimized SPARQL query.
+     */
+    public void put(String key, String query) {
+        if (size == 0) {
+            return;
+        }
+        synchronized (queries) {
+            queries.put(key, query);
+        }
+    }
+
+    /**
+     * Removes all cached queries. The hit and miss counters are kept.
+     */
+    public void clear() {
+        synchronized (queries) {
+            queries.clear();
+        }
+    }
+
+    /**
+     * @return The maximum number of cached queries.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The number of currently cached queries.
+     */
+    public int getCachedCount() {
+        synchronized (queries) {
+            return queries.size();
+        }
+    }
+
+    /**
+     * @return The number of queries that were served from the cache.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of queries that had to be compiled.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCache{size=" + size + ", cached=" + getCachedCount() + ", hits=" + hits + ", misses=" + misses + "}";
+    }
+}
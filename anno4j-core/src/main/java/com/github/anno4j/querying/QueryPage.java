@@ -0,0 +1,137 @@
+package com.github.anno4j.querying;
+
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * A single page of a result, as returned by
+ * {@link com.github.anno4j.querying.QueryService#executePage(Class, int, String)}.
+ * <p/>
+ * Pages are ordered by the identifier of the objects. Instead of an offset, the continuation token of a page stores the
+ * last identifier it contains, so the next page only has to match the objects after it and the query does not have
+ * to skip all rows of the previous pages.
+ *
+ * @param <T> The type of the objects of the page.
+ */
+public class QueryPage<T> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final List<T> items;
+
+    private final long startIndex;
+
+    private final String continuationToken;
+
+    public QueryPage(List<T> items, long startIndex, String continuationToken) {
+        this.items = items;
+        this.startIndex = startIndex;
+        this.continuationToken = continuationToken;
+    }
+
+    /**
+     * @return The objects of this page, in the order of their identifiers.
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return The position of the first object of this page within the whole result, starting at 0.
+     */
+    public long getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * @return The token to pass to {@link QueryService#executePage(Class, int, String)} to get the next page, or null
+     * if this is the last page.
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * @return True if there is a page after this one.
+     */
+    public boolean hasNext() {
+        return continuationToken != null;
+    }
+
+    /**
+     * Creates the continuation token for the page following the given object.
+     *
+     * @param index The position of the first object of the next page.
+     * @param last  The identifier of the last object of the current page.
+     * @return The encoded token.
+     */
+    static String createToken(long index, Resource last) {
+        if (!(last instanceof URI)) {
+            throw new IllegalStateException("Keyset pagination requires objects identified by IRIs, but found " + last);
+        }
+
+        byte[] bytes = (index + "|" + last.stringValue()).getBytes(UTF_8);
+        StringBuilder token = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            token.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        return token.toString();
+    }
+
+    /**
+     * @param token A token created by {@link #createToken(long, Resource)}, or null for the first page.
+     * @return The position of the first object of the page the token refers to.
+     */
+    static long parseIndex(String token) {
+        if (token == null) {
+            return 0;
+        }
+        String decoded = decode(token);
+        return Long.parseLong(decoded.substring(0, decoded.indexOf('|')));
+    }
+
+    /**
+     * @param token A token created by {@link #createToken(long, Resource)}, or null for the first page.
+     * @return The identifier after which the page the token refers to starts, or null for the first page.
+     */
+    static String parseLastSeen(String token) {
+        if (token == null) {
+            return null;
+        }
+        String decoded = decode(token);
+        return decoded.substring(decoded.indexOf('|') + 1);
+    }
+
+    private static String decode(String token) {
+        if (token.length() % 2 != 0) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token);
+        }
+
+        byte[] bytes = new byte[token.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(token.charAt(2 * i), 16);
+            int low = Character.digit(token.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Invalid continuation token: " + token);
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+
+        String decoded = new String(bytes, UTF_8);
+        int separator = decoded.indexOf('|');
+        if (separator < 1) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token);
+        }
+        try {
+            Long.parseLong(decoded.substring(0, separator));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+        return decoded;
+    }
+}
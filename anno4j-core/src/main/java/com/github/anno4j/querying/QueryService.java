@@ -2,12 +2,24 @@ package com.github.anno4j.querying;
 
 import com.github.anno4j.model.Annotation;
 import com.github.anno4j.model.impl.ResourceObject;
+import com.github.anno4j.model.impl.collection.AnnotationCollection;
+import com.github.anno4j.model.impl.collection.AnnotationPage;
 import com.github.anno4j.model.namespaces.*;
+import com.github.anno4j.querying.evaluation.EvalComparison;
 import com.github.anno4j.querying.evaluation.EvalQuery;
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
 import com.github.anno4j.querying.extension.QueryEvaluator;
 import com.github.anno4j.querying.extension.QueryExtension;
 import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryFactory;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.expr.E_GreaterThan;
+import com.hp.hpl.jena.sparql.expr.E_Str;
+import com.hp.hpl.jena.sparql.expr.Expr;
+import com.hp.hpl.jena.sparql.expr.ExprVar;
+import com.hp.hpl.jena.sparql.expr.aggregate.AggCountVarDistinct;
+import com.hp.hpl.jena.sparql.syntax.ElementFilter;
+import com.hp.hpl.jena.sparql.syntax.ElementGroup;
 import org.apache.marmotta.ldpath.api.functions.SelectorFunction;
 import org.apache.marmotta.ldpath.api.functions.TestFunction;
 import org.apache.marmotta.ldpath.backend.sesame.SesameValueBackend;
@@ -15,21 +27,34 @@ import org.apache.marmotta.ldpath.model.Constants;
 import org.apache.marmotta.ldpath.parser.Configuration;
 import org.apache.marmotta.ldpath.parser.DefaultConfiguration;
 import org.apache.marmotta.ldpath.parser.ParseException;
+import org.openrdf.model.Literal;
 import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.URIImpl;
 import org.openrdf.model.vocabulary.OWL;
 import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.model.vocabulary.SKOS;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.BooleanQuery;
 import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.Operation;
 import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.TupleQuery;
+import org.openrdf.query.TupleQueryResult;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.object.ObjectConnection;
 import org.openrdf.repository.object.ObjectQuery;
 import org.openrdf.repository.object.ObjectRepository;
+import org.openrdf.result.Result;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -44,6 +69,32 @@ public class QueryService {
 
     private final Logger logger = LoggerFactory.getLogger(QueryService.class);
 
+    /**
+     * Query forms, distinguishing the cached queries of the same criteria
+     */
+    private static final String SELECT = "select";
+    private static final String KEYSET = "keyset";
+    private static final String KEYSET_AFTER = "keyset-after";
+    private static final String COUNT = "count";
+    private static final String ASK = "ask";
+    private static final String PROJECTION = "projection";
+
+    /**
+     * Variable holding the result of count queries
+     */
+    private static final String COUNT_VARIABLE = "count";
+
+    /**
+     * Variable the last object of the previous page is bound to in keyset pagination
+     */
+    private static final String LAST_SEEN_PARAMETER = "lastSeen";
+
+    /**
+     * Query parameter that holds the continuation token in the IRIs of annotation pages
+     */
+    private static final String PAGE_PARAMETER = "page";
+    private static final String FIRST_PAGE = "first";
+
     private ObjectConnection connection;
 
     /**
@@ -75,6 +126,11 @@ public class QueryService {
      */
     private QueryOptimizer queryOptimizer = null;
 
+    /**
+     * Property paths loaded eagerly for the results, see {@link #fetch(String...)}
+     */
+    private List<String> fetchPaths = new ArrayList<>();
+
     public <T> QueryService(ObjectConnection connection, LDPathEvaluatorConfiguration evaluatorConfiguration) {
         this.connection = connection;
 
@@ -85,17 +141,26 @@ public class QueryService {
         this.queryOptimizer = QueryOptimizer.getInstance();
 
         // Setting some common name spaces
-        addPrefix(OADM.PREFIX, OADM.NS);
-        addPrefix(CNT.PREFIX, CNT.NS);
-        addPrefix(DC.PREFIX, DC.NS);
-        addPrefix(DCTERMS.PREFIX, DCTERMS.NS);
-        addPrefix(DCTYPES.PREFIX, DCTYPES.NS);
-        addPrefix(FOAF.PREFIX, FOAF.NS);
-        addPrefix(PROV.PREFIX, PROV.NS);
-        addPrefix(RDF.PREFIX, RDF.NS);
-        addPrefix(OWL.PREFIX, OWL.NAMESPACE);
-        addPrefix(RDFS.PREFIX, RDFS.NAMESPACE);
-        addPrefix(SKOS.PREFIX, SKOS.NAMESPACE);
+        queryServiceDTO.getPrefixes().putAll(getDefaultPrefixes());
+    }
+
+    /**
+     * @return The common namespaces every QueryService knows, by their prefixes.
+     */
+    public static Map<String, String> getDefaultPrefixes() {
+        Map<String, String> prefixes = new HashMap<>();
+        prefixes.put(OADM.PREFIX, OADM.NS);
+        prefixes.put(CNT.PREFIX, CNT.NS);
+        prefixes.put(DC.PREFIX, DC.NS);
+        prefixes.put(DCTERMS.PREFIX, DCTERMS.NS);
+        prefixes.put(DCTYPES.PREFIX, DCTYPES.NS);
+        prefixes.put(FOAF.PREFIX, FOAF.NS);
+        prefixes.put(PROV.PREFIX, PROV.NS);
+        prefixes.put(RDF.PREFIX, RDF.NS);
+        prefixes.put(OWL.PREFIX, OWL.NAMESPACE);
+        prefixes.put(RDFS.PREFIX, RDFS.NAMESPACE);
+        prefixes.put(SKOS.PREFIX, SKOS.NAMESPACE);
+        return prefixes;
     }
 
     private Configuration createLDPathConfiguration() {
@@ -251,6 +316,24 @@ public class QueryService {
         return this;
     }
 
+    /**
+     * Loads the given property paths of the results eagerly, e.g. <code>fetch("oa:hasBody",
+     * "oa:hasTarget/oa:hasSelector")</code>. The paths are loaded for all results of {@link #execute(Class)} and
+     * {@link #executePage(Class, int, String)} with one additional query, instead of one query per object and property
+     * when they are read. The paths may use the prefixes of this service. Results of {@link #iterate(Class)} are not
+     * prefetched.
+     *
+     * @param paths Property paths, separated by "/".
+     * @return itself to allow chaining.
+     */
+    public QueryService fetch(String... paths) {
+        // Fails early for invalid paths
+        new FetchPlan(getPrefixes(), paths);
+
+        fetchPaths.addAll(Arrays.asList(paths));
+        return this;
+    }
+
     /**
      * Creates and executes the SPARQL query according to the
      * criteria specified by the user.
@@ -269,17 +352,355 @@ public class QueryService {
      * @return the result set
      */
     public <T extends ResourceObject> List<T> execute(Class<T> type) throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        List<T> result = iterate(type).asList();
+        loadFetchPaths(result);
+        return result;
+    }
+
+    /**
+     * Creates and executes the SPARQL query according to the criteria specified by the user. In contrast to
+     * {@link #execute()}, the annotations are created one by one while iterating over the result.
+     *
+     * @return a cursor over the matching annotations, which has to be closed after use.
+     */
+    public Result<Annotation> iterate() throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        return this.iterate(Annotation.class);
+    }
+
+    /**
+     * Creates and executes the SPARQL query according to the criteria specified by the user. In contrast to
+     * {@link #execute(Class)}, the objects are created one by one while iterating over the result, so arbitrarily
+     * large results can be processed with constant memory. Limit and offset are applied as for
+     * {@link #execute(Class)}.
+     *
+     * @param <T> type Type of the expected result.
+     * @return a cursor over the matching objects. Closing it releases the underlying query result.
+     */
+    public <T extends ResourceObject> Result<T> iterate(Class<T> type) throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        return prepareQuery(getQueryString(type, SELECT, limit, offset)).evaluate(type);
+    }
+
+    /**
+     * Counts the annotations matching the criteria, without creating objects for them.
+     *
+     * @return the number of matching annotations.
+     */
+    public long count() throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        return this.count(Annotation.class);
+    }
+
+    /**
+     * Counts the objects matching the criteria. The store only returns the number, so no objects are created or
+     * transferred. The limit and offset of this service are not used.
+     *
+     * @param type Type of the counted objects.
+     * @return the number of matching objects.
+     */
+    public <T extends ResourceObject> long count(Class<T> type) throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        String q = getQueryString(type, COUNT, null, null);
+
+        TupleQuery query = connection.prepareCachedTupleQuery(q);
+        bindConstraints(query);
+        logQuery(query, q);
+
+        TupleQueryResult result = query.evaluate();
+        try {
+            if (result.hasNext()) {
+                Value count = result.next().getValue(COUNT_VARIABLE);
+                if (count instanceof Literal) {
+                    return ((Literal) count).longValue();
+                }
+            }
+            return 0;
+        } finally {
+            result.close();
+        }
+    }
+
+    /**
+     * Checks whether any annotation matches the criteria, without creating objects for them.
+     *
+     * @return true if at least one annotation matches.
+     */
+    public boolean exists() throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        return this.exists(Annotation.class);
+    }
+
+    /**
+     * Checks whether any object matches the criteria, using an ASK query. The limit and offset of this service are
+     * not used.
+     *
+     * @param type Type of the objects.
+     * @return true if at least one object matches.
+     */
+    public <T extends ResourceObject> boolean exists(Class<T> type) throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        String q = getQueryString(type, ASK, null, null);
+
+        BooleanQuery query = connection.prepareCachedBooleanQuery(q);
+        bindConstraints(query);
+        logQuery(query, q);
+
+        return query.evaluate();
+    }
+
+    /**
+     * Selects the values of the given LDPath expressions for every annotation matching the criteria, see
+     * {@link #select(Class, String...)}.
+     *
+     * @param ldpaths The LDPath expressions to select, beginning from the Annotation object.
+     * @return one row of values per combination of selected values of each matching annotation.
+     */
+    public List<Value[]> select(String... ldpaths) throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        return this.select(Annotation.class, ldpaths);
+    }
+
+    /**
+     * Selects the values of the given LDPath expressions for every object matching the criteria, e.g. the source of
+     * the targets and the value of the bodies of annotations. All values are read with a single query and no objects
+     * are created. Each row holds the values of the expressions in the given order. A value is null if the
+     * expression does not select any value for the object. An object with multiple values for an expression gets one
+     * row per value. Limit and offset apply to the rows.
+     *
+     * @param type    The type of the objects the expressions begin from.
+     * @param ldpaths The LDPath expressions to select.
+     * @return one row of values per combination of selected values of each matching object.
+     */
+    public <T extends ResourceObject> List<Value[]> select(Class<T> type, String... ldpaths) throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        if (ldpaths.length == 0) {
+            throw new IllegalArgumentException("At least one LDPath expression has to be selected");
+        }
+
+        List<String> projections = Arrays.asList(ldpaths);
+
+        StringBuilder form = new StringBuilder(PROJECTION);
+        for (String projection : projections) {
+            form.append(' ').append(projection.length()).append(':').append(projection);
+        }
+
+        String q = getQueryString(type, form.toString(), projections, limit, offset);
+
+        TupleQuery query = connection.prepareCachedTupleQuery(q);
+        bindConstraints(query);
+        logQuery(query, q);
+
+        List<Value[]> rows = new ArrayList<>();
+        TupleQueryResult result = query.evaluate();
+        try {
+            while (result.hasNext()) {
+                BindingSet bindings = result.next();
+
+                Value[] row = new Value[ldpaths.length];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = bindings.getValue(EvalQuery.getProjectionName(i));
+                }
+                rows.add(row);
+            }
+        } finally {
+            result.close();
+        }
+
+        return rows;
+    }
+
+    /**
+     * Returns a single page of annotations matching the criteria, see {@link #executePage(Class, int, String)}.
+     *
+     * @param pageSize          The maximum number of annotations of the page.
+     * @param continuationToken The token of the previous page, or null for the first page.
+     * @return the page of annotations.
+     */
+    public QueryPage<Annotation> executePage(int pageSize, String continuationToken) throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        return this.executePage(Annotation.class, pageSize, continuationToken);
+    }
+
+    /**
+     * Returns a single page of objects matching the criteria. The objects are ordered by their IRIs. Instead of an
+     * offset, the next page is requested with the continuation token of the current one, which only matches the
+     * objects after the last object of the current page. The cost of a page therefore does not grow with its
+     * position. The limit and offset of this service are not used.
+     *
+     * @param type              Type of the expected result.
+     * @param pageSize          The maximum number of objects of the page.
+     * @param continuationToken The token of the previous page, or null for the first page.
+     * @param <T>               type Type of the expected result.
+     * @return the page of objects.
+     */
+    public <T extends ResourceObject> QueryPage<T> executePage(Class<T> type, int pageSize, String continuationToken) throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive, but was " + pageSize);
+        }
+
+        long startIndex = QueryPage.parseIndex(continuationToken);
+        String lastSeen = QueryPage.parseLastSeen(continuationToken);
+
+        // Fetching one more object tells whether there is a next page
+        ObjectQuery query = prepareQuery(getQueryString(type, lastSeen == null ? KEYSET : KEYSET_AFTER, pageSize + 1, null));
+        if (lastSeen != null) {
+            query.setBinding(LAST_SEEN_PARAMETER, connection.getValueFactory().createLiteral(lastSeen));
+        }
 
+        List<T> items = new ArrayList<>(pageSize);
+        boolean hasNext = false;
+
+        Result<T> result = query.evaluate(type);
+        try {
+            while (result.hasNext()) {
+                T item = result.next();
+                if (items.size() == pageSize) {
+                    hasNext = true;
+                    break;
+                }
+                items.add(item);
+            }
+        } finally {
+            result.close();
+        }
+
+        String nextToken = null;
+        if (hasNext) {
+            nextToken = QueryPage.createToken(startIndex + items.size(), items.get(items.size() - 1).getResource());
+        }
+
+        loadFetchPaths(items);
+        return new QueryPage<>(items, startIndex, nextToken);
+    }
+
+    /**
+     * Serves a page of the annotations matching the criteria as part of the given collection, following the paging
+     * model of the W3C Web Annotation Protocol. The page has an IRI derived from the collection and the continuation
+     * token, and is stored once, when it is served for the first time: later calls with the same token return the
+     * stored page without evaluating the query or writing anything. The page links to the next page, if there is
+     * one, and the first page is set as the <code>as:first</code> page of the collection. Since pages are only
+     * traversed forward, no <code>as:prev</code> links are set.
+     *
+     * @param collection        The collection the page is part of.
+     * @param pageSize          The maximum number of annotations of the page.
+     * @param continuationToken The token of the requested page, i.e. the last part of the IRI of the
+     *                          <code>as:next</code> page, or null for the first page.
+     * @return the page of annotations.
+     */
+    public AnnotationPage executeAnnotationPage(AnnotationCollection collection, int pageSize, String continuationToken) throws ParseException, RepositoryException, MalformedQueryException, QueryEvaluationException {
+        URI id = getAnnotationPageId(collection, continuationToken);
+        if (connection.hasStatement(id, new URIImpl(RDF.TYPE), new URIImpl(AS.ORDERED_COLLECTION_PAGE), false)) {
+            return connection.getObject(AnnotationPage.class, id);
+        }
+
+        QueryPage<Annotation> result = executePage(Annotation.class, pageSize, continuationToken);
+
+        boolean begin = !connection.isActive();
+        if (begin) {
+            connection.begin();
+        }
+        try {
+            // The collection is written through this connection, so that it is not merged from another one
+            AnnotationCollection partOf = connection.getObjectFactory().createObject(collection.getResource(), AnnotationCollection.class);
+            AnnotationPage page = connection.addDesignation(connection.getObjectFactory().createObject(id, AnnotationPage.class), AnnotationPage.class);
+            page.setPartOf(partOf);
+            page.setItems(new HashSet<>(result.getItems()));
+            page.setStartIndex((int) result.getStartIndex());
+
+            if (result.hasNext()) {
+                // Only the link is written, the next page is stored when it is served
+                page.setNext(connection.getObjectFactory().createObject(getAnnotationPageId(collection, result.getContinuationToken()), AnnotationPage.class));
+            }
+
+            if (continuationToken == null) {
+                partOf.setFirstPage(page);
+            }
+
+            if (begin) {
+                connection.commit();
+            }
+            return page;
+        } finally {
+            if (begin && connection.isActive()) {
+                connection.rollback();
+            }
+        }
+    }
+
+    private URI getAnnotationPageId(AnnotationCollection collection, String continuationToken) {
+        String id = collection.getResourceAsString();
+        return new URIImpl(id + (id.contains("?") ? "&" : "?") + PAGE_PARAMETER + "=" + (continuationToken != null ? continuationToken : FIRST_PAGE));
+    }
+
+    /**
+     * Returns the SPARQL query for the criteria and the given query form from the query cache, compiling it if
+     * necessary.
+     */
+    private String getQueryString(Class<?> type, String form, Integer limit, Integer offset) throws ParseException {
+        return getQueryString(type, form, Collections.<String>emptyList(), limit, offset);
+    }
+
+    /**
+     * Returns the SPARQL query for the criteria, the given query form and the given projected LDPath expressions from
+     * the query cache, compiling it if necessary.
+     */
+    private String getQueryString(Class<?> type, String form, List<String> projections, Integer limit, Integer offset) throws ParseException {
         URI rootType = connection.getObjectFactory().getNameOf(type);
         if (rootType == null) {
             throw new IllegalArgumentException("Can't query for: " + type + " not found in name map. Is @Iri annotation set?");
         }
 
-        Query sparql = EvalQuery.evaluate(queryServiceDTO, rootType);
+        QueryCache queryCache = getEvaluatorConfiguration().getQueryCache();
+        String key = QueryCache.createKey(form, rootType, queryServiceDTO, limit, offset);
+        String q = queryCache.get(key);
+
+        if (q == null) {
+            q = compile(rootType, form, projections, limit, offset);
+            queryCache.put(key, q);
+        } else {
+            logger.debug("Using cached query:\n" + q);
+        }
+
+        return q;
+    }
+
+    /**
+     * Prepares the query on the connection of this service and binds the constraint values of the criteria. The
+     * connection keeps the parsed query, so a cached query string is parsed once per connection.
+     */
+    private ObjectQuery prepareQuery(String q) throws RepositoryException, MalformedQueryException {
+        ObjectQuery query = connection.prepareCachedObjectQuery(q);
+        bindConstraints(query);
+        logQuery(query, q);
+
+        return query;
+    }
+
+    private void loadFetchPaths(List<?> objects) throws RepositoryException {
+        if (!fetchPaths.isEmpty()) {
+            new FetchPlan(getPrefixes(), fetchPaths.toArray(new String[fetchPaths.size()])).load(connection, objects);
+        }
+    }
+
+    private void logQuery(Operation query, String q) {
+        if (query.getDataset() != null) {
+            logger.info("\nGRAPH CONTEXT = " + query.getDataset().getDefaultGraphs() + "\nFINAL QUERY :\n" + q);
+        } else {
+            logger.info("\nFINAL QUERY :\n" + q);
+        }
+    }
+
+    /**
+     * Creates the SPARQL query for the criteria and optimizes it. The constraint values are bound separately by
+     * {@link #bindConstraints(Operation)}.
+     */
+    private String compile(URI rootType, String form, List<String> projections, Integer limit, Integer offset) throws ParseException {
+        Query sparql = EvalQuery.evaluate(queryServiceDTO, rootType, projections);
 
         // LDPath allows distinct. May have bad performance.
         sparql.setDistinct(true);
 
+        if (KEYSET_AFTER.equals(form)) {
+            Expr after = new E_GreaterThan(new E_Str(new ExprVar(EvalQuery.ROOT_VARIABLE)), new ExprVar(LAST_SEEN_PARAMETER));
+            ((ElementGroup) sparql.getQueryPattern()).addElementFilter(new ElementFilter(after));
+        }
+
+        if (KEYSET.equals(form) || KEYSET_AFTER.equals(form)) {
+            sparql.addOrderBy(Var.alloc(EvalQuery.ROOT_VARIABLE), Query.ORDER_ASCENDING);
+        }
+
         if (limit != null) {
             sparql.setLimit(limit);
         }
@@ -299,15 +720,46 @@ public class QueryService {
         q = queryOptimizer.optimizeJoinOrder(q);
         logger.debug("Query after join order optimization:\n " + q);
 
-        ObjectQuery query = connection.prepareObjectQuery(q);
+        if (COUNT.equals(form) || ASK.equals(form)) {
+            q = toAggregateQuery(q, form);
+        }
 
-        if (query.getDataset() != null) {
-            logger.info("\nGRAPH CONTEXT = " + query.getDataset().getDefaultGraphs() + "\nFINAL QUERY :\n" + q);
+        return q;
+    }
+
+    /**
+     * Turns the optimized select query into a count or ask query over the same pattern.
+     */
+    private String toAggregateQuery(String select, String form) {
+        Query optimized = QueryFactory.create(select);
+
+        Query query = QueryFactory.make();
+        query.setPrefixMapping(optimized.getPrefixMapping());
+        query.setQueryPattern(optimized.getQueryPattern());
+
+        if (COUNT.equals(form)) {
+            query.setQuerySelectType();
+            Expr count = query.allocAggregate(new AggCountVarDistinct(new ExprVar(EvalQuery.ROOT_VARIABLE)));
+            query.addResultVar(COUNT_VARIABLE, count);
         } else {
-            logger.info("\nFINAL QUERY :\n" + q);
+            query.setQueryAskType();
         }
 
-        return (List<T>) query.evaluate().asList();
+        return query.serialize();
+    }
+
+    /**
+     * Binds the constraint values of the criteria to the parameter variables of the query.
+     */
+    private void bindConstraints(Operation query) {
+        ValueFactory valueFactory = connection.getValueFactory();
+        List<Criteria> criteria = queryServiceDTO.getCriteria();
+
+        for (int i = 0; i < criteria.size(); i++) {
+            if (criteria.get(i).getConstraint() != null) {
+                query.setBinding(EvalQuery.getParameterName(i), EvalComparison.createParameterValue(criteria.get(i), valueFactory));
+            }
+        }
     }
 
     public Configuration getConfiguration() {
@@ -4,57 +4,82 @@ import com.github.anno4j.querying.Comparison;
 import com.github.anno4j.querying.Criteria;
 import com.hp.hpl.jena.sparql.core.Var;
 import com.hp.hpl.jena.sparql.expr.*;
-import com.hp.hpl.jena.sparql.expr.nodevalue.NodeValueDouble;
 import com.hp.hpl.jena.sparql.syntax.ElementFilter;
 import com.hp.hpl.jena.sparql.syntax.ElementGroup;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
 
 /**
  * Created by schlegel on 03/06/15.
  */
 public class EvalComparison {
 
-    public static void evaluate(ElementGroup elementGroup, Criteria criteria, Var variable) {
+    /**
+     * Adds the filter of the given criteria to the element group. The constraint value is not inlined, but referenced
+     * by a parameter variable, which has to be bound to the value created by
+     * {@link #createParameterValue(Criteria, ValueFactory)}.
+     *
+     * @param elementGroup The group to add the filter to.
+     * @param criteria     The criteria to evaluate.
+     * @param variable     The variable holding the values selected by the LDPath expression of the criteria.
+     * @param parameter    The variable the constraint value will be bound to.
+     */
+    public static void evaluate(ElementGroup elementGroup, Criteria criteria, Var variable, Var parameter) {
+        ExprVar value = new ExprVar(variable.asNode());
+        ExprVar constraint = new ExprVar(parameter.asNode());
+
+        Expr expr;
 
         if (criteria.isNaN()) {
+            // Fails early for comparisons that are not allowed on strings
+            createPattern(criteria);
+
+            expr = new E_Regex(new E_Str(value), constraint, NodeValue.makeString(""));
+        } else if (criteria.getComparison().equals(Comparison.GT)) {
+            expr = new E_GreaterThan(value, constraint);
+        } else if (criteria.getComparison().equals(Comparison.GTE)) {
+            expr = new E_GreaterThanOrEqual(value, constraint);
+        } else if (criteria.getComparison().equals(Comparison.LT)) {
+            expr = new E_LessThan(value, constraint);
+        } else if (criteria.getComparison().equals(Comparison.LTE)) {
+            expr = new E_LessThanOrEqual(value, constraint);
+        } else if (criteria.getComparison().equals(Comparison.EQ)) {
+            expr = new E_Equals(value, constraint);
+        } else {
+            throw new IllegalStateException(criteria.getComparison() + " is not allowed on Numbers.");
+        }
+
+        elementGroup.addElementFilter(new ElementFilter(expr));
+    }
+
+    /**
+     * Creates the value of the parameter variable of the given criteria, i.e. the regular expression for textual
+     * constraints and a xsd:double literal for numerical ones.
+     *
+     * @param criteria     The criteria holding the constraint.
+     * @param valueFactory The factory to create the literal with.
+     * @return The value to bind to the parameter variable.
+     */
+    public static Value createParameterValue(Criteria criteria, ValueFactory valueFactory) {
+        if (criteria.isNaN()) {
+            return valueFactory.createLiteral(createPattern(criteria));
+        } else {
+            return valueFactory.createLiteral(Double.parseDouble(criteria.getConstraint()));
+        }
+    }
 
-            String constraint = "";
-
-            // Setting the boundaries (\b) to the RegExp, according to the comparison type
-            if (Comparison.EQ.equals(criteria.getComparison())) {
-                constraint = "^" + criteria.getConstraint() + "$";
-            } else if (Comparison.CONTAINS.equals(criteria.getComparison())) {
-                constraint = criteria.getConstraint();
-            } else if (Comparison.STARTS_WITH.equals(criteria.getComparison())) {
-                constraint = "^" + criteria.getConstraint();
-            } else if (Comparison.ENDS_WITH.equals(criteria.getComparison())) {
-                constraint = criteria.getConstraint() + "$";
-            } else {
-                throw new IllegalStateException(criteria.getComparison() + " is only allowed on Numbers.");
-            }
-
-            if (!constraint.equals("")) {
-                elementGroup.addElementFilter(new ElementFilter(new E_Regex(new E_Str(new ExprVar(variable.asNode())), constraint , "")));
-            }
+    private static String createPattern(Criteria criteria) {
+        // Setting the boundaries (\b) to the RegExp, according to the comparison type
+        if (Comparison.EQ.equals(criteria.getComparison())) {
+            return "^" + criteria.getConstraint() + "$";
+        } else if (Comparison.CONTAINS.equals(criteria.getComparison())) {
+            return criteria.getConstraint();
+        } else if (Comparison.STARTS_WITH.equals(criteria.getComparison())) {
+            return "^" + criteria.getConstraint();
+        } else if (Comparison.ENDS_WITH.equals(criteria.getComparison())) {
+            return criteria.getConstraint() + "$";
         } else {
-            Expr expr;
-
-            if (criteria.getComparison().equals(Comparison.GT)) {
-                expr = new E_GreaterThan(new ExprVar(variable.asNode()), new NodeValueDouble(Double.parseDouble(criteria.getConstraint())));
-            } else if (criteria.getComparison().equals(Comparison.GTE)) {
-                expr = new E_GreaterThanOrEqual(new ExprVar(variable.asNode()), new NodeValueDouble(Double.parseDouble(criteria.getConstraint())));
-            } else if (criteria.getComparison().equals(Comparison.LT)) {
-                expr = new E_LessThan(new ExprVar(variable.asNode()), new NodeValueDouble(Double.parseDouble(criteria.getConstraint())));
-            } else if (criteria.getComparison().equals(Comparison.LTE)) {
-                expr = new E_LessThanOrEqual(new ExprVar(variable.asNode()), new NodeValueDouble(Double.parseDouble(criteria.getConstraint())));
-            } else if (criteria.getComparison().equals(Comparison.EQ)) {
-                expr = new E_Equals(new ExprVar(variable.asNode()), new ExprVar(criteria.getConstraint()));
-            } else {
-                throw new IllegalStateException(criteria.getComparison() + " is not allowed on Numbers.");
-            }
-
-            if(expr != null) {
-                elementGroup.addElementFilter(new ElementFilter(expr));
-            }
+            throw new IllegalStateException(criteria.getComparison() + " is only allowed on Numbers.");
         }
     }
 }
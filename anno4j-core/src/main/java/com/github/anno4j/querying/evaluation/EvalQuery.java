@@ -9,7 +9,10 @@ import com.hp.hpl.jena.graph.Triple;
 import com.hp.hpl.jena.query.Query;
 import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.expr.ExprVar;
+import com.hp.hpl.jena.sparql.syntax.ElementBind;
 import com.hp.hpl.jena.sparql.syntax.ElementGroup;
+import com.hp.hpl.jena.sparql.syntax.ElementOptional;
 import com.hp.hpl.jena.vocabulary.RDF;
 import org.apache.marmotta.ldpath.backend.sesame.SesameValueBackend;
 import org.apache.marmotta.ldpath.parser.LdPathParser;
@@ -17,43 +20,116 @@ import org.apache.marmotta.ldpath.parser.ParseException;
 import org.openrdf.model.URI;
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class EvalQuery {
 
+    /**
+     * Variable of the queried objects.
+     */
+    public static final String ROOT_VARIABLE = "root";
+
+    /**
+     * Prefix of the variables the constraint values of the criteria are bound to.
+     */
+    public static final String PARAMETER_PREFIX = "constraint";
+
+    /**
+     * Prefix of the variables holding the values of projected LDPath expressions.
+     */
+    public static final String PROJECTION_PREFIX = "projection";
+
+    /**
+     * Creates the SPARQL query for the given criteria. The constraint values are not part of the query, each one is
+     * referenced by the variable {@link #getParameterName(int)} of the index of its criteria instead.
+     */
     public static <T extends ResourceObject> Query evaluate(QueryServiceConfiguration queryServiceDTO, URI rootType) throws ParseException {
+        return evaluate(queryServiceDTO, rootType, Collections.<String>emptyList());
+    }
+
+    /**
+     * Creates the SPARQL query for the given criteria, additionally selecting the values of the given LDPath
+     * expressions. The values of each expression are optional and bound to the variable
+     * {@link #getProjectionName(int)} of its index.
+     */
+    public static <T extends ResourceObject> Query evaluate(QueryServiceConfiguration queryServiceDTO, URI rootType, List<String> projections) throws ParseException {
 
         Query query = QueryFactory.make();
         query.setQuerySelectType();
 
         ElementGroup elementGroup = new ElementGroup();
 
-        Var objectVar = Var.alloc("root");
+        Var objectVar = Var.alloc(ROOT_VARIABLE);
+
+        // Variable names are only unique within this query
+        VarIDGenerator varIDGenerator = new VarIDGenerator();
 
         // Creating and adding the first triple - could be something like: "?objectVar rdf:type oa:Annotation
         Triple t1 = new Triple(objectVar, RDF.type.asNode(), NodeFactory.createURI(rootType.toString()));
         elementGroup.addTriplePattern(t1);
 
         // Evaluating the criteria
-        for (Criteria c : queryServiceDTO.getCriteria()) {
+        for (int i = 0; i < queryServiceDTO.getCriteria().size(); i++) {
+            Criteria c = queryServiceDTO.getCriteria().get(i);
             SesameValueBackend backend = new SesameValueBackend();
 
             LdPathParser parser = new LdPathParser(backend, queryServiceDTO.getConfiguration(), new StringReader(c.getLdpath()));
-            Var var = LDPathEvaluator.evaluate(parser.parseSelector(queryServiceDTO.getPrefixes()), elementGroup, objectVar, queryServiceDTO.getEvaluatorConfiguration());
+            Var var = LDPathEvaluator.evaluate(parser.parseSelector(queryServiceDTO.getPrefixes()), elementGroup, objectVar, queryServiceDTO.getEvaluatorConfiguration(), varIDGenerator);
 
             if (c.getConstraint() != null) {
-                EvalComparison.evaluate(elementGroup, c, var);
+                EvalComparison.evaluate(elementGroup, c, var, Var.alloc(getParameterName(i)));
             }
         }
 
+        // Evaluating the projections, which must not restrict the matching objects
+        List<Var> projectionVars = new ArrayList<>();
+        for (String projection : projections) {
+            ElementGroup optionalGroup = new ElementGroup();
+
+            LdPathParser parser = new LdPathParser(new SesameValueBackend(), queryServiceDTO.getConfiguration(), new StringReader(projection));
+            projectionVars.add(LDPathEvaluator.evaluate(parser.parseSelector(queryServiceDTO.getPrefixes()), optionalGroup, objectVar, queryServiceDTO.getEvaluatorConfiguration(), varIDGenerator));
+
+            if (!optionalGroup.isEmpty()) {
+                elementGroup.addElement(new ElementOptional(optionalGroup));
+            }
+        }
+
+        // Binding after all optional parts, so that the root variable is also available for projections
+        for (int i = 0; i < projectionVars.size(); i++) {
+            elementGroup.addElement(new ElementBind(Var.alloc(getProjectionName(i)), new ExprVar(projectionVars.get(i))));
+        }
+
         // Adding all generated patterns to the query object
         query.setQueryPattern(elementGroup);
 
         // Choose what we want so select - SELECT ?annotation in this case
         query.addResultVar(objectVar);
 
+        for (int i = 0; i < projectionVars.size(); i++) {
+            query.addResultVar(getProjectionName(i));
+        }
+
         // Setting the default prefixes, like rdf: or dc:
         query.getPrefixMapping().setNsPrefixes(queryServiceDTO.getPrefixes());
 
         return query;
     }
-}
\ No newline at end of file
+
+    /**
+     * @param index The index of a criteria in the query configuration.
+     * @return The name of the variable the constraint value of the criteria is bound to.
+     */
+    public static String getParameterName(int index) {
+        return PARAMETER_PREFIX + index;
+    }
+
+    /**
+     * @param index The index of a projected LDPath expression.
+     * @return The name of the variable holding the values of the expression.
+     */
+    public static String getProjectionName(int index) {
+        return PROJECTION_PREFIX + index;
+    }
+}
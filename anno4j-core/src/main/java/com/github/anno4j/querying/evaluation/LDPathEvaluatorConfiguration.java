@@ -1,5 +1,6 @@
 package com.github.anno4j.querying.evaluation;
 
+import com.github.anno4j.querying.QueryCache;
 import com.github.anno4j.querying.extension.QueryEvaluator;
 import com.github.anno4j.querying.extension.TestEvaluator;
 import com.hp.hpl.jena.graph.Node;
@@ -22,6 +23,11 @@ public class LDPathEvaluatorConfiguration {
 
     private Map<Class<? extends SelectorFunction>, Class<QueryEvaluator>> functionEvaluators;
 
+    /**
+     * Compiled queries of all QueryServices using these evaluators.
+     */
+    private QueryCache queryCache = new QueryCache();
+
     public Map<Class<? extends TestFunction>, Class<QueryEvaluator>> getTestFunctionEvaluators() {
         return testFunctionEvaluators;
     }
@@ -53,4 +59,12 @@ public class LDPathEvaluatorConfiguration {
     public void setFunctionEvaluators(Map<Class<? extends SelectorFunction>, Class<QueryEvaluator>> functionEvaluators) {
         this.functionEvaluators = functionEvaluators;
     }
+
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    public void setQueryCache(QueryCache queryCache) {
+        this.queryCache = queryCache;
+    }
 }
@@ -1,12 +1,14 @@
 package com.github.anno4j.querying.evaluation;
 
-import java.util.concurrent.atomic.AtomicLong;
-
+/**
+ * Creates the names of the variables of a single SPARQL query. Every query gets its own generator, so that the same
+ * criteria always result in the same variable names and therefore in the same query string.
+ */
 public class VarIDGenerator {
 
-    private static AtomicLong counter = new AtomicLong(0);
+    private long counter = 0;
 
-    public static String createID() {
-        return "var" + Math.abs(counter.incrementAndGet());
+    public String createID() {
+        return "var" + (++counter);
     }
 }
@@ -1,6 +1,7 @@
 package com.github.anno4j.querying.evaluation.ldpath;
 
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
+import com.github.anno4j.querying.evaluation.VarIDGenerator;
 import com.github.anno4j.querying.extension.TestEvaluator;
 import com.github.anno4j.annotations.Evaluator;
 import com.hp.hpl.jena.sparql.core.Var;
@@ -20,18 +21,18 @@ import org.apache.marmotta.ldpath.model.tests.AndTest;
 @Evaluator(AndTest.class)
 public class AndTestEvaluator implements TestEvaluator {
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         TestingSelector testingSelector = (TestingSelector) nodeSelector;
-        Var delVar = LDPathEvaluator.evaluate(testingSelector.getDelegate(), elementGroup, var, evaluatorConfiguration);
-        elementGroup.addElementFilter(new ElementFilter(evaluate(testingSelector.getTest(), elementGroup, delVar, evaluatorConfiguration)));
+        Var delVar = LDPathEvaluator.evaluate(testingSelector.getDelegate(), elementGroup, var, evaluatorConfiguration, varIDGenerator);
+        elementGroup.addElementFilter(new ElementFilter(evaluate(testingSelector.getTest(), elementGroup, delVar, evaluatorConfiguration, varIDGenerator)));
         return var;
     }
 
     @Override
-    public Expr evaluate(NodeTest nodeTest, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Expr evaluate(NodeTest nodeTest, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         AndTest andTest = (AndTest) nodeTest;
-        Expr expr1 = LDPathEvaluator.evaluate(andTest.getLeft(), elementGroup, var, evaluatorConfiguration);
-        Expr expr2 = LDPathEvaluator.evaluate(andTest.getRight(), elementGroup, var, evaluatorConfiguration);
+        Expr expr1 = LDPathEvaluator.evaluate(andTest.getLeft(), elementGroup, var, evaluatorConfiguration, varIDGenerator);
+        Expr expr2 = LDPathEvaluator.evaluate(andTest.getRight(), elementGroup, var, evaluatorConfiguration, varIDGenerator);
         return new E_LogicalAnd(expr1, expr2);
     }
 }
@@ -1,6 +1,7 @@
 package com.github.anno4j.querying.evaluation.ldpath;
 
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
+import com.github.anno4j.querying.evaluation.VarIDGenerator;
 import com.github.anno4j.querying.extension.QueryEvaluator;
 import com.github.anno4j.annotations.Evaluator;
 import com.hp.hpl.jena.sparql.core.Var;
@@ -16,10 +17,10 @@ import org.apache.marmotta.ldpath.model.selectors.GroupedSelector;
 public class GroupedSelectorEvaluator implements QueryEvaluator {
 
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         GroupedSelector groupedSelector = (GroupedSelector) nodeSelector;
         ElementGroup newGroup = new ElementGroup();
         elementGroup.addElement(newGroup);
-        return LDPathEvaluator.evaluate(groupedSelector.getContent(), newGroup, var, evaluatorConfiguration);
+        return LDPathEvaluator.evaluate(groupedSelector.getContent(), newGroup, var, evaluatorConfiguration, varIDGenerator);
     }
 }
@@ -27,10 +27,10 @@ public class IsATestEvaluator implements TestEvaluator {
 
 
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         TestingSelector testingSelector = (TestingSelector) nodeSelector;
         NodeTest nodeTest = testingSelector.getTest();
-        Var delVar = LDPathEvaluator.evaluate(testingSelector.getDelegate(), elementGroup, var, evaluatorConfiguration);
+        Var delVar = LDPathEvaluator.evaluate(testingSelector.getDelegate(), elementGroup, var, evaluatorConfiguration, varIDGenerator);
 
         IsATest isATest = (IsATest) nodeTest;
         elementGroup.addTriplePattern(new Triple(delVar.asNode(), RDF.type.asNode(), NodeFactory.createURI(isATest.getPathExpression(new SesameValueBackend()).replace("<", "").replace(">", "").replaceFirst("is-a ", ""))));
@@ -39,9 +39,9 @@ public class IsATestEvaluator implements TestEvaluator {
     }
 
     @Override
-    public Expr evaluate(NodeTest nodeTest, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Expr evaluate(NodeTest nodeTest, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         IsATest isATest = (IsATest) nodeTest;
-        Var tmpVar = Var.alloc(Var.alloc(VarIDGenerator.createID()));
+        Var tmpVar = Var.alloc(Var.alloc(varIDGenerator.createID()));
         elementGroup.addTriplePattern(new Triple(var.asNode(), RDF.type.asNode(), tmpVar.asNode()));
         return new E_Equals(new ExprVar(tmpVar.asNode()), new NodeValueNode(NodeFactory.createURI(isATest.getPathExpression(new SesameValueBackend()).replace("<", "").replace(">", "").replaceFirst("is-a ", ""))));
     }
@@ -23,7 +23,7 @@ import org.apache.marmotta.ldpath.model.tests.FunctionTest;
 public class IsLiteralTestEvaluator implements QueryEvaluator {
 
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         TestingSelector testingSelector = (TestingSelector) nodeSelector;
         FunctionTest functionTest = (FunctionTest) testingSelector.getTest();
 
@@ -31,10 +31,10 @@ public class IsLiteralTestEvaluator implements QueryEvaluator {
             PropertySelector arg = (PropertySelector) functionTest.getArgSelectors().get(0);
             PropertySelector delegate = (PropertySelector) testingSelector.getDelegate();
 
-            Var target = Var.alloc(VarIDGenerator.createID());
+            Var target = Var.alloc(varIDGenerator.createID());
             elementGroup.addTriplePattern(new Triple(var.asNode(), NodeFactory.createURI(delegate.getProperty().toString()), target));
 
-            Var selector = Var.alloc(VarIDGenerator.createID());
+            Var selector = Var.alloc(varIDGenerator.createID());
             elementGroup.addTriplePattern(new Triple(target.asNode(), NodeFactory.createURI(arg.getProperty().toString()), selector.asNode()));
 
             elementGroup.addElementFilter(new ElementFilter(new E_IsLiteral(new ExprVar(selector))));
@@ -1,6 +1,7 @@
 package com.github.anno4j.querying.evaluation.ldpath;
 
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
+import com.github.anno4j.querying.evaluation.VarIDGenerator;
 import com.github.anno4j.querying.extension.QueryEvaluator;
 import com.github.anno4j.querying.extension.TestEvaluator;
 import com.hp.hpl.jena.sparql.core.Var;
@@ -34,10 +35,12 @@ public class LDPathEvaluator {
      * @param nodeSelector The current NodeSelector of the LDPath
      * @param elementGroup ElementGroup containing the actual query parts
      * @param variable     The latest created variable
+     * @param evaluatorConfiguration The evaluators to use for the particular parts
+     * @param varIDGenerator Creates the names of new variables of the current query
      * @return the latest referenced variable
      * @see <a href="https://jena.apache.org/documentation/query/">https://jena.apache.org/documentation/query/</a>
      */
-    public static Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var variable, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public static Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var variable, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
 
         Map<Class<? extends NodeSelector>, Class<QueryEvaluator>> defaultEvaluators = evaluatorConfiguration.getDefaultEvaluators();
         Map<Class<? extends TestFunction>, Class<QueryEvaluator>> testFunctionEvaluators = evaluatorConfiguration.getTestFunctionEvaluators();
@@ -46,7 +49,7 @@ public class LDPathEvaluator {
 
         try {
             if (defaultEvaluators.containsKey(nodeSelector.getClass())) {
-                return defaultEvaluators.get(nodeSelector.getClass()).newInstance().evaluate(nodeSelector, elementGroup, variable, evaluatorConfiguration);
+                return defaultEvaluators.get(nodeSelector.getClass()).newInstance().evaluate(nodeSelector, elementGroup, variable, evaluatorConfiguration, varIDGenerator);
             } else if (nodeSelector instanceof TestingSelector) {
                 TestingSelector testingSelector = (TestingSelector) nodeSelector;
 
@@ -54,7 +57,7 @@ public class LDPathEvaluator {
                     FunctionTest functionTest = (FunctionTest) testingSelector.getTest();
 
                     if (testFunctionEvaluators.containsKey(functionTest.getTest().getClass())) {
-                        return testFunctionEvaluators.get(functionTest.getTest().getClass()).newInstance().evaluate(nodeSelector, elementGroup, variable, evaluatorConfiguration);
+                        return testFunctionEvaluators.get(functionTest.getTest().getClass()).newInstance().evaluate(nodeSelector, elementGroup, variable, evaluatorConfiguration, varIDGenerator);
                     } else {
                         throw new IllegalStateException("No FunctionTest evaluator for " + functionTest.getClass().getCanonicalName());
                     }
@@ -62,7 +65,7 @@ public class LDPathEvaluator {
                     NodeTest nodeTest = testingSelector.getTest();
 
                     if (testEvaluators.containsKey(nodeTest.getClass())) {
-                        return testEvaluators.get(nodeTest.getClass()).newInstance().evaluate(nodeSelector, elementGroup, variable, evaluatorConfiguration);
+                        return testEvaluators.get(nodeTest.getClass()).newInstance().evaluate(nodeSelector, elementGroup, variable, evaluatorConfiguration, varIDGenerator);
                     } else {
                         throw new IllegalStateException("No NodeTest evaluator for " + nodeTest.getClass().getCanonicalName());
                     }
@@ -71,7 +74,7 @@ public class LDPathEvaluator {
                 FunctionSelector functionSelector = (FunctionSelector) nodeSelector;
 
                 if (functionEvaluators.containsKey(functionSelector.getFunction().getClass())) {
-                    return functionEvaluators.get(functionSelector.getFunction().getClass()).newInstance().evaluate(nodeSelector, elementGroup, variable, evaluatorConfiguration);
+                    return functionEvaluators.get(functionSelector.getFunction().getClass()).newInstance().evaluate(nodeSelector, elementGroup, variable, evaluatorConfiguration, varIDGenerator);
                 } else {
                     throw new IllegalStateException("No Function evaluator found for " + functionSelector.getClass().getCanonicalName());
                 }
@@ -84,13 +87,13 @@ public class LDPathEvaluator {
         }
     }
 
-    public static Expr evaluate(NodeTest nodeTest, ElementGroup elementGroup, Var variable, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public static Expr evaluate(NodeTest nodeTest, ElementGroup elementGroup, Var variable, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
 
         Map<Class<? extends NodeTest>, Class<TestEvaluator>> testEvaluators = evaluatorConfiguration.getTestEvaluators();
 
         try {
             if (testEvaluators.containsKey(nodeTest.getClass())) {
-                return testEvaluators.get(nodeTest.getClass()).newInstance().evaluate(nodeTest, elementGroup, variable, evaluatorConfiguration);
+                return testEvaluators.get(nodeTest.getClass()).newInstance().evaluate(nodeTest, elementGroup, variable, evaluatorConfiguration, varIDGenerator);
             } else {
                 throw new IllegalStateException("No NodeTest evaluator found for " + nodeTest.getClass().getCanonicalName());
             }
@@ -1,6 +1,7 @@
 package com.github.anno4j.querying.evaluation.ldpath;
 
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
+import com.github.anno4j.querying.evaluation.VarIDGenerator;
 import com.github.anno4j.querying.extension.TestEvaluator;
 import com.github.anno4j.annotations.Evaluator;
 import com.hp.hpl.jena.sparql.core.Var;
@@ -19,17 +20,17 @@ import org.apache.marmotta.ldpath.model.tests.LiteralTypeTest;
 @Evaluator(LiteralTypeTest.class)
 public class LiteralTypeTestEvaluator implements TestEvaluator {
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         TestingSelector testingSelector = (TestingSelector) nodeSelector;
         NodeTest nodeTest = testingSelector.getTest();
-        Var delVar = LDPathEvaluator.evaluate(testingSelector.getDelegate(), elementGroup, var, evaluatorConfiguration);
+        Var delVar = LDPathEvaluator.evaluate(testingSelector.getDelegate(), elementGroup, var, evaluatorConfiguration, varIDGenerator);
 
-        elementGroup.addElementFilter(new ElementFilter(evaluate(nodeTest, elementGroup, delVar, evaluatorConfiguration)));
+        elementGroup.addElementFilter(new ElementFilter(evaluate(nodeTest, elementGroup, delVar, evaluatorConfiguration, varIDGenerator)));
         return delVar;
     }
 
     @Override
-    public Expr evaluate(NodeTest nodeTest, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Expr evaluate(NodeTest nodeTest, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         LiteralTypeTest literalTypeTest = (LiteralTypeTest) nodeTest;
         return new E_Equals(new E_Datatype(new ExprVar(var)), new E_URI(new NodeValueString(literalTypeTest.getTypeUri().toString())));
     }
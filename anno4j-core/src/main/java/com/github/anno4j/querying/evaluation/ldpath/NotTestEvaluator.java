@@ -2,6 +2,7 @@ package com.github.anno4j.querying.evaluation.ldpath;
 
 import com.github.anno4j.annotations.Evaluator;
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
+import com.github.anno4j.querying.evaluation.VarIDGenerator;
 import com.github.anno4j.querying.extension.TestEvaluator;
 import com.hp.hpl.jena.sparql.core.Var;
 import com.hp.hpl.jena.sparql.expr.Expr;
@@ -22,16 +23,16 @@ import java.util.Collection;
 public class NotTestEvaluator implements TestEvaluator {
 
     @Override
-    public Expr evaluate(NodeTest nodeTest, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Expr evaluate(NodeTest nodeTest, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         NotTest notTest = (NotTest) nodeTest;
-        return new E_LogicalNot(LDPathEvaluator.evaluate(notTest.getDelegate(), elementGroup, var, evaluatorConfiguration));
+        return new E_LogicalNot(LDPathEvaluator.evaluate(notTest.getDelegate(), elementGroup, var, evaluatorConfiguration, varIDGenerator));
     }
 
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         TestingSelector testingSelector = (TestingSelector) nodeSelector;
-        Var delVar = LDPathEvaluator.evaluate(testingSelector.getDelegate(), elementGroup, var, evaluatorConfiguration);
-        elementGroup.addElementFilter(new ElementFilter(evaluate(testingSelector.getTest(), elementGroup, delVar, evaluatorConfiguration)));
+        Var delVar = LDPathEvaluator.evaluate(testingSelector.getDelegate(), elementGroup, var, evaluatorConfiguration, varIDGenerator);
+        elementGroup.addElementFilter(new ElementFilter(evaluate(testingSelector.getTest(), elementGroup, delVar, evaluatorConfiguration, varIDGenerator)));
         return delVar;
     }
 }
@@ -1,6 +1,7 @@
 package com.github.anno4j.querying.evaluation.ldpath;
 
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
+import com.github.anno4j.querying.evaluation.VarIDGenerator;
 import com.github.anno4j.querying.extension.QueryEvaluator;
 import com.github.anno4j.annotations.Evaluator;
 import com.hp.hpl.jena.sparql.core.Var;
@@ -12,9 +13,9 @@ import org.apache.marmotta.ldpath.model.selectors.PathSelector;
 public class PathSelectorEvaluator implements QueryEvaluator {
 
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         PathSelector pathSelector = (PathSelector) nodeSelector;
-        Var leftVar = LDPathEvaluator.evaluate(pathSelector.getLeft(), elementGroup, var, evaluatorConfiguration);
-        return LDPathEvaluator.evaluate(pathSelector.getRight(), elementGroup, leftVar, evaluatorConfiguration);
+        Var leftVar = LDPathEvaluator.evaluate(pathSelector.getLeft(), elementGroup, var, evaluatorConfiguration, varIDGenerator);
+        return LDPathEvaluator.evaluate(pathSelector.getRight(), elementGroup, leftVar, evaluatorConfiguration, varIDGenerator);
     }
 }
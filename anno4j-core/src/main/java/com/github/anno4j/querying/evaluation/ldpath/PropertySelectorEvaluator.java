@@ -16,13 +16,13 @@ import org.apache.marmotta.ldpath.model.selectors.WildcardSelector;
 public class PropertySelectorEvaluator implements QueryEvaluator {
 
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         PropertySelector propertySelector = (PropertySelector) nodeSelector;
         if (propertySelector instanceof WildcardSelector) {
             throw new IllegalStateException(propertySelector.getClass() + " is not supported.");
         }
 
-        Var id = Var.alloc(VarIDGenerator.createID());
+        Var id = Var.alloc(varIDGenerator.createID());
         elementGroup.addTriplePattern(new Triple(var.asNode(), NodeFactory.createURI(propertySelector.getProperty().toString()), id.asNode()));
 
         return id;
@@ -20,10 +20,10 @@ import org.apache.marmotta.ldpath.model.selectors.RecursivePathSelector;
 public class RecursivePathSelectorEvaluator implements QueryEvaluator {
 
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         RecursivePathSelector recursivePathSelector = (RecursivePathSelector) nodeSelector;
 
-        Var id = Var.alloc(VarIDGenerator.createID());
+        Var id = Var.alloc(varIDGenerator.createID());
         ElementPathBlock epb = new ElementPathBlock();
         String pathExpression = recursivePathSelector.getPathExpression(new SesameValueBackend());
         /**
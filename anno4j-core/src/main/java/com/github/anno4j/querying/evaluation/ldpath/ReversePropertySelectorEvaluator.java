@@ -21,9 +21,9 @@ import org.apache.marmotta.ldpath.model.selectors.ReversePropertySelector;
 public class ReversePropertySelectorEvaluator implements QueryEvaluator {
 
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         ReversePropertySelector reversePropertySelector = (ReversePropertySelector) nodeSelector;
-        Var id = Var.alloc(VarIDGenerator.createID());
+        Var id = Var.alloc(varIDGenerator.createID());
         ElementPathBlock epb = new ElementPathBlock();
         epb.addTriple(new TriplePath(var.asNode(), new P_Inverse(new P_Link(NodeFactory.createURI(reversePropertySelector.getProperty().toString()))), id.asNode()));
         ElementGroup group = new ElementGroup();
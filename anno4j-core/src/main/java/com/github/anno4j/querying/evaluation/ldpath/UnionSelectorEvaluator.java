@@ -18,7 +18,7 @@ import org.apache.marmotta.ldpath.model.selectors.UnionSelector;
 public class UnionSelectorEvaluator implements QueryEvaluator {
 
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         UnionSelector unionSelector = (UnionSelector) nodeSelector;
 
         NodeSelector nodeSelectorLeft = unionSelector.getLeft();
@@ -27,10 +27,10 @@ public class UnionSelectorEvaluator implements QueryEvaluator {
         ElementGroup leftGroup = new ElementGroup();
         ElementGroup rightGroup = new ElementGroup();
 
-        Var leftVar = LDPathEvaluator.evaluate(nodeSelectorLeft, leftGroup, var, evaluatorConfiguration);
-        Var rightVar = LDPathEvaluator.evaluate(nodeSelectorRight, rightGroup, var, evaluatorConfiguration);
+        Var leftVar = LDPathEvaluator.evaluate(nodeSelectorLeft, leftGroup, var, evaluatorConfiguration, varIDGenerator);
+        Var rightVar = LDPathEvaluator.evaluate(nodeSelectorRight, rightGroup, var, evaluatorConfiguration, varIDGenerator);
 
-        Var subVar = Var.alloc(VarIDGenerator.createID());
+        Var subVar = Var.alloc(varIDGenerator.createID());
 
         Query leftSubQuery = new Query();
         leftGroup.addElement(new ElementBind(subVar, new NodeValueNode(leftVar.asNode())));
@@ -1,6 +1,7 @@
 package com.github.anno4j.querying.extension;
 
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
+import com.github.anno4j.querying.evaluation.VarIDGenerator;
 import com.hp.hpl.jena.sparql.core.Var;
 import com.hp.hpl.jena.sparql.syntax.ElementGroup;
 import org.apache.marmotta.ldpath.api.functions.TestFunction;
@@ -10,5 +11,5 @@ import org.apache.marmotta.ldpath.api.tests.NodeTest;
 import java.util.Map;
 
 public interface QueryEvaluator {
-    Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration);
+    Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator);
 }
@@ -0,0 +1,101 @@
+package com.github.anno4j.alibaba;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.annotations.Evaluator;
+import com.github.anno4j.annotations.Partial;
+import com.github.anno4j.model.Annotation;
+import org.junit.After;
+import org.junit.Test;
+import org.openrdf.annotations.Iri;
+import org.openrdf.repository.object.managers.helpers.AnnotationIndex;
+import org.reflections.Reflections;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the compile time index of annotated classes against a classpath scan.
+ */
+public class AnnotationIndexTest {
+
+    private static final int STARTUPS = 5;
+
+    @After
+    public void tearDown() {
+        System.clearProperty(AnnotationIndex.SCAN_PROPERTY);
+    }
+
+    @Test
+    public void testIndexListsScannedClasses() throws Exception {
+        AnnotationIndex index = AnnotationIndex.load(getClass().getClassLoader());
+        assertNotNull(index);
+
+        Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .setUrls(ClasspathHelper.forClassLoader(getClass().getClassLoader()))
+                .filterInputsBy(FilterBuilder.parsePackages("+com.github.anno4j"))
+                .setScanners(new SubTypesScanner(), new TypeAnnotationsScanner()));
+
+        assertEquals(anno4jClasses(reflections.getTypesAnnotatedWith(Partial.class, true)),
+                anno4jClasses(index.getTypesAnnotatedWith(Partial.class)));
+        assertEquals(anno4jClasses(reflections.getTypesAnnotatedWith(Evaluator.class, true)),
+                anno4jClasses(index.getTypesAnnotatedWith(Evaluator.class)));
+        assertTrue(index.getTypesAnnotatedWith(Iri.class).contains(Annotation.class));
+    }
+
+    @Test
+    public void testScanCanBeEnforced() throws Exception {
+        Set<Class<?>> indexed = AnnotationIndex.load(getClass().getClassLoader()).getTypesAnnotatedWith(Partial.class);
+
+        System.setProperty(AnnotationIndex.SCAN_PROPERTY, "true");
+        AnnotationIndex index = AnnotationIndex.load(getClass().getClassLoader());
+
+        assertFalse(index.getUnindexedRoots().isEmpty());
+        assertFalse(indexed.isEmpty());
+        assertEquals(anno4jClasses(indexed), anno4jClasses(index.getTypesAnnotatedWith(Partial.class)));
+    }
+
+    /**
+     * Starting Anno4j with the index is faster than with a classpath scan, which reads every class of the classpath in
+     * addition. The first start is not measured, as it loads the classes of Anno4j.
+     */
+    @Test
+    public void benchmarkStartupWithIndexAgainstScan() throws Exception {
+        new Anno4j().createObject(Annotation.class);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < STARTUPS; i++) {
+            new Anno4j().createObject(Annotation.class);
+        }
+        long indexTime = System.nanoTime() - start;
+
+        System.setProperty(AnnotationIndex.SCAN_PROPERTY, "true");
+        start = System.nanoTime();
+        for (int i = 0; i < STARTUPS; i++) {
+            new Anno4j().createObject(Annotation.class);
+        }
+        long scanTime = System.nanoTime() - start;
+
+        assertTrue("Starting Anno4j took " + indexTime / STARTUPS / 1000000 + " ms with the annotation index, "
+                + scanTime / STARTUPS / 1000000 + " ms with a classpath scan", indexTime < scanTime);
+    }
+
+    private Set<String> anno4jClasses(Set<Class<?>> classes) {
+        Set<String> names = new HashSet<>();
+        for (Class<?> clazz : classes) {
+            if (clazz.getName().startsWith("com.github.anno4j")) {
+                names.add(clazz.getName());
+            }
+        }
+        return names;
+    }
+}
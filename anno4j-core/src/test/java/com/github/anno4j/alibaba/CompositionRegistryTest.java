@@ -0,0 +1,56 @@
+package com.github.anno4j.alibaba;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.CompositionRegistry;
+import com.github.anno4j.model.Annotation;
+import org.junit.Test;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests sharing the composed classes between Anno4j instances of different repositories.
+ */
+public class CompositionRegistryTest {
+
+    @Test
+    public void testSharedClasses() throws Exception {
+        CompositionRegistry registry = CompositionRegistry.create();
+        Anno4j tenant1 = new Anno4j(registry, new SailRepository(new MemoryStore()));
+        Anno4j tenant2 = new Anno4j(registry, new SailRepository(new MemoryStore()));
+
+        Annotation annotation1 = tenant1.createObject(Annotation.class);
+        Annotation annotation2 = tenant2.createObject(Annotation.class);
+
+        assertSame(registry, tenant2.getCompositionRegistry());
+        assertSame(annotation1.getClass(), annotation2.getClass());
+        assertNotSame(tenant1.getObjectRepository(), tenant2.getObjectRepository());
+    }
+
+    @Test
+    public void testSeparateRepositories() throws Exception {
+        CompositionRegistry registry = CompositionRegistry.create();
+        Anno4j tenant1 = new Anno4j(registry, new SailRepository(new MemoryStore()));
+        Anno4j tenant2 = new Anno4j(registry, new SailRepository(new MemoryStore()));
+
+        Annotation annotation = tenant1.createObject(Annotation.class);
+        List<Annotation> found = tenant1.findAll(Annotation.class);
+
+        assertEquals(1, found.size());
+        assertEquals(annotation.getResourceAsString(), found.get(0).getResourceAsString());
+        assertEquals(0, tenant2.findAll(Annotation.class).size());
+    }
+
+    @Test
+    public void testUnsharedClasses() throws Exception {
+        Anno4j first = new Anno4j();
+        Anno4j second = new Anno4j();
+
+        assertNotSame(first.createObject(Annotation.class).getClass(), second.createObject(Annotation.class).getClass());
+    }
+}
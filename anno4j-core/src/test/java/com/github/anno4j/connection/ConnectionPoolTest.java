@@ -0,0 +1,217 @@
+package com.github.anno4j.connection;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.model.Annotation;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.object.ObjectCache;
+import org.openrdf.repository.object.ObjectConnection;
+
+import static org.junit.Assert.*;
+
+public class ConnectionPoolTest {
+
+    private Anno4j anno4j;
+    private URI subgraph = new URIImpl("http://www.example.com/TESTGRAPH");
+
+    @Before
+    public void setUp() throws Exception {
+        this.anno4j = new Anno4j();
+        this.anno4j.setConnectionPoolSize(2);
+    }
+
+    @Test
+    public void testConnectionsAreReused() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            Annotation annotation = anno4j.createObject(Annotation.class);
+            assertEquals(annotation.getResource(), anno4j.findByID(Annotation.class, annotation.getResourceAsString()).getResource());
+        }
+        assertEquals(100, anno4j.findAll(Annotation.class).size());
+
+        ConnectionPool pool = anno4j.getConnectionPool();
+        assertTrue(pool.getMetrics().getCreatedCount() <= pool.getSize());
+        assertEquals(1, pool.getPinnedCount());
+        assertEquals(0, pool.getMetrics().getEvictedCount());
+    }
+
+    @Test
+    public void testPersistLeasesConnections() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        for (int i = 0; i < 100; i++) {
+            anno4j.persist(annotation);
+        }
+        assertEquals(1, anno4j.findAll(Annotation.class).size());
+
+        ConnectionPoolMetrics metrics = anno4j.getConnectionPool().getMetrics();
+        assertEquals(0, metrics.getActiveCount());
+        assertEquals(100, metrics.getLeaseCount());
+        // The pinned connection of the thread and one pooled connection:
+        assertEquals(2, metrics.getCreatedCount());
+    }
+
+    @Test
+    public void testObjectCacheAppliesToOpenConnections() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        ObjectConnection pinned = annotation.getObjectConnection();
+
+        ObjectCache cache = new ObjectCache();
+        anno4j.setObjectCache(cache);
+
+        assertSame(cache, pinned.getObjectCache());
+        assertSame(pinned, anno4j.createObject(Annotation.class).getObjectConnection());
+        pinned.getObject(new URIImpl("http://www.example.com/UNCACHED"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getCachedCount());
+    }
+
+    @Test
+    public void testPinnedConnectionsAreBounded() throws Exception {
+        ConnectionPool pool = anno4j.getConnectionPool();
+        Annotation first = anno4j.createObject(Annotation.class, new URIImpl("http://www.example.com/GRAPH0"));
+        for (int i = 1; i < 3; i++) {
+            anno4j.createObject(Annotation.class, new URIImpl("http://www.example.com/GRAPH" + i));
+        }
+
+        assertEquals(2, pool.getPinnedCount());
+        assertEquals(1, pool.getMetrics().getEvictedCount());
+        // The least recently used pinned connection was closed:
+        assertFalse(first.getObjectConnection().isOpen());
+    }
+
+    @Test
+    public void testThreadsHaveOwnPinnedConnections() throws Exception {
+        final Annotation[] other = new Annotation[1];
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    other[0] = anno4j.createObject(Annotation.class);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        thread.start();
+        thread.join();
+        Annotation annotation = anno4j.createObject(Annotation.class);
+
+        assertNotSame(other[0].getObjectConnection(), annotation.getObjectConnection());
+        assertSame(annotation.getObjectConnection(), anno4j.findByID(Annotation.class, other[0].getResourceAsString()).getObjectConnection());
+        assertEquals(2, anno4j.getConnectionPool().getPinnedCount());
+    }
+
+    @Test
+    public void testContextsAreSeparated() throws Exception {
+        ConnectionPool pool = anno4j.getConnectionPool();
+        pool.release(pool.acquire(subgraph));
+        pool.release(pool.acquire(null));
+        pool.release(pool.acquire(subgraph));
+        assertEquals(2, pool.getMetrics().getCreatedCount());
+
+        anno4j.createObject(Annotation.class, subgraph);
+        anno4j.createObject(Annotation.class, (URI) null);
+
+        assertEquals(1, anno4j.findAll(Annotation.class, subgraph).size());
+        assertEquals(2, anno4j.findAll(Annotation.class).size());
+    }
+
+    @Test
+    public void testIdleConnectionsAreEvicted() throws Exception {
+        ConnectionPool pool = anno4j.getConnectionPool();
+        for (int i = 0; i < 3; i++) {
+            pool.release(pool.acquire(new URIImpl("http://www.example.com/GRAPH" + i)));
+        }
+
+        ConnectionPoolMetrics metrics = pool.getMetrics();
+        assertEquals(3, metrics.getCreatedCount());
+        assertEquals(1, metrics.getEvictedCount());
+    }
+
+    @Test
+    public void testLoadedObjectsOutliveTheirLease() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        annotation.setCreated("2015-01-28T12:00:00Z");
+
+        Annotation loaded = anno4j.findByID(Annotation.class, annotation.getResourceAsString());
+        assertEquals("2015-01-28T12:00:00Z", loaded.getCreated());
+    }
+
+    @Test
+    public void testLoadedObjectsOutliveEviction() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        Annotation loaded = anno4j.findByID(Annotation.class, annotation.getResourceAsString());
+
+        ConnectionPool pool = anno4j.getConnectionPool();
+        for (int i = 0; i < 3; i++) {
+            pool.release(pool.acquire(new URIImpl("http://www.example.com/GRAPH" + i)));
+        }
+        assertEquals(1, pool.getMetrics().getEvictedCount());
+        anno4j.setConnectionPoolSize(4);
+
+        loaded.setCreated("2015-01-28T12:00:00Z");
+        assertEquals("2015-01-28T12:00:00Z", annotation.getCreated());
+        assertTrue(loaded.getObjectConnection().isOpen());
+    }
+
+    @Test
+    public void testReadsValuesChangedByOtherConnections() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        annotation.setCreated("2015-01-28T12:00:00Z");
+
+        Annotation loaded = anno4j.findByID(Annotation.class, annotation.getResourceAsString());
+        assertEquals("2015-01-28T12:00:00Z", loaded.getCreated());
+
+        annotation.setCreated("2016-01-28T12:00:00Z");
+        assertEquals("2016-01-28T12:00:00Z", anno4j.findByID(Annotation.class, annotation.getResourceAsString()).getCreated());
+    }
+
+    @Test
+    public void testReleaseDropsCachedObjects() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        annotation.setCreated("2015-01-28T12:00:00Z");
+        ConnectionPool pool = anno4j.getConnectionPool();
+
+        ObjectConnection connection = pool.acquire(null);
+        Annotation first = connection.getObject(Annotation.class, annotation.getResource());
+        assertEquals("2015-01-28T12:00:00Z", first.getCreated());
+        pool.release(connection);
+
+        annotation.setCreated("2016-01-28T12:00:00Z");
+
+        assertSame(connection, pool.acquire(null));
+        Annotation second = connection.getObject(Annotation.class, annotation.getResource());
+        assertNotSame(first, second);
+        assertEquals("2016-01-28T12:00:00Z", second.getCreated());
+        pool.release(connection);
+    }
+
+    @Test
+    public void testCloseClosesPinnedConnections() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        assertEquals(1, anno4j.getConnectionPool().getPinnedCount());
+
+        anno4j.close();
+
+        assertEquals(0, anno4j.getConnectionPool().getPinnedCount());
+        assertFalse(annotation.getObjectConnection().isOpen());
+    }
+
+    @Test
+    public void testReleaseRollsBackOpenTransactions() throws Exception {
+        ConnectionPool pool = anno4j.getConnectionPool();
+
+        ObjectConnection connection = pool.acquire(null);
+        connection.begin();
+        connection.addDesignation(connection.getObjectFactory().createObject("urn:anno4j:uncommitted", Annotation.class), Annotation.class);
+        pool.release(connection);
+
+        assertEquals(0, anno4j.findAll(Annotation.class).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReleaseForeignConnection() throws Exception {
+        anno4j.getConnectionPool().release(anno4j.getObjectRepository().getConnection());
+    }
+}
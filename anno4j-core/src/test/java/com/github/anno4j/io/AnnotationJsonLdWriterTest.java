@@ -0,0 +1,261 @@
+package com.github.anno4j.io;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.model.Annotation;
+import com.github.anno4j.model.MotivationFactory;
+import com.github.anno4j.model.impl.agent.Person;
+import com.github.anno4j.model.impl.selector.FragmentSelector;
+import com.github.anno4j.model.impl.targets.SpecificResource;
+import com.github.anno4j.model.namespaces.AS;
+import com.github.anno4j.model.namespaces.OADM;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.BNode;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.ValueFactoryImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.result.Result;
+import org.openrdf.rio.RDFFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testsuite testing the {@link AnnotationJsonLdWriter} class.
+ */
+public class AnnotationJsonLdWriterTest {
+
+    private static final int ANNOTATIONS = 1000;
+
+    /**
+     * Upper bound for serializing {@link #ANNOTATIONS} annotations, far above the expected time so that slow build
+     * machines do not fail, but low enough to catch serializations that grow with the size of the repository.
+     */
+    private static final long MAX_MILLIS = 30000;
+
+    /**
+     * The number of annotations per second written from statements in memory.
+     */
+    private static final int TARGET_THROUGHPUT = 10000;
+
+    private Anno4j anno4j;
+
+    @Before
+    public void setUp() throws Exception {
+        anno4j = new Anno4j();
+    }
+
+    @Test
+    public void testCompactedAndFramed() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        annotation.addMotivation(MotivationFactory.getCommenting(anno4j));
+
+        Person person = anno4j.createObject(Person.class);
+        person.setName("Person");
+        annotation.setCreator(person);
+
+        FragmentSelector selector = anno4j.createObject(FragmentSelector.class);
+        selector.setValue("xywh=0,0,10,10");
+        SpecificResource target = anno4j.createObject(SpecificResource.class);
+        target.setSelector(selector);
+        annotation.addTarget(target);
+
+        JsonObject json = write(annotation);
+
+        assertEquals(JsonLdContext.ANNOTATION_CONTEXT_IRI, json.get("@context").getAsString());
+        assertEquals(annotation.getResourceAsString(), json.get("id").getAsString());
+        assertTrue(typesOf(json).contains("\"Annotation\""));
+        assertEquals("commenting", json.get("motivation").getAsString());
+
+        JsonObject creator = json.getAsJsonObject("creator");
+        assertTrue(typesOf(creator).contains("\"Person\""));
+        assertEquals("Person", creator.get("name").getAsString());
+
+        JsonObject embeddedTarget = json.getAsJsonObject("target");
+        assertEquals(target.getResourceAsString(), embeddedTarget.get("id").getAsString());
+        JsonObject embeddedSelector = embeddedTarget.getAsJsonObject("selector");
+        assertTrue(typesOf(embeddedSelector).contains("\"FragmentSelector\""));
+        assertEquals("xywh=0,0,10,10", embeddedSelector.get("value").getAsString());
+    }
+
+    @Test
+    public void testNodesAreEmbeddedOnce() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        Person person = anno4j.createObject(Person.class);
+        annotation.setCreator(person);
+
+        SpecificResource target = anno4j.createObject(SpecificResource.class);
+        target.setSource(person);
+        annotation.addTarget(target);
+
+        JsonObject json = write(annotation);
+
+        String creator = json.get("creator").isJsonObject()
+                ? json.getAsJsonObject("creator").get("id").getAsString()
+                : json.get("creator").getAsString();
+        assertEquals(person.getResourceAsString(), creator);
+        // Only one of the references embeds the person:
+        assertTrue(json.get("creator").isJsonObject() != json.getAsJsonObject("target").get("source").isJsonObject());
+    }
+
+    @Test
+    public void testContextIsCached() {
+        assertTrue(JsonLdContext.getAnnotationContext() == JsonLdContext.getAnnotationContext());
+        assertEquals("oa:hasBody", JsonLdContext.getAnnotationContext().compactIri("http://www.w3.org/ns/oa#hasBody", false));
+        assertEquals("TextualBody", JsonLdContext.getAnnotationContext().compactIri("http://www.w3.org/ns/oa#TextualBody", true));
+        assertFalse(JsonLdContext.getAnnotationContext().getTerms("http://www.w3.org/ns/oa#hasBody").isEmpty());
+    }
+
+    @Test
+    public void testListsOfOneProperty() throws Exception {
+        ValueFactory factory = ValueFactoryImpl.getInstance();
+        URI page = factory.createURI("http://www.example.com/ns#page");
+        URI items = factory.createURI(AS.ITEMS);
+        List<Statement> statements = new ArrayList<>();
+        statements.add(factory.createStatement(page, items, list(statements, "a", "b")));
+
+        JsonObject json = write(page, statements);
+        assertEquals("[\"http://www.example.com/ns#a\",\"http://www.example.com/ns#b\"]", json.get("items").toString());
+
+        statements.add(factory.createStatement(page, items, list(statements, "c")));
+
+        json = write(page, statements);
+        // The items term holds a single list, so both lists are written as list objects:
+        assertFalse(json.has("items"));
+        JsonArray lists = json.getAsJsonArray("as:items");
+        assertEquals(2, lists.size());
+        String written = lists.toString();
+        assertTrue(written.contains("{\"@list\":[{\"id\":\"http://www.example.com/ns#a\"},{\"id\":\"http://www.example.com/ns#b\"}]}"));
+        assertTrue(written.contains("{\"@list\":[{\"id\":\"http://www.example.com/ns#c\"}]}"));
+    }
+
+    /**
+     * Serializes many annotations, including the queries reading each annotation, within {@link #MAX_MILLIS}. The
+     * throughput of the serialization alone is tested by {@link #testThroughput()}, as the time of the queries depends
+     * on the store.
+     */
+    @Test
+    public void testManyAnnotations() throws Exception {
+        StringBuilder turtle = new StringBuilder("@prefix oa: <http://www.w3.org/ns/oa#> ." +
+                "@prefix ex: <http://www.example.com/ns#> .");
+        for (int i = 0; i < ANNOTATIONS; i++) {
+            turtle.append("ex:anno").append(i).append(" a oa:Annotation ;")
+                    .append(" oa:motivatedBy oa:commenting ;")
+                    .append(" oa:hasBody [ a oa:TextualBody ; <http://www.w3.org/1999/02/22-rdf-syntax-ns#value> \"body ")
+                    .append(i).append("\" ] ;")
+                    .append(" oa:hasTarget [ a oa:SpecificResource ; oa:hasSource ex:source").append(i)
+                    .append(" ; oa:hasSelector [ a oa:FragmentSelector ; <http://www.w3.org/1999/02/22-rdf-syntax-ns#value> \"t=")
+                    .append(i).append("\" ] ] .");
+        }
+        ImportResult imported = new BulkImporter(anno4j).importFrom(new StringReader(turtle.toString()), "", RDFFormat.TURTLE);
+
+        AnnotationJsonLdWriter writer = new AnnotationJsonLdWriter();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long start = System.nanoTime();
+        int count = 0;
+        Result<Annotation> annotations = imported.getAnnotations();
+        while (annotations.hasNext()) {
+            out.reset();
+            writer.write(annotations.next(), out);
+            count++;
+        }
+        long millis = (System.nanoTime() - start) / 1000000;
+
+        assertEquals(ANNOTATIONS, count);
+        assertTrue(out.toString("UTF-8").contains("\"motivation\":\"commenting\""));
+        assertTrue("Serialization took " + millis + " ms", millis < MAX_MILLIS);
+    }
+
+    /**
+     * Writes {@link #TARGET_THROUGHPUT} annotations from statements in memory within a second, after a first round
+     * for the JIT compiler.
+     */
+    @Test
+    public void testThroughput() throws Exception {
+        ValueFactory factory = ValueFactoryImpl.getInstance();
+        URI value = factory.createURI("http://www.w3.org/1999/02/22-rdf-syntax-ns#value");
+        List<Resource> roots = new ArrayList<>();
+        List<List<Statement>> documents = new ArrayList<>();
+        for (int i = 0; i < TARGET_THROUGHPUT; i++) {
+            URI annotation = factory.createURI("http://www.example.com/ns#anno" + i);
+            BNode body = factory.createBNode();
+            BNode target = factory.createBNode();
+            BNode selector = factory.createBNode();
+            List<Statement> statements = new ArrayList<>();
+            statements.add(factory.createStatement(annotation, RDF.TYPE, factory.createURI(OADM.ANNOTATION)));
+            statements.add(factory.createStatement(annotation, factory.createURI(OADM.MOTIVATED_BY), factory.createURI(OADM.MOTIVATION_COMMENTING)));
+            statements.add(factory.createStatement(annotation, factory.createURI(OADM.HAS_BODY), body));
+            statements.add(factory.createStatement(annotation, factory.createURI(OADM.HAS_TARGET), target));
+            statements.add(factory.createStatement(body, RDF.TYPE, factory.createURI(OADM.TEXTUAL_BODY)));
+            statements.add(factory.createStatement(body, value, factory.createLiteral("body " + i)));
+            statements.add(factory.createStatement(target, RDF.TYPE, factory.createURI(OADM.SPECIFIC_RESOURCE)));
+            statements.add(factory.createStatement(target, factory.createURI(OADM.HAS_SOURCE), factory.createURI("http://www.example.com/ns#source" + i)));
+            statements.add(factory.createStatement(target, factory.createURI(OADM.HAS_SELECTOR), selector));
+            statements.add(factory.createStatement(selector, RDF.TYPE, factory.createURI(OADM.FRAGMENT_SELECTOR)));
+            statements.add(factory.createStatement(selector, value, factory.createLiteral("t=" + i)));
+            roots.add(annotation);
+            documents.add(statements);
+        }
+
+        AnnotationJsonLdWriter writer = new AnnotationJsonLdWriter();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long millis = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < TARGET_THROUGHPUT; i++) {
+                out.reset();
+                writer.write(roots.get(i), documents.get(i), out);
+            }
+            millis = (System.nanoTime() - start) / 1000000;
+        }
+
+        assertTrue(out.toString("UTF-8").contains("\"motivation\":\"commenting\""));
+        assertTrue("Writing " + TARGET_THROUGHPUT + " annotations took " + millis + " ms", millis <= 1000);
+    }
+
+    private JsonObject write(Annotation annotation) throws Exception {
+        Annotation loaded = anno4j.findByID(Annotation.class, annotation.getResourceAsString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new AnnotationJsonLdWriter().write(loaded, out);
+        return new JsonParser().parse(out.toString("UTF-8")).getAsJsonObject();
+    }
+
+    private JsonObject write(Resource root, List<Statement> statements) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new AnnotationJsonLdWriter().write(root, statements, out);
+        return new JsonParser().parse(out.toString("UTF-8")).getAsJsonObject();
+    }
+
+    /**
+     * Adds the statements of an RDF list of IRIs of the example namespace.
+     *
+     * @return the head of the list.
+     */
+    private static Resource list(List<Statement> statements, String... names) {
+        ValueFactory factory = ValueFactoryImpl.getInstance();
+        Resource head = RDF.NIL;
+        for (int i = names.length - 1; i >= 0; i--) {
+            BNode node = factory.createBNode();
+            statements.add(factory.createStatement(node, RDF.FIRST, factory.createURI("http://www.example.com/ns#" + names[i])));
+            statements.add(factory.createStatement(node, RDF.REST, head));
+            head = node;
+        }
+        return head;
+    }
+
+    private static String typesOf(JsonObject node) {
+        return node.get("type").toString();
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.anno4j.io;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.model.Annotation;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.result.Result;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFParseException;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Testsuite testing the {@link BulkImporter} class.
+ */
+public class BulkImporterTest {
+
+    private static final String PREFIXES = "@prefix oa: <http://www.w3.org/ns/oa#> ." +
+            "@prefix ex: <http://www.example.com/ns#> ." +
+            "@prefix dctypes: <http://purl.org/dc/dcmitype/> .";
+
+    private Anno4j anno4j;
+
+    @Before
+    public void setUp() throws Exception {
+        anno4j = new Anno4j();
+    }
+
+    @Test
+    public void testBatchedImport() throws Exception {
+        final List<Long> progress = new ArrayList<>();
+        BulkImporter importer = new BulkImporter(anno4j);
+        importer.setBatchSize(4);
+        importer.setListener(new ImportListener() {
+            @Override
+            public void committed(long statements, long annotations) {
+                progress.add(statements);
+            }
+        });
+
+        ImportResult result = importer.importFrom(new StringReader(annotations(0, 5)), "http://example.com/", RDFFormat.TURTLE);
+
+        // Every annotation is described by four statements:
+        assertEquals(20, result.getStatementCount());
+        assertEquals(5, result.getAnnotationCount());
+        assertEquals(20, anno4j.getRepository().getConnection().size());
+
+        assertEquals(6, progress.size());
+        assertEquals(Long.valueOf(4), progress.get(0));
+        assertEquals(Long.valueOf(20), progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void testReturnsOnlyParsedAnnotations() throws Exception {
+        BulkImporter importer = new BulkImporter(anno4j);
+        importer.importFrom(new StringReader(annotations(0, 2)), "http://example.com/", RDFFormat.TURTLE);
+        ImportResult result = importer.importFrom(new StringReader(annotations(2, 3)), "http://example.com/", RDFFormat.TURTLE);
+
+        assertEquals(3, anno4j.findAll(Annotation.class).size());
+        assertEquals(1, result.getAnnotationCount());
+
+        Result<Annotation> annotations = result.getAnnotations();
+        assertTrue(annotations.hasNext());
+        Annotation annotation = annotations.next();
+        assertEquals("http://www.example.com/ns#anno2", annotation.getResourceAsString());
+        assertEquals(1, annotation.getBodies().size());
+        assertFalse(annotations.hasNext());
+    }
+
+    @Test
+    public void testIdentifiersBeyondBatchSizeAreReadBack() throws Exception {
+        BulkImporter importer = new BulkImporter(anno4j);
+        importer.setBatchSize(2);
+        String turtle = annotations(0, 5) + "[] a oa:Annotation ; oa:hasTarget ex:target5 .";
+
+        ImportResult result = importer.importFrom(new StringReader(turtle), "http://example.com/", RDFFormat.TURTLE);
+
+        assertEquals(6, result.getAnnotationCount());
+        // Read twice, as each cursor reads the identifiers from the start:
+        for (int pass = 0; pass < 2; pass++) {
+            List<Annotation> read = result.getAnnotations().asList();
+            assertEquals(6, read.size());
+            for (int i = 0; i < 5; i++) {
+                assertEquals("http://www.example.com/ns#anno" + i, read.get(i).getResourceAsString());
+            }
+            assertEquals(1, read.get(5).getTargets().size());
+        }
+        result.close();
+    }
+
+    @Test
+    public void testAnnotationsShareOneConnectionAndOutliveCursor() throws Exception {
+        ImportResult result = new BulkImporter(anno4j).importFrom(new StringReader(annotations(0, 3)), "http://example.com/", RDFFormat.TURTLE);
+        int pinned = anno4j.getConnectionPool().getPinnedCount();
+
+        List<Annotation> read = new ArrayList<>();
+        Result<Annotation> annotations = result.getAnnotations();
+        while (annotations.hasNext()) {
+            read.add(annotations.next());
+        }
+        annotations.close();
+
+        assertEquals(3, read.size());
+        assertEquals(pinned + 1, anno4j.getConnectionPool().getPinnedCount());
+        for (Annotation annotation : read) {
+            assertSame(read.get(0).getObjectConnection(), annotation.getObjectConnection());
+            // the connection is not leased to other callers and still open after the cursor was closed
+            assertEquals(1, annotation.getBodies().size());
+        }
+    }
+
+    @Test
+    public void testContext() throws Exception {
+        URIImpl context = new URIImpl("http://www.example.com/ns#graph");
+        BulkImporter importer = new BulkImporter(anno4j);
+        importer.setContext(context);
+        importer.importFrom(new StringReader(annotations(0, 2)), "http://example.com/", RDFFormat.TURTLE);
+
+        assertEquals(2, anno4j.findAll(Annotation.class, context).size());
+        assertEquals(8, anno4j.getRepository().getConnection().size(context));
+    }
+
+    @Test
+    public void testMalformedInputRollsBackBatch() throws Exception {
+        BulkImporter importer = new BulkImporter(anno4j);
+        importer.setBatchSize(4);
+        try {
+            importer.importFrom(new StringReader(annotations(0, 2) + " ex:broken a"), "http://example.com/", RDFFormat.TURTLE);
+            fail("Malformed input must not be imported");
+        } catch (RDFParseException e) {
+            // Only the committed batches remain:
+            assertEquals(8, anno4j.getRepository().getConnection().size());
+        }
+    }
+
+    private static String annotations(int from, int to) {
+        StringBuilder turtle = new StringBuilder(PREFIXES);
+        for (int i = from; i < to; i++) {
+            turtle.append("ex:anno").append(i).append(" a oa:Annotation ;")
+                    .append(" oa:hasBody ex:body").append(i).append(" ;")
+                    .append(" oa:hasTarget ex:target").append(i).append(" .")
+                    .append("ex:body").append(i).append(" a dctypes:Sound .");
+        }
+        return turtle.toString();
+    }
+}
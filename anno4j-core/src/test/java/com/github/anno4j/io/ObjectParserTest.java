@@ -72,11 +72,15 @@ public class ObjectParserTest {
 
             ObjectParser objectParser = new ObjectParser();
 
-            objectParser.parse(TURTLE, url, RDFFormat.TURTLE);
+            List<Annotation> first = objectParser.parse(TURTLE, url, RDFFormat.TURTLE);
             objectParser.parse(TURTLE2, url, RDFFormat.TURTLE);
             List<Annotation> annotations = objectParser.parse(TURTLE3, url, RDFFormat.TURTLE);
 
-            assertEquals(3, annotations.size());
+            // Only the annotations of the parsed content are returned:
+            assertEquals(1, first.size());
+            assertEquals("http://www.example.com/ns#anno1", first.get(0).getResourceAsString());
+            assertEquals(1, annotations.size());
+            assertEquals("http://www.example.com/ns#anno3", annotations.get(0).getResourceAsString());
 
             for(Annotation anno : annotations) {
                 System.out.println(anno.toString());
@@ -0,0 +1,133 @@
+package com.github.anno4j.io;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.model.Annotation;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openrdf.rio.RDFParseException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testsuite testing the {@link ParallelImporter} class.
+ */
+public class ParallelImporterTest {
+
+    private static final int FILES = 20;
+
+    private static final int ANNOTATIONS_PER_FILE = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Anno4j anno4j;
+
+    @Before
+    public void setUp() throws Exception {
+        anno4j = new Anno4j();
+    }
+
+    @Test
+    public void testImportDirectory() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        for (int i = 0; i < FILES; i++) {
+            write(directory.resolve("item" + i + ".ttl"), annotations(i));
+        }
+        write(directory.resolve("readme.txt"), "not RDF");
+
+        final AtomicInteger commits = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ParallelImporter importer = new ParallelImporter(anno4j);
+            importer.setExecutor(executor);
+            importer.setBatchSize(7);
+            importer.setQueueCapacity(2);
+            importer.setListener(new ImportListener() {
+                @Override
+                public void committed(long statements, long annotations) {
+                    commits.incrementAndGet();
+                }
+            });
+
+            ParallelImportResult result = importer.importDirectory(directory);
+
+            assertEquals(FILES, result.getFileCount());
+            assertTrue(result.getFailures().isEmpty());
+            assertEquals(FILES * ANNOTATIONS_PER_FILE * 3, result.getStatementCount());
+            assertEquals(FILES * ANNOTATIONS_PER_FILE, result.getAnnotationCount());
+            assertEquals(FILES, importer.getCompletedFileCount());
+            assertTrue(commits.get() >= FILES);
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(FILES * ANNOTATIONS_PER_FILE, anno4j.findAll(Annotation.class).size());
+    }
+
+    @Test
+    public void testFailuresPerFile() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        write(directory.resolve("valid.ttl"), annotations(0));
+        Path broken = directory.resolve("broken.ttl");
+        write(broken, annotations(1) + " ex:broken a");
+
+        ParallelImporter importer = new ParallelImporter(anno4j);
+        ParallelImportResult result = importer.importDirectory(directory);
+
+        assertEquals(2, result.getFileCount());
+        assertEquals(1, result.getFailures().size());
+        assertTrue(result.getFailures().get(broken) instanceof RDFParseException);
+        assertTrue(result.getPartialImports().isEmpty());
+        assertEquals(ANNOTATIONS_PER_FILE * 3, anno4j.getRepository().getConnection().size());
+    }
+
+    @Test
+    public void testPartialImportOfFailedFile() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        Path valid = directory.resolve("valid.ttl");
+        write(valid, annotations(0));
+        Path broken = directory.resolve("broken.ttl");
+        write(broken, annotations(1) + " ex:broken a");
+
+        ParallelImporter importer = new ParallelImporter(anno4j);
+        importer.setBatchSize(4);
+        ParallelImportResult result = importer.importDirectory(directory);
+
+        // The full batches of the broken file were committed before the parse error, the rest is dropped
+        long committed = (ANNOTATIONS_PER_FILE * 3 / 4) * 4;
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getPartialImports().size());
+        assertEquals(Long.valueOf(committed), result.getPartialImports().get(broken));
+        assertFalse(result.getPartialImports().containsKey(valid));
+        assertEquals(ANNOTATIONS_PER_FILE * 3 + committed, result.getStatementCount());
+        assertEquals(ANNOTATIONS_PER_FILE * 3 + committed, anno4j.getRepository().getConnection().size());
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String annotations(int file) {
+        StringBuilder turtle = new StringBuilder("@prefix oa: <http://www.w3.org/ns/oa#> ." +
+                "@prefix ex: <http://www.example.com/ns#> .");
+        for (int i = 0; i < ANNOTATIONS_PER_FILE; i++) {
+            String id = file + "-" + i;
+            turtle.append("ex:anno").append(id).append(" a oa:Annotation ;")
+                    .append(" oa:hasBody ex:body").append(id).append(" ;")
+                    .append(" oa:hasTarget ex:target").append(id).append(" .");
+        }
+        return turtle.toString();
+    }
+}
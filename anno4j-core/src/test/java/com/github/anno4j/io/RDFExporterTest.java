@@ -0,0 +1,170 @@
+package com.github.anno4j.io;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.model.Annotation;
+import com.github.anno4j.model.namespaces.OADM;
+import com.github.anno4j.model.namespaces.RDF;
+import info.aduna.iteration.Iterations;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openrdf.model.BNode;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.rio.RDFFormat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testsuite testing the {@link RDFExporter} class.
+ */
+public class RDFExporterTest {
+
+    private static final int ANNOTATIONS = 50;
+
+    private static final URI CONTEXT = new URIImpl("http://www.example.com/ns#graph");
+
+    private static final URI OTHER = new URIImpl("http://www.example.com/ns#other");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Anno4j anno4j;
+
+    @Before
+    public void setUp() throws Exception {
+        anno4j = new Anno4j();
+        for (int i = 0; i < ANNOTATIONS; i++) {
+            Annotation annotation = anno4j.createObject(Annotation.class, CONTEXT);
+            annotation.setCreated("2015-01-28T12:00:00Z");
+        }
+        anno4j.createObject(Annotation.class, OTHER);
+    }
+
+    @Test
+    public void testExportContextToStream() throws Exception {
+        ExportOptions options = new ExportOptions();
+        options.setGzip(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportResult result = anno4j.export(CONTEXT, out, RDFFormat.NTRIPLES, options);
+
+        long statements = anno4j.getRepository().getConnection().size(CONTEXT);
+        assertEquals(statements, result.getStatementCount());
+        assertEquals(out.size(), result.getByteCount());
+        assertTrue(result.getFiles().isEmpty());
+
+        Anno4j copy = new Anno4j();
+        BulkImporter importer = new BulkImporter(copy);
+        importer.importFrom(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), "", RDFFormat.NTRIPLES);
+        assertEquals(statements, copy.getRepository().getConnection().size());
+        assertEquals(ANNOTATIONS, copy.findAll(Annotation.class).size());
+    }
+
+    @Test
+    public void testSplitExport() throws Exception {
+        final long[] progress = new long[1];
+        ExportOptions options = new ExportOptions();
+        options.setMaxFileSize(1000);
+        options.setChunkSize(10);
+        options.setListener(new ExportListener() {
+            @Override
+            public void exported(long statements, long bytes) {
+                progress[0] = statements;
+            }
+        });
+        Path file = folder.getRoot().toPath().resolve("dump.ttl");
+
+        ExportResult result = anno4j.export(CONTEXT, file, RDFFormat.TURTLE, options);
+
+        assertTrue(result.getFiles().size() > 1);
+        assertEquals(folder.getRoot().toPath().resolve("dump-1.ttl"), result.getFiles().get(0));
+        long bytes = 0;
+        for (Path part : result.getFiles()) {
+            bytes += Files.size(part);
+        }
+        assertEquals(bytes, result.getByteCount());
+        assertEquals(result.getStatementCount() / 10 * 10, progress[0]);
+
+        Anno4j copy = new Anno4j();
+        ParallelImportResult imported = copy.importDump(CONTEXT, result.getFiles());
+        assertTrue(imported.getFailures().isEmpty());
+        assertEquals(result.getStatementCount(), copy.getRepository().getConnection().size(CONTEXT));
+        assertEquals(ANNOTATIONS, copy.findAll(Annotation.class, CONTEXT).size());
+    }
+
+    @Test
+    public void testSplitExportKeepsBlankNodes() throws Exception {
+        URI bodies = new URIImpl("http://www.example.com/ns#bodies");
+        URI hasBody = new URIImpl(OADM.HAS_BODY);
+        URI value = new URIImpl(RDF.VALUE);
+        RepositoryConnection connection = anno4j.getRepository().getConnection();
+        List<BNode> nodes = new ArrayList<>();
+        for (int i = 0; i < ANNOTATIONS; i++) {
+            BNode body = connection.getValueFactory().createBNode();
+            connection.add(new URIImpl("http://www.example.com/ns#anno" + i), hasBody, body, bodies);
+            nodes.add(body);
+        }
+        // Written after all references, so that the parts separate the blank nodes from them:
+        for (int i = 0; i < ANNOTATIONS; i++) {
+            connection.add(nodes.get(i), value, new LiteralImpl("body " + i), bodies);
+        }
+        connection.close();
+        ExportOptions options = new ExportOptions();
+        options.setMaxFileSize(1000);
+        Path file = folder.getRoot().toPath().resolve("bodies.nt");
+
+        ExportResult result = anno4j.export(bodies, file, RDFFormat.NTRIPLES, options);
+
+        assertTrue(result.getFiles().size() > 1);
+        Anno4j copy = new Anno4j();
+        copy.importDump(bodies, result.getFiles());
+        RepositoryConnection copied = copy.getRepository().getConnection();
+        List<Statement> references = Iterations.asList(copied.getStatements(null, hasBody, null, false, bodies));
+        assertEquals(ANNOTATIONS, references.size());
+        for (Statement reference : references) {
+            assertTrue(copied.hasStatement((Resource) reference.getObject(), value, null, false, bodies));
+        }
+        assertEquals(2 * ANNOTATIONS, copied.size(bodies));
+        copied.close();
+    }
+
+    @Test
+    public void testBinaryExportKeepsContexts() throws Exception {
+        ExportOptions options = new ExportOptions();
+        options.setGzip(true);
+        Path file = folder.getRoot().toPath().resolve("dump.brf.gz");
+
+        ExportResult result = anno4j.export(null, file, RDFFormat.BINARY, options);
+
+        assertEquals(1, result.getFiles().size());
+        assertEquals(anno4j.getRepository().getConnection().size(), result.getStatementCount());
+
+        Anno4j copy = new Anno4j();
+        copy.importDump(null, result.getFiles());
+        assertEquals(result.getStatementCount(), copy.getRepository().getConnection().size());
+        assertEquals(ANNOTATIONS, copy.findAll(Annotation.class, CONTEXT).size());
+        assertEquals(1, copy.findAll(Annotation.class, OTHER).size());
+    }
+
+    @Test
+    public void testPartName() {
+        assertEquals(Paths.get("dir", "dump-2.ttl.gz"), RDFExporter.partName(Paths.get("dir", "dump.ttl.gz"), 2));
+        assertEquals(Paths.get("dump-1"), RDFExporter.partName(Paths.get("dump"), 1));
+    }
+}
@@ -3,8 +3,10 @@ package com.github.anno4j.model;
 import com.github.anno4j.Anno4j;
 import com.github.anno4j.model.impl.ResourceObject;
 import com.github.anno4j.model.impl.targets.SpecificResource;
+import com.github.anno4j.model.namespaces.OADM;
 import org.junit.Before;
 import org.junit.Test;
+import org.openrdf.model.impl.URIImpl;
 import org.openrdf.repository.RepositoryException;
 
 import java.util.HashSet;
@@ -65,4 +67,29 @@ public class ExternalWebResourceTest {
 
         assertEquals(textDirection.getResourceAsString(), ((SpecificResource)result.getTargets().toArray()[0]).getTextDirection().getResourceAsString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTextDirectionIsReadWithItsType() throws RepositoryException, IllegalAccessException, InstantiationException {
+        SpecificResource specificResource = this.anno4j.createObject(SpecificResource.class);
+        specificResource.setTextDirection(TextDirectionFactory.getRightToLeft(this.anno4j));
+
+        SpecificResource result = this.anno4j.findByID(SpecificResource.class, specificResource.getResourceAsString());
+        assertTrue(result.getTextDirection() instanceof TextDirection);
+
+        TextDirection direction = this.anno4j.findByID(TextDirection.class, OADM.RIGHT_TO_LEFT_DIRECTION);
+        assertEquals(OADM.RIGHT_TO_LEFT_DIRECTION, direction.getResourceAsString());
+    }
+
+    @Test
+    public void testIndividualKeepsStoredTypes() throws RepositoryException, IllegalAccessException, InstantiationException {
+        // The individual is stored with another type before it is registered
+        this.anno4j.createObject(Motivation.class, new URIImpl(OADM.AUTO_DIRECTION));
+
+        TextDirection auto = TextDirectionFactory.getAuto(this.anno4j);
+        assertEquals(OADM.AUTO_DIRECTION, auto.getResourceAsString());
+
+        ResourceObject result = this.anno4j.findByID(ResourceObject.class, OADM.AUTO_DIRECTION);
+        assertTrue(result instanceof TextDirection);
+        assertTrue(result instanceof Motivation);
+    }
+}
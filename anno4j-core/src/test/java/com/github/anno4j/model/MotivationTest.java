@@ -1,14 +1,20 @@
 package com.github.anno4j.model;
 
 import com.github.anno4j.Anno4j;
+import com.github.anno4j.Transaction;
+import com.github.anno4j.model.namespaces.OADM;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.repository.object.ObjectConnection;
 
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 /**
  * Test suite for the motivation of an annotation. Only one instance is tested, all the other types of motivations are built up in the same fashion.
@@ -41,4 +47,46 @@ public class MotivationTest {
 
         assertEquals(motivation.getResource().toString(), result.get(0).getResource().toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMotivationIsCanonical() throws Exception {
+        Motivation tagging = MotivationFactory.getTagging(anno4j);
+        assertSame(tagging, MotivationFactory.getTagging(anno4j));
+
+        for (int i = 0; i < 2; i++) {
+            Transaction transaction = anno4j.createTransaction();
+            transaction.setAllContexts(new URIImpl("urn:anno4j:graph" + i));
+            transaction.begin();
+            transaction.createObject(Annotation.class).addMotivation(tagging);
+            transaction.createObject(Annotation.class).addMotivation(tagging);
+            transaction.commit();
+            transaction.close();
+        }
+
+        // the type of the motivation is written once into each context referring to it
+        ObjectConnection connection = anno4j.getObjectRepository().getConnection();
+        try {
+            for (int i = 0; i < 2; i++) {
+                assertEquals(1, connection.getStatements(new URIImpl(OADM.MOTIVATION_TAGGING), RDF.TYPE, null, false,
+                        new URIImpl("urn:anno4j:graph" + i)).asList().size());
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testMotivationTypeIsWrittenAgainAfterClearContext() throws Exception {
+        URI context = new URIImpl("urn:anno4j:graph");
+        Motivation tagging = MotivationFactory.getTagging(anno4j);
+
+        anno4j.createObject(Annotation.class, context).addMotivation(tagging);
+        assertEquals(1, anno4j.findAll(Motivation.class, context).size());
+
+        anno4j.clearContext(context);
+        assertEquals(0, anno4j.findAll(Motivation.class, context).size());
+
+        anno4j.createObject(Annotation.class, context).addMotivation(tagging);
+        assertEquals(1, anno4j.findAll(Motivation.class, context).size());
+    }
+}
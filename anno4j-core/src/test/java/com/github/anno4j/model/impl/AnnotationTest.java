@@ -2,8 +2,11 @@ package com.github.anno4j.model.impl;
 
 import com.github.anno4j.Anno4j;
 import com.github.anno4j.model.*;
+import com.github.anno4j.model.impl.body.TextualBody;
 import com.github.anno4j.model.impl.style.CssStylesheet;
 import com.github.anno4j.model.impl.targets.SpecificResource;
+import com.github.anno4j.model.namespaces.OADM;
+import com.github.anno4j.model.namespaces.SCHEMA;
 import com.github.anno4j.querying.QueryService;
 import org.apache.marmotta.ldpath.parser.ParseException;
 import org.junit.Before;
@@ -12,9 +15,11 @@ import org.openrdf.annotations.Iri;
 import org.openrdf.model.impl.URIImpl;
 import org.openrdf.query.MalformedQueryException;
 import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 
@@ -252,4 +257,58 @@ public class AnnotationTest {
 
         assertEquals(1, result.size());
     }
-}
\ No newline at end of file
+
+    /**
+     * The add* mutators write one statement per new value and none for a value already there.
+     */
+    @Test
+    public void testAddMutators() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        TextualBody body1 = anno4j.createObject(TextualBody.class);
+        TextualBody body2 = anno4j.createObject(TextualBody.class);
+        SpecificResource target1 = anno4j.createObject(SpecificResource.class);
+        SpecificResource target2 = anno4j.createObject(SpecificResource.class);
+        Audience audience = anno4j.createObject(TestAudience.class);
+        Motivation commenting = MotivationFactory.getCommenting(anno4j);
+        Motivation tagging = MotivationFactory.getTagging(anno4j);
+
+        annotation.addBody(body1);
+        annotation.addBody(body2);
+        annotation.addBody(body1);
+        annotation.addTarget(target1);
+        annotation.addTarget(target2);
+        annotation.addTarget(target2);
+        annotation.addMotivation(commenting);
+        annotation.addMotivation(tagging);
+        annotation.addMotivation(commenting);
+        annotation.addBodyText("first");
+        annotation.addBodyText("second");
+        annotation.addBodyText("first");
+        annotation.addAudience(audience);
+        annotation.addAudience(audience);
+
+        // findByID reads with a connection of its own
+        Annotation result = anno4j.findByID(Annotation.class, annotation.getResourceAsString());
+
+        assertEquals(2, result.getBodies().size());
+        assertEquals(2, result.getTargets().size());
+        assertEquals(2, result.getMotivatedBy().size());
+        assertEquals(new HashSet<>(Arrays.asList("first", "second")), result.getBodyTexts());
+        assertEquals(1, result.getAudiences().size());
+
+        assertEquals(2, count(annotation, OADM.HAS_BODY));
+        assertEquals(2, count(annotation, OADM.HAS_TARGET));
+        assertEquals(2, count(annotation, OADM.MOTIVATED_BY));
+        assertEquals(2, count(annotation, OADM.BODY_TEXT));
+        assertEquals(1, count(annotation, SCHEMA.AUDIENCE_RELATIONSHIP));
+    }
+
+    private int count(ResourceObject subject, String predicate) throws RepositoryException {
+        RepositoryConnection connection = anno4j.getRepository().getConnection();
+        try {
+            return connection.getStatements(subject.getResource(), new URIImpl(predicate), null, false).asList().size();
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -5,11 +5,30 @@ import com.github.anno4j.example.TextAnnotationBody;
 import com.github.anno4j.model.Annotation;
 import com.github.anno4j.model.impl.agent.Person;
 import com.github.anno4j.model.impl.agent.Software;
+import com.github.anno4j.model.impl.collection.AnnotationCollection;
+import com.github.anno4j.model.impl.collection.AnnotationPage;
+import com.github.anno4j.model.impl.selector.FragmentSelector;
+import com.github.anno4j.model.impl.targets.SpecificResource;
+import com.github.anno4j.model.namespaces.AS;
+import com.github.anno4j.model.namespaces.OADM;
+import com.github.anno4j.model.namespaces.RDF;
 import org.junit.Before;
 import org.junit.Test;
 import org.openrdf.idGenerator.IDGenerator;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.helpers.RDFHandlerBase;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
@@ -195,4 +214,125 @@ public class ResourceObjectTest {
         assertTrue(output.contains(jsonoldSoftwareType2));
         assertTrue(output.contains(jsondldSoftware));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testWriteTriplesOfSubgraph() throws Exception {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+
+        FragmentSelector selector = anno4j.createObject(FragmentSelector.class);
+        selector.setValue("xywh=0,0,10,10");
+        SpecificResource target = anno4j.createObject(SpecificResource.class);
+        target.setSelector(selector);
+        annotation.addTarget(target);
+
+        Annotation an = anno4j.findByID(Annotation.class, annotation.getResourceAsString());
+
+        final List<Statement> statements = new ArrayList<>();
+        an.writeTriples(new RDFHandlerBase() {
+            @Override
+            public void handleStatement(Statement statement) {
+                statements.add(statement);
+            }
+        });
+
+        // Nodes two hops away are included, each statement once:
+        assertEquals(new HashSet<>(statements).size(), statements.size());
+        assertTrue(statements.contains(new StatementImpl(an.getResource(), new URIImpl(OADM.HAS_TARGET), target.getResource())));
+        assertTrue(statements.contains(new StatementImpl(target.getResource(), new URIImpl(OADM.HAS_SELECTOR), selector.getResource())));
+        assertTrue(statements.contains(new StatementImpl(selector.getResource(), new URIImpl(RDF.VALUE), new LiteralImpl("xywh=0,0,10,10"))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        an.writeTriples(out, RDFFormat.NTRIPLES);
+        assertEquals(statements.size(), out.toString().split("\n").length);
+    }
+
+    @Test
+    public void testWriteTriplesExcludesLinksOfSharedResources() throws Exception {
+        Person creator = anno4j.createObject(Person.class);
+        creator.setName("Creator");
+        Person friend = anno4j.createObject(Person.class);
+        friend.setName("Friend");
+        creator.getObjectConnection().add(creator.getResource(), new URIImpl("http://xmlns.com/foaf/0.1/knows"), friend.getResource());
+
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        annotation.setCreator(creator);
+        TextAnnotationBody body = anno4j.createObject(TextAnnotationBody.class);
+        body.setCreator(creator);
+        annotation.addBody(body);
+        FragmentSelector selector = anno4j.createObject(FragmentSelector.class);
+        SpecificResource target = anno4j.createObject(SpecificResource.class);
+        target.setSelector(selector);
+        annotation.addTarget(target);
+
+        Annotation an = anno4j.findByID(Annotation.class, annotation.getResourceAsString());
+        final List<Statement> statements = new ArrayList<>();
+        an.writeTriples(new RDFHandlerBase() {
+            @Override
+            public void handleStatement(Statement statement) {
+                statements.add(statement);
+            }
+        });
+
+        // The creator is written, but not the resources it links to:
+        Set<Resource> subjects = new HashSet<>();
+        for (Statement statement : statements) {
+            subjects.add(statement.getSubject());
+        }
+        Set<Resource> expected = new HashSet<>();
+        expected.add(an.getResource());
+        expected.add(body.getResource());
+        expected.add(target.getResource());
+        expected.add(selector.getResource());
+        expected.add(creator.getResource());
+        assertEquals(expected, subjects);
+        assertEquals(new HashSet<>(statements).size(), statements.size());
+        assertTrue(statements.contains(new StatementImpl(creator.getResource(), new URIImpl("http://xmlns.com/foaf/0.1/knows"), friend.getResource())));
+    }
+
+    @Test
+    public void testWriteTriplesOfPageExcludesOtherPages() throws Exception {
+        AnnotationCollection collection = anno4j.createObject(AnnotationCollection.class);
+        List<AnnotationPage> pages = new ArrayList<>();
+        Set<Resource> expected = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            AnnotationPage page = anno4j.createObject(AnnotationPage.class);
+            page.setPartOf(collection);
+            for (int j = 0; j < 2; j++) {
+                Annotation annotation = anno4j.createObject(Annotation.class);
+                SpecificResource target = anno4j.createObject(SpecificResource.class);
+                annotation.addTarget(target);
+                page.addItem(annotation);
+                if (i == 1) {
+                    expected.add(annotation.getResource());
+                    expected.add(target.getResource());
+                }
+            }
+            if (i > 0) {
+                page.setPrev(pages.get(i - 1));
+                pages.get(i - 1).setNext(page);
+            }
+            pages.add(page);
+        }
+        collection.setFirstPage(pages.get(0));
+        collection.setLastPage(pages.get(2));
+        expected.add(pages.get(1).getResource());
+
+        AnnotationPage page = anno4j.findByID(AnnotationPage.class, pages.get(1).getResourceAsString());
+        final List<Statement> statements = new ArrayList<>();
+        page.writeTriples(new RDFHandlerBase() {
+            @Override
+            public void handleStatement(Statement statement) {
+                statements.add(statement);
+            }
+        });
+
+        // The page, its items and their targets, but neither the collection nor the other pages:
+        Set<Resource> subjects = new HashSet<>();
+        for (Statement statement : statements) {
+            subjects.add(statement.getSubject());
+        }
+        assertEquals(expected, subjects);
+        assertTrue(statements.contains(new StatementImpl(page.getResource(), new URIImpl(AS.PART_OF), collection.getResource())));
+        assertTrue(statements.contains(new StatementImpl(page.getResource(), new URIImpl(AS.NEXT), pages.get(2).getResource())));
+    }
+}
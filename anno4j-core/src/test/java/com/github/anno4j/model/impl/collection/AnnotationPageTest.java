@@ -2,8 +2,12 @@ package com.github.anno4j.model.impl.collection;
 
 import com.github.anno4j.Anno4j;
 import com.github.anno4j.model.Annotation;
+import com.github.anno4j.model.impl.ResourceObject;
+import com.github.anno4j.model.namespaces.AS;
 import org.junit.Before;
 import org.junit.Test;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 
 import java.util.HashSet;
@@ -69,4 +73,30 @@ public class AnnotationPageTest {
         assertEquals(0, page.getStartIndex());
 //        assertEquals(collection.getResourceAsString(), result.getPartof().getResourceAsString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAddItem() throws RepositoryException, IllegalAccessException, InstantiationException {
+        AnnotationPage page = this.anno4j.createObject(AnnotationPage.class);
+        Annotation first = this.anno4j.createObject(Annotation.class);
+        Annotation second = this.anno4j.createObject(Annotation.class);
+
+        page.addItem(first);
+        page.addItem(second);
+        page.addItem(first);
+
+        // findByID reads with a connection of its own
+        AnnotationPage result = this.anno4j.findByID(AnnotationPage.class, page.getResourceAsString());
+
+        assertEquals(2, result.getItems().size());
+        assertEquals(2, count(page, AS.ITEMS));
+    }
+
+    private int count(ResourceObject subject, String predicate) throws RepositoryException {
+        RepositoryConnection connection = anno4j.getRepository().getConnection();
+        try {
+            return connection.getStatements(subject.getResource(), new URIImpl(predicate), null, false).asList().size();
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.anno4j.model.impl.multiplicity;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.model.impl.ResourceObject;
+import com.github.anno4j.model.namespaces.OADM;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test suite for the Composite interface.
+ */
+public class CompositeTest {
+
+    private Anno4j anno4j;
+
+    @Before
+    public void setUp() throws Exception {
+        this.anno4j = new Anno4j();
+    }
+
+    @Test
+    public void testAddItem() throws RepositoryException, IllegalAccessException, InstantiationException {
+        Composite composite = this.anno4j.createObject(Composite.class);
+        ResourceObject first = this.anno4j.createObject(ResourceObject.class);
+        ResourceObject second = this.anno4j.createObject(ResourceObject.class);
+
+        composite.addItem(first);
+        composite.addItem(second);
+        composite.addItem(first);
+        composite.addItem(null);
+
+        // findByID reads with a connection of its own
+        Composite result = this.anno4j.findByID(Composite.class, composite.getResourceAsString());
+
+        assertEquals(2, result.getItems().size());
+        assertEquals(2, count(composite, OADM.ITEM));
+    }
+
+    private int count(ResourceObject subject, String predicate) throws RepositoryException {
+        RepositoryConnection connection = anno4j.getRepository().getConnection();
+        try {
+            return connection.getStatements(subject.getResource(), new URIImpl(predicate), null, false).asList().size();
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -2,8 +2,11 @@ package com.github.anno4j.model.impl.state;
 
 import com.github.anno4j.Anno4j;
 import com.github.anno4j.model.impl.ResourceObject;
+import com.github.anno4j.model.namespaces.OADM;
 import org.junit.Before;
 import org.junit.Test;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.object.exceptions.ObjectPersistException;
 
@@ -111,4 +114,35 @@ public class TimeStateTest {
 
         assertEquals(2, result.getSourceDates().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAddSourceDateAndCachedSource() throws RepositoryException, IllegalAccessException, InstantiationException {
+        TimeState state = this.anno4j.createObject(TimeState.class);
+        ResourceObject first = this.anno4j.createObject(ResourceObject.class);
+        ResourceObject second = this.anno4j.createObject(ResourceObject.class);
+
+        state.addSourceDate(GOOD_DATE);
+        state.addSourceDate("2016-01-28T12:00:00Z");
+        state.addSourceDate(GOOD_DATE);
+        state.addCachedSource(first);
+        state.addCachedSource(second);
+        state.addCachedSource(first);
+
+        // findByID reads with a connection of its own
+        TimeState result = this.anno4j.findByID(TimeState.class, state.getResourceAsString());
+
+        assertEquals(2, result.getSourceDates().size());
+        assertEquals(2, result.getCachedSources().size());
+        assertEquals(2, count(state, OADM.SOURCE_DATE));
+        assertEquals(2, count(state, OADM.CACHED_SOURCE));
+    }
+
+    private int count(ResourceObject subject, String predicate) throws RepositoryException {
+        RepositoryConnection connection = anno4j.getRepository().getConnection();
+        try {
+            return connection.getStatements(subject.getResource(), new URIImpl(predicate), null, false).asList().size();
+        } finally {
+            connection.close();
+        }
+    }
+}
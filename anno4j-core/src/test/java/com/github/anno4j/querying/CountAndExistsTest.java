@@ -0,0 +1,50 @@
+package com.github.anno4j.querying;
+
+import com.github.anno4j.model.Annotation;
+import com.github.anno4j.model.impl.body.TextualBody;
+import org.junit.Test;
+import org.openrdf.repository.RepositoryException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the count and existence queries of the QueryService.
+ */
+public class CountAndExistsTest extends QuerySetup {
+
+    @Test
+    public void testCount() throws Exception {
+        assertEquals(5, anno4j.createQueryService().count());
+        assertEquals(3, anno4j.createQueryService().addCriteria("oa:hasBody").count());
+        assertEquals(2, anno4j.createQueryService().addCriteria("oa:hasBody/rdf:value", "Value", Comparison.STARTS_WITH).count());
+        assertEquals(1, anno4j.createQueryService().addCriteria("oa:hasBody/rdf:value", "Value 1").count());
+        assertEquals(0, anno4j.createQueryService().addCriteria("oa:hasBody/rdf:value", "Missing").count());
+        assertEquals(3, anno4j.createQueryService().count(TextualBody.class));
+    }
+
+    @Test
+    public void testCountIgnoresLimit() throws Exception {
+        assertEquals(5, anno4j.createQueryService().limit(2).count());
+    }
+
+    @Test
+    public void testExists() throws Exception {
+        assertTrue(anno4j.createQueryService().exists());
+        assertTrue(anno4j.createQueryService().addCriteria("oa:hasBody/rdf:value", "Value 2").exists());
+        assertFalse(anno4j.createQueryService().addCriteria("oa:hasBody/rdf:value", "Missing").exists());
+    }
+
+    @Override
+    public void persistTestData() throws RepositoryException, InstantiationException, IllegalAccessException {
+        String[] values = {"Value 1", "Value 2", "Other"};
+        for (String value : values) {
+            Annotation annotation = anno4j.createObject(Annotation.class);
+            TextualBody body = anno4j.createObject(TextualBody.class);
+            body.setValue(value);
+            annotation.addBody(body);
+        }
+
+        anno4j.createObject(Annotation.class);
+        anno4j.createObject(Annotation.class);
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.anno4j.querying;
+
+import com.github.anno4j.model.Annotation;
+import com.github.anno4j.model.Body;
+import com.github.anno4j.model.Target;
+import com.github.anno4j.model.impl.body.TextualBody;
+import com.github.anno4j.model.impl.selector.TextPositionSelector;
+import com.github.anno4j.model.impl.targets.SpecificResource;
+import org.junit.Test;
+import org.openrdf.model.Resource;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the eager loading of object graphs with fetch plans.
+ */
+public class FetchPlanTest extends QuerySetup {
+
+    @Test
+    public void testFetchedPathsAreReadWithoutRepository() throws Exception {
+        List<Annotation> annotations = anno4j.createQueryService()
+                .fetch("oa:hasBody/rdf:value", "oa:hasTarget/oa:hasSelector/oa:start")
+                .execute();
+        assertEquals(3, annotations.size());
+
+        clearRepository();
+
+        int bodies = 0;
+        int selectors = 0;
+        for (Annotation annotation : annotations) {
+            for (Body body : annotation.getBodies()) {
+                assertTrue(((TextualBody) body).getValue().startsWith("Value "));
+                bodies++;
+            }
+            for (Target target : annotation.getTargets()) {
+                TextPositionSelector selector = (TextPositionSelector) ((SpecificResource) target).getSelector();
+                assertEquals(10, selector.getStart());
+                selectors++;
+            }
+        }
+        assertEquals(2, bodies);
+        assertEquals(1, selectors);
+    }
+
+    @Test
+    public void testUnfetchedPathsAreReadLazily() throws Exception {
+        List<Annotation> annotations = anno4j.createQueryService()
+                .fetch("oa:hasTarget")
+                .execute();
+
+        clearRepository();
+
+        for (Annotation annotation : annotations) {
+            assertTrue(annotation.getBodies().isEmpty());
+        }
+    }
+
+    @Test
+    public void testFindByIDWithFetchPlan() throws Exception {
+        Annotation annotation = anno4j.findByID(Annotation.class, new URIImpl("http://www.example.com/annotation1"),
+                "oa:hasBody/rdf:value", "oa:hasTarget");
+
+        clearRepository();
+
+        assertEquals(1, annotation.getBodies().size());
+        assertEquals("Value 1", ((TextualBody) annotation.getBodies().iterator().next()).getValue());
+        assertEquals(1, annotation.getTargets().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownPrefix() {
+        anno4j.createQueryService().fetch("unknown:hasBody");
+    }
+
+    private void clearRepository() throws RepositoryException {
+        RepositoryConnection connection = anno4j.getObjectRepository().getConnection();
+        try {
+            connection.clear();
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void persistTestData() throws RepositoryException, InstantiationException, IllegalAccessException {
+        Annotation annotation = anno4j.createObject(Annotation.class, (Resource) new URIImpl("http://www.example.com/annotation1"));
+        TextualBody body = anno4j.createObject(TextualBody.class);
+        body.setValue("Value 1");
+        annotation.addBody(body);
+
+        TextPositionSelector selector = anno4j.createObject(TextPositionSelector.class);
+        selector.setStart(10);
+        selector.setEnd(20);
+        SpecificResource target = anno4j.createObject(SpecificResource.class);
+        target.setSelector(selector);
+        annotation.addTarget(target);
+
+        Annotation annotation1 = anno4j.createObject(Annotation.class);
+        TextualBody body1 = anno4j.createObject(TextualBody.class);
+        body1.setValue("Value 2");
+        annotation1.addBody(body1);
+
+        anno4j.createObject(Annotation.class);
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.anno4j.querying;
+
+import com.github.anno4j.model.Annotation;
+import com.github.anno4j.model.impl.collection.AnnotationCollection;
+import com.github.anno4j.model.impl.collection.AnnotationPage;
+import org.junit.Test;
+import org.openrdf.model.Resource;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the keyset pagination of the QueryService.
+ */
+public class KeysetPaginationTest extends QuerySetup {
+
+    private static final int ANNOTATIONS = 25;
+
+    @Test
+    public void testPagesCoverResultOnce() throws Exception {
+        List<Resource> resources = new ArrayList<>();
+        List<Long> startIndexes = new ArrayList<>();
+
+        String token = null;
+        do {
+            QueryPage<Annotation> page = anno4j.createQueryService().executePage(10, token);
+            startIndexes.add(page.getStartIndex());
+            for (Annotation annotation : page.getItems()) {
+                resources.add(annotation.getResource());
+            }
+            token = page.getContinuationToken();
+        } while (token != null);
+
+        assertEquals(ANNOTATIONS, resources.size());
+        assertEquals(ANNOTATIONS, new HashSet<>(resources).size());
+        assertEquals(0L, (long) startIndexes.get(0));
+        assertEquals(10L, (long) startIndexes.get(1));
+        assertEquals(20L, (long) startIndexes.get(2));
+        assertEquals(3, startIndexes.size());
+
+        // Pages are ordered by IRI
+        for (int i = 1; i < resources.size(); i++) {
+            assertTrue(resources.get(i - 1).stringValue().compareTo(resources.get(i).stringValue()) < 0);
+        }
+    }
+
+    @Test
+    public void testExactlyFullLastPage() throws Exception {
+        QueryPage<Annotation> first = queryService.executePage(Annotation.class, 20, null);
+        assertTrue(first.hasNext());
+
+        QueryPage<Annotation> second = queryService.executePage(Annotation.class, 5, first.getContinuationToken());
+        assertEquals(5, second.getItems().size());
+        assertFalse(second.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidToken() throws Exception {
+        queryService.executePage(10, "not a token");
+    }
+
+    @Test
+    public void testAnnotationPages() throws Exception {
+        AnnotationCollection collection = anno4j.createObject(AnnotationCollection.class);
+
+        AnnotationPage first = anno4j.createQueryService().executeAnnotationPage(collection, 10, null);
+        assertEquals(10, first.getItems().size());
+        assertEquals(0, first.getStartIndex());
+        assertEquals(first.getResource(), collection.getFirstPage().getResource());
+
+        Set<Resource> resources = new HashSet<>();
+        AnnotationPage page = first;
+        while (true) {
+            assertEquals(collection.getResource(), page.getPartOf().getResource());
+            for (Annotation annotation : page.getItems()) {
+                resources.add(annotation.getResource());
+            }
+
+            if (page.getNext() == null) {
+                break;
+            }
+
+            String next = page.getNext().getResourceAsString();
+            String token = next.substring(next.indexOf("page=") + "page=".length());
+            page = anno4j.createQueryService().executeAnnotationPage(collection, 10, token);
+            assertEquals(next, page.getResourceAsString());
+        }
+
+        assertEquals(ANNOTATIONS, resources.size());
+    }
+
+    @Test
+    public void testAnnotationPagesAreStoredOnce() throws Exception {
+        AnnotationCollection collection = anno4j.createObject(AnnotationCollection.class);
+        AnnotationPage first = anno4j.createQueryService().executeAnnotationPage(collection, 10, null);
+        long size = size();
+
+        for (int i = 0; i < 3; i++) {
+            AnnotationPage page = anno4j.createQueryService().executeAnnotationPage(collection, 10, null);
+            assertEquals(first.getResource(), page.getResource());
+            assertEquals(10, page.getItems().size());
+            assertEquals(first.getNext().getResource(), page.getNext().getResource());
+        }
+
+        assertEquals(size, size());
+        assertEquals(first.getResource(), anno4j.findByID(AnnotationCollection.class, collection.getResourceAsString()).getFirstPage().getResource());
+    }
+
+    private long size() throws RepositoryException {
+        RepositoryConnection connection = anno4j.getRepository().getConnection();
+        try {
+            return connection.size();
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void persistTestData() throws RepositoryException, InstantiationException, IllegalAccessException {
+        for (int i = 0; i < ANNOTATIONS; i++) {
+            anno4j.createObject(Annotation.class);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.anno4j.querying;
+
+import com.github.anno4j.model.Annotation;
+import com.github.anno4j.model.impl.ResourceObject;
+import com.github.anno4j.model.impl.body.TextualBody;
+import com.github.anno4j.model.impl.targets.SpecificResource;
+import org.junit.Test;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.RepositoryException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the projection queries of the QueryService.
+ */
+public class ProjectionTest extends QuerySetup {
+
+    @Test
+    public void testSelectValues() throws Exception {
+        List<Value[]> rows = anno4j.createQueryService().select("oa:hasBody/rdf:value", "oa:hasTarget/oa:hasSource");
+        assertEquals(3, rows.size());
+
+        Map<String, Value> sources = new HashMap<>();
+        for (Value[] row : rows) {
+            assertEquals(2, row.length);
+            sources.put(row[0] != null ? row[0].stringValue() : null, row[1]);
+        }
+
+        assertEquals("http://www.example.com/source1", sources.get("Body 1").stringValue());
+        assertEquals("http://www.example.com/source2", sources.get("Body 2").stringValue());
+
+        // Annotations without a body are not dropped
+        assertTrue(sources.containsKey(null));
+        assertNull(sources.get(null));
+    }
+
+    @Test
+    public void testSelectWithCriteria() throws Exception {
+        List<Value[]> rows = anno4j.createQueryService()
+                .addCriteria("oa:hasBody/rdf:value", "Body 2")
+                .select(".", "oa:hasTarget/oa:hasSource");
+
+        assertEquals(1, rows.size());
+        assertNotNull(rows.get(0)[0]);
+        assertEquals("http://www.example.com/source2", rows.get(0)[1].stringValue());
+    }
+
+    @Test
+    public void testSelectForOtherType() throws Exception {
+        List<Value[]> rows = anno4j.createQueryService().select(TextualBody.class, "rdf:value");
+        assertEquals(2, rows.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSelectWithoutExpression() throws Exception {
+        anno4j.createQueryService().select();
+    }
+
+    @Override
+    public void persistTestData() throws RepositoryException, InstantiationException, IllegalAccessException {
+        for (int i = 1; i <= 2; i++) {
+            Annotation annotation = anno4j.createObject(Annotation.class);
+
+            TextualBody body = anno4j.createObject(TextualBody.class);
+            body.setValue("Body " + i);
+            annotation.addBody(body);
+
+            SpecificResource target = anno4j.createObject(SpecificResource.class);
+            target.setSource(anno4j.createObject(ResourceObject.class, (Resource) new URIImpl("http://www.example.com/source" + i)));
+            annotation.addTarget(target);
+        }
+
+        Annotation withoutBody = anno4j.createObject(Annotation.class);
+        SpecificResource target = anno4j.createObject(SpecificResource.class);
+        target.setSource(anno4j.createObject(ResourceObject.class, (Resource) new URIImpl("http://www.example.com/source3")));
+        withoutBody.addTarget(target);
+    }
+}
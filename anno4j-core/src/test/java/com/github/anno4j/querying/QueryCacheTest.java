@@ -0,0 +1,170 @@
+package com.github.anno4j.querying;
+
+import com.github.anno4j.model.Annotation;
+import com.github.anno4j.model.Body;
+import com.github.anno4j.querying.evaluation.EvalQuery;
+import org.apache.marmotta.ldpath.parser.ParseException;
+import org.junit.Test;
+import org.openrdf.annotations.Iri;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.repository.RepositoryException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the reuse of compiled queries by the QueryService.
+ */
+public class QueryCacheTest extends QuerySetup {
+
+    @Test
+    public void testSameShapeIsCompiledOnce() throws RepositoryException, QueryEvaluationException, MalformedQueryException, ParseException {
+        QueryCache cache = anno4j.getQueryCache();
+
+        List<Annotation> first = anno4j.createQueryService()
+                .addPrefix("ex", "http://www.example.com/schema#")
+                .addCriteria("oa:hasBody/ex:cacheBodyValue", "First")
+                .execute();
+        assertEquals(1, first.size());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // Only the constraint value differs, so the compiled query is reused
+        List<Annotation> second = anno4j.createQueryService()
+                .addPrefix("ex", "http://www.example.com/schema#")
+                .addCriteria("oa:hasBody/ex:cacheBodyValue", "Second")
+                .execute();
+        assertEquals(1, second.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        List<Annotation> startsWith = anno4j.createQueryService()
+                .addPrefix("ex", "http://www.example.com/schema#")
+                .addCriteria("oa:hasBody/ex:cacheBodyValue", "S", Comparison.STARTS_WITH)
+                .execute();
+        assertEquals(1, startsWith.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.getCachedCount());
+    }
+
+    @Test
+    public void testCacheHitSkipsCompilation() throws RepositoryException, QueryEvaluationException, MalformedQueryException, ParseException {
+        final List<String> compiled = new ArrayList<>();
+        QueryCache cache = new QueryCache() {
+            @Override
+            public void put(String key, String query) {
+                compiled.add(key);
+                super.put(key, query);
+            }
+        };
+        anno4j.setQueryCache(cache);
+
+        List<Annotation> first = anno4j.createQueryService()
+                .addPrefix("ex", "http://www.example.com/schema#")
+                .addCriteria("oa:hasBody/ex:cacheBodyValue", "First")
+                .execute();
+        assertEquals(1, first.size());
+        assertEquals(1, compiled.size());
+
+        // A query that matches nothing replaces the compiled one, so a hit can only return it unchanged
+        cache.put(compiled.get(0), "SELECT ?" + EvalQuery.ROOT_VARIABLE + " WHERE { ?" + EvalQuery.ROOT_VARIABLE + " a <urn:anno4j:none> }");
+        compiled.clear();
+
+        List<Annotation> second = anno4j.createQueryService()
+                .addPrefix("ex", "http://www.example.com/schema#")
+                .addCriteria("oa:hasBody/ex:cacheBodyValue", "Second")
+                .execute();
+        assertTrue(second.isEmpty());
+        assertTrue(compiled.isEmpty());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testNumericConstraints() throws RepositoryException, QueryEvaluationException, MalformedQueryException, ParseException {
+        List<Annotation> greater = anno4j.createQueryService()
+                .addPrefix("ex", "http://www.example.com/schema#")
+                .addCriteria("oa:hasBody/ex:cacheBodyNumber", 1, Comparison.GT)
+                .execute();
+        assertEquals(1, greater.size());
+
+        List<Annotation> all = anno4j.createQueryService()
+                .addPrefix("ex", "http://www.example.com/schema#")
+                .addCriteria("oa:hasBody/ex:cacheBodyNumber", 0, Comparison.GT)
+                .execute();
+        assertEquals(2, all.size());
+
+        List<Annotation> equal = anno4j.createQueryService()
+                .addPrefix("ex", "http://www.example.com/schema#")
+                .addCriteria("oa:hasBody/ex:cacheBodyNumber", 2, Comparison.EQ)
+                .execute();
+        assertEquals(1, equal.size());
+
+        assertEquals(1, anno4j.getQueryCache().getHitCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedQueryIsDropped() throws RepositoryException, QueryEvaluationException, MalformedQueryException, ParseException {
+        anno4j.setQueryCacheSize(1);
+        QueryCache cache = anno4j.getQueryCache();
+
+        anno4j.createQueryService().addCriteria("oa:hasBody").execute();
+        anno4j.createQueryService().addCriteria("oa:hasTarget").execute();
+        anno4j.createQueryService().addCriteria("oa:hasBody").execute();
+
+        assertEquals(0, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(1, cache.getCachedCount());
+    }
+
+    @Test
+    public void testDisabledCache() throws RepositoryException, QueryEvaluationException, MalformedQueryException, ParseException {
+        anno4j.setQueryCacheSize(0);
+
+        for (int i = 0; i < 2; i++) {
+            List<Annotation> list = anno4j.createQueryService()
+                    .addPrefix("ex", "http://www.example.com/schema#")
+                    .addCriteria("oa:hasBody/ex:cacheBodyValue", "First")
+                    .execute();
+            assertEquals(1, list.size());
+        }
+
+        assertEquals(0, anno4j.getQueryCache().getHitCount());
+        assertEquals(0, anno4j.getQueryCache().getCachedCount());
+    }
+
+    @Override
+    public void persistTestData() throws RepositoryException, InstantiationException, IllegalAccessException {
+        Annotation annotation = anno4j.createObject(Annotation.class);
+        CacheBody body = anno4j.createObject(CacheBody.class);
+        body.setValue("First");
+        body.setNumber(1);
+        annotation.addBody(body);
+
+        Annotation annotation1 = anno4j.createObject(Annotation.class);
+        CacheBody body1 = anno4j.createObject(CacheBody.class);
+        body1.setValue("Second");
+        body1.setNumber(2);
+        annotation1.addBody(body1);
+    }
+
+    @Iri("http://www.example.com/schema#cacheBody")
+    public static interface CacheBody extends Body {
+
+        @Iri("http://www.example.com/schema#cacheBodyValue")
+        String getValue();
+
+        @Iri("http://www.example.com/schema#cacheBodyValue")
+        void setValue(String value);
+
+        @Iri("http://www.example.com/schema#cacheBodyNumber")
+        Integer getNumber();
+
+        @Iri("http://www.example.com/schema#cacheBodyNumber")
+        void setNumber(Integer number);
+    }
+}
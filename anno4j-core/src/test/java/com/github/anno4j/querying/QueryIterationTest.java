@@ -0,0 +1,71 @@
+package com.github.anno4j.querying;
+
+import com.github.anno4j.model.Annotation;
+import org.junit.Test;
+import org.openrdf.model.Resource;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.result.Result;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the lazy result mode of the QueryService.
+ */
+public class QueryIterationTest extends QuerySetup {
+
+    private static final int ANNOTATIONS = 10;
+
+    @Test
+    public void testIterateAll() throws Exception {
+        Set<Resource> resources = new HashSet<>();
+
+        Result<Annotation> result = queryService.iterate();
+        try {
+            while (result.hasNext()) {
+                Annotation annotation = result.next();
+                assertTrue(resources.add(annotation.getResource()));
+            }
+        } finally {
+            result.close();
+        }
+
+        assertEquals(ANNOTATIONS, resources.size());
+    }
+
+    @Test
+    public void testIterateRespectsLimitAndOffset() throws Exception {
+        Result<Annotation> result = queryService.limit(3).offset(8).iterate(Annotation.class);
+        try {
+            int count = 0;
+            while (result.hasNext()) {
+                result.next();
+                count++;
+            }
+            assertEquals(2, count);
+        } finally {
+            result.close();
+        }
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws Exception {
+        Result<Annotation> result = queryService.iterate();
+        assertTrue(result.hasNext());
+        result.next();
+        result.close();
+
+        // The connection can still be used after the cursor was closed early
+        assertEquals(ANNOTATIONS, queryService.execute().size());
+    }
+
+    @Override
+    public void persistTestData() throws RepositoryException, InstantiationException, IllegalAccessException {
+        for (int i = 0; i < ANNOTATIONS; i++) {
+            anno4j.createObject(Annotation.class);
+        }
+    }
+}
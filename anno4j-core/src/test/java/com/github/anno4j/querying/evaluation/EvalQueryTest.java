@@ -0,0 +1,58 @@
+package com.github.anno4j.querying.evaluation;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.model.namespaces.OADM;
+import com.github.anno4j.querying.Comparison;
+import com.github.anno4j.querying.Criteria;
+import com.github.anno4j.querying.QueryService;
+import com.github.anno4j.querying.QueryServiceConfiguration;
+import org.apache.marmotta.ldpath.parser.ParseException;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.impl.URIImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests the generation of SPARQL queries from LDPath criteria.
+ */
+public class EvalQueryTest {
+
+    private QueryService queryService;
+
+    @Before
+    public void setUp() throws Exception {
+        queryService = new Anno4j().createQueryService();
+    }
+
+    @Test
+    public void testSameCriteriaCreateSameQuery() throws ParseException {
+        String first = evaluate(
+                new Criteria("oa:hasBody/rdf:value", "Value", Comparison.EQ),
+                new Criteria("oa:hasTarget/oa:hasSource | oa:hasTarget"));
+
+        // Evaluating other criteria in between must not affect the variable names
+        evaluate(new Criteria("oa:hasBody[is-a oa:SpecificResource]/oa:hasSelector/rdf:value"));
+
+        String second = evaluate(
+                new Criteria("oa:hasBody/rdf:value", "Other value", Comparison.EQ),
+                new Criteria("oa:hasTarget/oa:hasSource | oa:hasTarget"));
+
+        assertEquals(first, second);
+        assertFalse(first.contains("Value"));
+    }
+
+    private String evaluate(Criteria... criteria) throws ParseException {
+        QueryServiceConfiguration configuration = new QueryServiceConfiguration();
+        configuration.setConfiguration(queryService.getConfiguration());
+        configuration.setEvaluatorConfiguration(queryService.getEvaluatorConfiguration());
+        configuration.setPrefixes(queryService.getPrefixes());
+
+        for (Criteria c : criteria) {
+            configuration.getCriteria().add(c);
+        }
+
+        return EvalQuery.evaluate(configuration, new URIImpl(OADM.ANNOTATION)).serialize();
+    }
+}
@@ -2,6 +2,7 @@ package com.github.anno4j.querying.extensions;
 
 import com.github.anno4j.model.namespaces.OADM;
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
+import com.github.anno4j.querying.evaluation.VarIDGenerator;
 import com.github.anno4j.querying.evaluation.ldpath.SelfSelectionEvaluator;
 import com.github.anno4j.querying.extension.QueryEvaluator;
 import com.github.anno4j.annotations.Evaluator;
@@ -15,8 +16,8 @@ import org.apache.marmotta.ldpath.api.selectors.NodeSelector;
 @Evaluator(GetSelector.class)
 public class GetSelectorFunctionEvaluator implements QueryEvaluator {
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
-        Var evaluate = new SelfSelectionEvaluator().evaluate(nodeSelector, elementGroup, var, evaluatorConfiguration);
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
+        Var evaluate = new SelfSelectionEvaluator().evaluate(nodeSelector, elementGroup, var, evaluatorConfiguration, varIDGenerator);
         Var target = Var.alloc("target");
         Var selector = Var.alloc("selector");
 
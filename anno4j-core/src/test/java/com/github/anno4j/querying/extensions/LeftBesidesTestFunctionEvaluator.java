@@ -1,6 +1,7 @@
 package com.github.anno4j.querying.extensions;
 
 import com.github.anno4j.querying.evaluation.LDPathEvaluatorConfiguration;
+import com.github.anno4j.querying.evaluation.VarIDGenerator;
 import com.github.anno4j.querying.extension.QueryEvaluator;
 import com.github.anno4j.annotations.Evaluator;
 import com.hp.hpl.jena.sparql.core.Var;
@@ -13,7 +14,7 @@ import org.apache.marmotta.ldpath.model.tests.FunctionTest;
 public class LeftBesidesTestFunctionEvaluator implements QueryEvaluator {
 
     @Override
-    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration) {
+    public Var evaluate(NodeSelector nodeSelector, ElementGroup elementGroup, Var var, LDPathEvaluatorConfiguration evaluatorConfiguration, VarIDGenerator varIDGenerator) {
         TestingSelector testingSelector = (TestingSelector) nodeSelector;
         FunctionTest functionTest = (FunctionTest) testingSelector.getTest();
         LeftBesidesTest leftBesidesTest = (LeftBesidesTest) functionTest.getTest();
@@ -0,0 +1,79 @@
+package com.github.anno4j.transaction;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.model.Annotation;
+import com.github.anno4j.model.impl.body.TextualBody;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.RepositoryException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link Anno4j#findByIDs(Class, java.util.Collection)}.
+ */
+public class FindByIDsTest {
+
+    private static final int ANNOTATIONS = 600;
+
+    private Anno4j anno4j;
+
+    private List<URI> ids;
+
+    @Before
+    public void setUp() throws Exception {
+        this.anno4j = new Anno4j();
+        this.ids = new ArrayList<>(ANNOTATIONS);
+
+        for (int i = 0; i < ANNOTATIONS; i++) {
+            URI id = new URIImpl("http://www.example.com/annotation" + i);
+            anno4j.createObject(Annotation.class, (Resource) id);
+            ids.add(id);
+        }
+    }
+
+    @Test
+    public void testFindsAllChunksInOrder() throws Exception {
+        List<URI> reversed = new ArrayList<>(ids);
+        Collections.reverse(reversed);
+
+        List<Annotation> annotations = anno4j.findByIDs(Annotation.class, reversed);
+
+        assertEquals(ANNOTATIONS, annotations.size());
+        for (int i = 0; i < ANNOTATIONS; i++) {
+            assertEquals(reversed.get(i), annotations.get(i).getResource());
+        }
+    }
+
+    @Test
+    public void testSkipsMissingAndOtherTypes() throws Exception {
+        TextualBody body = anno4j.createObject(TextualBody.class);
+        URI missing = new URIImpl("http://www.example.com/missing");
+
+        List<Annotation> annotations = anno4j.findByIDs(Annotation.class,
+                Arrays.asList(ids.get(1), missing, (URI) body.getResource(), ids.get(0)));
+
+        assertEquals(2, annotations.size());
+        assertEquals(ids.get(1), annotations.get(0).getResource());
+        assertEquals(ids.get(0), annotations.get(1).getResource());
+    }
+
+    @Test(expected = RepositoryException.class)
+    public void testRejectsInvalidIris() throws Exception {
+        anno4j.findByIDs(Annotation.class, Arrays.<URI>asList(new URIImpl("http://www.example.com/a> } #")));
+    }
+
+    @Test
+    public void testEmptyCollection() throws Exception {
+        assertTrue(anno4j.findByIDs(Annotation.class, Collections.<URI>emptyList()).isEmpty());
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.anno4j.transaction;
+
+import com.github.anno4j.Anno4j;
+import com.github.anno4j.connection.ConnectionPool;
+import com.github.anno4j.connection.StatementBuffer;
+import com.github.anno4j.model.Annotation;
+import com.github.anno4j.model.impl.agent.Person;
+import com.github.anno4j.model.namespaces.FOAF;
+import com.github.anno4j.model.impl.ResourceObject;
+import com.github.anno4j.model.impl.body.TextualBody;
+import com.github.anno4j.model.impl.selector.FragmentSelector;
+import com.github.anno4j.model.impl.targets.SpecificResource;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.object.ObjectConnection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link Anno4j#persistAll(java.util.Collection)} and compares it with persisting one object at a time.
+ */
+public class PersistAllTest {
+
+    private static final int ANNOTATIONS = 200;
+
+    private Anno4j source;
+
+    private List<Annotation> annotations;
+
+    @Before
+    public void setUp() throws Exception {
+        this.source = new Anno4j();
+        this.annotations = new ArrayList<>(ANNOTATIONS);
+
+        for (int i = 0; i < ANNOTATIONS; i++) {
+            annotations.add(createAnnotation(i));
+        }
+    }
+
+    @Test
+    public void testPersistAllCopiesObjectGraphs() throws Exception {
+        Anno4j target = new Anno4j();
+        target.setPersistChunkSize(100);
+        target.persistAll(annotations);
+
+        assertEquals(ANNOTATIONS, target.findAll(Annotation.class).size());
+        assertEquals(ANNOTATIONS, target.findAll(TextualBody.class).size());
+        assertEquals(ANNOTATIONS, target.findAll(SpecificResource.class).size());
+        assertEquals(ANNOTATIONS, target.findAll(FragmentSelector.class).size());
+
+        Annotation annotation = target.findByID(Annotation.class, annotations.get(7).getResourceAsString());
+        TextualBody body = (TextualBody) annotation.getBodies().iterator().next();
+        assertEquals("Body 7", body.getValue());
+    }
+
+    @Test
+    public void testPersistAllIntoContext() throws Exception {
+        URI context = new URIImpl("http://www.example.com/TESTGRAPH");
+
+        Anno4j target = new Anno4j();
+        target.persistAll(annotations, context);
+
+        assertEquals(ANNOTATIONS, target.findAll(Annotation.class, context).size());
+        assertEquals(0, target.findAll(Annotation.class, new URIImpl("http://www.example.com/OTHERGRAPH")).size());
+    }
+
+    @Test
+    public void testPersistAllDoesNotCopyStoredResources() throws Exception {
+        URI id = new URIImpl("http://www.example.com/person");
+        Person creator = source.createObject(Person.class, id);
+        creator.setName("Source");
+        for (Annotation annotation : annotations) {
+            annotation.setCreator(creator);
+        }
+
+        Anno4j target = new Anno4j();
+        target.createObject(Person.class, id).setName("Target");
+        target.persistAll(annotations);
+
+        RepositoryConnection connection = target.getRepository().getConnection();
+        try {
+            assertEquals(ANNOTATIONS, connection.getStatements(null, null, id, false).asList().size());
+            assertEquals(1, connection.getStatements(id, new URIImpl(FOAF.NAME), null, false).asList().size());
+            assertEquals("Target", target.findByID(Person.class, id).getName());
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testPersistAllSkipsObjectsOfTheTargetStore() throws Exception {
+        ConnectionPool pool = source.getConnectionPool();
+        ObjectConnection connection = pool.acquire(null);
+        try {
+            StatementBuffer buffer = new StatementBuffer(connection);
+            assertTrue(buffer.addGraphs(annotations).isEmpty());
+            assertEquals(0, buffer.size());
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Persists the same annotations object by object and in bulk, the latter must not be slower.
+     */
+    @Test
+    public void benchmarkPersistAllAgainstPersist() throws Exception {
+        Anno4j single = new Anno4j();
+        long start = System.nanoTime();
+        for (Annotation annotation : annotations) {
+            single.persist(annotation);
+        }
+        long singleTime = System.nanoTime() - start;
+
+        Anno4j bulk = new Anno4j();
+        start = System.nanoTime();
+        bulk.persistAll(annotations);
+        long bulkTime = System.nanoTime() - start;
+
+        assertEquals(single.findAll(Annotation.class).size(), bulk.findAll(Annotation.class).size());
+        assertTrue("Bulk took " + bulkTime / 1000000 + " ms, one by one " + singleTime / 1000000 + " ms", bulkTime <= singleTime);
+    }
+
+    private Annotation createAnnotation(int i) throws RepositoryException, InstantiationException, IllegalAccessException {
+        Annotation annotation = source.createObject(Annotation.class);
+        annotation.setCreated("2015-01-28T12:00:00Z");
+
+        TextualBody body = source.createObject(TextualBody.class);
+        body.setValue("Body " + i);
+        annotation.addBody(body);
+
+        FragmentSelector selector = source.createObject(FragmentSelector.class);
+        selector.setValue("xywh=0,0," + i + "," + i);
+
+        ResourceObject resource = source.createObject(ResourceObject.class, new URIImpl("http://www.example.com/image" + i));
+
+        SpecificResource specificResource = source.createObject(SpecificResource.class);
+        specificResource.setSource(resource);
+        specificResource.setSelector(selector);
+        annotation.addTarget(specificResource);
+
+        return annotation;
+    }
+}